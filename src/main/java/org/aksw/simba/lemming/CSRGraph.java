@@ -0,0 +1,335 @@
+package org.aksw.simba.lemming;
+
+import grph.Grph;
+import grph.algo.MultiThreadProcessing;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+import java.util.Arrays;
+
+import org.aksw.simba.lemming.colour.ColourRegistry;
+
+/**
+ * An immutable snapshot of a {@link ColouredGraph} in compressed sparse row
+ * (CSR) format. The neighbours of a vertex v are stored in the range
+ * [offsets[v], offsets[v+1]) of a single neighbour array together with the IDs
+ * of the edges connecting them with v. Within this range, the neighbours are
+ * sorted, i.e., the number of edges between two vertices can be determined with
+ * a binary search. Besides the outgoing and incoming neighbours, the snapshot
+ * contains an undirected view in which every neighbour is listed once for every
+ * edge connecting it with v (a loop is listed once). The colours are stored as
+ * IDs of the {@link ColourRegistry}.
+ *
+ * In contrast to the methods of {@link Grph}, none of the getters of this class
+ * creates a new set. Hence, metrics can iterate over the snapshot without
+ * allocating memory. Note that the snapshot is not updated if the graph
+ * changes. It can be read concurrently.
+ */
+public class CSRGraph {
+
+    private final int numberOfVertices;
+    private final int numberOfEdges;
+    private final boolean[] vertices;
+
+    private final int[] edgeTails;
+    private final int[] edgeHeads;
+
+    private final int[] outOffsets;
+    private final int[] outNeighbours;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+    private final int[] inNeighbours;
+    private final int[] inEdges;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] edges;
+
+    private final int[] vertexColourIds;
+    private final int[] edgeColourIds;
+
+    public CSRGraph(ColouredGraph graph) {
+        final Grph grph = graph.getGraph();
+        IntSet vertexSet = grph.getVertices();
+        IntSet edgeSet = grph.getEdges();
+        int[] vertexIds = vertexSet.toIntArray();
+        int[] edgeIds = edgeSet.toIntArray();
+        numberOfVertices = vertexIds.length;
+        numberOfEdges = edgeIds.length;
+        vertices = new boolean[maxId(vertexIds) + 1];
+        for (int v : vertexIds) {
+            vertices[v] = true;
+        }
+        int numberOfVertexIds = vertices.length;
+
+        // Grph is only read in this single parallel pass
+        edgeTails = new int[maxId(edgeIds) + 1];
+        edgeHeads = new int[edgeTails.length];
+        Arrays.fill(edgeTails, -1);
+        Arrays.fill(edgeHeads, -1);
+        new MultiThreadProcessing(edgeSet) {
+            @Override
+            protected void run(int threadID, int edgeId) {
+                edgeTails[edgeId] = grph.getDirectedSimpleEdgeTail(edgeId);
+                edgeHeads[edgeId] = grph.getDirectedSimpleEdgeHead(edgeId);
+            }
+        };
+
+        outOffsets = new int[numberOfVertexIds + 1];
+        inOffsets = new int[numberOfVertexIds + 1];
+        offsets = new int[numberOfVertexIds + 1];
+        for (int e : edgeIds) {
+            ++outOffsets[edgeTails[e] + 1];
+            ++inOffsets[edgeHeads[e] + 1];
+            ++offsets[edgeTails[e] + 1];
+            if (edgeTails[e] != edgeHeads[e]) {
+                ++offsets[edgeHeads[e] + 1];
+            }
+        }
+        for (int v = 0; v < numberOfVertexIds; ++v) {
+            outOffsets[v + 1] += outOffsets[v];
+            inOffsets[v + 1] += inOffsets[v];
+            offsets[v + 1] += offsets[v];
+        }
+        outNeighbours = new int[numberOfEdges];
+        outEdges = new int[numberOfEdges];
+        inNeighbours = new int[numberOfEdges];
+        inEdges = new int[numberOfEdges];
+        neighbours = new int[offsets[numberOfVertexIds]];
+        edges = new int[neighbours.length];
+        int[] outPositions = Arrays.copyOf(outOffsets, numberOfVertexIds);
+        int[] inPositions = Arrays.copyOf(inOffsets, numberOfVertexIds);
+        int[] positions = Arrays.copyOf(offsets, numberOfVertexIds);
+        int tail, head;
+        for (int e : edgeIds) {
+            tail = edgeTails[e];
+            head = edgeHeads[e];
+            outNeighbours[outPositions[tail]] = head;
+            outEdges[outPositions[tail]++] = e;
+            inNeighbours[inPositions[head]] = tail;
+            inEdges[inPositions[head]++] = e;
+            neighbours[positions[tail]] = head;
+            edges[positions[tail]++] = e;
+            if (tail != head) {
+                neighbours[positions[head]] = tail;
+                edges[positions[head]++] = e;
+            }
+        }
+        new MultiThreadProcessing(vertexSet) {
+            @Override
+            protected void run(int threadID, int v) {
+                sortRow(outOffsets[v], outOffsets[v + 1], outNeighbours, outEdges);
+                sortRow(inOffsets[v], inOffsets[v + 1], inNeighbours, inEdges);
+                sortRow(offsets[v], offsets[v + 1], neighbours, edges);
+            }
+        };
+
+        vertexColourIds = new int[numberOfVertexIds];
+        Arrays.fill(vertexColourIds, ColourRegistry.NO_COLOUR);
+        for (int v : vertexIds) {
+            vertexColourIds[v] = graph.getVertexColourId(v);
+        }
+        edgeColourIds = new int[edgeTails.length];
+        Arrays.fill(edgeColourIds, ColourRegistry.NO_COLOUR);
+        for (int e : edgeIds) {
+            edgeColourIds[e] = graph.getEdgeColourId(e);
+        }
+    }
+
+    private static int maxId(int[] ids) {
+        int max = -1;
+        for (int id : ids) {
+            if (id > max) {
+                max = id;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Sorts the given range of the neighbour array and moves the edge IDs
+     * accordingly. Neighbour and edge are packed into a single long so that the
+     * edges of the same neighbour are sorted by their IDs.
+     */
+    private static void sortRow(int from, int to, int[] rowNeighbours, int[] rowEdges) {
+        if (to - from < 2) {
+            return;
+        }
+        long[] pairs = new long[to - from];
+        for (int i = from; i < to; ++i) {
+            pairs[i - from] = (((long) rowNeighbours[i]) << 32) | rowEdges[i];
+        }
+        Arrays.sort(pairs);
+        for (int i = from; i < to; ++i) {
+            rowNeighbours[i] = (int) (pairs[i - from] >>> 32);
+            rowEdges[i] = (int) pairs[i - from];
+        }
+    }
+
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
+    /**
+     * @return the largest vertex ID + 1, i.e., the size of arrays indexed by
+     *         vertex IDs
+     */
+    public int getNumberOfVertexIds() {
+        return vertices.length;
+    }
+
+    /**
+     * @return the largest edge ID + 1, i.e., the size of arrays indexed by edge
+     *         IDs
+     */
+    public int getNumberOfEdgeIds() {
+        return edgeTails.length;
+    }
+
+    public boolean isVertex(int vertex) {
+        return (vertex >= 0) && (vertex < vertices.length) && vertices[vertex];
+    }
+
+    public boolean isEdge(int edge) {
+        return (edge >= 0) && (edge < edgeTails.length) && (edgeTails[edge] >= 0);
+    }
+
+    public int getTail(int edge) {
+        return edgeTails[edge];
+    }
+
+    public int getHead(int edge) {
+        return edgeHeads[edge];
+    }
+
+    public int getOutDegree(int vertex) {
+        return outOffsets[vertex + 1] - outOffsets[vertex];
+    }
+
+    public int getInDegree(int vertex) {
+        return inOffsets[vertex + 1] - inOffsets[vertex];
+    }
+
+    /**
+     * @return the number of edges incident to the given vertex. A loop is
+     *         counted once.
+     */
+    public int getDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * The outgoing neighbours of the vertex v are stored in
+     * {@link #getOutNeighbours()} from position getOutOffsets()[v] (inclusive) to
+     * getOutOffsets()[v+1] (exclusive). The returned array must not be changed.
+     */
+    public int[] getOutOffsets() {
+        return outOffsets;
+    }
+
+    public int[] getOutNeighbours() {
+        return outNeighbours;
+    }
+
+    /**
+     * @return the IDs of the edges leading to the neighbours at the same
+     *         positions in {@link #getOutNeighbours()}
+     */
+    public int[] getOutEdges() {
+        return outEdges;
+    }
+
+    public int[] getInOffsets() {
+        return inOffsets;
+    }
+
+    public int[] getInNeighbours() {
+        return inNeighbours;
+    }
+
+    public int[] getInEdges() {
+        return inEdges;
+    }
+
+    /**
+     * The offsets of the undirected view, i.e., the neighbours of the vertex v
+     * connected by an incoming or outgoing edge are stored in
+     * {@link #getNeighbours()} from position getOffsets()[v] (inclusive) to
+     * getOffsets()[v+1] (exclusive).
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getNeighbours() {
+        return neighbours;
+    }
+
+    public int[] getEdges() {
+        return edges;
+    }
+
+    /**
+     * Counts the edges connecting the two given vertices in either direction
+     * using a binary search in the neighbours of the vertex with the lower
+     * degree.
+     */
+    public int getNumberOfEdgesBetween(int v1, int v2) {
+        if (getDegree(v1) > getDegree(v2)) {
+            int temp = v1;
+            v1 = v2;
+            v2 = temp;
+        }
+        int from = lowerBound(neighbours, offsets[v1], offsets[v1 + 1], v2);
+        int to = lowerBound(neighbours, from, offsets[v1 + 1], v2 + 1);
+        return to - from;
+    }
+
+    /**
+     * @return true if at least one edge connects the two given vertices
+     */
+    public boolean isConnected(int v1, int v2) {
+        if (getDegree(v1) > getDegree(v2)) {
+            int temp = v1;
+            v1 = v2;
+            v2 = temp;
+        }
+        int position = lowerBound(neighbours, offsets[v1], offsets[v1 + 1], v2);
+        return (position < offsets[v1 + 1]) && (neighbours[position] == v2);
+    }
+
+    /**
+     * @return the first position in the given sorted range with a value larger
+     *         or equal to the given value
+     */
+    private static int lowerBound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (array[middle] < value) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * @return the ID of the colour of the given vertex in the
+     *         {@link ColourRegistry}
+     */
+    public int getVertexColourId(int vertex) {
+        return vertexColourIds[vertex];
+    }
+
+    /**
+     * @return the ID of the colour of the given edge in the
+     *         {@link ColourRegistry} or {@link ColourRegistry#NO_COLOUR} if the
+     *         edge does not exist
+     */
+    public int getEdgeColourId(int edge) {
+        return edgeColourIds[edge];
+    }
+}
@@ -5,6 +5,7 @@ import grph.Grph;
 import grph.GrphAlgorithmCache;
 import grph.algo.MultiThreadProcessing;
 import grph.in_memory.InMemoryGrph;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
 import java.util.ArrayList;
@@ -14,24 +15,44 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.simba.lemming.colour.ColourPalette;
-import org.aksw.simba.lemming.grph.DiameterAlgorithm;
+import org.aksw.simba.lemming.colour.ColourRegistry;
+import org.aksw.simba.lemming.grph.IFubDiameterAlgorithm;
+import org.aksw.simba.lemming.metrics.single.VertexDegreeStatistics;
 import org.aksw.simba.lemming.util.Constants;
+import org.aksw.simba.lemming.util.SamplingIntSet;
 import org.apache.jena.vocabulary.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.ObjectArrayList;
 
 public class ColouredGraph {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ColouredGraph.class);
 
+    /**
+     * Graphs with less vertices per available thread are cloned by a single
+     * thread.
+     */
+    private static final int MIN_VERTICES_PER_CLONING_PARTITION = 10000;
+
     protected Grph graph;
-    protected ObjectArrayList<BitSet> vertexColours = new ObjectArrayList<BitSet>();
-    protected ObjectArrayList<BitSet> edgeColours = new ObjectArrayList<BitSet>();
+    /*
+     * The colours of the vertices and edges are stored as IDs of the colour
+     * registry. A removed edge has the ID ColourRegistry.NO_COLOUR.
+     */
+    protected IntArrayList vertexColours = new IntArrayList();
+    protected IntArrayList edgeColours = new IntArrayList();
+    protected ColourRegistry colourRegistry = ColourRegistry.getInstance();
     protected ColourPalette vertexPalette;
     protected ColourPalette edgePalette;
     protected ColourPalette dtEdgePalette;
@@ -49,6 +70,24 @@ public class ColouredGraph {
 
     protected GrphAlgorithmCache<Integer> diameterAlgorithm;
 
+    /*
+     * IDs of all edges which are not rdf:type edges. The set is created on demand
+     * and is kept up to date while edges are added or removed.
+     */
+    protected SamplingIntSet removableEdges;
+
+    /*
+     * Compressed snapshot of the graph which is created on demand and discarded
+     * as soon as the graph or its colours change.
+     */
+    protected CSRGraph csrGraph;
+
+    /*
+     * In- and out-degree histograms of the vertices which are created on demand
+     * and are kept up to date while vertices and edges are added or removed.
+     */
+    protected VertexDegreeStatistics degreeStatistics;
+
     public ColouredGraph() {
         this(null, null);
     }
@@ -87,15 +126,33 @@ public class ColouredGraph {
 
     protected void setGraph(Grph graph) {
         this.graph = graph;
-        diameterAlgorithm = new DiameterAlgorithm().cacheResultForGraph(graph);
+        removableEdges = null;
+        csrGraph = null;
+        degreeStatistics = null;
+        diameterAlgorithm = new IFubDiameterAlgorithm().cacheResultForGraph(graph);
     }
 
+    /**
+     * @return a new list containing the colour of every vertex
+     */
     public ObjectArrayList<BitSet> getVertexColours() {
-        return vertexColours;
+        return toColourList(vertexColours);
     }
 
+    /**
+     * @return a new list containing the colour of every edge (null for removed
+     *         edges)
+     */
     public ObjectArrayList<BitSet> getEdgeColours() {
-        return edgeColours;
+        return toColourList(edgeColours);
+    }
+
+    private ObjectArrayList<BitSet> toColourList(IntArrayList colourIds) {
+        ObjectArrayList<BitSet> colours = new ObjectArrayList<BitSet>(colourIds.elementsCount);
+        for (int i = 0; i < colourIds.elementsCount; ++i) {
+            colours.add(colourRegistry.getColour(colourIds.buffer[i]));
+        }
+        return colours;
     }
 
     public int addVertex() {
@@ -103,8 +160,20 @@ public class ColouredGraph {
     }
 
     public int addVertex(BitSet colour) {
+        return addVertex(colourRegistry.getId(colour));
+    }
+
+    /**
+     * Adds a vertex with the colour that has the given ID in the
+     * {@link ColourRegistry}.
+     */
+    public int addVertex(int colourId) {
         int id = graph.addVertex();
-        vertexColours.add(colour);
+        vertexColours.add(colourId);
+        csrGraph = null;
+        if (degreeStatistics != null) {
+            degreeStatistics.addVertex(id);
+        }
         return id;
     }
 
@@ -116,37 +185,86 @@ public class ColouredGraph {
         // Since we are using an array list, we can not simply remove the edge as this
         // would move all the other edge colours. Therefore, we set the colour to null
         // to indicate that the edge does not exist.
-        edgeColours.set(edgeId, null);
+        edgeColours.set(edgeId, ColourRegistry.NO_COLOUR);
+        if (degreeStatistics != null) {
+            degreeStatistics.removeEdge(graph.getDirectedSimpleEdgeTail(edgeId),
+                    graph.getDirectedSimpleEdgeHead(edgeId));
+        }
         graph.removeEdge(edgeId);
+        csrGraph = null;
+        if (removableEdges != null) {
+            removableEdges.remove(edgeId);
+        }
     }
 
     public int addEdge(int tail, int head, BitSet colour) {
+        return addEdge(tail, head, colourRegistry.getId(colour));
+    }
+
+    /**
+     * Adds an edge with the colour that has the given ID in the
+     * {@link ColourRegistry}.
+     */
+    public int addEdge(int tail, int head, int colourId) {
         int edgeId = graph.addDirectedSimpleEdge(tail, head);
+        setAddedEdgeColour(edgeId, colourId);
+        if (degreeStatistics != null) {
+            degreeStatistics.addEdge(tail, head);
+        }
+        return edgeId;
+    }
 
+    /**
+     * Adds an edge with the given ID, e.g., to undo the removal of this edge.
+     * The ID must not be used by another edge.
+     */
+    public void restoreEdge(int edgeId, int tail, int head, int colourId) {
+        graph.addDirectedSimpleEdge(tail, edgeId, head);
+        setAddedEdgeColour(edgeId, colourId);
+        if (degreeStatistics != null) {
+            degreeStatistics.addEdge(tail, head);
+        }
+    }
+
+    private void setAddedEdgeColour(int edgeId, int colourId) {
+        while (edgeColours.elementsCount < edgeId) {
+            edgeColours.add(ColourRegistry.NO_COLOUR);
+        }
         if (edgeColours.elementsCount > edgeId) {
-            edgeColours.set(edgeId, colour);
+            edgeColours.set(edgeId, colourId);
         } else {
-            edgeColours.add(colour);
+            edgeColours.add(colourId);
+        }
+        csrGraph = null;
+        if ((removableEdges != null) && isRemovableEdgeColour(colourRegistry.getColour(colourId))) {
+            removableEdges.add(edgeId);
         }
-
-        return edgeId;
     }
 
     public void setVertexColour(int vertexId, BitSet colour) {
         if (vertexId < vertexColours.elementsCount) {
-            ((Object[]) vertexColours.buffer)[vertexId] = colour;
+            vertexColours.buffer[vertexId] = colourRegistry.getId(colour);
+            csrGraph = null;
         }
     }
 
     public void setEdgeColour(int edgeId, BitSet colour) {
         if (edgeId < edgeColours.elementsCount) {
-            ((Object[]) edgeColours.buffer)[edgeId] = colour;
+            edgeColours.buffer[edgeId] = colourRegistry.getId(colour);
+            csrGraph = null;
+            if (removableEdges != null) {
+                if (isRemovableEdgeColour(colour)) {
+                    removableEdges.add(edgeId);
+                } else {
+                    removableEdges.remove(edgeId);
+                }
+            }
         }
     }
 
     public BitSet getVertexColour(int vertexId) {
         if (vertexId < vertexColours.elementsCount) {
-            return (BitSet) ((Object[]) vertexColours.buffer)[vertexId];
+            return colourRegistry.getColour(vertexColours.buffer[vertexId]);
         } else {
             return new BitSet();
         }
@@ -154,13 +272,35 @@ public class ColouredGraph {
 
     public BitSet getEdgeColour(int edgeId) {
         if (edgeId < edgeColours.elementsCount) {
-            return (BitSet) ((Object[]) edgeColours.buffer)[edgeId];
+            return colourRegistry.getColour(edgeColours.buffer[edgeId]);
         } else {
             // return new BitSet();
             return null;
         }
     }
 
+    /**
+     * @return the ID of the vertex colour in the {@link ColourRegistry} or
+     *         {@link ColourRegistry#NO_COLOUR} if the vertex does not exist
+     */
+    public int getVertexColourId(int vertexId) {
+        if (vertexId < vertexColours.elementsCount) {
+            return vertexColours.buffer[vertexId];
+        }
+        return ColourRegistry.NO_COLOUR;
+    }
+
+    /**
+     * @return the ID of the edge colour in the {@link ColourRegistry} or
+     *         {@link ColourRegistry#NO_COLOUR} if the edge does not exist
+     */
+    public int getEdgeColourId(int edgeId) {
+        if (edgeId < edgeColours.elementsCount) {
+            return edgeColours.buffer[edgeId];
+        }
+        return ColourRegistry.NO_COLOUR;
+    }
+
     public ColourPalette getVertexPalette() {
         return vertexPalette;
     }
@@ -213,6 +353,13 @@ public class ColouredGraph {
     	return graph.getVerticesAccessibleThrough(vertexId, edgeId);
     }
 
+    /**
+     * @return the directed diameter of this graph, i.e., the longest of the
+     *         shortest paths following the directions of the edges (see
+     *         {@link IFubDiameterAlgorithm})
+     * @throws IllegalStateException
+     *             if the graph is not connected
+     */
     public int getDiameter() {
         return diameterAlgorithm.compute(graph);
     }
@@ -242,9 +389,10 @@ public class ColouredGraph {
      * @param inVertexColours
      */
     public void setVertexColours(ObjectArrayList<BitSet> inVertexColours) {
-        vertexColours = new ObjectArrayList<BitSet>();
+        csrGraph = null;
+        vertexColours = new IntArrayList(inVertexColours.size());
         for (int i = 0; i < inVertexColours.size(); ++i) {
-            vertexColours.add(inVertexColours.get(i));
+            vertexColours.add(colourRegistry.getId(inVertexColours.get(i)));
         }
     }
 
@@ -254,9 +402,11 @@ public class ColouredGraph {
      * @param inEdgeColours
      */
     public void setEdgeColours(ObjectArrayList<BitSet> inEdgeColours) {
-        edgeColours = new ObjectArrayList<BitSet>();
+        removableEdges = null;
+        csrGraph = null;
+        edgeColours = new IntArrayList(inEdgeColours.size());
         for (int i = 0; i < inEdgeColours.size(); ++i) {
-            edgeColours.add(inEdgeColours.get(i));
+            edgeColours.add(colourRegistry.getId(inEdgeColours.get(i)));
         }
     }
     
@@ -267,9 +417,10 @@ public class ColouredGraph {
      */
     public void setVertexColours(Map<Integer, BitSet> inVertexColours) {
     	int maxElement = Collections.max(inVertexColours.keySet());
-        vertexColours = new ObjectArrayList<BitSet>();
+        csrGraph = null;
+        vertexColours = new IntArrayList(maxElement);
         for (int i = 0; i < maxElement; ++i) {
-            vertexColours.add(inVertexColours.get(i));
+            vertexColours.add(colourRegistry.getId(inVertexColours.get(i)));
         }
     }
 
@@ -280,55 +431,118 @@ public class ColouredGraph {
      */
     public void setEdgeColours(Map<Integer, BitSet> inEdgeColours) {
     	//int maxElement = Collections.max(inEdgeColours.keySet());
-        edgeColours = new ObjectArrayList<BitSet>();
+        removableEdges = null;
+        csrGraph = null;
+        edgeColours = new IntArrayList(inEdgeColours.size());
         for (int i = 0; i < inEdgeColours.size(); ++i) {
-            edgeColours.add(inEdgeColours.get(i));
+            edgeColours.add(colourRegistry.getId(inEdgeColours.get(i)));
         }
     }
 
     /**
-     * Clone the current instance of coloured graph to a new object
+     * Creates a deep copy of this graph which has the same vertex and edge IDs,
+     * colours, palettes and literals. The topology is read in parallel, see
+     * {@link #cloneTopology()}.
      */
     @Override
     public ColouredGraph clone() {
+        ColouredGraph cloneGrph = new ColouredGraph(cloneTopology(), vertexPalette, edgePalette, dtEdgePalette);
+        // the colour IDs are the same in both graphs
+        cloneGrph.vertexColours = vertexColours.clone();
+        cloneGrph.edgeColours = edgeColours.clone();
+        // the colours and literals themselves are not changed, only the maps
+        for (Map.Entry<Integer, Map<BitSet, List<String>>> entry : mapVertexIdAndLiterals.entrySet()) {
+            Map<BitSet, List<String>> literals = new HashMap<BitSet, List<String>>(2 * entry.getValue().size());
+            for (Map.Entry<BitSet, List<String>> values : entry.getValue().entrySet()) {
+                literals.put(values.getKey(), new ArrayList<String>(values.getValue()));
+            }
+            cloneGrph.mapVertexIdAndLiterals.put(entry.getKey(), literals);
+        }
+        cloneGrph.mapLiteralTypes.putAll(mapLiteralTypes);
+        return cloneGrph;
+    }
+
+    /**
+     * Creates a deep copy of this graph. Same as {@link #clone()}.
+     */
+    public ColouredGraph copy() {
+        return clone();
+    }
+
+    /**
+     * Copies the vertices and edges of the graph. The edges are collected in
+     * parallel by splitting the vertices into ranges. Every range gets its own
+     * pre-sized buffers for the out-going edges of its vertices, so that the
+     * threads do not share any state. Afterwards, the buffers are loaded into
+     * the new graph one after the other without any locking. An edge keeps its
+     * ID, its tail and its head.
+     */
+    protected Grph cloneTopology() {
         Grph rawClonedGrph = new InMemoryGrph();
         rawClonedGrph.addVertices(graph.getVertices());
-        new MultiThreadProcessing(graph.getEdges()) {
-
-            @Override
-            protected void run(int threadID, int edgeID) {
-                synchronized (rawClonedGrph) {
-                    IntSet vertexIDs = graph.getVerticesIncidentToEdge(edgeID);
-                    int[] arrVertIDs = vertexIDs.toIntArray();
-                    if (arrVertIDs.length == 2) {
-                        rawClonedGrph.addDirectedSimpleEdge(arrVertIDs[0], edgeID, arrVertIDs[1]);
-                    } else {
-                        if (arrVertIDs.length == 1) {
-                            rawClonedGrph.addDirectedSimpleEdge(arrVertIDs[0], edgeID, arrVertIDs[0]);
-                        } else {
-                            System.out.println(" -- edge id : " + edgeID + " has only " + arrVertIDs.length + "");
-                        }
+        final int[] vertices = graph.getVertices().toIntArray();
+        int numberOfThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                vertices.length / MIN_VERTICES_PER_CLONING_PARTITION));
+        List<int[]> buffers = new ArrayList<int[]>();
+        if (numberOfThreads == 1) {
+            buffers.add(collectOutEdges(vertices, 0, vertices.length));
+        } else {
+            // a few more partitions than threads balance vertices with many edges
+            int numberOfPartitions = 4 * numberOfThreads;
+            List<Callable<int[]>> partitions = new ArrayList<Callable<int[]>>(numberOfPartitions);
+            for (int p = 0; p < numberOfPartitions; ++p) {
+                final int from = (int) (((long) vertices.length * p) / numberOfPartitions);
+                final int to = (int) (((long) vertices.length * (p + 1)) / numberOfPartitions);
+                partitions.add(new Callable<int[]>() {
+                    @Override
+                    public int[] call() {
+                        return collectOutEdges(vertices, from, to);
                     }
+                });
+            }
+            ExecutorService service = Executors.newFixedThreadPool(numberOfThreads);
+            try {
+                for (Future<int[]> future : service.invokeAll(partitions)) {
+                    buffers.add(future.get());
                 }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Couldn't collect the edges of the graph.", e);
+            } finally {
+                service.shutdown();
             }
-        };
-
-        ColouredGraph cloneGrph = new ColouredGraph(rawClonedGrph, vertexPalette, edgePalette, dtEdgePalette);
-        cloneGrph.setVertexColours(vertexColours);
-        cloneGrph.setEdgeColours(edgeColours);
-
-        // --------------------------------------------------------
-        // TODO set literal of the old graph to the new graph here
-        // May be not necessary, since all original graphs are
-        // not cloned instead of the mimic graph and the mimic graph
-        // has not had any literals yet
-        // --------------------------------------------------------
+        }
 
-        return cloneGrph;
+        for (int[] buffer : buffers) {
+            for (int i = 0; i < buffer.length; i += 3) {
+                rawClonedGrph.addDirectedSimpleEdge(buffer[i], buffer[i + 1], buffer[i + 2]);
+            }
+        }
+        return rawClonedGrph;
     }
 
-    public ColouredGraph copy() {
-        return new ColouredGraph(graph.clone(), vertexPalette, edgePalette);
+    /**
+     * Collects the out-going edges of the vertices from the given range as
+     * (tail, edge ID, head) triples. Every edge is collected exactly once since
+     * it has a single tail.
+     */
+    private int[] collectOutEdges(int[] vertices, int from, int to) {
+        int size = 0;
+        for (int i = from; i < to; ++i) {
+            size += graph.getOutEdges(vertices[i]).size();
+        }
+        int[] buffer = new int[3 * size];
+        int pos = 0;
+        for (int i = from; i < to; ++i) {
+            IntIterator iterator = graph.getOutEdges(vertices[i]).iterator();
+            while (iterator.hasNext()) {
+                int edgeId = iterator.nextInt();
+                buffer[pos] = vertices[i];
+                buffer[pos + 1] = edgeId;
+                buffer[pos + 2] = graph.getDirectedSimpleEdgeHead(edgeId);
+                pos += 3;
+            }
+        }
+        return buffer;
     }
 
     public int getTailOfTheEdge(int edgeId) {
@@ -637,6 +851,8 @@ public class ColouredGraph {
 
     public void setEdgePalette(ColourPalette newEdgePalette) {
         edgePalette = newEdgePalette;
+        // the colour of rdf:type might have changed
+        removableEdges = null;
     }
 
     public void setVertexPalette(ColourPalette newVertexPalette) {
@@ -659,6 +875,75 @@ public class ColouredGraph {
         return false;
     }
 
+    /**
+     * Returns the IDs of all edges which are not rdf:type edges and may be
+     * removed, e.g., while optimizing a mimic graph. The set is created with the
+     * first call of this method and is updated with every added or removed edge
+     * afterwards. Hence, drawing a random removable edge is possible in constant
+     * time. The returned set must not be changed.
+     * 
+     * @return the IDs of all edges which are not rdf:type edges
+     */
+    public SamplingIntSet getRemovableEdges() {
+        if (removableEdges == null) {
+            IntSet edges = graph.getEdges();
+            SamplingIntSet newRemovableEdges = new SamplingIntSet(edges.size());
+            for (int edgeId : edges.toIntArray()) {
+                if (isRemovableEdgeColour(getEdgeColour(edgeId))) {
+                    newRemovableEdges.add(edgeId);
+                }
+            }
+            removableEdges = newRemovableEdges;
+        }
+        return removableEdges;
+    }
+
+    private boolean isRemovableEdgeColour(BitSet colour) {
+        return (colour != null) && ((edgePalette == null) || !edgePalette.isColourOfRDFType(colour));
+    }
+
+    /**
+     * Returns an immutable snapshot of this graph in compressed sparse row
+     * format. The snapshot is created with the first call of this method and
+     * is reused until the graph or one of its colours changes. Note that the
+     * returned snapshot is not updated if the graph changes afterwards.
+     * 
+     * @return a compressed snapshot of this graph
+     */
+    public CSRGraph getCSRGraph() {
+        CSRGraph snapshot = csrGraph;
+        if (snapshot == null) {
+            snapshot = new CSRGraph(this);
+            csrGraph = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the in- and out-degree statistics of this graph, e.g., the
+     * maximum degrees and the standard deviations of the degrees. The
+     * statistics are created with the first call of this method and are updated
+     * with every vertex and edge which is added to or removed from this graph
+     * afterwards. Note that changes made directly to the underlying
+     * {@link Grph} are not tracked.
+     * 
+     * @return the degree statistics of this graph
+     */
+    public VertexDegreeStatistics getDegreeStatistics() {
+        if (degreeStatistics == null) {
+            degreeStatistics = new VertexDegreeStatistics(this);
+        }
+        return degreeStatistics;
+    }
+
+    /**
+     * @return true if the degree statistics of this graph exist and are kept up
+     *         to date, see {@link #getDegreeStatistics()}
+     */
+    public boolean hasDegreeStatistics() {
+        return degreeStatistics != null;
+    }
+
     public BitSet getRDFTypePropertyColour() {
         return edgePalette.getColour(RDF.type.toString());
     }
@@ -0,0 +1,591 @@
+package org.aksw.simba.lemming;
+
+import grph.Grph;
+import grph.in_memory.InMemoryGrph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.aksw.simba.lemming.colour.ColourPalette;
+import org.aksw.simba.lemming.colour.ColourRegistry;
+import org.aksw.simba.lemming.colour.InMemoryPalette;
+
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+/**
+ * A versioned binary format for {@link ColouredGraph}s. The topology and the
+ * colours of a graph are stored as primitive arrays, so a graph can be read
+ * from a memory mapped file without parsing any RDF. Palettes which are shared
+ * by several graphs are stored only once and are shared again after reading.
+ * Files which are too large to be mapped into memory at once are read through
+ * a buffered stream instead.
+ *
+ * The layout of a file is (all numbers are big endian ints, strings are stored
+ * as their UTF-8 length followed by their bytes, a length of -1 marks null and
+ * a colour is stored as its number of words followed by the words as longs):
+ *
+ * <pre>
+ * header:   MAGIC, VERSION
+ * palettes: count, per palette: highest colour ID, number of URIs, (URI, colour)*
+ * graphs:   count, per graph:
+ *           vertex, edge and data typed edge palette index (-1 = null),
+ *           colour table: count, colour*
+ *           vertices: count, vertex ID*
+ *           edges: count, edge ID*, tail*, head*
+ *           vertex colours: count, colour table index* (-1 = no colour)
+ *           edge colours: count, colour table index* (-1 = no colour)
+ *           literals: count, per vertex: vertex ID, count,
+ *                     per colour: colour table index, count, literal*
+ *           literal types: count, (colour table index, type)*
+ * </pre>
+ */
+public class ColouredGraphBinaryFormat {
+
+    /**
+     * "LMGG" - the first bytes of every file in this format.
+     */
+    public static final int MAGIC = 0x4C4D4747;
+    /**
+     * Has to be increased whenever the layout changes.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Number of ints that are written at once.
+     */
+    private static final int WRITE_BLOCK_SIZE = 1 << 14;
+    /**
+     * Number of bytes that are read at once from a file which is too large to
+     * be mapped into memory.
+     */
+    private static final int STREAM_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * @return true if the given file starts with the {@link #MAGIC} of this
+     *         format
+     */
+    public static boolean isBinaryGraphFile(File file) {
+        if (!file.isFile() || file.length() < 4) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return raf.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the given graphs to the given file. The graphs are written to a
+     * temporary file first which replaces the given file afterwards, i.e., a
+     * reader will never see a partially written file.
+     */
+    public static void write(ColouredGraph[] graphs, File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16))) {
+            write(graphs, out);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static void write(ColouredGraph[] graphs, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        List<ColourPalette> palettes = new ArrayList<ColourPalette>();
+        Map<ColourPalette, Integer> paletteIndexes = new IdentityHashMap<ColourPalette, Integer>();
+        for (ColouredGraph graph : graphs) {
+            addPalette(graph.vertexPalette, palettes, paletteIndexes);
+            addPalette(graph.edgePalette, palettes, paletteIndexes);
+            addPalette(graph.dtEdgePalette, palettes, paletteIndexes);
+        }
+        out.writeInt(palettes.size());
+        for (ColourPalette palette : palettes) {
+            writePalette(palette, out);
+        }
+
+        out.writeInt(graphs.length);
+        for (ColouredGraph graph : graphs) {
+            writeGraph(graph, paletteIndexes, out);
+        }
+    }
+
+    private static void addPalette(ColourPalette palette, List<ColourPalette> palettes,
+            Map<ColourPalette, Integer> paletteIndexes) {
+        if ((palette != null) && !paletteIndexes.containsKey(palette)) {
+            paletteIndexes.put(palette, palettes.size());
+            palettes.add(palette);
+        }
+    }
+
+    private static void writePalette(ColourPalette palette, DataOutputStream out) throws IOException {
+        out.writeInt(palette.getHighestColourId());
+        Map<String, BitSet> uriColourMap = palette.getMapOfURIAndColour();
+        out.writeInt(uriColourMap.size());
+        for (Entry<String, BitSet> entry : uriColourMap.entrySet()) {
+            writeString(entry.getKey(), out);
+            writeColour(entry.getValue(), out);
+        }
+    }
+
+    private static void writeGraph(ColouredGraph graph, Map<ColourPalette, Integer> paletteIndexes,
+            DataOutputStream out) throws IOException {
+        out.writeInt(getIndex(graph.vertexPalette, paletteIndexes));
+        out.writeInt(getIndex(graph.edgePalette, paletteIndexes));
+        out.writeInt(getIndex(graph.dtEdgePalette, paletteIndexes));
+
+        // the colour table maps the IDs of the colour registry (which are only
+        // valid within this JVM) to the positions of the colours in the file
+        ColourRegistry registry = ColourRegistry.getInstance();
+        IntArrayList colourTable = new IntArrayList();
+        IntIntOpenHashMap tableIndexes = new IntIntOpenHashMap();
+        int[] vertexColours = toTableIndexes(graph.vertexColours, colourTable, tableIndexes);
+        int[] edgeColours = toTableIndexes(graph.edgeColours, colourTable, tableIndexes);
+        Map<BitSet, Integer> literalColours = new HashMap<BitSet, Integer>();
+        for (Map<BitSet, List<String>> literals : graph.mapVertexIdAndLiterals.values()) {
+            for (BitSet colour : literals.keySet()) {
+                addLiteralColour(colour, literalColours, registry, colourTable, tableIndexes);
+            }
+        }
+        for (BitSet colour : graph.mapLiteralTypes.keySet()) {
+            addLiteralColour(colour, literalColours, registry, colourTable, tableIndexes);
+        }
+        out.writeInt(colourTable.size());
+        for (int i = 0; i < colourTable.size(); ++i) {
+            writeColour(registry.getColour(colourTable.get(i)), out);
+        }
+
+        Grph grph = graph.getGraph();
+        writeInts(grph.getVertices().toIntArray(), out);
+        int[] edges = grph.getEdges().toIntArray();
+        int[] tails = new int[edges.length];
+        int[] heads = new int[edges.length];
+        for (int i = 0; i < edges.length; ++i) {
+            tails[i] = grph.getDirectedSimpleEdgeTail(edges[i]);
+            heads[i] = grph.getDirectedSimpleEdgeHead(edges[i]);
+        }
+        writeInts(edges, out);
+        writeInts(tails, 0, tails.length, out);
+        writeInts(heads, 0, heads.length, out);
+        writeInts(vertexColours, out);
+        writeInts(edgeColours, out);
+
+        out.writeInt(graph.mapVertexIdAndLiterals.size());
+        for (Entry<Integer, Map<BitSet, List<String>>> vertexLiterals : graph.mapVertexIdAndLiterals.entrySet()) {
+            out.writeInt(vertexLiterals.getKey());
+            out.writeInt(vertexLiterals.getValue().size());
+            for (Entry<BitSet, List<String>> literals : vertexLiterals.getValue().entrySet()) {
+                out.writeInt(literalColours.get(literals.getKey()));
+                out.writeInt(literals.getValue().size());
+                for (String literal : literals.getValue()) {
+                    writeString(literal, out);
+                }
+            }
+        }
+        out.writeInt(graph.mapLiteralTypes.size());
+        for (Entry<BitSet, String> literalType : graph.mapLiteralTypes.entrySet()) {
+            out.writeInt(literalColours.get(literalType.getKey()));
+            writeString(literalType.getValue(), out);
+        }
+    }
+
+    private static int getIndex(ColourPalette palette, Map<ColourPalette, Integer> paletteIndexes) {
+        return palette == null ? -1 : paletteIndexes.get(palette);
+    }
+
+    private static int[] toTableIndexes(IntArrayList colourIds, IntArrayList colourTable,
+            IntIntOpenHashMap tableIndexes) {
+        int[] indexes = new int[colourIds.size()];
+        for (int i = 0; i < indexes.length; ++i) {
+            indexes[i] = toTableIndex(colourIds.buffer[i], colourTable, tableIndexes);
+        }
+        return indexes;
+    }
+
+    private static int toTableIndex(int colourId, IntArrayList colourTable, IntIntOpenHashMap tableIndexes) {
+        if (colourId == ColourRegistry.NO_COLOUR) {
+            return -1;
+        }
+        if (tableIndexes.containsKey(colourId)) {
+            return tableIndexes.lget();
+        }
+        int index = colourTable.size();
+        colourTable.add(colourId);
+        tableIndexes.put(colourId, index);
+        return index;
+    }
+
+    private static void addLiteralColour(BitSet colour, Map<BitSet, Integer> literalColours,
+            ColourRegistry registry, IntArrayList colourTable, IntIntOpenHashMap tableIndexes) {
+        if (!literalColours.containsKey(colour)) {
+            literalColours.put(colour, toTableIndex(registry.getId(colour), colourTable, tableIndexes));
+        }
+    }
+
+    public static void writeInts(int[] values, DataOutputStream out) throws IOException {
+        out.writeInt(values.length);
+        writeInts(values, 0, values.length, out);
+    }
+
+    /**
+     * Writes the given range of the array in blocks through a byte buffer
+     * instead of writing every single int to the stream.
+     */
+    public static void writeInts(int[] values, int from, int to, DataOutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(to - from, WRITE_BLOCK_SIZE) << 2);
+        IntBuffer intBuffer = buffer.asIntBuffer();
+        for (int start = from; start < to; start += WRITE_BLOCK_SIZE) {
+            int length = Math.min(to - start, WRITE_BLOCK_SIZE);
+            intBuffer.clear();
+            intBuffer.put(values, start, length);
+            out.write(buffer.array(), 0, length << 2);
+        }
+    }
+
+    public static void writeColour(BitSet colour, DataOutputStream out) throws IOException {
+        int numberOfWords = colour.wlen;
+        out.writeInt(numberOfWords);
+        for (int i = 0; i < numberOfWords; ++i) {
+            out.writeLong(colour.bits[i]);
+        }
+    }
+
+    public static void writeString(String value, DataOutputStream out) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the graphs from the given file which is mapped into memory. A file
+     * which is larger than a single mapped buffer (2 GB) is read through a
+     * buffered stream.
+     *
+     * @throws IOException
+     *             if the file can not be read or has not been written in the
+     *             current version of this format
+     */
+    public static ColouredGraph[] read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return read(new ChannelInput(channel, STREAM_BUFFER_SIZE));
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the graphs from the given file through a stream with the given
+     * buffer size regardless of the size of the file.
+     */
+    static ColouredGraph[] readStreamed(File file, int bufferSize) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return read(new ChannelInput(channel, bufferSize));
+        }
+    }
+
+    public static ColouredGraph[] read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 8) {
+            throw new IOException("The given data is not a binary coloured graph.");
+        }
+        return read(new BufferInput(buffer));
+    }
+
+    private static ColouredGraph[] read(Input buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("The given data is not a binary coloured graph.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of the binary graph format (expected "
+                    + VERSION + ").");
+        }
+        ColourPalette[] palettes = new ColourPalette[buffer.getInt()];
+        for (int i = 0; i < palettes.length; ++i) {
+            palettes[i] = readPalette(buffer);
+        }
+        ColouredGraph[] graphs = new ColouredGraph[buffer.getInt()];
+        for (int i = 0; i < graphs.length; ++i) {
+            graphs[i] = readGraph(buffer, palettes);
+        }
+        return graphs;
+    }
+
+    private static ColourPalette readPalette(Input buffer) throws IOException {
+        ColourPalette palette = new InMemoryPalette();
+        int highestColourId = buffer.getInt();
+        int size = buffer.getInt();
+        Map<String, BitSet> uriColourMap = new HashMap<String, BitSet>(2 * size);
+        for (int i = 0; i < size; ++i) {
+            String uri = readString(buffer);
+            uriColourMap.put(uri, readColour(buffer));
+        }
+        palette.setUriColourMap(uriColourMap);
+        palette.setHighestColourId(highestColourId);
+        return palette;
+    }
+
+    private static ColouredGraph readGraph(Input buffer, ColourPalette[] palettes) throws IOException {
+        ColourPalette vertexPalette = getPalette(buffer.getInt(), palettes);
+        ColourPalette edgePalette = getPalette(buffer.getInt(), palettes);
+        ColourPalette dtEdgePalette = getPalette(buffer.getInt(), palettes);
+
+        ColourRegistry registry = ColourRegistry.getInstance();
+        BitSet[] colourTable = new BitSet[buffer.getInt()];
+        int[] colourIds = new int[colourTable.length];
+        for (int i = 0; i < colourTable.length; ++i) {
+            colourTable[i] = readColour(buffer);
+            colourIds[i] = registry.getId(colourTable[i]);
+        }
+
+        Grph grph = new InMemoryGrph();
+        for (int v : readInts(buffer)) {
+            grph.addVertex(v);
+        }
+        int[] edges = readInts(buffer);
+        int[] tails = readInts(buffer, edges.length);
+        int[] heads = readInts(buffer, edges.length);
+        for (int i = 0; i < edges.length; ++i) {
+            grph.addDirectedSimpleEdge(tails[i], edges[i], heads[i]);
+        }
+
+        ColouredGraph graph = new ColouredGraph(grph, vertexPalette, edgePalette, dtEdgePalette);
+        graph.vertexColours = toColourIds(readInts(buffer), colourIds);
+        graph.edgeColours = toColourIds(readInts(buffer), colourIds);
+
+        int numberOfVertices = buffer.getInt();
+        for (int i = 0; i < numberOfVertices; ++i) {
+            int vertexId = buffer.getInt();
+            int numberOfColours = buffer.getInt();
+            Map<BitSet, List<String>> literals = new HashMap<BitSet, List<String>>(2 * numberOfColours);
+            for (int j = 0; j < numberOfColours; ++j) {
+                BitSet colour = colourTable[buffer.getInt()];
+                int numberOfLiterals = buffer.getInt();
+                List<String> values = new ArrayList<String>(numberOfLiterals);
+                for (int k = 0; k < numberOfLiterals; ++k) {
+                    values.add(readString(buffer));
+                }
+                literals.put(colour, values);
+            }
+            graph.mapVertexIdAndLiterals.put(vertexId, literals);
+        }
+        int numberOfTypes = buffer.getInt();
+        for (int i = 0; i < numberOfTypes; ++i) {
+            BitSet colour = colourTable[buffer.getInt()];
+            graph.mapLiteralTypes.put(colour, readString(buffer));
+        }
+        return graph;
+    }
+
+    private static ColourPalette getPalette(int index, ColourPalette[] palettes) {
+        return index < 0 ? null : palettes[index];
+    }
+
+    private static IntArrayList toColourIds(int[] tableIndexes, int[] colourIds) {
+        IntArrayList ids = new IntArrayList(tableIndexes.length);
+        for (int index : tableIndexes) {
+            ids.add(index < 0 ? ColourRegistry.NO_COLOUR : colourIds[index]);
+        }
+        return ids;
+    }
+
+    private static int[] readInts(Input buffer) throws IOException {
+        return readInts(buffer, buffer.getInt());
+    }
+
+    private static int[] readInts(Input buffer, int length) throws IOException {
+        int[] values = new int[length];
+        buffer.getInts(values);
+        return values;
+    }
+
+    private static BitSet readColour(Input buffer) throws IOException {
+        int numberOfWords = buffer.getInt();
+        long[] words = new long[Math.max(numberOfWords, 1)];
+        buffer.getLongs(words, numberOfWords);
+        return new BitSet(words, numberOfWords);
+    }
+
+    private static String readString(Input buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.getBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static int[] readInts(ByteBuffer buffer) {
+        return readInts(buffer, buffer.getInt());
+    }
+
+    public static int[] readInts(ByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + (length << 2));
+        return values;
+    }
+
+    public static BitSet readColour(ByteBuffer buffer) {
+        int numberOfWords = buffer.getInt();
+        long[] words = new long[Math.max(numberOfWords, 1)];
+        buffer.asLongBuffer().get(words, 0, numberOfWords);
+        buffer.position(buffer.position() + (numberOfWords << 3));
+        return new BitSet(words, numberOfWords);
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The source the graphs are read from, i.e., either a buffer or a stream.
+     */
+    private interface Input {
+
+        int getInt() throws IOException;
+
+        void getInts(int[] values) throws IOException;
+
+        void getLongs(long[] values, int length) throws IOException;
+
+        void getBytes(byte[] values) throws IOException;
+    }
+
+    private static class BufferInput implements Input {
+
+        private final ByteBuffer buffer;
+
+        BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int getInt() {
+            return buffer.getInt();
+        }
+
+        @Override
+        public void getInts(int[] values) {
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + (values.length << 2));
+        }
+
+        @Override
+        public void getLongs(long[] values, int length) {
+            buffer.asLongBuffer().get(values, 0, length);
+            buffer.position(buffer.position() + (length << 3));
+        }
+
+        @Override
+        public void getBytes(byte[] values) {
+            buffer.get(values);
+        }
+    }
+
+    /**
+     * Reads a file of any size through a buffer which is refilled from the
+     * channel whenever it does not contain the next value.
+     */
+    private static class ChannelInput implements Input {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        ChannelInput(FileChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 8));
+            // the buffer is empty until it is filled for the first time
+            buffer.limit(0);
+        }
+
+        /**
+         * Ensures that the buffer contains at least the given number of bytes
+         * (at most the capacity of the buffer).
+         */
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("The binary coloured graph ends unexpectedly.");
+                }
+            }
+            buffer.flip();
+        }
+
+        @Override
+        public int getInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        @Override
+        public void getInts(int[] values) throws IOException {
+            int position = 0;
+            while (position < values.length) {
+                require(4);
+                int length = Math.min(buffer.remaining() >> 2, values.length - position);
+                buffer.asIntBuffer().get(values, position, length);
+                buffer.position(buffer.position() + (length << 2));
+                position += length;
+            }
+        }
+
+        @Override
+        public void getLongs(long[] values, int length) throws IOException {
+            int position = 0;
+            while (position < length) {
+                require(8);
+                int count = Math.min(buffer.remaining() >> 3, length - position);
+                buffer.asLongBuffer().get(values, position, count);
+                buffer.position(buffer.position() + (count << 3));
+                position += count;
+            }
+        }
+
+        @Override
+        public void getBytes(byte[] values) throws IOException {
+            int position = 0;
+            while (position < values.length) {
+                require(1);
+                int length = Math.min(buffer.remaining(), values.length - position);
+                buffer.get(values, position, length);
+                position += length;
+            }
+        }
+    }
+}
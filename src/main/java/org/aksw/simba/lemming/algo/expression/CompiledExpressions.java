@@ -0,0 +1,208 @@
+package org.aksw.simba.lemming.algo.expression;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * A list of {@link Expression}s compiled into a single flat program in postfix
+ * order. Every metric used by the expressions gets a slot in a dense metric
+ * vector. Hence, the expressions can be evaluated by a loop over an int array
+ * without walking the expression trees, without looking up the metrics by
+ * their names and without allocating objects.
+ *
+ * Instances are immutable. The buffers needed for an evaluation are given by
+ * the caller, i.e., several threads can evaluate the expressions concurrently
+ * with their own buffers.
+ */
+public class CompiledExpressions {
+
+    private static final int METRIC = 0;
+    private static final int CONSTANT = 1;
+    private static final int PLUS = 2;
+    private static final int MINUS = 3;
+    private static final int TIMES = 4;
+    private static final int DIV = 5;
+    /**
+     * Marks the end of an expression. Its value is moved from the stack to
+     * the results.
+     */
+    private static final int END = 6;
+
+    private final String[] metricNames;
+    private final ObjectIntOpenHashMap<String> metricSlots;
+    private final Expression[] expressions;
+    /**
+     * The program. The opcodes {@link #METRIC} and {@link #CONSTANT} are
+     * followed by the slot of the metric or the index of the constant,
+     * respectively.
+     */
+    private final int[] code;
+    private final double[] constants;
+    private final int maxStackSize;
+
+    public CompiledExpressions(Collection<Expression> expressions) {
+        this.expressions = expressions.toArray(new Expression[expressions.size()]);
+        List<String> names = new ArrayList<String>();
+        metricSlots = new ObjectIntOpenHashMap<String>();
+        IntArrayList program = new IntArrayList();
+        DoubleArrayList constantList = new DoubleArrayList();
+        int maxDepth = 0;
+        for (Expression expression : this.expressions) {
+            maxDepth = Math.max(maxDepth, compile(expression, program, constantList, names));
+            program.add(END);
+        }
+        metricNames = names.toArray(new String[names.size()]);
+        code = program.toArray();
+        constants = constantList.toArray();
+        maxStackSize = maxDepth;
+    }
+
+    /**
+     * Appends the postfix code of the given expression to the program.
+     *
+     * @return the stack size needed to evaluate the expression
+     */
+    private int compile(Expression expression, IntArrayList program, DoubleArrayList constantList,
+            List<String> names) {
+        if (expression.isConstant()) {
+            program.add(CONSTANT);
+            program.add(constantList.size());
+            constantList.add(expression.getConstantValue());
+            return 1;
+        } else if (expression.isAtomic()) {
+            // the string representation of an atomic variable is the name of its metric
+            String name = expression.toString();
+            int slot;
+            if (metricSlots.containsKey(name)) {
+                slot = metricSlots.lget();
+            } else {
+                slot = names.size();
+                names.add(name);
+                metricSlots.put(name, slot);
+            }
+            program.add(METRIC);
+            program.add(slot);
+            return 1;
+        } else {
+            int leftDepth = compile(expression.getLeft(), program, constantList, names);
+            int rightDepth = compile(expression.getRight(), program, constantList, names);
+            switch (expression.getOperator()) {
+            case PLUS:
+                program.add(PLUS);
+                break;
+            case MINUS:
+                program.add(MINUS);
+                break;
+            case TIMES:
+                program.add(TIMES);
+                break;
+            case DIV:
+                program.add(DIV);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operator " + expression.getOperator() + ".");
+            }
+            // the value of the left side stays on the stack while the right side is evaluated
+            return Math.max(leftDepth, rightDepth + 1);
+        }
+    }
+
+    public int getNumberOfExpressions() {
+        return expressions.length;
+    }
+
+    /**
+     * @return the expression at the given position, i.e., the expression whose
+     *         value is written to this position of the results
+     */
+    public Expression getExpression(int index) {
+        return expressions[index];
+    }
+
+    /**
+     * @return the number of slots of the metric vector
+     */
+    public int getNumberOfMetrics() {
+        return metricNames.length;
+    }
+
+    public String getMetricName(int slot) {
+        return metricNames[slot];
+    }
+
+    /**
+     * @return the stack size needed by {@link #evaluate(double[], double[], double[])}
+     */
+    public int getMaxStackSize() {
+        return maxStackSize;
+    }
+
+    /**
+     * Writes the values of the given metrics into the slots of the given
+     * vector. Missing metrics get the value NaN.
+     */
+    public void fillMetricVector(ObjectDoubleOpenHashMap<String> metricValues, double[] metricVector) {
+        for (int i = 0; i < metricNames.length; ++i) {
+            metricVector[i] = metricValues.containsKey(metricNames[i]) ? metricValues.lget() : Double.NaN;
+        }
+    }
+
+    /**
+     * Evaluates all expressions.
+     *
+     * @param metricVector
+     *            the values of the metrics, see {@link #fillMetricVector(ObjectDoubleOpenHashMap, double[])}
+     * @param stack
+     *            a buffer with at least {@link #getMaxStackSize()} elements
+     * @param results
+     *            the array the value of the i-th expression is written to at
+     *            position i
+     */
+    public void evaluate(double[] metricVector, double[] stack, double[] results) {
+        int sp = 0;
+        int result = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc]) {
+            case METRIC:
+                stack[sp++] = metricVector[code[pc + 1]];
+                pc += 2;
+                break;
+            case CONSTANT:
+                stack[sp++] = constants[code[pc + 1]];
+                pc += 2;
+                break;
+            case PLUS:
+                --sp;
+                stack[sp - 1] += stack[sp];
+                ++pc;
+                break;
+            case MINUS:
+                --sp;
+                stack[sp - 1] -= stack[sp];
+                ++pc;
+                break;
+            case TIMES:
+                --sp;
+                stack[sp - 1] *= stack[sp];
+                ++pc;
+                break;
+            case DIV:
+                --sp;
+                stack[sp - 1] /= stack[sp];
+                ++pc;
+                break;
+            default: // END
+                results[result++] = stack[--sp];
+                ++pc;
+                break;
+            }
+        }
+    }
+}
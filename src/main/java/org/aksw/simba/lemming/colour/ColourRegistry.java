@@ -0,0 +1,110 @@
+package org.aksw.simba.lemming.colour;
+
+import java.util.Arrays;
+
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Interns colours, i.e., maps every distinct {@link BitSet} to a dense int ID.
+ * The registry stores its own copy of every colour, so that a colour can not be
+ * changed after it has been registered. The colours returned by
+ * {@link #getColour(int)} are shared and must not be changed.
+ *
+ * All graphs share the same registry (see {@link #getInstance()}). Hence, the
+ * ID of a colour is the same in every graph and can be used as key instead of
+ * the colour itself.
+ *
+ * NOTE: registering colours is synchronized while looking up a colour by its
+ * ID does not need any lock.
+ */
+public class ColourRegistry {
+
+    /**
+     * ID of the null colour, i.e., the colour of a non-existing element.
+     */
+    public static final int NO_COLOUR = -1;
+
+    private static final ColourRegistry INSTANCE = new ColourRegistry();
+
+    public static ColourRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private final ObjectIntOpenHashMap<BitSet> colourIds = new ObjectIntOpenHashMap<BitSet>();
+    /**
+     * The registered colours. A new colour is stored before {@link #size} is
+     * increased, i.e., a thread that reads the size sees all colours with a
+     * lower ID.
+     */
+    private volatile BitSet[] colours = new BitSet[16];
+    private volatile int size = 0;
+
+    protected ColourRegistry() {
+    }
+
+    /**
+     * Returns the ID of the given colour. The colour is registered if it is not
+     * known yet.
+     *
+     * @param colour
+     *            the colour
+     * @return the ID of the colour or {@link #NO_COLOUR} if the colour is null
+     */
+    public synchronized int getId(BitSet colour) {
+        if (colour == null) {
+            return NO_COLOUR;
+        }
+        if (colourIds.containsKey(colour)) {
+            return colourIds.lget();
+        }
+        int id = size;
+        BitSet[] newColours = colours;
+        if (id == newColours.length) {
+            newColours = Arrays.copyOf(newColours, newColours.length << 1);
+        }
+        newColours[id] = (BitSet) colour.clone();
+        colourIds.put(newColours[id], id);
+        colours = newColours;
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * Returns the ID of the given colour without registering it.
+     *
+     * @param colour
+     *            the colour
+     * @return the ID of the colour or {@link #NO_COLOUR} if the colour is null
+     *         or has not been registered
+     */
+    public synchronized int lookupId(BitSet colour) {
+        if ((colour != null) && colourIds.containsKey(colour)) {
+            return colourIds.lget();
+        }
+        return NO_COLOUR;
+    }
+
+    /**
+     * @param id
+     *            the ID of a registered colour
+     * @return the colour with the given ID or null if the ID is
+     *         {@link #NO_COLOUR}. The returned colour must not be changed.
+     */
+    public BitSet getColour(int id) {
+        if (id < 0) {
+            return null;
+        }
+        if (id >= size) {
+            throw new IllegalArgumentException("Unknown colour ID " + id);
+        }
+        return colours[id];
+    }
+
+    /**
+     * @return the number of registered colours
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -2,24 +2,31 @@ package org.aksw.simba.lemming.creation;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
 import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.ColouredGraphBinaryFormat;
 import org.aksw.simba.lemming.ColouredGraphWrapper;
 import org.aksw.simba.lemming.colour.ColourPalette;
-import org.aksw.simba.lemming.colour.ColourPaletteWrapper;
 import org.aksw.simba.lemming.util.PersHelper;
 import org.aksw.simba.lemming.util.SerializationParser;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +35,23 @@ import com.carrotsearch.hppc.ObjectArrayList;
 
 public class AbstractDatasetManager implements IDatasetManager{
 	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractDatasetManager.class);
+	/**
+	 * Name of the system property enabling {@link #setStreaming(boolean)} for
+	 * all dataset managers.
+	 */
+	public static final String STREAMING_PROPERTY = "lemming.creation.streaming";
 	protected String mDatasetName;
+	/**
+	 * Folder of the {@link GraphCache} files or null if the graphs should not be
+	 * cached.
+	 */
+	protected String mCacheFolder = "cache";
+	/**
+	 * Flag indicating whether the graphs are streamed from the data files by a
+	 * {@link StreamingGraphCreator} instead of being created from models. Only
+	 * datasets supporting it are affected.
+	 */
+	protected boolean mStreaming = Boolean.getBoolean(STREAMING_PROPERTY);
 	
 	public AbstractDatasetManager(String datasetName){
 		mDatasetName = datasetName;
@@ -42,6 +65,29 @@ public class AbstractDatasetManager implements IDatasetManager{
 		mDatasetName = datasetName;
 	}
 	
+	public String getCacheFolder(){
+		return mCacheFolder;
+	}
+	
+	public void setCacheFolder(String cacheFolder){
+		mCacheFolder = cacheFolder;
+	}
+	
+	public boolean isStreaming(){
+		return mStreaming;
+	}
+	
+	/**
+	 * Enables streaming the graphs with a {@link StreamingGraphCreator}. The
+	 * triples are added to the graphs while parsing the files, i.e., the
+	 * snapshots do not have to fit into memory as models. However, the models
+	 * are not inferred, i.e., the graphs only contain the triples of the data
+	 * files and their vertex colours are derived from the explicit types.
+	 */
+	public void setStreaming(boolean streaming){
+		mStreaming = streaming;
+	}
+	
 	@Override
 	public String writeGraphsToFile(ColouredGraph grph) {
 		Model datasetModel = ModelFactory.createDefaultModel();
@@ -92,30 +138,178 @@ public class AbstractDatasetManager implements IDatasetManager{
 		return null;
 	}
 
-	@Override
-	public void persistIntResults(ColouredGraph curMimicGraph, String filePath) {
-		try {
-			FileOutputStream fileOut = new FileOutputStream(filePath);
-			ObjectOutputStream out = new ObjectOutputStream(fileOut);
+	/**
+	 * Returns the cached graphs of the given sources or creates them with
+	 * {@link #createGraphs(List)} and adds them to the cache.
+	 * 
+	 * @param modelLoaders
+	 *            the tasks reading (and inferring) the models in the order in
+	 *            which the graphs should be created
+	 * @param sources
+	 *            the data files and ontologies the graphs are created from
+	 * @return the graphs in the order of the given loaders
+	 */
+	protected ColouredGraph[] createGraphs(List<Callable<Model>> modelLoaders, List<String> sources) {
+		return readOrCreateGraphs(sources, () -> createGraphs(modelLoaders));
+	}
 
-			List<java.util.BitSet> serVertexColours = SerializationParser.parseBitSetArrayList(curMimicGraph.getVertexColours());
-			List<java.util.BitSet> serEdgeColours = SerializationParser.parseBitSetArrayList(curMimicGraph.getEdgeColours());
+	/**
+	 * Returns the cached graphs of the given sources or creates them and adds
+	 * them to the cache. If streaming is enabled (see
+	 * {@link #setStreaming(boolean)}), the graphs are created with
+	 * {@link #streamGraphs(List)}. Otherwise, the given loaders are used as
+	 * described in {@link #createGraphs(List, List)}.
+	 * 
+	 * @param modelLoaders
+	 *            the tasks reading (and inferring) the models in the order in
+	 *            which the graphs should be created
+	 * @param snapshotFiles
+	 *            the data files of every snapshot in the order of the loaders
+	 * @param sources
+	 *            the data files and ontologies the graphs are created from
+	 * @return the graphs in the order of the given loaders
+	 */
+	protected ColouredGraph[] createGraphs(List<Callable<Model>> modelLoaders, List<String[]> snapshotFiles,
+			List<String> sources) {
+		if (!mStreaming) {
+			return createGraphs(modelLoaders, sources);
+		}
+		// the streamed graphs are not inferred and must not share the cache of
+		// the inferred graphs
+		List<String> streamedSources = new ArrayList<String>(sources);
+		streamedSources.add(StreamingGraphCreator.class.getName());
+		return readOrCreateGraphs(streamedSources, () -> streamGraphs(snapshotFiles));
+	}
 
-			ColourPaletteWrapper vertexPaletteWrapper = PersHelper.convertCP(curMimicGraph.getVertexPalette());
-			ColourPaletteWrapper edgePaletteWrapper = PersHelper.convertCP(curMimicGraph.getEdgePalette());
-			ColourPaletteWrapper dtPaletteWrapper = PersHelper.convertCP(curMimicGraph.getDataTypedEdgePalette());
-			
-			ColouredGraphWrapper colouredGraphWrapper = new ColouredGraphWrapper(curMimicGraph.getGraph(),
-					serVertexColours, serEdgeColours, vertexPaletteWrapper, edgePaletteWrapper, dtPaletteWrapper);
+	private ColouredGraph[] readOrCreateGraphs(List<String> sources, Supplier<ColouredGraph[]> creation) {
+		GraphCache cache = createCache(sources);
+		ColouredGraph[] graphs = null;
+		if (cache != null) {
+			graphs = cache.read();
+		}
+		if (graphs == null) {
+			graphs = creation.get();
+			if (cache != null) {
+				cache.write(graphs);
+			}
+		}
+		return graphs;
+	}
+
+	/**
+	 * @param sources
+	 *            the data files and ontologies the graphs are created from
+	 * @return the cache for the given sources or null if caching is disabled
+	 */
+	protected GraphCache createCache(List<String> sources) {
+		if (mCacheFolder == null) {
+			return null;
+		}
+		return GraphCache.create(mCacheFolder, mDatasetName, sources);
+	}
+
+	/**
+	 * Loads the models of several snapshots in parallel and creates a graph for
+	 * each of them. Reading and inferring the models is the expensive part and
+	 * runs on a pool with one thread per available processor. The graphs are
+	 * created one after the other in the order of the given loaders using a
+	 * single {@link GraphCreator}, i.e., the palettes and colours are exactly the
+	 * same as if the snapshots were read serially. At most one loader per
+	 * thread is submitted ahead of the graph that is currently created, i.e.,
+	 * the number of models held in memory is bounded by the number of threads
+	 * instead of the number of snapshots.
+	 * 
+	 * NOTE: the loaders are executed concurrently and must not share objects
+	 * that are not thread safe, e.g., an {@link org.apache.jena.ontology.OntModel}
+	 * with an attached reasoner.
+	 * 
+	 * @param modelLoaders
+	 *            the tasks reading (and inferring) the models in the order in
+	 *            which the graphs should be created
+	 * @return the created graphs in the order of the given loaders
+	 */
+	protected ColouredGraph[] createGraphs(List<Callable<Model>> modelLoaders) {
+		List<ColouredGraph> graphs = new ArrayList<ColouredGraph>();
+		if (modelLoaders.isEmpty()) {
+			return new ColouredGraph[0];
+		}
+		GraphCreator creator = new GraphCreator();
+		int numberOfThreads = Math.min(Runtime.getRuntime().availableProcessors(), modelLoaders.size());
+		ExecutorService service = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			List<Future<Model>> futures = new ArrayList<Future<Model>>();
+			for (int i = 0; i < numberOfThreads; ++i) {
+				futures.add(service.submit(modelLoaders.get(i)));
+			}
+			for (int i = 0; i < modelLoaders.size(); ++i) {
+				Model model = futures.get(i).get();
+				// release the model as soon as its graph has been created
+				futures.set(i, null);
+				// keep the window of loaded models filled
+				if (futures.size() < modelLoaders.size()) {
+					futures.add(service.submit(modelLoaders.get(futures.size())));
+				}
+				ColouredGraph graph = creator.processModel(model);
+				if (graph != null) {
+					LOGGER.info("Generated graph of " + model.size() + " triples");
+					graphs.add(graph);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while loading the models.", e);
+		} catch (ExecutionException e) {
+			LOGGER.error("Couldn't load a model: " + e.getCause().getMessage());
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Couldn't load a model.", e.getCause());
+		} finally {
+			service.shutdownNow();
+		}
+		return graphs.toArray(new ColouredGraph[graphs.size()]);
+	}
+
+	/**
+	 * Creates a graph for each snapshot by streaming its Turtle files with a
+	 * single {@link StreamingGraphCreator}.
+	 * 
+	 * @param snapshotFiles
+	 *            the data files of every snapshot in the order in which the
+	 *            graphs should be created
+	 * @return the created graphs in the order of the given snapshots
+	 */
+	protected ColouredGraph[] streamGraphs(List<String[]> snapshotFiles) {
+		List<ColouredGraph> graphs = new ArrayList<ColouredGraph>();
+		StreamingGraphCreator creator = new StreamingGraphCreator();
+		for (String[] files : snapshotFiles) {
+			ColouredGraph graph = creator.processFiles(Lang.TURTLE, files);
+			if (graph != null) {
+				LOGGER.info("Generated graph of " + graph.getEdges().size() + " edges");
+				graphs.add(graph);
+			}
+		}
+		return graphs.toArray(new ColouredGraph[graphs.size()]);
+	}
 
-			out.writeObject(colouredGraphWrapper);
-			out.close();
-			fileOut.close();
+	/**
+	 * Writes the given graph in the {@link ColouredGraphBinaryFormat}.
+	 */
+	@Override
+	public void persistIntResults(ColouredGraph curMimicGraph, String filePath) {
+		try {
+			ColouredGraphBinaryFormat.write(new ColouredGraph[] { curMimicGraph }, new File(filePath));
 		} catch (IOException e) {
+			LOGGER.error("Could not write the file: " + e.getMessage());
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Reads a graph written by {@link #persistIntResults(ColouredGraph, String)}.
+	 * Files that have been written with Java serialization by older versions
+	 * are still supported.
+	 */
 	@Override
 	public ColouredGraph readIntResults(String filePath) {
 		ColouredGraph colouredGraph = null;
@@ -123,27 +317,13 @@ public class AbstractDatasetManager implements IDatasetManager{
 			Path path = Paths.get(filePath);
 
 			if (Files.exists(path)) {
-				FileInputStream fileIn = new FileInputStream(filePath);
-				ObjectInputStream in = new ObjectInputStream(fileIn);
-				ColouredGraphWrapper colouredGraphWrapper = (ColouredGraphWrapper) in.readObject();
-				in.close();
-				fileIn.close();
-				
-				if(colouredGraphWrapper != null) {
-					ColourPalette vertexPalette = PersHelper.convertCP(colouredGraphWrapper.getVertexPalette());
-					ColourPalette edgePalette = PersHelper.convertCP(colouredGraphWrapper.getEdgePalette());
-					ColourPalette dtEdgePalette = PersHelper.convertCP(colouredGraphWrapper.getDtEdgePalette());
-					
-					ObjectArrayList<BitSet> vertexColours = SerializationParser.parseBitSetArrayList(colouredGraphWrapper.getVertexColours());
-					ObjectArrayList<BitSet> edgeColours = SerializationParser.parseBitSetArrayList(colouredGraphWrapper.getEdgeColours());
-					
-					colouredGraph = new ColouredGraph(
-							colouredGraphWrapper.getGraph(), 
-							vertexPalette, 
-							edgePalette,
-							dtEdgePalette);
-					colouredGraph.setVertexColours(vertexColours);
-					colouredGraph.setEdgeColours(edgeColours);
+				if (ColouredGraphBinaryFormat.isBinaryGraphFile(path.toFile())) {
+					ColouredGraph[] graphs = ColouredGraphBinaryFormat.read(path.toFile());
+					if (graphs.length > 0) {
+						colouredGraph = graphs[0];
+					}
+				} else {
+					colouredGraph = readSerializedGraph(filePath);
 				}
 			} else {
 				LOGGER.warn("Specified file does not exist");
@@ -160,5 +340,36 @@ public class AbstractDatasetManager implements IDatasetManager{
 		
 		return colouredGraph;
 	}
+
+	/**
+	 * Reads a graph that has been written as serialized
+	 * {@link ColouredGraphWrapper}.
+	 */
+	private ColouredGraph readSerializedGraph(String filePath) throws IOException, ClassNotFoundException {
+		ColouredGraph colouredGraph = null;
+		FileInputStream fileIn = new FileInputStream(filePath);
+		ObjectInputStream in = new ObjectInputStream(fileIn);
+		ColouredGraphWrapper colouredGraphWrapper = (ColouredGraphWrapper) in.readObject();
+		in.close();
+		fileIn.close();
+		
+		if(colouredGraphWrapper != null) {
+			ColourPalette vertexPalette = PersHelper.convertCP(colouredGraphWrapper.getVertexPalette());
+			ColourPalette edgePalette = PersHelper.convertCP(colouredGraphWrapper.getEdgePalette());
+			ColourPalette dtEdgePalette = PersHelper.convertCP(colouredGraphWrapper.getDtEdgePalette());
+			
+			ObjectArrayList<BitSet> vertexColours = SerializationParser.parseBitSetArrayList(colouredGraphWrapper.getVertexColours());
+			ObjectArrayList<BitSet> edgeColours = SerializationParser.parseBitSetArrayList(colouredGraphWrapper.getEdgeColours());
+			
+			colouredGraph = new ColouredGraph(
+					colouredGraphWrapper.getGraph(), 
+					vertexPalette, 
+					edgePalette,
+					dtEdgePalette);
+			colouredGraph.setVertexColours(vertexColours);
+			colouredGraph.setEdgeColours(edgeColours);
+		}
+		return colouredGraph;
+	}
 	
 }
\ No newline at end of file
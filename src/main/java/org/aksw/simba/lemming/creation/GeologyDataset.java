@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.aksw.simba.lemming.ColouredGraph;
 import org.apache.jena.ontology.OntModel;
@@ -16,64 +17,74 @@ import org.slf4j.LoggerFactory;
 public class GeologyDataset extends AbstractDatasetManager implements IDatasetManager {
 	private static final Logger LOGGER = LoggerFactory.getLogger(GeologyDataset.class);
 
+	/**
+	 * The ontologies used for the inference (besides RDF and RDFS).
+	 */
+	private static final String[] ONTOLOGY_FILES = { "geology/void.ttl", "geology/foaf.ttl",
+			"geology/skos.ttl", "geology/dcterms.ttl", "geology/owl.ttl", "geology/dc.ttl",
+			"geology/geometry.ttl", "geology/geosparql.ttl", "geology/gts.ttl", "geology/gts-w3c.ttl",
+			"geology/rank.ttl", "geology/sampling.ttl", "geology/sam-lite.ttl", "geology/sf.ttl",
+			"geology/sosa.ttl", "geology/thors.ttl", "geology/time.ttl", "geology/basic.ttl",
+			"geology/temporal.ttl" };
+
 	public GeologyDataset() {
 		super("Geology");
 	}
 
 	@Override
 	public ColouredGraph[] readGraphsFromFiles(String dataFolderPath) {
-		List<ColouredGraph> graphs = new ArrayList<ColouredGraph>();
-		GraphCreator creator = new GraphCreator();
+		List<Callable<Model>> modelLoaders = new ArrayList<Callable<Model>>();
+		List<String[]> snapshotFiles = new ArrayList<String[]>();
+		List<String> sources = new ArrayList<String>();
 
 		File folder = new File(dataFolderPath);
 		if (folder != null && folder.isDirectory() && folder.listFiles().length > 0) {
-			OntModel ontModel = ModelFactory.createOntologyModel();
-			ontModel.getDocumentManager().setProcessImports(false);
-			ontModel.read("22-rdf-syntax-ns", "TTL");
-			ontModel.read("rdf-schema", "TTL");
-			ontModel.read("geology/void.ttl");
-			ontModel.read("geology/foaf.ttl");
-			ontModel.read("geology/skos.ttl");
-			ontModel.read("geology/dcterms.ttl");
-			ontModel.read("geology/owl.ttl");
-			ontModel.read("geology/dc.ttl");
-			ontModel.read("geology/geometry.ttl");
-			ontModel.read("geology/geosparql.ttl");
-			ontModel.read("geology/gts.ttl");
-			ontModel.read("geology/gts-w3c.ttl");
-			ontModel.read("geology/rank.ttl");
-			ontModel.read("geology/sampling.ttl");
-			ontModel.read("geology/sam-lite.ttl");
-			ontModel.read("geology/sf.ttl");
-			ontModel.read("geology/sosa.ttl");
-			ontModel.read("geology/thors.ttl");
-			ontModel.read("geology/time.ttl");
-			ontModel.read("geology/basic.ttl");
-			ontModel.read("geology/temporal.ttl");
-			
 			List<String> lstSortedFilesByName = Arrays.asList(folder.list());
 			// sort ascendently
 			Collections.sort(lstSortedFilesByName);
 			for (String fileName : lstSortedFilesByName) {
-				File file = new File(dataFolderPath + "/" + fileName);
-				Model geologyModel = ModelFactory.createDefaultModel();
-				geologyModel.read(file.getAbsolutePath(), "TTL");
-				LOGGER.info("Read data to model - " + geologyModel.size() + " triples " + file.getName());
-				Inferer inferer = new Inferer(true);
-				// returns a new model with the added triples
-				geologyModel = inferer.process(geologyModel, ontModel);
-				ColouredGraph graph = creator.processModel(geologyModel);
-				if (graph != null) {
-					LOGGER.info("Generated graph of " + geologyModel.size() + " triples");
-					graphs.add(graph);
-				}
+				final File file = new File(dataFolderPath + "/" + fileName);
+				sources.add(file.getPath());
+				snapshotFiles.add(new String[] { file.getAbsolutePath() });
+				modelLoaders.add(new Callable<Model>() {
+					@Override
+					public Model call() {
+						Model geologyModel = ModelFactory.createDefaultModel();
+						geologyModel.read(file.getAbsolutePath(), "TTL");
+						LOGGER.info("Read data to model - " + geologyModel.size() + " triples " + file.getName());
+						Inferer inferer = new Inferer(true);
+						// returns a new model with the added triples
+						return inferer.process(geologyModel, createOntModel());
+					}
+				});
 			}
 		} else {
 			LOGGER.error("Find no files in \"" + folder.getAbsolutePath() + "\". Aborting.");
 			System.exit(1);
 		}
 
-		return graphs.toArray(new ColouredGraph[graphs.size()]);
+		sources.add("22-rdf-syntax-ns");
+		sources.add("rdf-schema");
+		sources.addAll(Arrays.asList(ONTOLOGY_FILES));
+		return createGraphs(modelLoaders, snapshotFiles, sources);
+	}
+
+	/**
+	 * Reads the ontologies used for the inference. Every snapshot gets its own
+	 * ontology model since the models are inferred in parallel and the reasoner
+	 * of an ontology model is not thread safe.
+	 * 
+	 * @return the ontology model
+	 */
+	private OntModel createOntModel() {
+		OntModel ontModel = ModelFactory.createOntologyModel();
+		ontModel.getDocumentManager().setProcessImports(false);
+		ontModel.read("22-rdf-syntax-ns", "TTL");
+		ontModel.read("rdf-schema", "TTL");
+		for (String ontologyFile : ONTOLOGY_FILES) {
+			ontModel.read(ontologyFile);
+		}
+		return ontModel;
 	}
 
 //	public static void main(String[] args) {
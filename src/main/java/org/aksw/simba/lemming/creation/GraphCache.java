@@ -0,0 +1,154 @@
+package org.aksw.simba.lemming.creation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.ColouredGraphBinaryFormat;
+import org.apache.jena.util.FileManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Cache for the graphs created from the RDF files of a dataset. The graphs are
+ * stored in the {@link ColouredGraphBinaryFormat} in a file whose name
+ * contains a hash of the content of all source files, i.e., the data files and
+ * the ontologies. As soon as one of the source files changes, the cache file is
+ * not used anymore.
+ * 
+ * NOTE: the hash does not cover the code that creates the graphs. The cache
+ * folder has to be cleared if the graph creation or the inference changes.
+ */
+public class GraphCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(GraphCache.class);
+
+	private static final String FILE_EXTENSION = ".graphs";
+
+	protected File cacheFile;
+
+	public GraphCache(File cacheFile) {
+		this.cacheFile = cacheFile;
+	}
+
+	/**
+	 * Creates the cache for the given sources.
+	 * 
+	 * @param cacheFolder
+	 *            the folder containing the cache files
+	 * @param datasetName
+	 *            the name of the dataset which is used as prefix of the file name
+	 * @param sources
+	 *            the files, folders or ontology names (as understood by Jena's
+	 *            {@link FileManager}) the graphs are created from
+	 * @return the cache for the given sources
+	 */
+	public static GraphCache create(String cacheFolder, String datasetName, List<String> sources) {
+		return new GraphCache(new File(cacheFolder, datasetName + "_" + hashSources(sources) + FILE_EXTENSION));
+	}
+
+	/**
+	 * @return the cached graphs or null if there are no cached graphs or the
+	 *         cache file can not be read
+	 */
+	public ColouredGraph[] read() {
+		if (!cacheFile.isFile()) {
+			return null;
+		}
+		try {
+			long start = System.currentTimeMillis();
+			ColouredGraph[] graphs = ColouredGraphBinaryFormat.read(cacheFile);
+			LOGGER.info("Read {} graphs from the cache file {} in {}ms.", graphs.length, cacheFile,
+					System.currentTimeMillis() - start);
+			return graphs;
+		} catch (IOException e) {
+			LOGGER.warn("Couldn't read the cache file " + cacheFile + ". The graphs will be created again.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the given graphs to the cache file. Errors are logged but do not
+	 * stop the program since the graphs can be created again.
+	 */
+	public void write(ColouredGraph[] graphs) {
+		try {
+			cacheFile.getAbsoluteFile().getParentFile().mkdirs();
+			ColouredGraphBinaryFormat.write(graphs, cacheFile);
+			LOGGER.info("Wrote {} graphs to the cache file {}.", graphs.length, cacheFile);
+		} catch (IOException e) {
+			LOGGER.warn("Couldn't write the cache file " + cacheFile + ".", e);
+		}
+	}
+
+	public File getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * Creates a SHA-256 hash of the names and the content of the given sources.
+	 * The files of a folder are hashed in the order of their names.
+	 */
+	protected static String hashSources(List<String> sources) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported.", e);
+		}
+		byte[] buffer = new byte[1 << 16];
+		for (String source : sources) {
+			digest.update(source.getBytes(StandardCharsets.UTF_8));
+			File file = new File(source);
+			if (file.exists()) {
+				hashFile(file, digest, buffer);
+			} else {
+				// e.g., an ontology that is loaded from the class path
+				hashStream(FileManager.get().open(source), source, digest, buffer);
+			}
+		}
+		return BaseEncoding.base16().lowerCase().encode(digest.digest());
+	}
+
+	private static void hashFile(File file, MessageDigest digest, byte[] buffer) {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+			Arrays.sort(files);
+			for (File child : files) {
+				digest.update(child.getName().getBytes(StandardCharsets.UTF_8));
+				hashFile(child, digest, buffer);
+			}
+		} else {
+			hashStream(FileManager.get().open(file.getAbsolutePath()), file.toString(), digest, buffer);
+		}
+	}
+
+	private static void hashStream(InputStream in, String source, MessageDigest digest, byte[] buffer) {
+		if (in == null) {
+			LOGGER.warn("Couldn't find {}. Only its name is part of the cache key.", source);
+			return;
+		}
+		try {
+			int length;
+			while ((length = in.read(buffer)) >= 0) {
+				digest.update(buffer, 0, length);
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Couldn't read " + source + ". Only its name is part of the cache key.", e);
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing to do
+			}
+		}
+	}
+}
@@ -64,87 +64,104 @@ public class GraphCreator {
 		ColouredGraph graph = new ColouredGraph(vertexPalette, edgePalette);
 		ObjectIntOpenHashMap<Resource> resourceIdMapping = new ObjectIntOpenHashMap<Resource>();
 		StmtIterator iterator = model.listStatements();
-		Statement statement;
+		// Iterator over all statements
+		while (iterator.hasNext()) {
+			addStatement(iterator.next(), graph, resourceIdMapping);
+		}
+
+		// set the datatypedEdgePalette to the graph
+		graph.setDataTypeEdgePalette(datatypedEdgePalette);
+		return graph;
+	}
+
+	/**
+	 * Adds the given statement to the graph. The palettes have to be created
+	 * before, i.e., the vertex and edge colours are taken from
+	 * {@link #vertexPalette} and {@link #edgePalette}.
+	 * 
+	 * @param statement
+	 *            the statement that should be added
+	 * @param graph
+	 *            the graph the statement is added to
+	 * @param resourceIdMapping
+	 *            the mapping of the resources which have been added to the
+	 *            graph so far to their vertex IDs
+	 */
+	protected void addStatement(Statement statement, ColouredGraph graph,
+			ObjectIntOpenHashMap<Resource> resourceIdMapping) {
 		Resource subject, object;
 		Property property;
 		int subjectId, propertyId, objectId;
 		String propertyUri;
-		// Iterator over all statements
-		while (iterator.hasNext()) {
-			statement = iterator.next();
-			subject = statement.getSubject();
-			// Add the subject if it is not existing
-			if (resourceIdMapping.containsKey(subject)) {
-				subjectId = resourceIdMapping.get(subject);
+		subject = statement.getSubject();
+		// Add the subject if it is not existing
+		if (resourceIdMapping.containsKey(subject)) {
+			subjectId = resourceIdMapping.get(subject);
+		} else {
+			subjectId = graph.addVertex();
+			resourceIdMapping.put(subject, subjectId);
+		}
+		// if this statement has a resource as object
+		if (statement.getObject().isResource()) {
+			// Add the object if it is not existing
+			object = statement.getObject().asResource();
+			if (resourceIdMapping.containsKey(object)) {
+				objectId = resourceIdMapping.get(object);
 			} else {
-				subjectId = graph.addVertex();
-				resourceIdMapping.put(subject, subjectId);
+				objectId = graph.addVertex();
+				resourceIdMapping.put(object, objectId);
 			}
-			// if this statement has a resource as object
-			if (statement.getObject().isResource()) {
-				// Add the object if it is not existing
-				object = statement.getObject().asResource();
-				if (resourceIdMapping.containsKey(object)) {
-					objectId = resourceIdMapping.get(object);
-				} else {
-					objectId = graph.addVertex();
-					resourceIdMapping.put(object, objectId);
-				}
-				// Add the property if it is not existing
-				property = statement.getPredicate();
-				propertyId = graph.addEdge(subjectId, objectId);
-				// Set the colour of the edge
-				propertyUri = property.getURI();
-				if (!edgePalette.containsUri(propertyUri)) {
-					edgePalette.addColour(propertyUri);
-				}
-				graph.setEdgeColour(propertyId, edgePalette.getColour(propertyUri));
+			// Add the property if it is not existing
+			property = statement.getPredicate();
+			propertyId = graph.addEdge(subjectId, objectId);
+			// Set the colour of the edge
+			propertyUri = property.getURI();
+			if (!edgePalette.containsUri(propertyUri)) {
+				edgePalette.addColour(propertyUri);
+			}
+			graph.setEdgeColour(propertyId, edgePalette.getColour(propertyUri));
 
-				// if this triple defines the class of the subject
-				if (property.equals(RDF.type)) {
-					graph.setVertexColour(subjectId,
-							vertexPalette.addToColour(graph.getVertexColour(subjectId), object.getURI()));
-				}
+			// if this triple defines the class of the subject
+			if (property.equals(RDF.type)) {
+				// the colours of the graph are shared and must not be changed
+				BitSet subjectColour = (BitSet) graph.getVertexColour(subjectId).clone();
+				graph.setVertexColour(subjectId, vertexPalette.addToColour(subjectColour, object.getURI()));
 			}
+		}
 
-			/*
-			 * ------------------------------------------------- if this statement has an
-			 * object as a literal -------------------------------------------------
-			 */
-			else {
+		/*
+		 * ------------------------------------------------- if this statement has an
+		 * object as a literal -------------------------------------------------
+		 */
+		else {
 
-				// data typed property
-				property = statement.getPredicate();
-				propertyUri = property.getURI();
+			// data typed property
+			property = statement.getPredicate();
+			propertyUri = property.getURI();
 
-				if (statement.getObject().isLiteral()) {
-					// literal
-					Literal literal = statement.getObject().asLiteral();
-					RDFDatatype litType = literal.getDatatype();
+			if (statement.getObject().isLiteral()) {
+				// literal
+				Literal literal = statement.getObject().asLiteral();
+				RDFDatatype litType = literal.getDatatype();
 
-					String datatype = litType != null ? litType.getURI() : "";
+				String datatype = litType != null ? litType.getURI() : "";
 
-					// put datatype property to the palette
-					if (!datatypedEdgePalette.containsUri(propertyUri)) {
-						datatypedEdgePalette.addColour(propertyUri);
-					}
-					BitSet datatypedEdgeColour = datatypedEdgePalette.getColour(propertyUri);
-					/*
-					 * a trick for semantic web dog food
-					 */
-					String defaultDataType = "http://www.w3.org/2001/XMLSchema#string";
-					if (propertyUri.contains("label"))
-						datatype = defaultDataType;
-
-					// add to the coloured graph
-					graph.addLiterals(literal.toString(), subjectId, datatypedEdgeColour, datatype);
+				// put datatype property to the palette
+				if (!datatypedEdgePalette.containsUri(propertyUri)) {
+					datatypedEdgePalette.addColour(propertyUri);
 				}
+				BitSet datatypedEdgeColour = datatypedEdgePalette.getColour(propertyUri);
+				/*
+				 * a trick for semantic web dog food
+				 */
+				String defaultDataType = "http://www.w3.org/2001/XMLSchema#string";
+				if (propertyUri.contains("label"))
+					datatype = defaultDataType;
+
+				// add to the coloured graph
+				graph.addLiterals(literal.toString(), subjectId, datatypedEdgeColour, datatype);
 			}
 		}
-
-		// set the datatypedEdgePalette to the graph
-		graph.setDataTypeEdgePalette(datatypedEdgePalette);
-		return graph;
 	}
 
 	protected ColourPalette createVertexPalette(Model model) {
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.aksw.simba.lemming.ColouredGraph;
 import org.apache.jena.ontology.OntModel;
@@ -17,14 +18,24 @@ public class LinkedGeoDataset extends AbstractDatasetManager implements IDataset
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(LinkedGeoDataset.class);
 
+	/**
+	 * The ontologies used for the inference (besides RDF and RDFS).
+	 */
+	private static final String[] ONTOLOGY_FILES = { "lgeo/foaf.ttl", "lgeo/skos.ttl",
+			"lgeo/purl_dcterms.ttl", "lgeo/owl.ttl", "lgeo/terms.ttl", "lgeo/wgs84_pos.ttl",
+			"lgeo/2014-09-09-ontology.sorted.nt", "lgeo/geosparql.ttl", "lgeo/geovocab_geometry.ttl",
+			"lgeo/geovocab_spatial.ttl", "lgeo/LGD-Dump-110406-Ontology.nt", "lgeo/rdfs-ns-void.rdf",
+			"lgeo/custom_ontology.nt" };
+
 	public LinkedGeoDataset() {
 		super("LinkedGeo");
 	}
 
 	@Override
 	public ColouredGraph[] readGraphsFromFiles(String dataFolderPath) {
-		List<ColouredGraph> graphs = new ArrayList<ColouredGraph>();
-		GraphCreator creator = new GraphCreator();
+		List<Callable<Model>> modelLoaders = new ArrayList<Callable<Model>>();
+		List<String[]> snapshotFiles = new ArrayList<String[]>();
+		List<String> sources = new ArrayList<String>();
 
 		File folder = new File(dataFolderPath);
 		if (folder != null && folder.isDirectory() && folder.listFiles().length > 0) {
@@ -32,42 +43,30 @@ public class LinkedGeoDataset extends AbstractDatasetManager implements IDataset
 			// sort ascendently
 			Collections.sort(lstSortedFilesByName);
 
-			OntModel ontModel = ModelFactory.createOntologyModel();
-			ontModel.getDocumentManager().setProcessImports(false);
-			ontModel.read("22-rdf-syntax-ns", "TTL");
-			ontModel.read("rdf-schema", "TTL");
-			ontModel.read("lgeo/foaf.ttl");
-			ontModel.read("lgeo/skos.ttl");
-			ontModel.read("lgeo/purl_dcterms.ttl");
-			ontModel.read("lgeo/owl.ttl");
-			ontModel.read("lgeo/terms.ttl");
-			ontModel.read("lgeo/wgs84_pos.ttl");
-			ontModel.read("lgeo/2014-09-09-ontology.sorted.nt");
-			ontModel.read("lgeo/geosparql.ttl");
-			ontModel.read("lgeo/geovocab_geometry.ttl");
-			ontModel.read("lgeo/geovocab_spatial.ttl");
-			ontModel.read("lgeo/LGD-Dump-110406-Ontology.nt");
-			ontModel.read("lgeo/rdfs-ns-void.rdf");
-			ontModel.read("lgeo/custom_ontology.nt");
-
 			for (String fileName : lstSortedFilesByName) {
-				File file = new File(dataFolderPath + "/" + fileName);
+				final File file = new File(dataFolderPath + "/" + fileName);
 
 				if (file != null && file.isDirectory() && file.getTotalSpace() > 0) {
-					Model geoModel = ModelFactory.createDefaultModel();
+					sources.add(file.getPath());
+					List<String> subFiles = new ArrayList<String>();
 					for (File subFile : file.listFiles()) {
-						// read file to model
-						geoModel.read(subFile.getAbsolutePath(), "TTL");
-					}
-					LOGGER.info("Read data to model - " + geoModel.size() + " triples");
-					Inferer inferer = new Inferer(true);
-					// returns a new model with the added triples
-					geoModel = inferer.process(geoModel, ontModel);
-					ColouredGraph graph = creator.processModel(geoModel);
-					if (graph != null) {
-						LOGGER.info("Generated graph of " + geoModel.size() + " triples");
-						graphs.add(graph);
+						subFiles.add(subFile.getAbsolutePath());
 					}
+					snapshotFiles.add(subFiles.toArray(new String[subFiles.size()]));
+					modelLoaders.add(new Callable<Model>() {
+						@Override
+						public Model call() {
+							Model geoModel = ModelFactory.createDefaultModel();
+							for (File subFile : file.listFiles()) {
+								// read file to model
+								geoModel.read(subFile.getAbsolutePath(), "TTL");
+							}
+							LOGGER.info("Read data to model - " + geoModel.size() + " triples");
+							Inferer inferer = new Inferer(true);
+							// returns a new model with the added triples
+							return inferer.process(geoModel, createOntModel());
+						}
+					});
 				}
 			}
 			
@@ -76,7 +75,28 @@ public class LinkedGeoDataset extends AbstractDatasetManager implements IDataset
 			System.exit(1);
 		}
 
-		return graphs.toArray(new ColouredGraph[graphs.size()]);
+		sources.add("22-rdf-syntax-ns");
+		sources.add("rdf-schema");
+		sources.addAll(Arrays.asList(ONTOLOGY_FILES));
+		return createGraphs(modelLoaders, snapshotFiles, sources);
+	}
+
+	/**
+	 * Reads the ontologies used for the inference. Every snapshot gets its own
+	 * ontology model since the models are inferred in parallel and the reasoner
+	 * of an ontology model is not thread safe.
+	 * 
+	 * @return the ontology model
+	 */
+	private OntModel createOntModel() {
+		OntModel ontModel = ModelFactory.createOntologyModel();
+		ontModel.getDocumentManager().setProcessImports(false);
+		ontModel.read("22-rdf-syntax-ns", "TTL");
+		ontModel.read("rdf-schema", "TTL");
+		for (String ontologyFile : ONTOLOGY_FILES) {
+			ontModel.read(ontologyFile);
+		}
+		return ontModel;
 	}
 	
 //	public static void main(String[] args) {
@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.aksw.simba.lemming.ColouredGraph;
 import org.apache.jena.ontology.OntModel;
@@ -27,8 +28,9 @@ public class PersonGraphDataset extends AbstractDatasetManager implements IDatas
 	@Override
 	public ColouredGraph[] readGraphsFromFiles(String dataFolderPath) {
 		
-		 List<ColouredGraph> graphs = new ArrayList<ColouredGraph>();
-		 GraphCreator creator = new GraphCreator();		
+		 List<Callable<Model>> modelLoaders = new ArrayList<Callable<Model>>();
+		 List<String[]> snapshotFiles = new ArrayList<String[]>();
+		 List<String> sources = new ArrayList<String>();
 		 
 		 File folder = new File(dataFolderPath);
 		 if(folder != null && folder.isDirectory() && folder.listFiles().length > 0){
@@ -44,29 +46,32 @@ public class PersonGraphDataset extends AbstractDatasetManager implements IDatas
 			 modelOntMap.put("outputfile_2016-2010.ttl", "dbpedia_2016-10.owl");
 
 			 for (String fileName : lstSortedFilesByName) {
-				 File file = new File(dataFolderPath+"/"+fileName);
+				 final File file = new File(dataFolderPath+"/"+fileName);
+				 final String ontologyFile = modelOntMap.get(fileName);
 				 
 				 if(file != null && file.isFile() && file.getTotalSpace() > 0){
-					 Model personModel = ModelFactory.createDefaultModel();
-					 //read file to model
-					 personModel.read(file.getAbsolutePath(), "TTL");
-					 LOGGER.info("Read data to model - "+ personModel.size() + " triples");			 
-					 
-					 Inferer inferer = new Inferer(true);
-					 OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
-					 ontModel.getDocumentManager().setProcessImports(false);
-					 ontModel.read(modelOntMap.get(fileName));					 
-					 ontModel.read("22-rdf-syntax-ns", "TTL");
-					 ontModel.read("rdf-schema", "TTL");
-					 
-					 //returns a new model with the added triples
-					 personModel = inferer.process(personModel, ontModel);
-					 
-					 ColouredGraph graph = creator.processModel(personModel);
-					 if (graph != null) {
-						LOGGER.info("Generated graph of " + personModel.size() + " triples");
-						graphs.add(graph);
-					 }
+					 sources.add(file.getPath());
+					 sources.add(ontologyFile);
+					 snapshotFiles.add(new String[] { file.getAbsolutePath() });
+					 modelLoaders.add(new Callable<Model>() {
+						 @Override
+						 public Model call() {
+							 Model personModel = ModelFactory.createDefaultModel();
+							 //read file to model
+							 personModel.read(file.getAbsolutePath(), "TTL");
+							 LOGGER.info("Read data to model - "+ personModel.size() + " triples");			 
+							 
+							 Inferer inferer = new Inferer(true);
+							 OntModel ontModel = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+							 ontModel.getDocumentManager().setProcessImports(false);
+							 ontModel.read(ontologyFile);					 
+							 ontModel.read("22-rdf-syntax-ns", "TTL");
+							 ontModel.read("rdf-schema", "TTL");
+							 
+							 //returns a new model with the added triples
+							 return inferer.process(personModel, ontModel);
+						 }
+					 });
 				 }
 			 }
 		 }else{
@@ -74,7 +79,9 @@ public class PersonGraphDataset extends AbstractDatasetManager implements IDatas
              System.exit(1);
 		 }
 		 
-		 return graphs.toArray(new ColouredGraph[graphs.size()]);
+		 sources.add("22-rdf-syntax-ns");
+		 sources.add("rdf-schema");
+		 return createGraphs(modelLoaders, snapshotFiles, sources);
 	}
 	
 	
@@ -2,6 +2,7 @@ package org.aksw.simba.lemming.creation;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.aksw.simba.lemming.ColouredGraph;
@@ -24,6 +25,13 @@ public class SemanticWebDogFoodDataset extends AbstractDatasetManager implements
     
     @Override
     public ColouredGraph[] readGraphsFromFiles(String dataFolderPath) {
+        GraphCache cache = createCache(Arrays.asList(dataFolderPath, "22-rdf-syntax-ns", "rdf-schema", "swdf-owls"));
+        if (cache != null) {
+            ColouredGraph[] cachedGraphs = cache.read();
+            if (cachedGraphs != null) {
+                return cachedGraphs;
+            }
+        }
         Model dogFoodModel = ModelFactory.createDefaultModel();
         
         List<ColouredGraph> graphs = new ArrayList<ColouredGraph>();
@@ -76,7 +84,11 @@ public class SemanticWebDogFoodDataset extends AbstractDatasetManager implements
         //LiteralDatatypeAnalyser literalAnalyser = new LiteralDatatypeAnalyser(SemanticWebDogFoodReader.class.getName());
         //literalAnalyser.analyzeDatatype(dogFoodModel);
         
-        return graphs.toArray(new ColouredGraph[graphs.size()]);
+        ColouredGraph[] result = graphs.toArray(new ColouredGraph[graphs.size()]);
+        if (cache != null) {
+            cache.write(result);
+        }
+        return result;
     }
 
     private static void addToModel(File folder, Model dogFoodModel) {
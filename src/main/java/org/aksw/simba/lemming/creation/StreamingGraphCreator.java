@@ -0,0 +1,203 @@
+package org.aksw.simba.lemming.creation;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.colour.ColourPalette;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.LongOpenHashSet;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * A {@link GraphCreator} that reads RDF files without loading them into a Jena
+ * {@link Model}. The files are parsed twice. The first pass only keeps the
+ * triples needed for the palettes, i.e., one rdf:type triple per class and the
+ * rdfs:subClassOf and rdfs:subPropertyOf triples. The second pass adds every
+ * triple to the graph as soon as it has been parsed. Hence, the memory needed
+ * is close to the size of the created {@link ColouredGraph}.
+ * 
+ * Like a {@link Model}, the graph contains every triple only once. Instead of
+ * keeping the parsed triples, a duplicate is detected within the graph: only
+ * if two vertices have already been connected, their edges are compared with
+ * the colour of the property. The same literal of the same property of a
+ * vertex is added only once as well.
+ * 
+ * NOTE: no inference is applied. Datasets that rely on the {@link Inferer}
+ * have to use {@link #processModel(Model)}.
+ */
+public class StreamingGraphCreator extends GraphCreator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingGraphCreator.class);
+
+	/**
+	 * Creates a single graph from the given files. The language of the files is
+	 * guessed from their file extensions.
+	 * 
+	 * @param filePaths
+	 *            the paths of the RDF files
+	 * @return the graph containing the triples of all files
+	 */
+	public ColouredGraph processFiles(String... filePaths) {
+		return processFiles(null, filePaths);
+	}
+
+	/**
+	 * Creates a single graph from the given files.
+	 * 
+	 * @param lang
+	 *            the language of the files or null if it should be guessed from
+	 *            the file extensions
+	 * @param filePaths
+	 *            the paths of the RDF files
+	 * @return the graph containing the triples of all files
+	 */
+	public ColouredGraph processFiles(Lang lang, String... filePaths) {
+		SchemaCollector schemaCollector = new SchemaCollector();
+		for (String filePath : filePaths) {
+			RDFDataMgr.parse(schemaCollector, filePath, lang);
+		}
+		ColourPalette vertexPalette = createVertexPalette(schemaCollector.schema);
+		ColourPalette edgePalette = createEdgePalette(schemaCollector.schema);
+		ColouredGraph graph = new ColouredGraph(vertexPalette, edgePalette);
+
+		GraphSink graphSink = new GraphSink(graph);
+		for (String filePath : filePaths) {
+			RDFDataMgr.parse(graphSink, filePath, lang);
+			LOGGER.info("Read {} triples ({} duplicates) after parsing {}.", graphSink.numberOfTriples,
+					graphSink.numberOfDuplicates, filePath);
+		}
+		// set the datatypedEdgePalette to the graph
+		graph.setDataTypeEdgePalette(datatypedEdgePalette);
+		return graph;
+	}
+
+	/**
+	 * Collects the triples needed to create the vertex and edge palettes.
+	 */
+	protected static class SchemaCollector extends StreamRDFBase {
+
+		protected Model schema = ModelFactory.createDefaultModel();
+		protected Set<Node> classes = new HashSet<Node>();
+
+		@Override
+		public void triple(Triple triple) {
+			Node predicate = triple.getPredicate();
+			if (predicate.equals(RDF.type.asNode())) {
+				// one triple per class is enough to know the class
+				if (classes.add(triple.getObject())) {
+					schema.getGraph().add(triple);
+				}
+			} else if (predicate.equals(RDFS.subClassOf.asNode())
+					|| predicate.equals(RDFS.subPropertyOf.asNode())) {
+				schema.getGraph().add(triple);
+			}
+		}
+
+		@Override
+		public void quad(Quad quad) {
+			triple(quad.asTriple());
+		}
+	}
+
+	/**
+	 * Adds every parsed triple to the graph unless it has been added before.
+	 */
+	protected class GraphSink extends StreamRDFBase {
+
+		/**
+		 * Empty model that is only used to wrap the parsed triples into
+		 * statements.
+		 */
+		protected Model factory = ModelFactory.createDefaultModel();
+		protected ColouredGraph graph;
+		protected ObjectIntOpenHashMap<Resource> resourceIdMapping = new ObjectIntOpenHashMap<Resource>();
+		/**
+		 * The pairs of vertices which are connected by at least one edge (see
+		 * {@link #toPair(int, int)}).
+		 */
+		protected LongOpenHashSet connectedPairs = new LongOpenHashSet();
+		protected long numberOfTriples = 0;
+		protected long numberOfDuplicates = 0;
+
+		public GraphSink(ColouredGraph graph) {
+			this.graph = graph;
+		}
+
+		@Override
+		public void triple(Triple triple) {
+			Statement statement = factory.asStatement(triple);
+			if (isDuplicate(statement)) {
+				++numberOfDuplicates;
+				return;
+			}
+			addStatement(statement, graph, resourceIdMapping);
+			if (statement.getObject().isResource()) {
+				connectedPairs.add(toPair(resourceIdMapping.get(statement.getSubject()),
+						resourceIdMapping.get(statement.getObject().asResource())));
+			}
+			++numberOfTriples;
+		}
+
+		/**
+		 * @return true if the graph already contains the given statement
+		 */
+		protected boolean isDuplicate(Statement statement) {
+			if (!resourceIdMapping.containsKey(statement.getSubject())) {
+				return false;
+			}
+			int subjectId = resourceIdMapping.lget();
+			String propertyUri = statement.getPredicate().getURI();
+			if (statement.getObject().isResource()) {
+				if (!resourceIdMapping.containsKey(statement.getObject().asResource())) {
+					return false;
+				}
+				int objectId = resourceIdMapping.lget();
+				if (!connectedPairs.contains(toPair(subjectId, objectId)) || !edgePalette.containsUri(propertyUri)) {
+					return false;
+				}
+				BitSet colour = edgePalette.getColour(propertyUri);
+				for (int edgeId : graph.getEdgesConnecting(subjectId, objectId).toIntArray()) {
+					if (colour.equals(graph.getEdgeColour(edgeId))) {
+						return true;
+					}
+				}
+				return false;
+			}
+			if (statement.getObject().isLiteral() && datatypedEdgePalette.containsUri(propertyUri)) {
+				Map<BitSet, List<String>> literals = graph.getMapDTEdgeColoursToLiterals(subjectId);
+				if (literals != null) {
+					List<String> values = literals.get(datatypedEdgePalette.getColour(propertyUri));
+					return (values != null) && values.contains(statement.getObject().asLiteral().toString());
+				}
+			}
+			return false;
+		}
+
+		protected long toPair(int subjectId, int objectId) {
+			return (((long) subjectId) << 32) | (objectId & 0xFFFFFFFFL);
+		}
+
+		@Override
+		public void quad(Quad quad) {
+			triple(quad.asTriple());
+		}
+	}
+}
@@ -16,7 +16,9 @@ import toools.collections.primitive.IntQueue.ACCESS_MODE;
  * This diameter algorithm is not based on a diameter matrix and, thus, needs
  * less memory than the standard diameter algorithm (
  * {@link grph.algo.distance.DistanceMatrixBasedDiameterAlgorithm}) used in the
- * {@link Grph} class.
+ * {@link Grph} class. However, it still runs a BFS from every vertex.
+ * {@link IFubDiameterAlgorithm} computes the same directed diameter and
+ * typically needs only a few of them.
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  *
@@ -0,0 +1,404 @@
+package org.aksw.simba.lemming.grph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import grph.Grph;
+import grph.GrphAlgorithm;
+
+/**
+ * Computes the diameter of a graph with the iFUB algorithm of Crescenzi et al.
+ * or its directed variant diFUB.
+ *
+ * By default, the directed diameter is computed, i.e., the longest of the
+ * shortest paths which follow the directions of the edges. This is the
+ * diameter {@link DiameterAlgorithm} computes with a BFS from every vertex. If
+ * the graph is strongly connected, diFUB runs a forward and a backward BFS
+ * from the vertex u with the highest degree. Afterwards, the forward levels of
+ * u are processed together with its backward levels starting with the
+ * vertices farthest from u. The backward eccentricities of the vertices of the
+ * forward level i and the forward eccentricities of the vertices of the
+ * backward level i raise the lower bound while all other paths cannot be
+ * longer than 2(i-1). If the graph is only weakly connected, some distances
+ * are infinite and the bounds do not hold. In this case, the largest finite
+ * distance is determined with a BFS from every vertex. Like for
+ * {@link DiameterAlgorithm}, a graph which is not connected causes an
+ * {@link IllegalStateException}.
+ *
+ * The diameter of the undirected view of the graph can be computed instead
+ * (see {@link #IFubDiameterAlgorithm(boolean, boolean)}). Instead of a BFS from every vertex, a 4-sweep
+ * determines a lower bound and a central vertex u. Afterwards, the vertices
+ * are processed level by level starting with the vertices farthest from u.
+ * The eccentricities of the vertices of level i raise the lower bound while
+ * all remaining vertices cannot have an eccentricity larger than 2(i-1). The
+ * search stops as soon as the bounds meet which typically happens after a
+ * handful of BFS runs. In the worst case, it is not slower than running a BFS
+ * from every vertex.
+ *
+ * In the undirected case, the graph does not have to be connected. The
+ * diameter of its largest connected component is returned. In the approximate
+ * mode, the lower bound of the 4-sweep is returned which is exact for trees
+ * and at least half of the diameter.
+ *
+ * The graph is transformed into compressed sparse row adjacencies once and
+ * every thread reuses its own BFS buffers.
+ *
+ * @see <a href="https://doi.org/10.1016/j.tcs.2012.09.018">On computing the
+ *      diameter of real-world undirected graphs</a>
+ */
+public class IFubDiameterAlgorithm extends GrphAlgorithm<Integer> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final boolean directed;
+	private final boolean approximate;
+
+	/**
+	 * Creates an algorithm for the exact directed diameter.
+	 */
+	public IFubDiameterAlgorithm() {
+		this(true, false);
+	}
+
+	/**
+	 * @param directed
+	 *            true if the paths have to follow the directions of the edges,
+	 *            false if the diameter of the undirected view of the graph
+	 *            should be computed
+	 * @param approximate
+	 *            true if the lower bound of the 4-sweep should be returned
+	 *            instead of the exact diameter. This is only supported for the
+	 *            undirected diameter.
+	 */
+	public IFubDiameterAlgorithm(boolean directed, boolean approximate) {
+		if (directed && approximate) {
+			throw new IllegalArgumentException("The approximation is only supported for the undirected diameter.");
+		}
+		this.directed = directed;
+		this.approximate = approximate;
+	}
+
+	@Override
+	public Integer compute(Grph graph) {
+		int[] vertices = graph.getVertices().toIntArray();
+		if (directed && (vertices.length == 0)) {
+			throw new IllegalStateException("cannot compute the diameter of a null graph");
+		}
+		if (vertices.length < 2) {
+			return 0;
+		}
+		if (directed && !graph.isConnected()) {
+			throw new IllegalStateException("cannot compute the diameter of a non-connected graph");
+		}
+		int numberOfVertexIds = 0;
+		for (int v : vertices) {
+			numberOfVertexIds = Math.max(numberOfVertexIds, v + 1);
+		}
+		int[][] outNeighbours = graph.getNeighbors(Grph.DIRECTION.out);
+		int[][] inNeighbours = graph.getNeighbors(Grph.DIRECTION.in);
+		if (directed) {
+			int[] outOffsets = createOffsets(numberOfVertexIds, vertices, outNeighbours);
+			int[] inOffsets = createOffsets(numberOfVertexIds, vertices, inNeighbours);
+			return new Search(outOffsets, fill(outOffsets, vertices, outNeighbours), inOffsets,
+					fill(inOffsets, vertices, inNeighbours), vertices, false).computeDirectedDiameter();
+		}
+		int[] offsets = createOffsets(numberOfVertexIds, vertices, outNeighbours, inNeighbours);
+		int[] neighbours = fill(offsets, vertices, outNeighbours, inNeighbours);
+		return new Search(offsets, neighbours, null, null, vertices, approximate).computeDiameter();
+	}
+
+	/**
+	 * @return the CSR offsets of the union of the given neighbourhoods
+	 */
+	private static int[] createOffsets(int numberOfVertexIds, int[] vertices, int[][]... neighbourhoods) {
+		int[] offsets = new int[numberOfVertexIds + 1];
+		for (int v : vertices) {
+			for (int[][] neighbourhood : neighbourhoods) {
+				offsets[v + 1] += length(neighbourhood, v);
+			}
+		}
+		for (int v = 0; v < numberOfVertexIds; ++v) {
+			offsets[v + 1] += offsets[v];
+		}
+		return offsets;
+	}
+
+	/**
+	 * @return the CSR neighbours of the union of the given neighbourhoods
+	 */
+	private static int[] fill(int[] offsets, int[] vertices, int[][]... neighbourhoods) {
+		int[] neighbours = new int[offsets[offsets.length - 1]];
+		for (int v : vertices) {
+			int position = offsets[v];
+			for (int[][] neighbourhood : neighbourhoods) {
+				int length = length(neighbourhood, v);
+				if (length > 0) {
+					System.arraycopy(neighbourhood[v], 0, neighbours, position, length);
+					position += length;
+				}
+			}
+		}
+		return neighbours;
+	}
+
+	private static int length(int[][] neighbourhoods, int vertex) {
+		return (vertex < neighbourhoods.length) && (neighbourhoods[vertex] != null) ? neighbourhoods[vertex].length
+				: 0;
+	}
+
+	/**
+	 * The state of a single diameter computation on a CSR adjacency. In the
+	 * directed case, the offsets and neighbours contain the out-going edges
+	 * and the in-offsets and in-neighbours the incoming edges.
+	 */
+	private static class Search {
+
+		private final int[] offsets;
+		private final int[] neighbours;
+		private final int[] inOffsets;
+		private final int[] inNeighbours;
+		private final int[] vertices;
+		private final boolean approximate;
+		/**
+		 * BFS buffers of every thread which are reused for all searches of
+		 * this computation
+		 */
+		private final ThreadLocal<BfsBuffer> buffers;
+
+		Search(int[] offsets, int[] neighbours, int[] inOffsets, int[] inNeighbours, int[] vertices,
+				boolean approximate) {
+			this.offsets = offsets;
+			this.neighbours = neighbours;
+			this.inOffsets = inOffsets;
+			this.inNeighbours = inNeighbours;
+			this.vertices = vertices;
+			this.approximate = approximate;
+			final int numberOfVertexIds = offsets.length - 1;
+			buffers = ThreadLocal.withInitial(() -> new BfsBuffer(numberOfVertexIds));
+		}
+
+		int computeDiameter() {
+			BfsBuffer buffer = buffers.get();
+			int start = getMaxDegreeVertexOfLargestComponent(buffer);
+
+			// 4-sweep: two double sweeps, the second one starts in the middle of the first path
+			buffer.search(start, offsets, neighbours);
+			int a1 = buffer.getFarthestVertex();
+			buffer.search(a1, offsets, neighbours);
+			int lowerBound = buffer.getEccentricity();
+			int r2 = buffer.getMiddleOfPathTo(buffer.getFarthestVertex());
+			buffer.search(r2, offsets, neighbours);
+			int a2 = buffer.getFarthestVertex();
+			buffer.search(a2, offsets, neighbours);
+			lowerBound = Math.max(lowerBound, buffer.getEccentricity());
+			int u = buffer.getMiddleOfPathTo(buffer.getFarthestVertex());
+			if (approximate) {
+				return lowerBound;
+			}
+
+			// iFUB: process the BFS levels of u starting with the farthest one
+			buffer.search(u, offsets, neighbours);
+			int level = buffer.getEccentricity();
+			lowerBound = Math.max(lowerBound, level);
+			int upperBound = 2 * level;
+			int[][] levels = buffer.getLevels();
+			while (upperBound > lowerBound) {
+				int levelBound = maxEccentricity(levels[level]);
+				lowerBound = Math.max(lowerBound, levelBound);
+				if (lowerBound > 2 * (level - 1)) {
+					return lowerBound;
+				}
+				upperBound = 2 * (level - 1);
+				--level;
+			}
+			return lowerBound;
+		}
+
+		/**
+		 * diFUB on the directed adjacency. If the graph is not strongly
+		 * connected, a BFS is started from every vertex.
+		 */
+		int computeDirectedDiameter() {
+			BfsBuffer buffer = buffers.get();
+			int u = vertices[0];
+			for (int v : vertices) {
+				if (getDegree(v) > getDegree(u)) {
+					u = v;
+				}
+			}
+			buffer.search(u, offsets, neighbours);
+			int forwardEccentricity = buffer.getEccentricity();
+			int[][] forwardLevels = buffer.getLevels();
+			boolean stronglyConnected = buffer.getNumberOfVisitedVertices() == vertices.length;
+			buffer.search(u, inOffsets, inNeighbours);
+			int backwardEccentricity = buffer.getEccentricity();
+			int[][] backwardLevels = buffer.getLevels();
+			stronglyConnected &= buffer.getNumberOfVisitedVertices() == vertices.length;
+			if (!stronglyConnected) {
+				return maxEccentricity(vertices, offsets, neighbours);
+			}
+
+			int lowerBound = Math.max(forwardEccentricity, backwardEccentricity);
+			int level = lowerBound;
+			// all paths which do not start in a backward level >= i or end in a forward level >= i are not longer than 2(i-1)
+			while (lowerBound < 2 * level) {
+				if (level < forwardLevels.length) {
+					lowerBound = Math.max(lowerBound, maxEccentricity(forwardLevels[level], inOffsets, inNeighbours));
+				}
+				if (level < backwardLevels.length) {
+					lowerBound = Math.max(lowerBound, maxEccentricity(backwardLevels[level], offsets, neighbours));
+				}
+				--level;
+			}
+			return lowerBound;
+		}
+
+		private int getDegree(int vertex) {
+			return (offsets[vertex + 1] - offsets[vertex]) + (inOffsets[vertex + 1] - inOffsets[vertex]);
+		}
+
+		/**
+		 * @return the maximum eccentricity of the given vertices. The searches
+		 *         run in parallel.
+		 */
+		private int maxEccentricity(int[] sources) {
+			return maxEccentricity(sources, offsets, neighbours);
+		}
+
+		/**
+		 * @return the maximum eccentricity of the given vertices within the
+		 *         given adjacency. The searches run in parallel.
+		 */
+		private int maxEccentricity(int[] sources, int[] offsets, int[] neighbours) {
+			return IntStream.of(sources).parallel().map(source -> {
+				BfsBuffer buffer = buffers.get();
+				buffer.search(source, offsets, neighbours);
+				return buffer.getEccentricity();
+			}).max().orElse(0);
+		}
+
+		/**
+		 * Labels the connected components and returns the vertex with the
+		 * highest degree of the largest component.
+		 */
+		private int getMaxDegreeVertexOfLargestComponent(BfsBuffer buffer) {
+			boolean[] visited = new boolean[offsets.length - 1];
+			int largestComponentSize = 0;
+			int bestVertex = vertices[0];
+			for (int v : vertices) {
+				if (visited[v]) {
+					continue;
+				}
+				buffer.search(v, offsets, neighbours);
+				int size = buffer.getNumberOfVisitedVertices();
+				int maxDegreeVertex = v;
+				for (int i = 0; i < size; ++i) {
+					int w = buffer.getVisitedVertex(i);
+					visited[w] = true;
+					if ((offsets[w + 1] - offsets[w]) > (offsets[maxDegreeVertex + 1] - offsets[maxDegreeVertex])) {
+						maxDegreeVertex = w;
+					}
+				}
+				if (size > largestComponentSize) {
+					largestComponentSize = size;
+					bestVertex = maxDegreeVertex;
+				}
+			}
+			return bestVertex;
+		}
+	}
+
+	/**
+	 * The arrays of a BFS. The distances are reset after every search by
+	 * going through the visited vertices, i.e., a search only costs time
+	 * proportional to the size of the component of its source.
+	 */
+	private static class BfsBuffer {
+
+		private final int[] distances;
+		private final int[] parents;
+		/**
+		 * the visited vertices in the order of their distance to the source
+		 */
+		private final int[] queue;
+		private int queueSize = 0;
+
+		BfsBuffer(int numberOfVertexIds) {
+			distances = new int[numberOfVertexIds];
+			parents = new int[numberOfVertexIds];
+			queue = new int[numberOfVertexIds];
+			Arrays.fill(distances, -1);
+		}
+
+		void search(int source, int[] offsets, int[] neighbours) {
+			for (int i = 0; i < queueSize; ++i) {
+				distances[queue[i]] = -1;
+			}
+			queueSize = 0;
+			distances[source] = 0;
+			parents[source] = source;
+			queue[queueSize++] = source;
+			for (int head = 0; head < queueSize; ++head) {
+				int v = queue[head];
+				int distance = distances[v] + 1;
+				for (int i = offsets[v]; i < offsets[v + 1]; ++i) {
+					int n = neighbours[i];
+					if (distances[n] == -1) {
+						distances[n] = distance;
+						parents[n] = v;
+						queue[queueSize++] = n;
+					}
+				}
+			}
+		}
+
+		int getNumberOfVisitedVertices() {
+			return queueSize;
+		}
+
+		int getVisitedVertex(int index) {
+			return queue[index];
+		}
+
+		/**
+		 * @return the last vertex found by the last search
+		 */
+		int getFarthestVertex() {
+			return queue[queueSize - 1];
+		}
+
+		int getEccentricity() {
+			return distances[getFarthestVertex()];
+		}
+
+		/**
+		 * @return the vertex in the middle of the shortest path from the
+		 *         source of the last search to the given vertex
+		 */
+		int getMiddleOfPathTo(int vertex) {
+			int steps = distances[vertex] / 2;
+			for (int i = 0; i < steps; ++i) {
+				vertex = parents[vertex];
+			}
+			return vertex;
+		}
+
+		/**
+		 * @return the visited vertices of the last search grouped by their
+		 *         distance to the source
+		 */
+		int[][] getLevels() {
+			int[][] levels = new int[getEccentricity() + 1][];
+			int start = 0;
+			for (int level = 0; level < levels.length; ++level) {
+				int end = start;
+				while ((end < queueSize) && (distances[queue[end]] == level)) {
+					++end;
+				}
+				levels[level] = Arrays.copyOfRange(queue, start, end);
+				start = end;
+			}
+			return levels;
+		}
+	}
+}
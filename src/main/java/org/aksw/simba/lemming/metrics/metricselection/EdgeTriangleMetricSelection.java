@@ -8,15 +8,39 @@ import org.aksw.simba.lemming.metrics.single.edgetriangles.EdgeNumberOfSimpleTri
 import org.aksw.simba.lemming.metrics.single.edgetriangles.MultiThreadedNodeNeighborsCommonEdgesMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.NodeIteratorMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.forward.ForwardEdgeTriangleMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.DegreeOrderedTriangleMetric;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * @author DANISH AHMED on 8/27/2018
  */
 public class EdgeTriangleMetricSelection{
 
+    /**
+     * The selector is shared by all instances to measure the algorithms only
+     * once per graph shape.
+     */
+    private static final TriangleMetricSelector SELECTOR = new TriangleMetricSelector("edge",
+            Arrays.<Supplier<TriangleMetric>> asList(ForwardEdgeTriangleMetric::new, EdgeIteratorMetric::new,
+                    EdgeNumberOfSimpleTrianglesMetric::new, NodeIteratorMetric::new,
+                    MultiThreadedNodeNeighborsCommonEdgesMetric::new, () -> new DegreeOrderedTriangleMetric(true)));
+
+    /**
+     * @return the algorithm which has been measured to be the fastest for
+     *         graphs of the shape of the given graph (see {@link TriangleMetricSelector})
+     */
+    public SingleValueMetric getFastestMetric(ColouredGraph graph) {
+        return SELECTOR.select(graph);
+    }
+
+    /**
+     * @return the algorithm with the lowest estimated complexity based on the
+     *         numbers of edges and vertices
+     */
     public SingleValueMetric getMinComplexityMetric(ColouredGraph graph) {
         int edges = graph.getGraph().getNumberOfEdges();
         int vertices = graph.getGraph().getNumberOfVertices();
@@ -27,6 +51,7 @@ public class EdgeTriangleMetricSelection{
         edgeTriangleMetrics.add(new EdgeNumberOfSimpleTrianglesMetric());
         edgeTriangleMetrics.add(new NodeIteratorMetric());
         edgeTriangleMetrics.add(new MultiThreadedNodeNeighborsCommonEdgesMetric());
+        edgeTriangleMetrics.add(new DegreeOrderedTriangleMetric(true));
 
         double minComplexity = Integer.MAX_VALUE;
         TriangleMetric minEdgeMetric = null;
@@ -0,0 +1,111 @@
+package org.aksw.simba.lemming.metrics.metricselection;
+
+import org.aksw.simba.lemming.ColouredGraph;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * A coarse fingerprint of a graph that determines which algorithm counts its
+ * triangles fastest. Next to the size of the graph, it covers the skew of the
+ * degree distribution, i.e., the ratio of the maximum degree and the average
+ * degree, and the number of hubs, i.e., vertices whose degree is larger than
+ * the square root of twice the number of edges. All values are bucketed by
+ * their binary logarithm. Hence, graphs of similar shape share their
+ * fingerprint.
+ */
+public class GraphShape {
+
+    private final int vertexBucket;
+    private final int edgeBucket;
+    private final int skewBucket;
+    private final int hubBucket;
+
+    public GraphShape(int vertexBucket, int edgeBucket, int skewBucket, int hubBucket) {
+        this.vertexBucket = vertexBucket;
+        this.edgeBucket = edgeBucket;
+        this.skewBucket = skewBucket;
+        this.hubBucket = hubBucket;
+    }
+
+    public static GraphShape of(ColouredGraph graph) {
+        int vertices = graph.getGraph().getNumberOfVertices();
+        int edges = graph.getGraph().getNumberOfEdges();
+        // the degree of a vertex is the sum of its in and out degree
+        IntArrayList inDegrees = graph.getGraph().getAllInEdgeDegrees();
+        IntArrayList outDegrees = graph.getGraph().getAllOutEdgeDegrees();
+        double hubDegree = Math.sqrt(2.0 * edges);
+        int maxDegree = 0;
+        int hubs = 0;
+        for (int i = 0; i < inDegrees.size(); ++i) {
+            int degree = inDegrees.getInt(i) + outDegrees.getInt(i);
+            if (degree > maxDegree) {
+                maxDegree = degree;
+            }
+            if (degree > hubDegree) {
+                ++hubs;
+            }
+        }
+        double avgDegree = vertices > 0 ? (2.0 * edges) / vertices : 0;
+        int skew = avgDegree > 0 ? (int) (maxDegree / avgDegree) : 0;
+        return new GraphShape(bucket(vertices), bucket(edges), bucket(skew), bucket(hubs));
+    }
+
+    private static int bucket(int value) {
+        return 32 - Integer.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * @return the bucket of the ratio of the maximum and the average degree
+     */
+    public int getSkewBucket() {
+        return skewBucket;
+    }
+
+    /**
+     * @return the bucket of the number of hubs
+     */
+    public int getHubBucket() {
+        return hubBucket;
+    }
+
+    /**
+     * Parses the string representation of a shape (see {@link #toString()}).
+     *
+     * @return the shape or null if the string is not a valid representation
+     */
+    public static GraphShape parse(String shape) {
+        String[] parts = shape.split("-");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new GraphShape(Integer.parseInt(parts[0].substring(1)), Integer.parseInt(parts[1].substring(1)),
+                    Integer.parseInt(parts[2].substring(1)), Integer.parseInt(parts[3].substring(1)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return (((((vertexBucket * 31) + edgeBucket) * 31) + skewBucket) * 31) + hubBucket;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof GraphShape)) {
+            return false;
+        }
+        GraphShape other = (GraphShape) obj;
+        return (vertexBucket == other.vertexBucket) && (edgeBucket == other.edgeBucket)
+                && (skewBucket == other.skewBucket) && (hubBucket == other.hubBucket);
+    }
+
+    @Override
+    public String toString() {
+        return "v" + vertexBucket + "-e" + edgeBucket + "-s" + skewBucket + "-h" + hubBucket;
+    }
+}
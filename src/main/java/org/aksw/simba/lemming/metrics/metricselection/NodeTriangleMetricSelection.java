@@ -8,15 +8,39 @@ import org.aksw.simba.lemming.metrics.single.nodetriangles.MultiThreadedNodeNeig
 import org.aksw.simba.lemming.metrics.single.nodetriangles.NodeIteratorCoreMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.NodeIteratorMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.forward.ForwardNodeTriangleMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.DegreeOrderedTriangleMetric;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * @author DANISH AHMED on 8/27/2018
  */
 public class NodeTriangleMetricSelection {
 
+    /**
+     * The selector is shared by all instances to measure the algorithms only
+     * once per graph shape.
+     */
+    private static final TriangleMetricSelector SELECTOR = new TriangleMetricSelector("node",
+            Arrays.<Supplier<TriangleMetric>> asList(ForwardNodeTriangleMetric::new, EdgeIteratorMetric::new,
+                    NodeIteratorMetric::new, NodeIteratorCoreMetric::new, MultiThreadedNodeNeighborTrianglesMetric::new,
+                    () -> new DegreeOrderedTriangleMetric(false)));
+
+    /**
+     * @return the algorithm which has been measured to be the fastest for
+     *         graphs of the shape of the given graph (see {@link TriangleMetricSelector})
+     */
+    public SingleValueMetric getFastestMetric(ColouredGraph graph) {
+        return SELECTOR.select(graph);
+    }
+
+    /**
+     * @return the algorithm with the lowest estimated complexity based on the
+     *         numbers of edges and vertices
+     */
     public SingleValueMetric getMinComplexityMetric(ColouredGraph graph) {
         int edges = graph.getGraph().getNumberOfEdges();
         int vertices = graph.getGraph().getNumberOfVertices();
@@ -27,6 +51,7 @@ public class NodeTriangleMetricSelection {
         nodeTriangleMetrics.add(new NodeIteratorMetric());
         nodeTriangleMetrics.add(new NodeIteratorCoreMetric());
         nodeTriangleMetrics.add(new MultiThreadedNodeNeighborTrianglesMetric());
+        nodeTriangleMetrics.add(new DegreeOrderedTriangleMetric(false));
 
         double minComplexity = Integer.MAX_VALUE;
         TriangleMetric minNodeMetric = null;
@@ -0,0 +1,394 @@
+package org.aksw.simba.lemming.metrics.metricselection;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.TriangleMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+import grph.Grph;
+
+/**
+ * Selects the fastest of several triangle counting algorithms for a graph by
+ * measuring them. The graph is reduced to its {@link GraphShape}. For a shape
+ * that has not been seen before, every algorithm counts the triangles of a
+ * probe, i.e., of a sampled subgraph which keeps the hubs of the graph and
+ * their neighbourhoods (see {@link #createProbe(ColouredGraph, int, Random)}),
+ * and the fastest algorithm is cached for this shape. An algorithm whose first
+ * run on the probe is already slower than the fastest algorithm so far is not
+ * measured any further, and an algorithm which does not finish within
+ * {@link #setProbeTimeLimit(long)} is not considered. The measurement of a
+ * shape does not block the selection for other shapes.
+ *
+ * The choices can be persisted in a calibration table, e.g., to reuse the
+ * measurements of a previous run on the same machine. The table is a
+ * properties file mapping the name of the selector and the shape (e.g.,
+ * "node.v17-e20-s9-h6") to the class name of the chosen algorithm. Its path is
+ * read from the system property {@value #CALIBRATION_FILE_PROPERTY}. New
+ * choices are added to the table.
+ */
+public class TriangleMetricSelector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TriangleMetricSelector.class);
+
+    public static final String CALIBRATION_FILE_PROPERTY = "lemming.triangles.calibration";
+    /**
+     * The maximum number of edges of a probe.
+     */
+    public static final int PROBE_EDGES = 50000;
+    /**
+     * The number of measured runs of every algorithm on the probe. The
+     * fastest run counts.
+     */
+    private static final int PROBE_RUNS = 2;
+    private static final long PROBE_SEED = 42;
+    /**
+     * The default time in milliseconds a single algorithm may take for all of
+     * its runs on the probe.
+     */
+    public static final long DEFAULT_PROBE_TIME_LIMIT = 60000;
+
+    private final String name;
+    private final List<Supplier<TriangleMetric>> candidates;
+    /**
+     * The choices per shape. The future of a shape which is still measured is
+     * not done, i.e., other threads selecting for the same shape wait for it.
+     */
+    private final Map<GraphShape, Future<Supplier<TriangleMetric>>> choices = new HashMap<GraphShape, Future<Supplier<TriangleMetric>>>();
+    private final File calibrationFile;
+    private long probeTimeLimit = DEFAULT_PROBE_TIME_LIMIT;
+
+    /**
+     * Creates a selector using the calibration table of the system property
+     * {@value #CALIBRATION_FILE_PROPERTY} (if it is set).
+     */
+    public TriangleMetricSelector(String name, List<Supplier<TriangleMetric>> candidates) {
+        this(name, candidates, System.getProperty(CALIBRATION_FILE_PROPERTY) == null ? null
+                : new File(System.getProperty(CALIBRATION_FILE_PROPERTY)));
+    }
+
+    /**
+     * @param name
+     *            the name of the selector which distinguishes its entries of
+     *            the calibration table
+     * @param candidates
+     *            the factories of the algorithms the selector chooses from.
+     *            Every selection creates a new instance.
+     * @param calibrationFile
+     *            the calibration table or null
+     */
+    public TriangleMetricSelector(String name, List<Supplier<TriangleMetric>> candidates, File calibrationFile) {
+        this.name = name;
+        this.candidates = candidates;
+        this.calibrationFile = calibrationFile;
+        if (calibrationFile != null && calibrationFile.exists()) {
+            readCalibration();
+        }
+    }
+
+    /**
+     * Sets the time in milliseconds a single algorithm may take for all of its
+     * runs on the probe. An algorithm which exceeds it is not considered.
+     */
+    public void setProbeTimeLimit(long probeTimeLimit) {
+        this.probeTimeLimit = probeTimeLimit;
+    }
+
+    /**
+     * @return a new instance of the algorithm which is the fastest for graphs
+     *         of the shape of the given graph
+     */
+    public TriangleMetric select(ColouredGraph graph) {
+        GraphShape shape = GraphShape.of(graph);
+        Future<Supplier<TriangleMetric>> choice;
+        FutureTask<Supplier<TriangleMetric>> measurement = null;
+        synchronized (this) {
+            choice = choices.get(shape);
+            if (choice == null) {
+                measurement = new FutureTask<Supplier<TriangleMetric>>(() -> measure(graph, shape));
+                choice = measurement;
+                choices.put(shape, choice);
+            }
+        }
+        if (measurement != null) {
+            // the measurement runs outside of the lock
+            measurement.run();
+            if (calibrationFile != null) {
+                synchronized (this) {
+                    writeCalibration();
+                }
+            }
+        }
+        return getChoice(choice).get();
+    }
+
+    private Supplier<TriangleMetric> getChoice(Future<Supplier<TriangleMetric>> choice) {
+        try {
+            return choice.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for the measurement. Using the first algorithm.");
+        } catch (ExecutionException e) {
+            LOGGER.error("The measurement failed. Using the first algorithm.", e.getCause());
+        }
+        return candidates.get(0);
+    }
+
+    private Supplier<TriangleMetric> measure(ColouredGraph graph, GraphShape shape) {
+        ColouredGraph probe = createProbe(graph, PROBE_EDGES, new Random(PROBE_SEED));
+        Supplier<TriangleMetric> fastest = candidates.get(0);
+        long fastestTime = Long.MAX_VALUE;
+        for (Supplier<TriangleMetric> candidate : candidates) {
+            TriangleMetric metric = candidate.get();
+            final long bound = fastestTime;
+            // the runs take place in a separate thread which is abandoned if it exceeds the time limit
+            FutureTask<Long> runs = new FutureTask<Long>(() -> measure(metric, probe, bound));
+            Thread thread = new Thread(runs, "triangle-probe-" + metric.getClass().getSimpleName());
+            thread.setDaemon(true);
+            thread.start();
+            long time;
+            try {
+                time = runs.get(probeTimeLimit, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                runs.cancel(true);
+                LOGGER.warn(metric.getClass().getSimpleName() + " exceeded the time limit of " + probeTimeLimit
+                        + " ms on the probe and is not considered.");
+                continue;
+            } catch (ExecutionException e) {
+                LOGGER.warn(metric.getClass().getSimpleName() + " failed on the probe and is not considered.",
+                        e.getCause());
+                continue;
+            } catch (InterruptedException e) {
+                runs.cancel(true);
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (time < fastestTime) {
+                fastestTime = time;
+                fastest = candidate;
+            }
+        }
+        LOGGER.info("Selected " + fastest.get().getClass().getSimpleName() + " for " + name + " triangles of graphs of shape "
+                + shape + " (" + (fastestTime / 1000000) + " ms on a probe with " + probe.getGraph().getNumberOfEdges() + " edges).");
+        return fastest;
+    }
+
+    /**
+     * Measures the given algorithm on the probe. The first run warms up the
+     * algorithm. If it is already slower than the given bound, i.e., the time
+     * of the fastest algorithm so far, the algorithm is not run again.
+     *
+     * @return the time of the fastest measured run or the time of the first
+     *         run if it exceeds the bound
+     */
+    private static long measure(TriangleMetric metric, ColouredGraph probe, long bound) {
+        long start = System.nanoTime();
+        metric.apply(probe);
+        long time = System.nanoTime() - start;
+        if (time > bound) {
+            return time;
+        }
+        time = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_RUNS; ++i) {
+            start = System.nanoTime();
+            metric.apply(probe);
+            time = Math.min(time, System.nanoTime() - start);
+        }
+        return time;
+    }
+
+    /**
+     * Creates a subgraph of the given graph induced by all hubs of the graph
+     * (as defined by {@link GraphShape}) and by every other vertex with the
+     * same probability. The probability is chosen such that the expected
+     * number of edges is the given maximum. Since every remaining vertex keeps
+     * the same share of its neighbours, the probe keeps the ratio of the
+     * maximum and the average degree as well as the hubs whose neighbourhoods
+     * dominate the costs of counting triangles. A uniform sample of the edges
+     * would shrink all degrees while the hub degree only shrinks with the
+     * square root of the number of edges, i.e., it would lose most of the
+     * hubs. If the edges between the hubs alone exceed the maximum, each of
+     * them is kept with the same probability. Vertices without edges are left
+     * out.
+     */
+    public static ColouredGraph createProbe(ColouredGraph graph, int maxEdges, Random random) {
+        Grph grph = graph.getGraph();
+        int[] edges = graph.getEdges().toIntArray();
+        int[] tails = new int[edges.length];
+        int[] heads = new int[edges.length];
+        IntIntOpenHashMap degrees = new IntIntOpenHashMap();
+        for (int i = 0; i < edges.length; ++i) {
+            tails[i] = grph.getDirectedSimpleEdgeTail(edges[i]);
+            heads[i] = grph.getDirectedSimpleEdgeHead(edges[i]);
+            degrees.putOrAdd(tails[i], 1, 1);
+            degrees.putOrAdd(heads[i], 1, 1);
+        }
+
+        // all hubs are part of the probe, the other vertices are sampled
+        double hubDegree = Math.sqrt(2.0 * edges.length);
+        BitSet hubs = new BitSet();
+        long hubEdges = 0;
+        long hubNeighbourEdges = 0;
+        for (int i = 0; i < edges.length; ++i) {
+            boolean isTailHub = degrees.get(tails[i]) > hubDegree;
+            boolean isHeadHub = degrees.get(heads[i]) > hubDegree;
+            if (isTailHub) {
+                hubs.set(tails[i]);
+            }
+            if (isHeadHub) {
+                hubs.set(heads[i]);
+            }
+            if (isTailHub && isHeadHub) {
+                ++hubEdges;
+            } else if (isTailHub || isHeadHub) {
+                ++hubNeighbourEdges;
+            }
+        }
+        double vertexProbability = 1;
+        if (edges.length > maxEdges) {
+            vertexProbability = getVertexProbability(hubEdges, hubNeighbourEdges,
+                    edges.length - hubEdges - hubNeighbourEdges, maxEdges);
+        }
+        BitSet probeVertexIds = new BitSet();
+        int[] vertices = graph.getVertices().toIntArray();
+        Arrays.sort(vertices);
+        for (int vertexId : vertices) {
+            if (hubs.get(vertexId) || (vertexProbability > 0 && random.nextDouble() < vertexProbability)) {
+                probeVertexIds.set(vertexId);
+            }
+        }
+
+        IntArrayList inducedEdges = new IntArrayList();
+        for (int i = 0; i < edges.length; ++i) {
+            if (probeVertexIds.get(tails[i]) && probeVertexIds.get(heads[i])) {
+                inducedEdges.add(i);
+            }
+        }
+        double edgeProbability = inducedEdges.size() > maxEdges ? maxEdges / (double) inducedEdges.size() : 1;
+        ColouredGraph probe = new ColouredGraph();
+        IntIntOpenHashMap probeVertices = new IntIntOpenHashMap();
+        for (int j = 0; j < inducedEdges.size(); ++j) {
+            if (edgeProbability < 1 && random.nextDouble() >= edgeProbability) {
+                continue;
+            }
+            int i = inducedEdges.get(j);
+            int tail = getProbeVertex(tails[i], probe, probeVertices);
+            int head = getProbeVertex(heads[i], probe, probeVertices);
+            probe.addEdge(tail, head);
+        }
+        return probe;
+    }
+
+    /**
+     * An edge between two hubs is always part of the probe, an edge between a
+     * hub and another vertex with the vertex probability q and any other edge
+     * with q^2. Hence, q is the solution of
+     * {@code otherEdges * q^2 + hubNeighbourEdges * q + hubEdges = maxEdges}.
+     *
+     * @return the probability of a vertex which is not a hub to be part of the
+     *         probe
+     */
+    private static double getVertexProbability(long hubEdges, long hubNeighbourEdges, long otherEdges,
+            int maxEdges) {
+        double remainingEdges = maxEdges - hubEdges;
+        if (remainingEdges <= 0) {
+            return 0;
+        }
+        if (otherEdges == 0) {
+            return Math.min(1, remainingEdges / hubNeighbourEdges);
+        }
+        double probability = (Math.sqrt(hubNeighbourEdges * (double) hubNeighbourEdges
+                + 4.0 * otherEdges * remainingEdges) - hubNeighbourEdges) / (2.0 * otherEdges);
+        return Math.min(1, probability);
+    }
+
+    private static int getProbeVertex(int vertexId, ColouredGraph probe, IntIntOpenHashMap probeVertices) {
+        if (probeVertices.containsKey(vertexId)) {
+            return probeVertices.lget();
+        }
+        int probeVertex = probe.addVertex();
+        probeVertices.put(vertexId, probeVertex);
+        return probeVertex;
+    }
+
+    private void readCalibration() {
+        Properties table = new Properties();
+        try (InputStream in = new FileInputStream(calibrationFile)) {
+            table.load(in);
+        } catch (IOException e) {
+            LOGGER.error("Couldn't read the calibration table " + calibrationFile + ".", e);
+            return;
+        }
+        String prefix = name + ".";
+        for (String key : table.stringPropertyNames()) {
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+            GraphShape shape = GraphShape.parse(key.substring(prefix.length()));
+            Supplier<TriangleMetric> candidate = getCandidate(table.getProperty(key));
+            if (shape != null && candidate != null) {
+                choices.put(shape, CompletableFuture.completedFuture(candidate));
+            }
+        }
+    }
+
+    private Supplier<TriangleMetric> getCandidate(String className) {
+        for (Supplier<TriangleMetric> candidate : candidates) {
+            if (candidate.get().getClass().getName().equals(className)) {
+                return candidate;
+            }
+        }
+        LOGGER.warn("The calibration table refers to the unknown algorithm " + className + ".");
+        return null;
+    }
+
+    /**
+     * Adds the choices of this selector to the calibration table. The entries
+     * of other selectors are kept, the shapes which are still measured are
+     * left out.
+     */
+    private void writeCalibration() {
+        Properties table = new Properties();
+        if (calibrationFile.exists()) {
+            try (InputStream in = new FileInputStream(calibrationFile)) {
+                table.load(in);
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't read the calibration table " + calibrationFile + ". It will be overwritten.", e);
+            }
+        }
+        for (Map.Entry<GraphShape, Future<Supplier<TriangleMetric>>> choice : choices.entrySet()) {
+            if (choice.getValue().isDone()) {
+                table.setProperty(name + "." + choice.getKey(),
+                        getChoice(choice.getValue()).get().getClass().getName());
+            }
+        }
+        try (OutputStream out = new FileOutputStream(calibrationFile)) {
+            table.store(out, "fastest triangle counting algorithms per graph shape");
+        } catch (IOException e) {
+            LOGGER.error("Couldn't write the calibration table " + calibrationFile + ".", e);
+        }
+    }
+}
@@ -4,7 +4,10 @@ import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.metrics.AbstractMetric;
 
 /**
- * This metric is the average clustering coefficient of the graph.
+ * This metric is the average clustering coefficient of the graph as defined
+ * by Grph, which takes the directions of the edges into account. See
+ * {@link AvgUndirectedClusteringCoefficientMetric} for the coefficient of the
+ * undirected simple view of the graph which can be updated incrementally.
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  *
@@ -0,0 +1,31 @@
+package org.aksw.simba.lemming.metrics.single;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.AbstractMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.VertexTriangleCounts;
+
+/**
+ * This metric is the average clustering coefficient of the undirected simple
+ * view of the graph, i.e., directions, parallel edges and loops are ignored.
+ * The local clustering coefficients are derived from the numbers of triangles
+ * per vertex which are counted in a single parallel pass (see
+ * {@link VertexTriangleCounts}). For graphs whose edges are all reciprocal, the
+ * value equals the value of the {@link AvgClusteringCoefficientMetric}. On
+ * other graphs, it can be up to twice as high. Hence, it has its own name and
+ * its values can not be compared with precomputed values of the directed
+ * metric.
+ */
+public class AvgUndirectedClusteringCoefficientMetric extends AbstractMetric implements SingleValueMetric {
+
+    public static final String NAME = "avgUndirectedClusterCoefficient";
+
+    public AvgUndirectedClusteringCoefficientMetric() {
+        super(NAME);
+    }
+
+    @Override
+    public double apply(ColouredGraph graph) {
+        return VertexTriangleCounts.count(graph).getAverageClusteringCoefficient();
+    }
+
+}
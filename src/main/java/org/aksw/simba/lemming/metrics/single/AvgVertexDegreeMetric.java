@@ -11,7 +11,7 @@ import it.unimi.dsi.fastutil.ints.IntArrayList;
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  *
  */
-public class AvgVertexDegreeMetric extends AbstractMetric implements SingleValueMetric {
+public class AvgVertexDegreeMetric extends AbstractMetric implements IncrementalMetric {
 
     public AvgVertexDegreeMetric() {
         super("avgDegree");
@@ -26,6 +26,11 @@ public class AvgVertexDegreeMetric extends AbstractMetric implements SingleValue
         return calculateAvg(graph.getGraph().getAllInEdgeDegrees());
     }
 
+    @Override
+    public double apply(DegreeStatistics statistics) {
+        return statistics.getAverageDegree();
+    }
+
     protected double calculateAvg(IntArrayList degrees) {
         double sum = 0;
         for (int i = 0; i < degrees.size(); ++i) {
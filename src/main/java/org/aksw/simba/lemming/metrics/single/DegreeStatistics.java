@@ -0,0 +1,28 @@
+package org.aksw.simba.lemming.metrics.single;
+
+import grph.Grph.DIRECTION;
+
+/**
+ * Read access to the degree statistics of a graph which are needed by the
+ * {@link IncrementalMetric}s.
+ */
+public interface DegreeStatistics {
+
+    public int getNumberOfVertices();
+
+    public long getNumberOfEdges();
+
+    public int getMaxDegree(DIRECTION direction);
+
+    /**
+     * @return the average degree which is the same for in- and out-degrees
+     */
+    public double getAverageDegree();
+
+    /**
+     * @param direction
+     *            the direction of the degrees
+     * @return the standard deviation of the in- or out-degrees
+     */
+    public double getStdDevDegree(DIRECTION direction);
+}
@@ -1,10 +1,16 @@
 package org.aksw.simba.lemming.metrics.single;
 
 import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.grph.IFubDiameterAlgorithm;
 import org.aksw.simba.lemming.metrics.AbstractMetric;
 
 /**
- * This metric is the diameter of the graph.
+ * This metric is the diameter of the graph. The shortest paths follow the
+ * directions of the edges. It is computed with diFUB (see
+ * {@link IFubDiameterAlgorithm}) which returns the same values as the BFS from
+ * every vertex which has been used before. The diameter of a graph which is
+ * not connected is NaN. See {@link UndirectedDiameterMetric} for the diameter
+ * of the undirected view of the graph.
  * 
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  *
@@ -0,0 +1,20 @@
+package org.aksw.simba.lemming.metrics.single;
+
+/**
+ * A {@link SingleValueMetric} whose value can be derived from
+ * {@link DegreeStatistics}. Since the {@link VertexDegreeStatistics} are
+ * updated with every added or removed edge, the value of such a metric can be
+ * determined after a single edge modification without going through the whole
+ * graph.
+ */
+public interface IncrementalMetric extends SingleValueMetric {
+
+    /**
+     * Determines the value of this metric based on the given degree statistics.
+     *
+     * @param statistics
+     *            the up-to-date degree statistics of the graph
+     * @return the value of this metric
+     */
+    public double apply(DegreeStatistics statistics);
+}
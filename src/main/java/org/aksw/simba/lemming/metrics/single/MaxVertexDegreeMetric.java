@@ -11,7 +11,7 @@ import grph.Grph.DIRECTION;
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  *
  */
-public class MaxVertexDegreeMetric extends AbstractMetric implements SingleValueMetric {
+public class MaxVertexDegreeMetric extends AbstractMetric implements IncrementalMetric {
 
     protected DIRECTION direction;
 
@@ -22,6 +22,9 @@ public class MaxVertexDegreeMetric extends AbstractMetric implements SingleValue
 
     @Override
     public double apply(ColouredGraph graph) {
+        if (graph.hasDegreeStatistics()) {
+            return apply(graph.getDegreeStatistics());
+        }
         if (direction == DIRECTION.in) {
             return graph.getGraph().getMaxInEdgeDegrees();
         } else {
@@ -29,4 +32,9 @@ public class MaxVertexDegreeMetric extends AbstractMetric implements SingleValue
         }
     }
 
+    @Override
+    public double apply(DegreeStatistics statistics) {
+        return statistics.getMaxDegree(direction);
+    }
+
 }
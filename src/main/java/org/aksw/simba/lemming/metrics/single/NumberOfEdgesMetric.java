@@ -9,7 +9,7 @@ import org.aksw.simba.lemming.metrics.AbstractMetric;
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  *
  */
-public class NumberOfEdgesMetric extends AbstractMetric implements SingleValueMetric {
+public class NumberOfEdgesMetric extends AbstractMetric implements IncrementalMetric {
 
     public NumberOfEdgesMetric() {
         super("#edges");
@@ -20,4 +20,9 @@ public class NumberOfEdgesMetric extends AbstractMetric implements SingleValueMe
         return  graph.getGraph().getNumberOfEdges();
     }
 
+    @Override
+    public double apply(DegreeStatistics statistics) {
+        return statistics.getNumberOfEdges();
+    }
+
 }
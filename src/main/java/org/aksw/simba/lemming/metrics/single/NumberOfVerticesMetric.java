@@ -9,7 +9,7 @@ import org.aksw.simba.lemming.metrics.AbstractMetric;
  * @author Michael R&ouml;der (roeder@informatik.uni-leipzig.de)
  *
  */
-public class NumberOfVerticesMetric extends AbstractMetric implements SingleValueMetric {
+public class NumberOfVerticesMetric extends AbstractMetric implements IncrementalMetric {
 
     public NumberOfVerticesMetric() {
         super("#vertices");
@@ -20,4 +20,9 @@ public class NumberOfVerticesMetric extends AbstractMetric implements SingleValu
         return graph.getGraph().getNumberOfVertices();
     }
 
+    @Override
+    public double apply(DegreeStatistics statistics) {
+        return statistics.getNumberOfVertices();
+    }
+
 }
@@ -17,6 +17,9 @@ public class StdDevVertexDegree extends AvgVertexDegreeMetric {
 
     @Override
     public double apply(ColouredGraph graph) {
+        if (graph.hasDegreeStatistics()) {
+            return apply(graph.getDegreeStatistics());
+        }
         IntArrayList degrees = null;
         if (direction == DIRECTION.in) {
             degrees = graph.getGraph().getAllInEdgeDegrees();
@@ -26,6 +29,11 @@ public class StdDevVertexDegree extends AvgVertexDegreeMetric {
         return calculateStdDev(degrees, calculateAvg(degrees));
     }
 
+    @Override
+    public double apply(DegreeStatistics statistics) {
+        return statistics.getStdDevDegree(direction);
+    }
+
     protected double calculateStdDev(IntArrayList degrees, double avg) {
         double temp, sum = 0;
         for (int i = 0; i < degrees.size(); ++i) {
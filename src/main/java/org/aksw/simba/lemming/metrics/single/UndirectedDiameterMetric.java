@@ -0,0 +1,38 @@
+package org.aksw.simba.lemming.metrics.single;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.grph.IFubDiameterAlgorithm;
+import org.aksw.simba.lemming.metrics.AbstractMetric;
+
+/**
+ * This metric is the diameter of the undirected view of the graph, i.e.,
+ * directions are ignored (see {@link IFubDiameterAlgorithm}). If the graph is
+ * not connected, the diameter of its largest connected component is returned.
+ * Since the values differ from the directed {@link DiameterMetric}, the metric
+ * has its own name. In the approximate mode, the lower bound of a 4-sweep is
+ * used which needs only four BFS runs.
+ */
+public class UndirectedDiameterMetric extends AbstractMetric implements SingleValueMetric {
+
+	private final boolean approximate;
+
+	public UndirectedDiameterMetric() {
+		this(false);
+	}
+
+	/**
+	 * @param approximate
+	 *            true if a lower bound of the diameter which is at least half of
+	 *            the diameter is sufficient
+	 */
+	public UndirectedDiameterMetric(boolean approximate) {
+		super("undirectedDiameter");
+		this.approximate = approximate;
+	}
+
+	@Override
+	public double apply(ColouredGraph graph) {
+		return new IFubDiameterAlgorithm(false, approximate).compute(graph.getGraph());
+	}
+
+}
@@ -0,0 +1,294 @@
+package org.aksw.simba.lemming.metrics.single;
+
+import java.util.Arrays;
+
+import org.aksw.simba.lemming.ColouredGraph;
+
+import grph.Grph;
+import grph.Grph.DIRECTION;
+
+/**
+ * Running in- and out-degree statistics of a graph. Instead of collecting the
+ * degrees of all vertices whenever a degree based metric is needed, the
+ * statistics are updated with every single added or removed edge. They keep
+ * the degree of every vertex, the sum of squared degrees and a histogram of
+ * the degrees which are enough to derive the average, the standard deviation
+ * and the maximum of the degrees in constant time.
+ *
+ * NOTE: the statistics are not thread safe.
+ */
+public class VertexDegreeStatistics implements DegreeStatistics {
+
+    private boolean[] vertices;
+    private int[] inDegrees;
+    private int[] outDegrees;
+    /**
+     * inHistogram[d] is the number of vertices with an in-degree of d.
+     */
+    private int[] inHistogram;
+    /**
+     * outHistogram[d] is the number of vertices with an out-degree of d.
+     */
+    private int[] outHistogram;
+    private int numberOfVertices;
+    private long numberOfEdges;
+    private long inSumOfSquares;
+    private long outSumOfSquares;
+    private int maxInDegree;
+    private int maxOutDegree;
+
+    /**
+     * Constructor. Collects the degrees of all vertices of the given graph.
+     *
+     * @param graph
+     *            the graph whose degrees should be tracked
+     */
+    public VertexDegreeStatistics(ColouredGraph graph) {
+        Grph grph = graph.getGraph();
+        int[] arrVertices = grph.getVertices().toIntArray();
+        int size = 0;
+        for (int vertex : arrVertices) {
+            if (vertex >= size) {
+                size = vertex + 1;
+            }
+        }
+        vertices = new boolean[size];
+        inDegrees = new int[size];
+        outDegrees = new int[size];
+        inHistogram = new int[1];
+        outHistogram = new int[1];
+        for (int vertex : arrVertices) {
+            addVertex(vertex);
+        }
+        for (int edge : grph.getEdges().toIntArray()) {
+            addEdge(grph.getDirectedSimpleEdgeTail(edge), grph.getDirectedSimpleEdgeHead(edge));
+        }
+    }
+
+    /**
+     * Registers a new vertex without edges.
+     *
+     * @param vertex
+     *            the ID of the new vertex
+     */
+    public void addVertex(int vertex) {
+        ensureVertexCapacity(vertex + 1);
+        if (!vertices[vertex]) {
+            vertices[vertex] = true;
+            ++numberOfVertices;
+            ++inHistogram[0];
+            ++outHistogram[0];
+        }
+    }
+
+    /**
+     * Updates the statistics after an edge from the given tail to the given head
+     * has been added.
+     *
+     * @param tail
+     *            the tail of the new edge
+     * @param head
+     *            the head of the new edge
+     */
+    public void addEdge(int tail, int head) {
+        addVertex(tail);
+        addVertex(head);
+        ++numberOfEdges;
+        int degree = outDegrees[tail]++;
+        outSumOfSquares += 2 * degree + 1;
+        outHistogram = moveUp(outHistogram, degree);
+        if (degree + 1 > maxOutDegree) {
+            maxOutDegree = degree + 1;
+        }
+        degree = inDegrees[head]++;
+        inSumOfSquares += 2 * degree + 1;
+        inHistogram = moveUp(inHistogram, degree);
+        if (degree + 1 > maxInDegree) {
+            maxInDegree = degree + 1;
+        }
+    }
+
+    /**
+     * Updates the statistics after an edge from the given tail to the given head
+     * has been removed.
+     *
+     * @param tail
+     *            the tail of the removed edge
+     * @param head
+     *            the head of the removed edge
+     */
+    public void removeEdge(int tail, int head) {
+        --numberOfEdges;
+        int degree = outDegrees[tail]--;
+        outSumOfSquares -= 2 * degree - 1;
+        --outHistogram[degree];
+        ++outHistogram[degree - 1];
+        // the vertex still has degree - 1, so the maximum can only decrease by one
+        if ((degree == maxOutDegree) && (outHistogram[degree] == 0)) {
+            --maxOutDegree;
+        }
+        degree = inDegrees[head]--;
+        inSumOfSquares -= 2 * degree - 1;
+        --inHistogram[degree];
+        ++inHistogram[degree - 1];
+        if ((degree == maxInDegree) && (inHistogram[degree] == 0)) {
+            --maxInDegree;
+        }
+    }
+
+    @Override
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    @Override
+    public long getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
+    public int getDegree(int vertex, DIRECTION direction) {
+        if (vertex >= vertices.length) {
+            return 0;
+        }
+        return direction == DIRECTION.in ? inDegrees[vertex] : outDegrees[vertex];
+    }
+
+    @Override
+    public int getMaxDegree(DIRECTION direction) {
+        return direction == DIRECTION.in ? maxInDegree : maxOutDegree;
+    }
+
+    @Override
+    public double getAverageDegree() {
+        return numberOfEdges / (double) numberOfVertices;
+    }
+
+    @Override
+    public double getStdDevDegree(DIRECTION direction) {
+        return calculateStdDev(numberOfVertices, numberOfEdges,
+                direction == DIRECTION.in ? inSumOfSquares : outSumOfSquares);
+    }
+
+    /**
+     * Returns a read-only view of the statistics as they would be after adding
+     * an edge from the given tail to the given head. The statistics themselves
+     * are not changed, i.e., several views can be created and read concurrently
+     * as long as the statistics are not updated.
+     *
+     * @param tail
+     *            the tail of the edge
+     * @param head
+     *            the head of the edge
+     * @return the statistics after adding the edge
+     */
+    public DegreeStatistics afterAddingEdge(int tail, int head) {
+        int newVertices = isVertex(tail) ? 0 : 1;
+        if ((head != tail) && !isVertex(head)) {
+            ++newVertices;
+        }
+        int outDegree = getDegree(tail, DIRECTION.out);
+        int inDegree = getDegree(head, DIRECTION.in);
+        return new ChangedStatistics(numberOfVertices + newVertices, numberOfEdges + 1,
+                inSumOfSquares + 2 * inDegree + 1, outSumOfSquares + 2 * outDegree + 1,
+                Math.max(maxInDegree, inDegree + 1), Math.max(maxOutDegree, outDegree + 1));
+    }
+
+    /**
+     * Returns a read-only view of the statistics as they would be after removing
+     * an edge from the given tail to the given head. The statistics themselves
+     * are not changed, i.e., several views can be created and read concurrently
+     * as long as the statistics are not updated.
+     *
+     * @param tail
+     *            the tail of the edge
+     * @param head
+     *            the head of the edge
+     * @return the statistics after removing the edge
+     */
+    public DegreeStatistics afterRemovingEdge(int tail, int head) {
+        int outDegree = outDegrees[tail];
+        int inDegree = inDegrees[head];
+        return new ChangedStatistics(numberOfVertices, numberOfEdges - 1, inSumOfSquares - 2 * inDegree + 1,
+                outSumOfSquares - 2 * outDegree + 1,
+                ((inDegree == maxInDegree) && (inHistogram[inDegree] == 1)) ? maxInDegree - 1 : maxInDegree,
+                ((outDegree == maxOutDegree) && (outHistogram[outDegree] == 1)) ? maxOutDegree - 1 : maxOutDegree);
+    }
+
+    private boolean isVertex(int vertex) {
+        return (vertex < vertices.length) && vertices[vertex];
+    }
+
+    private static double calculateStdDev(int numberOfVertices, long numberOfEdges, long sumOfSquares) {
+        double avg = numberOfEdges / (double) numberOfVertices;
+        double variance = (sumOfSquares / (double) numberOfVertices) - (avg * avg);
+        // prevent rounding errors from creating a negative variance
+        return Math.sqrt(variance > 0 ? variance : 0);
+    }
+
+    /**
+     * Immutable statistics after a single edge modification.
+     */
+    private static class ChangedStatistics implements DegreeStatistics {
+
+        private final int numberOfVertices;
+        private final long numberOfEdges;
+        private final long inSumOfSquares;
+        private final long outSumOfSquares;
+        private final int maxInDegree;
+        private final int maxOutDegree;
+
+        public ChangedStatistics(int numberOfVertices, long numberOfEdges, long inSumOfSquares,
+                long outSumOfSquares, int maxInDegree, int maxOutDegree) {
+            this.numberOfVertices = numberOfVertices;
+            this.numberOfEdges = numberOfEdges;
+            this.inSumOfSquares = inSumOfSquares;
+            this.outSumOfSquares = outSumOfSquares;
+            this.maxInDegree = maxInDegree;
+            this.maxOutDegree = maxOutDegree;
+        }
+
+        @Override
+        public int getNumberOfVertices() {
+            return numberOfVertices;
+        }
+
+        @Override
+        public long getNumberOfEdges() {
+            return numberOfEdges;
+        }
+
+        @Override
+        public int getMaxDegree(DIRECTION direction) {
+            return direction == DIRECTION.in ? maxInDegree : maxOutDegree;
+        }
+
+        @Override
+        public double getAverageDegree() {
+            return numberOfEdges / (double) numberOfVertices;
+        }
+
+        @Override
+        public double getStdDevDegree(DIRECTION direction) {
+            return calculateStdDev(numberOfVertices, numberOfEdges,
+                    direction == DIRECTION.in ? inSumOfSquares : outSumOfSquares);
+        }
+    }
+
+    private void ensureVertexCapacity(int size) {
+        if (size > vertices.length) {
+            int newSize = Math.max(size, vertices.length + (vertices.length >> 1) + 1);
+            vertices = Arrays.copyOf(vertices, newSize);
+            inDegrees = Arrays.copyOf(inDegrees, newSize);
+            outDegrees = Arrays.copyOf(outDegrees, newSize);
+        }
+    }
+
+    private static int[] moveUp(int[] histogram, int degree) {
+        if (degree + 1 >= histogram.length) {
+            histogram = Arrays.copyOf(histogram, Math.max(degree + 2, histogram.length << 1));
+        }
+        --histogram[degree];
+        ++histogram[degree + 1];
+        return histogram;
+    }
+}
@@ -0,0 +1,140 @@
+package org.aksw.simba.lemming.metrics.single.edgemanipulation;
+
+import java.util.Arrays;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.triangles.VertexTriangleCounts;
+
+/**
+ * Keeps the average clustering coefficient of a graph up to date while edges
+ * are added and removed. It stores the number of node triangles and the number
+ * of distinct neighbours of every vertex together with the sum of the local
+ * clustering coefficients. Connecting two vertices which have not been
+ * connected before adds a triangle to the two vertices and to each of their k
+ * common neighbours. Hence, an update changes k+2 local coefficients and
+ * takes the time of intersecting the neighbours of the two vertices. Parallel
+ * edges and loops do not change the coefficients (see
+ * {@link VertexTriangleCounts}).
+ */
+class ClusteringCoefficientTracker {
+
+    private long[] vertexTriangles;
+    private int[] degrees;
+    private double sum;
+
+    ClusteringCoefficientTracker(ColouredGraph graph) {
+        VertexTriangleCounts counts = VertexTriangleCounts.count(graph);
+        vertexTriangles = new long[counts.getNumberOfVertexIds()];
+        degrees = new int[vertexTriangles.length];
+        for (int v = 0; v < vertexTriangles.length; ++v) {
+            vertexTriangles[v] = counts.getNumberOfTriangles(v);
+            degrees[v] = counts.getDegree(v);
+            sum += counts.getLocalClusteringCoefficient(v);
+        }
+    }
+
+    /**
+     * @return the average clustering coefficient of a graph with the given
+     *         number of vertices
+     */
+    double getAverage(int numberOfVertices) {
+        return numberOfVertices > 0 ? sum / numberOfVertices : 0;
+    }
+
+    /**
+     * Updates the coefficients after the two given vertices have been
+     * connected (change = 1) or disconnected (change = -1).
+     *
+     * @param tailNeighbours
+     *            the sorted neighbours of the tail without the head (see
+     *            {@link EdgeModification})
+     * @param headNeighbours
+     *            the sorted neighbours of the head without the tail
+     */
+    void update(int change, int tail, int head, int[] tailNeighbours, int[] headNeighbours) {
+        sum = computeSum(change, tail, head, tailNeighbours, headNeighbours, true);
+    }
+
+    /**
+     * @return the average clustering coefficient of a graph with the given
+     *         number of vertices after connecting (change = 1) or
+     *         disconnecting (change = -1) the two given vertices. The stored
+     *         coefficients are not changed.
+     */
+    double evaluate(int change, int tail, int head, int[] tailNeighbours, int[] headNeighbours,
+            int numberOfVertices) {
+        if (numberOfVertices == 0) {
+            return 0;
+        }
+        return computeSum(change, tail, head, tailNeighbours, headNeighbours, false) / numberOfVertices;
+    }
+
+    private double computeSum(int change, int tail, int head, int[] tailNeighbours, int[] headNeighbours,
+            boolean apply) {
+        if (apply) {
+            ensureCapacity(Math.max(Math.max(tail, head), Math.max(max(tailNeighbours), max(headNeighbours))) + 1);
+        }
+        double newSum = sum;
+        int commonNeighbours = 0;
+        int i = 0;
+        int j = 0;
+        while ((i < tailNeighbours.length) && (j < headNeighbours.length)) {
+            if (tailNeighbours[i] < headNeighbours[j]) {
+                ++i;
+            } else if (tailNeighbours[i] > headNeighbours[j]) {
+                ++j;
+            } else {
+                int w = tailNeighbours[i];
+                ++commonNeighbours;
+                newSum += VertexTriangleCounts.getLocalClusteringCoefficient(getTriangles(w) + change, getDegree(w))
+                        - VertexTriangleCounts.getLocalClusteringCoefficient(getTriangles(w), getDegree(w));
+                if (apply) {
+                    vertexTriangles[w] += change;
+                }
+                // skip the parallel edges to w
+                while ((i < tailNeighbours.length) && (tailNeighbours[i] == w)) {
+                    ++i;
+                }
+                while ((j < headNeighbours.length) && (headNeighbours[j] == w)) {
+                    ++j;
+                }
+            }
+        }
+        for (int v : new int[] { tail, head }) {
+            long newTriangles = getTriangles(v) + ((long) change * commonNeighbours);
+            int newDegree = getDegree(v) + change;
+            newSum += VertexTriangleCounts.getLocalClusteringCoefficient(newTriangles, newDegree)
+                    - VertexTriangleCounts.getLocalClusteringCoefficient(getTriangles(v), getDegree(v));
+            if (apply) {
+                vertexTriangles[v] = newTriangles;
+                degrees[v] = newDegree;
+            }
+        }
+        return newSum;
+    }
+
+    private long getTriangles(int vertex) {
+        return vertex < vertexTriangles.length ? vertexTriangles[vertex] : 0;
+    }
+
+    private int getDegree(int vertex) {
+        return vertex < degrees.length ? degrees[vertex] : 0;
+    }
+
+    /**
+     * @return the last element of the given sorted array or -1 if it is empty
+     */
+    private static int max(int[] sortedArray) {
+        return sortedArray.length > 0 ? sortedArray[sortedArray.length - 1] : -1;
+    }
+
+    /**
+     * Grows the arrays if vertices have been added to the graph.
+     */
+    private void ensureCapacity(int numberOfVertexIds) {
+        if (numberOfVertexIds > vertexTriangles.length) {
+            vertexTriangles = Arrays.copyOf(vertexTriangles, numberOfVertexIds);
+            degrees = Arrays.copyOf(degrees, numberOfVertexIds);
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package org.aksw.simba.lemming.metrics.single.edgemanipulation;
 
+import java.util.Arrays;
+
 import com.carrotsearch.hppc.BitSet;
 import grph.Grph;
-import it.unimi.dsi.fastutil.ints.IntSet;
 
 import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
@@ -23,6 +24,21 @@ public class EdgeModification {
     private int oldEdgeTriangles = 0;
     private int newEdgeTriangles;
     private int subGraphTrianglesAfterRemovingEdge = 0;
+    /**
+     * journal of all edges added to or removed from the graph (null if the
+     * modifications are not logged)
+     */
+    private EdgeModificationLog log = null;
+    /**
+     * {@link GraphFingerprint} of the graph which is updated with every added
+     * or removed edge
+     */
+    private long fingerprint;
+    /**
+     * average clustering coefficient which is updated with every added or
+     * removed edge (null if it is not tracked)
+     */
+    private ClusteringCoefficientTracker clusteringTracker = null;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EdgeModification.class);
 
@@ -33,6 +49,7 @@ public class EdgeModification {
 
         this.oldNodeTriangles = (int) getNumberOfNodeTriangles();
         this.oldEdgeTriangles = (int) getNumberOfEdgeTriangles();
+        this.fingerprint = GraphFingerprint.of(graph);
     }
 
     public EdgeModification(ColouredGraph graph, int numberOfNodeTriangles, int numberOfEdgeTriangles) {
@@ -40,6 +57,7 @@ public class EdgeModification {
 
         this.oldNodeTriangles = numberOfNodeTriangles;
         this.oldEdgeTriangles = numberOfEdgeTriangles;
+        this.fingerprint = GraphFingerprint.of(graph);
     }
 
     public ColouredGraph getGraph() {
@@ -72,6 +90,147 @@ public class EdgeModification {
 
     public void setGraph(ColouredGraph graph) {
         this.graph = graph;
+        this.fingerprint = GraphFingerprint.of(graph);
+        if (clusteringTracker != null) {
+            clusteringTracker = new ClusteringCoefficientTracker(graph);
+        }
+    }
+
+    /**
+     * Starts keeping the average clustering coefficient of the graph up to
+     * date with every added or removed edge (see
+     * {@link #getAvgClusteringCoefficient()}). The coefficients are counted
+     * once when this method is called.
+     */
+    public void trackClusteringCoefficient() {
+        if (clusteringTracker == null) {
+            clusteringTracker = new ClusteringCoefficientTracker(graph);
+        }
+    }
+
+    public boolean isTrackingClusteringCoefficient() {
+        return clusteringTracker != null;
+    }
+
+    /**
+     * @return the average clustering coefficient of the current graph. Note
+     *         that {@link #trackClusteringCoefficient()} has to be called
+     *         before.
+     */
+    public double getAvgClusteringCoefficient() {
+        return clusteringTracker.getAverage(graph.getGraph().getNumberOfVertices());
+    }
+
+    /**
+     * Computes the average clustering coefficient the graph would have after
+     * adding an edge between the given vertices. Neither the graph nor the
+     * coefficients of this object are changed, i.e., this method can be called
+     * concurrently as long as the graph is not modified. Note that
+     * {@link #trackClusteringCoefficient()} has to be called before.
+     */
+    public double computeAvgClusteringCoefficientAfterAddingEdge(int tail, int head) {
+        if ((tail == head) || (getNumberOfEdgesBetween(tail, head) > 0)) {
+            return getAvgClusteringCoefficient();
+        }
+        return clusteringTracker.evaluate(1, tail, head, getNeighbours(tail, head), getNeighbours(head, tail),
+                graph.getGraph().getNumberOfVertices());
+    }
+
+    /**
+     * Computes the average clustering coefficient the graph would have after
+     * removing an edge between the given vertices. Neither the graph nor the
+     * coefficients of this object are changed, i.e., this method can be called
+     * concurrently as long as the graph is not modified. Note that
+     * {@link #trackClusteringCoefficient()} has to be called before.
+     */
+    public double computeAvgClusteringCoefficientAfterRemovingEdge(int tail, int head) {
+        if ((tail == head) || (getNumberOfEdgesBetween(tail, head) > 1)) {
+            return getAvgClusteringCoefficient();
+        }
+        return clusteringTracker.evaluate(-1, tail, head, getNeighbours(tail, head), getNeighbours(head, tail),
+                graph.getGraph().getNumberOfVertices());
+    }
+
+    /**
+     * Updates the clustering coefficients after an edge between the given
+     * vertices has been added (change = 1) or removed (change = -1). Only the
+     * first edge connecting the two vertices and the removal of the last one
+     * change the coefficients.
+     */
+    private void updateClusteringCoefficient(int change, int tail, int head) {
+        if ((clusteringTracker == null) || (tail == head)) {
+            return;
+        }
+        if (getNumberOfEdgesBetween(tail, head) == (change > 0 ? 1 : 0)) {
+            clusteringTracker.update(change, tail, head, getNeighbours(tail, head), getNeighbours(head, tail));
+        }
+    }
+
+    public void setLog(EdgeModificationLog log) {
+        this.log = log;
+    }
+
+    /**
+     * @return the old and new numbers of node and edge triangles (in this order)
+     */
+    int[] getTriangleCounters() {
+        return new int[] { oldNodeTriangles, newNodeTriangles, oldEdgeTriangles, newEdgeTriangles };
+    }
+
+    /**
+     * @return the {@link GraphFingerprint} of the current graph
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    void setTriangleCounters(int[] counters) {
+        oldNodeTriangles = counters[0];
+        newNodeTriangles = counters[1];
+        oldEdgeTriangles = counters[2];
+        newEdgeTriangles = counters[3];
+    }
+
+    private int addEdge(int tail, int head, BitSet color) {
+        int edgeId = graph.addEdge(tail, head, color);
+        int colourId = graph.getEdgeColourId(edgeId);
+        fingerprint += GraphFingerprint.edgeKey(tail, head, colourId);
+        if (log != null) {
+            log.logAddition(tail, head, colourId, edgeId);
+        }
+        updateClusteringCoefficient(1, tail, head);
+        return edgeId;
+    }
+
+    /**
+     * Removes the given edge from the graph without updating the triangle
+     * counters. The clustering coefficient is updated if it is tracked.
+     */
+    void removeEdge(int edgeId) {
+        Grph grph = graph.getGraph();
+        int tail = grph.getDirectedSimpleEdgeTail(edgeId);
+        int head = grph.getDirectedSimpleEdgeHead(edgeId);
+        int colourId = graph.getEdgeColourId(edgeId);
+        fingerprint -= GraphFingerprint.edgeKey(tail, head, colourId);
+        if (log != null) {
+            log.logRemoval(tail, head, colourId, edgeId);
+        }
+        graph.removeEdge(edgeId);
+        updateClusteringCoefficient(-1, tail, head);
+    }
+
+    /**
+     * Adds the previously removed edge with its former ID without updating the
+     * triangle counters. The clustering coefficient is updated if it is
+     * tracked.
+     */
+    void restoreEdge(int edgeId, int tail, int head, int colourId) {
+        graph.restoreEdge(edgeId, tail, head, colourId);
+        fingerprint += GraphFingerprint.edgeKey(tail, head, colourId);
+        if (log != null) {
+            log.logAddition(tail, head, colourId, edgeId);
+        }
+        updateClusteringCoefficient(1, tail, head);
     }
 
     private double getNumberOfNodeTriangles() {
@@ -95,15 +254,11 @@ public class EdgeModification {
 //        newNodeTriangles = 0;
 //        newEdgeTriangles = 0;
 
-        Grph grph = graph.getGraph();
-        IntSet verticesConnectedToRemovingEdge = grph.getVerticesIncidentToEdge(edgeId);
-        
-        int headId = verticesConnectedToRemovingEdge.size() > 1 ? verticesConnectedToRemovingEdge.toIntArray()[1] 
-        		: verticesConnectedToRemovingEdge.toIntArray()[0];
-        int tailId = verticesConnectedToRemovingEdge.toIntArray()[0];
-        
-        int numEdgesBetweenConnectedVertices = IntSetUtil.intersection(grph.getEdgesIncidentTo(tailId), 
-        		grph.getEdgesIncidentTo(headId)).size();
+        int[] vertices = getVerticesOfEdge(edgeId);
+        int tailId = vertices[0];
+        int headId = vertices[1];
+
+        int numEdgesBetweenConnectedVertices = getNumberOfEdgesBetween(tailId, headId);
 
         //LOGGER.info(String.format("Removed edge id:\t%s", edgeId));
         if (numEdgesBetweenConnectedVertices > 1) {
@@ -129,69 +284,128 @@ public class EdgeModification {
         }
         subGraphTrianglesAfterRemovingEdge = 0;
 
-        this.graph.removeEdge(edgeId);
+        removeEdge(edgeId);
     }
 
     /* Get number of triangles that were formed by utilizing this edge
      * you need a sub graph of the vertices that are in common with edge's vertices */
     private int calculateSubGraphNodeTriangles(int edgeId) {
-        Grph grph = graph.getGraph();
-        IntSet verticesConnectedToRemovingEdge = grph.getVerticesIncidentToEdge(edgeId);
+        int[] vertices = getVerticesOfEdge(edgeId);
+        return IntSetUtil.distinctIntersectionSize(getNeighbours(vertices[0], vertices[1]),
+                getNeighbours(vertices[1], vertices[0]));
+    }
 
-        int headId = verticesConnectedToRemovingEdge.size() > 1 ? verticesConnectedToRemovingEdge.toIntArray()[1] 
-        		: verticesConnectedToRemovingEdge.toIntArray()[0];
-        int tailId = verticesConnectedToRemovingEdge.toIntArray()[0];
-        
-        return getVerticesInCommon(tailId, headId).size();
+    /**
+     * Returns the two vertices of the given edge. The second vertex equals the
+     * first vertex if the edge is a loop.
+     */
+    private int[] getVerticesOfEdge(int edgeId) {
+        int[] vertices = graph.getGraph().getVerticesIncidentToEdge(edgeId).toIntArray();
+        return new int[] { vertices[0], vertices.length > 1 ? vertices[1] : vertices[0] };
     }
 
-    private IntSet getVerticesInCommon(int v1, int v2) {
+    private int getNumberOfEdgesBetween(int v1, int v2) {
         Grph grph = graph.getGraph();
-        IntSet[] neighborsOfConnectedVertices = new IntSet[2];
-
-        neighborsOfConnectedVertices[0] = grph.getInNeighbors(v1);
-        neighborsOfConnectedVertices[0].addAll(grph.getOutNeighbors(v1));
-
-        if (neighborsOfConnectedVertices[0].contains(v1))
-            neighborsOfConnectedVertices[0].remove(v1);
-        if (neighborsOfConnectedVertices[0].contains(v2))
-            neighborsOfConnectedVertices[0].remove(v2);
-
-        neighborsOfConnectedVertices[1] = grph.getInNeighbors(v2);
-        neighborsOfConnectedVertices[1].addAll(grph.getOutNeighbors(v2));
-
-        if (neighborsOfConnectedVertices[1].contains(v1))
-            neighborsOfConnectedVertices[1].remove(v1);
-        if (neighborsOfConnectedVertices[1].contains(v2))
-            neighborsOfConnectedVertices[1].remove(v2);
+        return IntSetUtil.intersectionSize(IntSetUtil.toSortedArray(grph.getEdgesIncidentTo(v1)),
+                IntSetUtil.toSortedArray(grph.getEdgesIncidentTo(v2)));
+    }
 
-        return IntSetUtil.intersection(neighborsOfConnectedVertices[0], neighborsOfConnectedVertices[1]);
+    /**
+     * Returns the sorted neighbours of the given vertex without the vertex itself
+     * and without the given other vertex. A neighbour is contained once for
+     * every edge connecting it with the vertex, i.e., the array may contain
+     * duplicates. Neither the graph nor its sets are changed, i.e., this method
+     * may be called concurrently.
+     */
+    private int[] getNeighbours(int vertex, int otherVertex) {
+        Grph grph = graph.getGraph();
+        int[] edges = grph.getEdgesIncidentTo(vertex).toIntArray();
+        int[] neighbours = new int[edges.length];
+        int count = 0;
+        int neighbour;
+        for (int edge : edges) {
+            neighbour = grph.getDirectedSimpleEdgeHead(edge);
+            if (neighbour == vertex) {
+                neighbour = grph.getDirectedSimpleEdgeTail(edge);
+            }
+            if ((neighbour != vertex) && (neighbour != otherVertex)) {
+                neighbours[count] = neighbour;
+                ++count;
+            }
+        }
+        Arrays.sort(neighbours, 0, count);
+        return count < neighbours.length ? Arrays.copyOf(neighbours, count) : neighbours;
     }
 
     public int calculateSubGraphEdgeTriangles(int edgeId) {
-        int oldSubGraphEdgeTriangles = 0;
+        int[] vertices = getVerticesOfEdge(edgeId);
+        int numEdgesBetweenConnectedVertices = getNumberOfEdgesBetween(vertices[0], vertices[1]);
+        int edgeTrianglesPerEdge = calculateEdgeTrianglesPerEdge(vertices[0], vertices[1]);
+        subGraphTrianglesAfterRemovingEdge += edgeTrianglesPerEdge * (numEdgesBetweenConnectedVertices - 1);
+        return edgeTrianglesPerEdge * numEdgesBetweenConnectedVertices;
+    }
 
-        Grph grph = graph.getGraph();
-        IntSet verticesConnectedToRemovingEdge = grph.getVerticesIncidentToEdge(edgeId);
-        
-        int headId = verticesConnectedToRemovingEdge.size() > 1 ? verticesConnectedToRemovingEdge.toIntArray()[1] 
-        		: verticesConnectedToRemovingEdge.toIntArray()[0];
-        int tailId = verticesConnectedToRemovingEdge.toIntArray()[0];
-        
-        int numEdgesBetweenConnectedVertices = IntSetUtil.intersection(grph.getEdgesIncidentTo(tailId),
-                grph.getEdgesIncidentTo(headId)).size();
-        
-        for (int vertex : getVerticesInCommon(tailId, headId)) {
-            int numEdgesV1ToTriangleVertex = IntSetUtil.intersection(grph.getEdgesIncidentTo(tailId),
-            		grph.getEdgesIncidentTo(vertex)).size();
-            int numEdgesV2ToTriangleVertex = IntSetUtil.intersection(grph.getEdgesIncidentTo(headId),
-                    grph.getEdgesIncidentTo(vertex)).size();
-            int mul = numEdgesV1ToTriangleVertex * numEdgesV2ToTriangleVertex;
-            oldSubGraphEdgeTriangles += (mul * numEdgesBetweenConnectedVertices);
-            subGraphTrianglesAfterRemovingEdge += (mul * (numEdgesBetweenConnectedVertices - 1));
+    /**
+     * Computes the number of node and edge triangles the graph would have after
+     * removing an edge between the given vertices. In contrast to
+     * {@link #removeEdgeFromGraph(int)}, neither the graph nor the triangle
+     * counts of this object are changed, i.e., this method can be called
+     * concurrently as long as the graph is not modified.
+     *
+     * @param tail the tail of the edge
+     * @param head the head of the edge
+     * @param nodeTriangles the current number of node triangles
+     * @param edgeTriangles the current number of edge triangles
+     * @return an array with the new number of node triangles and the new number of edge triangles
+     */
+    public int[] computeTrianglesAfterRemovingEdge(int tail, int head, int nodeTriangles, int edgeTriangles) {
+        if (tail == head) {
+            // loops are not part of any triangle
+            return new int[] { nodeTriangles, edgeTriangles };
+        }
+        int[] tailNeighbours = getNeighbours(tail, head);
+        int[] headNeighbours = getNeighbours(head, tail);
+        if (getNumberOfEdgesBetween(tail, head) <= 1) {
+            nodeTriangles -= IntSetUtil.distinctIntersectionSize(tailNeighbours, headNeighbours);
+        }
+        // every triangle with this edge is formed by one edge less
+        edgeTriangles -= IntSetUtil.multiplicityProductSum(tailNeighbours, headNeighbours);
+        return new int[] { nodeTriangles >= 0 ? nodeTriangles : 0, edgeTriangles >= 0 ? edgeTriangles : 0 };
+    }
+
+    /**
+     * Computes the number of node and edge triangles the graph would have after
+     * adding an edge between the given vertices. In contrast to
+     * {@link #addEdgeToGraph(int, int, BitSet)}, neither the graph nor the
+     * triangle counts of this object are changed, i.e., this method can be called
+     * concurrently as long as the graph is not modified.
+     *
+     * @param tail the tail of the edge
+     * @param head the head of the edge
+     * @param nodeTriangles the current number of node triangles
+     * @param edgeTriangles the current number of edge triangles
+     * @return an array with the new number of node triangles and the new number of edge triangles
+     */
+    public int[] computeTrianglesAfterAddingEdge(int tail, int head, int nodeTriangles, int edgeTriangles) {
+        if (tail == head) {
+            return new int[] { nodeTriangles, edgeTriangles };
         }
+        int[] tailNeighbours = getNeighbours(tail, head);
+        int[] headNeighbours = getNeighbours(head, tail);
+        if (getNumberOfEdgesBetween(tail, head) == 0) {
+            nodeTriangles += IntSetUtil.distinctIntersectionSize(tailNeighbours, headNeighbours);
+        }
+        edgeTriangles += IntSetUtil.multiplicityProductSum(tailNeighbours, headNeighbours);
+        return new int[] { nodeTriangles, edgeTriangles };
+    }
 
-        return oldSubGraphEdgeTriangles;
+    /**
+     * Counts the edge triangles a single edge between the two given vertices
+     * would be part of, i.e., the sum of the products of the numbers of edges
+     * connecting the common neighbours with the two vertices.
+     */
+    private int calculateEdgeTrianglesPerEdge(int tail, int head) {
+        return (int) IntSetUtil.multiplicityProductSum(getNeighbours(tail, head), getNeighbours(head, tail));
     }
 
     int addEdgeToGraph(int tail, int head, BitSet color) {
@@ -205,49 +419,23 @@ public class EdgeModification {
 //        if (oldEdgeTriangles == 0)
 //            oldEdgeTriangles = (int) getNumberOfEdgeTriangles();
 
-        Grph grph = graph.getGraph();
-        int numEdgesBetweenVertices = IntSetUtil.intersection(grph.getEdgesIncidentTo(tail),
-                grph.getEdgesIncidentTo(head)).size();
-
-        IntSet verticesInCommon = getVerticesInCommon(tail, head);
-        int edgeId = 0;
+        int numEdgesBetweenVertices = getNumberOfEdgesBetween(tail, head);
+        int[] tailNeighbours = getNeighbours(tail, head);
+        int[] headNeighbours = getNeighbours(head, tail);
+        // an additional edge between tail and head is part of one triangle for
+        // every pair of edges connecting a common neighbour with tail and head
+        int edgeTrianglesPerEdge = (int) IntSetUtil.multiplicityProductSum(tailNeighbours, headNeighbours);
 
         if (numEdgesBetweenVertices > 0) {
             // number of Node Triangles remains same
             this.newNodeTriangles = oldNodeTriangles;
-
-            int oldSubGraphEdgeTriangles = 0;
-            int newSubGraphEdgeTriangles = 0;
-            for (int vertex: verticesInCommon) {
-                int numEdgesV1ToTriangleVertex = IntSetUtil.intersection(grph.getEdgesIncidentTo(tail),
-                        grph.getEdgesIncidentTo(vertex)).size();
-                int numEdgesV2ToTriangleVertex = IntSetUtil.intersection(grph.getEdgesIncidentTo(head),
-                        grph.getEdgesIncidentTo(vertex)).size();
-                int mul = numEdgesV1ToTriangleVertex * numEdgesV2ToTriangleVertex;
-
-                oldSubGraphEdgeTriangles += (mul * numEdgesBetweenVertices);
-                newSubGraphEdgeTriangles += (mul * (numEdgesBetweenVertices + 1));
-            }
-            this.newEdgeTriangles = oldEdgeTriangles + (newSubGraphEdgeTriangles - oldSubGraphEdgeTriangles);
-            edgeId = graph.addEdge(tail, head, color);
         } else {
             // no connection between vertices
-            this.newNodeTriangles = oldNodeTriangles + verticesInCommon.size();
-            edgeId = graph.addEdge(tail, head, color);
-            numEdgesBetweenVertices += 1;
-            int subGraphEdgeTriangles = 0;
-            for (int vertex: verticesInCommon) {
-                int numEdgesV1ToTriangleVertex = IntSetUtil.intersection(grph.getEdgesIncidentTo(tail),
-                        grph.getEdgesIncidentTo(vertex)).size();
-                int numEdgesV2ToTriangleVertex = IntSetUtil.intersection(grph.getEdgesIncidentTo(head),
-                        grph.getEdgesIncidentTo(vertex)).size();
-                int mul = numEdgesV1ToTriangleVertex * numEdgesV2ToTriangleVertex;
-
-                subGraphEdgeTriangles += (mul * numEdgesBetweenVertices);
-            }
-            this.newEdgeTriangles = oldEdgeTriangles + subGraphEdgeTriangles;
+            this.newNodeTriangles = oldNodeTriangles
+                    + IntSetUtil.distinctIntersectionSize(tailNeighbours, headNeighbours);
         }
-        return edgeId;
+        this.newEdgeTriangles = oldEdgeTriangles + edgeTrianglesPerEdge;
+        return addEdge(tail, head, color);
     }
     
     public void removeEdgeFromGraph(int edgeId, int newNodeTriangles, int newEdgeTriangles) {
@@ -257,7 +445,7 @@ public class EdgeModification {
         }
         this.newNodeTriangles = newNodeTriangles;
         this.newEdgeTriangles = newEdgeTriangles;
-        this.graph.removeEdge(edgeId);
+        removeEdge(edgeId);
     }
 
    public int addEdgeToGraph(int tail, int head, BitSet color, int newNodeTriangles, int newEdgeTriangles) {
@@ -267,7 +455,7 @@ public class EdgeModification {
         }
         this.newNodeTriangles = newNodeTriangles;
         this.newEdgeTriangles = newEdgeTriangles;
-        return graph.addEdge(tail, head, color);
+        return addEdge(tail, head, color);
     }
 }
 
@@ -0,0 +1,198 @@
+package org.aksw.simba.lemming.metrics.single.edgemanipulation;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.ColouredGraphBinaryFormat;
+import org.aksw.simba.lemming.colour.ColourRegistry;
+
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+/**
+ * An append-only journal of all edges which have been added to or removed
+ * from a graph by an {@link EdgeModification}. Every entry contains the tail,
+ * head, colour and ID of the edge. Hence, the journal can be used to bring the
+ * initial graph to the state after any entry by
+ * {@link #replay(ColouredGraph, int, int)} and to bring the current graph back
+ * to an earlier state by {@link #revert(ColouredGraph, int, int)}. In both
+ * cases, the edges keep their IDs.
+ *
+ * Since entries are only appended, a {@link #snapshot()} shares the array of
+ * this journal and can be written by another thread while new entries are
+ * added. Note that reverting the graph of an {@link EdgeModifier} appends the
+ * reverting modifications instead of removing entries. Trial modifications of
+ * an {@link EdgeModifier}, which are reverted right away, and rolled back
+ * batches are not logged at all.
+ */
+public class EdgeModificationLog {
+
+	/**
+	 * Number of ints per entry: tail, head, colour ID and edge ID. The edge ID
+	 * of a removed edge is stored as its complement (~edgeId), i.e., as a
+	 * negative number.
+	 */
+	private static final int ENTRY_SIZE = 4;
+
+	private IntArrayList mEntries;
+
+	public EdgeModificationLog() {
+		mEntries = new IntArrayList();
+	}
+
+	private EdgeModificationLog(IntArrayList entries) {
+		mEntries = entries;
+	}
+
+	public void logAddition(int tailId, int headId, int colourId, int edgeId) {
+		append(tailId, headId, colourId, edgeId);
+	}
+
+	public void logRemoval(int tailId, int headId, int colourId, int edgeId) {
+		append(tailId, headId, colourId, ~edgeId);
+	}
+
+	/**
+	 * Appends all entries of the given journal to this journal.
+	 */
+	public void append(EdgeModificationLog other) {
+		mEntries.add(other.mEntries.buffer, 0, other.mEntries.size());
+	}
+
+	private void append(int tailId, int headId, int colourId, int edgeId) {
+		mEntries.add(tailId);
+		mEntries.add(headId);
+		mEntries.add(colourId);
+		mEntries.add(edgeId);
+	}
+
+	/**
+	 * @return the number of logged modifications, i.e., the position the next
+	 *         modification will be logged at
+	 */
+	public int size() {
+		return mEntries.size() / ENTRY_SIZE;
+	}
+
+	public boolean isRemoval(int position) {
+		return mEntries.buffer[(position * ENTRY_SIZE) + 3] < 0;
+	}
+
+	public int getTailId(int position) {
+		return mEntries.buffer[position * ENTRY_SIZE];
+	}
+
+	public int getHeadId(int position) {
+		return mEntries.buffer[(position * ENTRY_SIZE) + 1];
+	}
+
+	public int getColourId(int position) {
+		return mEntries.buffer[(position * ENTRY_SIZE) + 2];
+	}
+
+	public int getEdgeId(int position) {
+		int edgeId = mEntries.buffer[(position * ENTRY_SIZE) + 3];
+		return edgeId < 0 ? ~edgeId : edgeId;
+	}
+
+	/**
+	 * Returns a view of the entries logged so far. The view shares the array of
+	 * this journal and must not be changed.
+	 */
+	public EdgeModificationLog snapshot() {
+		IntArrayList entries = new IntArrayList(0);
+		entries.buffer = mEntries.buffer;
+		entries.elementsCount = mEntries.elementsCount;
+		return new EdgeModificationLog(entries);
+	}
+
+	/**
+	 * Applies all logged modifications to the given graph, which has to be
+	 * equal to the graph the journal has been started with.
+	 */
+	public void replay(ColouredGraph graph) {
+		replay(graph, 0, size());
+	}
+
+	/**
+	 * Applies the modifications from the position from (inclusive) to the
+	 * position to (exclusive) to the given graph, which has to be in the state
+	 * before the modification at the position from. The modifications are not
+	 * logged again.
+	 */
+	public void replay(ColouredGraph graph, int from, int to) {
+		for (int i = from; i < to; ++i) {
+			if (isRemoval(i)) {
+				graph.removeEdge(getEdgeId(i));
+			} else {
+				graph.restoreEdge(getEdgeId(i), getTailId(i), getHeadId(i), getColourId(i));
+			}
+		}
+	}
+
+	/**
+	 * Reverts the modifications from the position from (exclusive) back to the
+	 * position to (inclusive), i.e., brings the given graph from the state
+	 * after the first from modifications to the state after the first to
+	 * modifications. The reverting modifications are not logged.
+	 */
+	public void revert(ColouredGraph graph, int from, int to) {
+		for (int i = from - 1; i >= to; --i) {
+			if (isRemoval(i)) {
+				graph.restoreEdge(getEdgeId(i), getTailId(i), getHeadId(i), getColourId(i));
+			} else {
+				graph.removeEdge(getEdgeId(i));
+			}
+		}
+	}
+
+	/**
+	 * Writes the journal. The IDs of the colour registry are only valid within
+	 * this JVM. Hence, the colours are written as a table and the entries refer
+	 * to the positions in this table.
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		ColourRegistry registry = ColourRegistry.getInstance();
+		int[] entries = new int[mEntries.elementsCount];
+		System.arraycopy(mEntries.buffer, 0, entries, 0, entries.length);
+		IntArrayList colourTable = new IntArrayList();
+		IntIntOpenHashMap tableIndexes = new IntIntOpenHashMap();
+		for (int i = 2; i < entries.length; i += ENTRY_SIZE) {
+			int colourId = entries[i];
+			if (colourId == ColourRegistry.NO_COLOUR) {
+				entries[i] = -1;
+			} else if (tableIndexes.containsKey(colourId)) {
+				entries[i] = tableIndexes.lget();
+			} else {
+				entries[i] = colourTable.size();
+				tableIndexes.put(colourId, entries[i]);
+				colourTable.add(colourId);
+			}
+		}
+		out.writeInt(colourTable.size());
+		for (int i = 0; i < colourTable.size(); ++i) {
+			ColouredGraphBinaryFormat.writeColour(registry.getColour(colourTable.get(i)), out);
+		}
+		ColouredGraphBinaryFormat.writeInts(entries, out);
+	}
+
+	public static EdgeModificationLog read(ByteBuffer buffer) {
+		ColourRegistry registry = ColourRegistry.getInstance();
+		int[] colourIds = new int[buffer.getInt()];
+		for (int i = 0; i < colourIds.length; ++i) {
+			BitSet colour = ColouredGraphBinaryFormat.readColour(buffer);
+			colourIds[i] = registry.getId(colour);
+		}
+		int[] entries = ColouredGraphBinaryFormat.readInts(buffer);
+		for (int i = 2; i < entries.length; i += ENTRY_SIZE) {
+			entries[i] = entries[i] < 0 ? ColourRegistry.NO_COLOUR : colourIds[entries[i]];
+		}
+		IntArrayList list = new IntArrayList(0);
+		list.buffer = entries;
+		list.elementsCount = entries.length;
+		return new EdgeModificationLog(list);
+	}
+}
@@ -4,21 +4,40 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.colour.ColourRegistry;
+import org.aksw.simba.lemming.metrics.single.AvgUndirectedClusteringCoefficientMetric;
+import org.aksw.simba.lemming.metrics.single.DegreeStatistics;
+import org.aksw.simba.lemming.metrics.single.IncrementalMetric;
 import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
 import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
 import org.aksw.simba.lemming.tools.PrecomputingValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.carrotsearch.hppc.IntOpenHashSet;
 import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
 
-import it.unimi.dsi.fastutil.ints.IntSet;
+import grph.Grph;
 
 public class EdgeModifier {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(EdgeModifier.class);
+	/*
+	 * name of the average clustering coefficient metric which is kept up to
+	 * date by the edge modification
+	 */
+	private static final String CLUSTERING_COEFFICIENT = AvgUndirectedClusteringCoefficientMetric.NAME;
 	
 	private EdgeModification mEdgeModification;
+	/*
+	 * journal of all modifications applied to the graph this object works on
+	 */
+	private EdgeModificationLog mModificationLog;
+	/*
+	 * metric values of previously evaluated graphs identified by their
+	 * fingerprints, e.g., of modifications which are proposed again
+	 */
+	private MetricValueCache mMetricCache = new MetricValueCache(MetricValueCache.DEFAULT_CAPACITY);
 
 	private List<SingleValueMetric> mLstMetrics;
 	private ObjectDoubleOpenHashMap<String> mMapMetricValues;
@@ -27,17 +46,79 @@ public class EdgeModifier {
 	private List<TripleBaseSingleID> mLstAddedEdges;
 	private boolean isCoutingEdgeTriangles = false;
 	private boolean isCountingNodeTriangles = false;
+	/*
+	 * true if the average clustering coefficient is one of the metrics. It is
+	 * kept up to date by the edge modification instead of being recomputed.
+	 */
+	private boolean isCountingClusteringCoefficient = false;
+	/*
+	 * modifications, metric values and triangle counters before the batch
+	 * which has been applied but neither been committed nor rolled back (null
+	 * if there is no such batch). The modifications of the batch are only
+	 * added to the journal when the batch is committed.
+	 */
+	private EdgeModificationLog mBatchLog = null;
+	private ObjectDoubleOpenHashMap<String> mMapMetricValuesBeforeBatch;
+	private int[] mTriangleCountersBeforeBatch;
 	
+	/**
+	 * Creates an edge modifier which works in place on the given graph. All
+	 * modifications are recorded in a journal (see {@link #getModificationLog()})
+	 * which allows to {@link #rollback(int, ObjectDoubleOpenHashMap, int[])}
+	 * the graph to any earlier state.
+	 */
 	public EdgeModifier(ColouredGraph clonedGraph, List<SingleValueMetric> lstMetrics){
 		//list of metric
 		mLstMetrics = lstMetrics;
 		//initialize two list removed edges and added edges
 		mLstRemovedEdges = new ArrayList<TripleBaseSingleID>();
 		mLstAddedEdges = new ArrayList<TripleBaseSingleID>();
+		//let the graph collect the degrees of the vertices which are used by the metrics implementing IncrementalMetric
+		clonedGraph.getDegreeStatistics();
 		//compute metric values
 		computeMetricValues(clonedGraph, lstMetrics);
 		//initialize EdgeModification
 		mEdgeModification= new EdgeModification(clonedGraph,(int) mMapMetricValues.get("#nodetriangles"),(int) mMapMetricValues.get("#edgetriangles"));
+		if(isCountingClusteringCoefficient){
+			mEdgeModification.trackClusteringCoefficient();
+		}
+		// the set of removable edges has to exist before the first modification
+		clonedGraph.getRemovableEdges();
+		mModificationLog = new EdgeModificationLog();
+		mEdgeModification.setLog(mModificationLog);
+	}
+	
+	/**
+	 * Creates an edge modifier which works in place on the given copy of a
+	 * graph of another edge modifier, e.g., of another optimization chain. The
+	 * metric values are not computed again but taken from the given map. The
+	 * values of the initial graph are taken from the other edge modifier while
+	 * the journal starts with the given graph.
+	 * 
+	 * @param other the edge modifier the graph has been copied from
+	 * @param graph the copy of the graph
+	 * @param metricValues the metric values of the copied graph
+	 * @param triangleCounters the triangle counters of the copied graph (see {@link #getTriangleCounters()})
+	 */
+	public EdgeModifier(EdgeModifier other, ColouredGraph graph, ObjectDoubleOpenHashMap<String> metricValues, int[] triangleCounters){
+		mLstMetrics = other.mLstMetrics;
+		mLstRemovedEdges = new ArrayList<TripleBaseSingleID>();
+		mLstAddedEdges = new ArrayList<TripleBaseSingleID>();
+		isCoutingEdgeTriangles = other.isCoutingEdgeTriangles;
+		isCountingNodeTriangles = other.isCountingNodeTriangles;
+		isCountingClusteringCoefficient = other.isCountingClusteringCoefficient;
+		mMapOrignalMetricValues = other.mMapOrignalMetricValues.clone();
+		mMapMetricValues = metricValues.clone();
+		graph.getDegreeStatistics();
+		mEdgeModification = new EdgeModification(graph, (int) metricValues.get("#nodetriangles"),
+				(int) metricValues.get("#edgetriangles"));
+		mEdgeModification.setTriangleCounters(triangleCounters);
+		if(isCountingClusteringCoefficient){
+			mEdgeModification.trackClusteringCoefficient();
+		}
+		graph.getRemovableEdges();
+		mModificationLog = new EdgeModificationLog();
+		mEdgeModification.setLog(mModificationLog);
 	}
 	
 	private void computeMetricValues(ColouredGraph clonedGraph, List<SingleValueMetric> lstMetrics){
@@ -52,6 +133,8 @@ public class EdgeModifier {
 					isCoutingEdgeTriangles = true;
 				}else if(metric.getName().equalsIgnoreCase("#nodetriangles")){
 					isCountingNodeTriangles = true;
+				}else if(metric.getName().equalsIgnoreCase(CLUSTERING_COEFFICIENT)){
+					isCountingClusteringCoefficient = true;
 				}
 				
 				double metVal = metric.apply(clonedGraph);
@@ -72,10 +155,150 @@ public class EdgeModifier {
 		mMapOrignalMetricValues = mMapMetricValues.clone();
 	}
 	
+	/**
+	 * Computes the values of all metrics which are not covered by the
+	 * triangle counting of {@link EdgeModification}. Metrics implementing
+	 * {@link IncrementalMetric} are derived from the degree statistics and the
+	 * average clustering coefficient is tracked by the edge modification while
+	 * all other metrics are applied to the whole graph.
+	 * 
+	 * @param mapMetricValues the map the metric values are added to
+	 */
+	private void computeChangedMetricValues(ObjectDoubleOpenHashMap<String> mapMetricValues){
+		ColouredGraph graph = mEdgeModification.getGraph();
+		for(SingleValueMetric metric: mLstMetrics){
+			if(!metric.getName().equalsIgnoreCase("#edgetriangles") &&
+					!metric.getName().equalsIgnoreCase("#nodetriangles")){
+				double metVal;
+				if(metric.getName().equalsIgnoreCase(CLUSTERING_COEFFICIENT)){
+					metVal = mEdgeModification.getAvgClusteringCoefficient();
+				}else if(metric instanceof IncrementalMetric){
+					metVal = ((IncrementalMetric) metric).apply(graph.getDegreeStatistics());
+				}else{
+					metVal = metric.apply(graph);
+				}
+				mapMetricValues.put(metric.getName(), metVal);
+			}
+		}
+	}
+	
 	public ColouredGraph getGraph(){
 		return mEdgeModification.getGraph();
 	}
 	
+	/**
+	 * Replaces the cache of metric values by a cache with the given capacity.
+	 * A capacity of 0 disables the caching.
+	 */
+	public void setMetricCacheCapacity(int capacity){
+		mMetricCache = new MetricValueCache(capacity);
+	}
+	
+	/**
+	 * @return the cache of metric values with its hit and miss counters
+	 */
+	public MetricValueCache getMetricCache(){
+		return mMetricCache;
+	}
+	
+	/**
+	 * @return the fingerprint the graph would have after removing the given edge
+	 */
+	private long getFingerprintAfterRemoving(int edgeId){
+		ColouredGraph graph = mEdgeModification.getGraph();
+		Grph grph = graph.getGraph();
+		return mEdgeModification.getFingerprint() - GraphFingerprint.edgeKey(grph.getDirectedSimpleEdgeTail(edgeId),
+				grph.getDirectedSimpleEdgeHead(edgeId), graph.getEdgeColourId(edgeId));
+	}
+	
+	/**
+	 * @return the fingerprint the graph would have after adding the given edge
+	 */
+	private long getFingerprintAfterAdding(TripleBaseSingleID triple){
+		return mEdgeModification.getFingerprint() + GraphFingerprint.edgeKey(triple.tailId, triple.headId,
+				ColourRegistry.getInstance().getId(triple.edgeColour));
+	}
+	
+	/**
+	 * @return the journal of all edges which have been added to or removed from
+	 *         the graph since this object has been created
+	 */
+	public EdgeModificationLog getModificationLog(){
+		return mModificationLog;
+	}
+	
+	/**
+	 * @return the internal triangle counters of the edge modification which are
+	 *         needed to {@link #restore(EdgeModificationLog, ObjectDoubleOpenHashMap, int[])}
+	 *         this object
+	 */
+	public int[] getTriangleCounters(){
+		return mEdgeModification.getTriangleCounters();
+	}
+	
+	/**
+	 * Brings the graph, which has to be the graph this object has been created
+	 * with, to a previously logged state by replaying the given log. The metric
+	 * values are not computed again but taken from the given map. The given log
+	 * is continued with all further modifications.
+	 * 
+	 * @param log the modifications applied to the initial graph
+	 * @param metricValues the metric values of the graph after the modifications
+	 * @param triangleCounters the triangle counters of the edge modification
+	 */
+	public void restore(EdgeModificationLog log, ObjectDoubleOpenHashMap<String> metricValues, int[] triangleCounters){
+		ColouredGraph graph = mEdgeModification.getGraph();
+		log.replay(graph);
+		mEdgeModification = new EdgeModification(graph, (int) metricValues.get("#nodetriangles"),
+				(int) metricValues.get("#edgetriangles"));
+		mEdgeModification.setTriangleCounters(triangleCounters);
+		if(isCountingClusteringCoefficient){
+			// the replayed modifications have not been tracked
+			mEdgeModification.trackClusteringCoefficient();
+		}
+		mModificationLog = log;
+		mEdgeModification.setLog(log);
+		mLstRemovedEdges.clear();
+		mLstAddedEdges.clear();
+		updateMapMetricValues(metricValues);
+	}
+	
+	/**
+	 * Brings the graph back to the state it had when the journal had the given
+	 * size by undoing all later modifications in reverse order. The undoing
+	 * modifications are appended to the journal, i.e., the journal stays
+	 * append-only and replaying it still leads to the current graph. Since the
+	 * metric values are not computed again, the values and triangle counters
+	 * of the earlier state have to be given.
+	 * 
+	 * @param position the size of the journal at the earlier state
+	 * @param metricValues the metric values of the graph at the earlier state
+	 * @param triangleCounters the triangle counters at the earlier state (see {@link #getTriangleCounters()})
+	 */
+	public void rollback(int position, ObjectDoubleOpenHashMap<String> metricValues, int[] triangleCounters){
+		undo(mModificationLog, position);
+		mEdgeModification.setTriangleCounters(triangleCounters);
+		mLstRemovedEdges.clear();
+		mLstAddedEdges.clear();
+		updateMapMetricValues(metricValues);
+	}
+	
+	/**
+	 * Undoes the modifications of the given journal from its end back to the
+	 * given position. The undoing modifications are logged if the edge
+	 * modification has a journal.
+	 */
+	private void undo(EdgeModificationLog log, int position){
+		for(int i = log.size() - 1; i >= position; --i){
+			int edgeId = log.getEdgeId(i);
+			if(log.isRemoval(i)){
+				mEdgeModification.restoreEdge(edgeId, log.getTailId(i), log.getHeadId(i), log.getColourId(i));
+			}else{
+				mEdgeModification.removeEdge(edgeId);
+			}
+		}
+	}
+	
 	public ObjectDoubleOpenHashMap<String> tryToRemoveAnEdge(TripleBaseSingleID triple){
 		if(triple != null && triple.edgeId != -1 &&
 				triple.edgeColour != null &&
@@ -84,37 +307,44 @@ public class EdgeModifier {
 			//add to list of removed edges
 			//mLstRemovedEdges.add(triple);
 			
-			ObjectDoubleOpenHashMap<String> mapChangedMetricValues = new ObjectDoubleOpenHashMap<String>();
-			
-			mEdgeModification.removeEdgeFromGraph(triple.edgeId);
-			if(isCountingNodeTriangles){
-				int newNodeTri = mEdgeModification.getNewNodeTriangles();
-				mapChangedMetricValues.put("#nodetriangles", newNodeTri);	
+			long fingerprint = getFingerprintAfterRemoving(triple.edgeId);
+			ObjectDoubleOpenHashMap<String> mapChangedMetricValues = mMetricCache.get(fingerprint);
+			if(mapChangedMetricValues != null){
+				// the graph does not have to be modified
+				mLstRemovedEdges.add(triple);
+				return mapChangedMetricValues;
 			}
+			mapChangedMetricValues = new ObjectDoubleOpenHashMap<String>();
 			
-			if(isCoutingEdgeTriangles){
-		        int newEdgeTri = mEdgeModification.getNewEdgeTriangles();
-		        mapChangedMetricValues.put("#edgetriangles", newEdgeTri);				
-			}
+			// the trial is not logged since it is reverted right away
+			int[] triangleCounters = mEdgeModification.getTriangleCounters();
+			ColouredGraph graph = mEdgeModification.getGraph();
+			int tailId = graph.getGraph().getDirectedSimpleEdgeTail(triple.edgeId);
+			int headId = graph.getGraph().getDirectedSimpleEdgeHead(triple.edgeId);
+			int colourId = graph.getEdgeColourId(triple.edgeId);
+			mEdgeModification.setLog(null);
+			try{
+				mEdgeModification.removeEdgeFromGraph(triple.edgeId);
+				if(isCountingNodeTriangles){
+					int newNodeTri = mEdgeModification.getNewNodeTriangles();
+					mapChangedMetricValues.put("#nodetriangles", newNodeTri);	
+				}
+				
+				if(isCoutingEdgeTriangles){
+			        int newEdgeTri = mEdgeModification.getNewEdgeTriangles();
+			        mapChangedMetricValues.put("#edgetriangles", newEdgeTri);				
+				}
 
-	        ColouredGraph graph = mEdgeModification.getGraph();
-	        
-	        for(SingleValueMetric metric: mLstMetrics){
-	        	if(!metric.getName().equalsIgnoreCase("#edgetriangles") &&
-	        			!metric.getName().equalsIgnoreCase("#nodetriangles")){
-        			double metVal = metric.apply(graph);
-	        		mapChangedMetricValues.put(metric.getName(), metVal);   
-	        	}
-	        }
-	        
-	        //reverse the graph
-	       // mEdgeModification.addEdgeToGraph(triple.tailId, triple.headId, triple.edgeColour);
-	        int removedEdgeID = mEdgeModification.addEdgeToGraph(triple.tailId, triple.headId, triple.edgeColour, 
-	        		(int)mMapMetricValues.get("#nodetriangles"),(int) mMapMetricValues.get("#edgetriangles"));
-	        
-	        TripleBaseSingleID removedTriple = new TripleBaseSingleID(triple.tailId, triple.headColour, triple.headId, 
-	        		triple.tailColour, removedEdgeID, triple.edgeColour);
-	        mLstRemovedEdges.add(removedTriple);
+		        computeChangedMetricValues(mapChangedMetricValues);
+		        mMetricCache.put(fingerprint, mapChangedMetricValues);
+		        
+		        //reverse the graph, the edge keeps its ID to keep the journal valid
+		        mEdgeModification.restoreEdge(triple.edgeId, tailId, headId, colourId);
+		        mEdgeModification.setTriangleCounters(triangleCounters);
+			}finally{
+				mEdgeModification.setLog(mModificationLog);
+			}
+	        mLstRemovedEdges.add(triple);
 	        
 	        return mapChangedMetricValues;
 		}else{
@@ -128,32 +358,37 @@ public class EdgeModifier {
 			//add to list of added edges
 			mLstAddedEdges.add(triple);
 			
-			ObjectDoubleOpenHashMap<String> mapMetricValues = new ObjectDoubleOpenHashMap<String>();
-			triple.edgeId = mEdgeModification.addEdgeToGraph(triple.tailId,triple.headId, triple.edgeColour);
-			
-			if(isCountingNodeTriangles){
-				int newNodeTri = mEdgeModification.getNewNodeTriangles();
-				mapMetricValues.put("#nodetriangles", newNodeTri);
+			long fingerprint = getFingerprintAfterAdding(triple);
+			ObjectDoubleOpenHashMap<String> mapMetricValues = mMetricCache.get(fingerprint);
+			if(mapMetricValues != null){
+				// the graph does not have to be modified
+				return mapMetricValues;
 			}
-			
-			if(isCoutingEdgeTriangles){
-				int newEdgeTri = mEdgeModification.getNewEdgeTriangles();
-		        mapMetricValues.put("#edgetriangles", newEdgeTri);
+			mapMetricValues = new ObjectDoubleOpenHashMap<String>();
+			// the trial is not logged since it is reverted right away
+			mEdgeModification.setLog(null);
+			try{
+				triple.edgeId = mEdgeModification.addEdgeToGraph(triple.tailId,triple.headId, triple.edgeColour);
+				
+				if(isCountingNodeTriangles){
+					int newNodeTri = mEdgeModification.getNewNodeTriangles();
+					mapMetricValues.put("#nodetriangles", newNodeTri);
+				}
+				
+				if(isCoutingEdgeTriangles){
+					int newEdgeTri = mEdgeModification.getNewEdgeTriangles();
+			        mapMetricValues.put("#edgetriangles", newEdgeTri);
+				}
+			    
+			    computeChangedMetricValues(mapMetricValues);
+			    mMetricCache.put(fingerprint, mapMetricValues);
+			    
+			    //mEdgeModification.removeEdgeFromGraph(triple.edgeId);
+			    mEdgeModification.removeEdgeFromGraph(triple.edgeId, (int)mMapMetricValues.get("#nodetriangles"), 
+			    		(int)mMapMetricValues.get("#edgetriangles"));
+			}finally{
+				mEdgeModification.setLog(mModificationLog);
 			}
-		    
-		    ColouredGraph graph = mEdgeModification.getGraph();
-		    for(SingleValueMetric metric: mLstMetrics){
-	        	if(!metric.getName().equalsIgnoreCase("#edgetriangles") &&
-	        			!metric.getName().equalsIgnoreCase("#nodetriangles")){
-	        		
-        			double metVal = metric.apply(graph);
-	        		mapMetricValues.put(metric.getName(), metVal);   
-	        	}
-	        }
-		    
-		    //mEdgeModification.removeEdgeFromGraph(triple.edgeId);
-		    mEdgeModification.removeEdgeFromGraph(triple.edgeId, (int)mMapMetricValues.get("#nodetriangles"), 
-		    		(int)mMapMetricValues.get("#edgetriangles"));
 			return mapMetricValues;
 		}else{
 			LOGGER.warn("Invalid triple for adding an edge!");
@@ -174,7 +409,6 @@ public class EdgeModifier {
 			TripleBaseSingleID lastTriple = mLstRemovedEdges.get(mLstRemovedEdges.size() -1);
 			//remove the edge from graph again
 			//mEdgeModification.removeEdgeFromGraph(lastTriple.edgeId);
-			
 			mEdgeModification.removeEdgeFromGraph(lastTriple.edgeId, (int) newMetricValues.get("#nodetriangles"),
 					(int) newMetricValues.get("#edgetriangles"));
 			
@@ -194,12 +428,258 @@ public class EdgeModifier {
 			TripleBaseSingleID lastTriple = mLstAddedEdges.get(mLstAddedEdges.size() -1);
 			//add the edge to graph again
 			//mEdgeModification.addEdgeToGraph(lastTriple.tailId, lastTriple.headId, lastTriple.edgeColour);
-			mEdgeModification.addEdgeToGraph(lastTriple.tailId, lastTriple.headId, 
+			lastTriple.edgeId = mEdgeModification.addEdgeToGraph(lastTriple.tailId, lastTriple.headId, 
 									lastTriple.edgeColour, (int) newMetricValues.get("#nodetriangles"),
 									(int) newMetricValues.get("#edgetriangles"));
 		}
 	}
 	
+	/**
+	 * Checks whether all metrics can be evaluated for a single edge modification
+	 * without modifying the graph, i.e., whether the methods
+	 * {@link #evaluateRemovingAnEdge(TripleBaseSingleID)} and
+	 * {@link #evaluateAddingAnEdge(TripleBaseSingleID)} can be used.
+	 * 
+	 * @return true if all metrics are either triangle metrics, the average
+	 *         clustering coefficient or implement {@link IncrementalMetric}
+	 */
+	public boolean isEvaluableWithoutModification(){
+		for(SingleValueMetric metric: mLstMetrics){
+			if(!metric.getName().equalsIgnoreCase("#edgetriangles") &&
+					!metric.getName().equalsIgnoreCase("#nodetriangles") &&
+					!metric.getName().equalsIgnoreCase(CLUSTERING_COEFFICIENT) &&
+					!(metric instanceof IncrementalMetric)){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Computes the metric values the graph would have after removing the given
+	 * edge. Neither the graph nor the state of this object are changed. Hence,
+	 * several candidates can be evaluated concurrently as long as no edge is
+	 * removed or added in the meantime. Note that this method can only be used
+	 * if {@link #isEvaluableWithoutModification()} returns true.
+	 * 
+	 * @param triple the edge that might be removed
+	 * @return the metric values after removing the edge or null if the triple is invalid
+	 */
+	public ObjectDoubleOpenHashMap<String> evaluateRemovingAnEdge(TripleBaseSingleID triple){
+		if(triple != null && triple.edgeId != -1 &&
+				triple.edgeColour != null &&
+				triple.tailId != -1 && triple.headId !=-1){
+			long fingerprint = getFingerprintAfterRemoving(triple.edgeId);
+			ObjectDoubleOpenHashMap<String> mapMetricValues = mMetricCache.get(fingerprint);
+			if(mapMetricValues == null){
+				Grph grph = mEdgeModification.getGraph().getGraph();
+				int tailId = grph.getDirectedSimpleEdgeTail(triple.edgeId);
+				int headId = grph.getDirectedSimpleEdgeHead(triple.edgeId);
+				int[] triangles = mEdgeModification.computeTrianglesAfterRemovingEdge(tailId, headId,
+						(int) mMapMetricValues.get("#nodetriangles"), (int) mMapMetricValues.get("#edgetriangles"));
+				double clusteringCoefficient = isCountingClusteringCoefficient
+						? mEdgeModification.computeAvgClusteringCoefficientAfterRemovingEdge(tailId, headId) : 0;
+				mapMetricValues = computeChangedMetricValues(triangles, clusteringCoefficient,
+						getGraph().getDegreeStatistics().afterRemovingEdge(tailId, headId));
+				mMetricCache.put(fingerprint, mapMetricValues);
+			}
+			return mapMetricValues;
+		}else{
+			LOGGER.warn("Invalid triple for removing an edge!");
+			return null;
+		}
+	}
+	
+	/**
+	 * Computes the metric values the graph would have after adding the given
+	 * edge. Neither the graph nor the state of this object are changed. Hence,
+	 * several candidates can be evaluated concurrently as long as no edge is
+	 * removed or added in the meantime. Note that this method can only be used
+	 * if {@link #isEvaluableWithoutModification()} returns true.
+	 * 
+	 * @param triple the edge that might be added
+	 * @return the metric values after adding the edge or null if the triple is invalid
+	 */
+	public ObjectDoubleOpenHashMap<String> evaluateAddingAnEdge(TripleBaseSingleID triple){
+		if(triple!= null && triple.edgeColour != null && triple.headId!= -1 && triple.tailId != -1){
+			long fingerprint = getFingerprintAfterAdding(triple);
+			ObjectDoubleOpenHashMap<String> mapMetricValues = mMetricCache.get(fingerprint);
+			if(mapMetricValues == null){
+				int[] triangles = mEdgeModification.computeTrianglesAfterAddingEdge(triple.tailId, triple.headId,
+						(int) mMapMetricValues.get("#nodetriangles"), (int) mMapMetricValues.get("#edgetriangles"));
+				double clusteringCoefficient = isCountingClusteringCoefficient
+						? mEdgeModification.computeAvgClusteringCoefficientAfterAddingEdge(triple.tailId, triple.headId) : 0;
+				mapMetricValues = computeChangedMetricValues(triangles, clusteringCoefficient,
+						getGraph().getDegreeStatistics().afterAddingEdge(triple.tailId, triple.headId));
+				mMetricCache.put(fingerprint, mapMetricValues);
+			}
+			return mapMetricValues;
+		}else{
+			LOGGER.warn("Invalid triple for adding an edge!");
+			return null;
+		}
+	}
+	
+	private ObjectDoubleOpenHashMap<String> computeChangedMetricValues(int[] triangles, double clusteringCoefficient,
+			DegreeStatistics statistics){
+		ObjectDoubleOpenHashMap<String> mapMetricValues = new ObjectDoubleOpenHashMap<String>();
+		if(isCountingNodeTriangles){
+			mapMetricValues.put("#nodetriangles", triangles[0]);
+		}
+		if(isCoutingEdgeTriangles){
+			mapMetricValues.put("#edgetriangles", triangles[1]);
+		}
+		if(isCountingClusteringCoefficient){
+			mapMetricValues.put(CLUSTERING_COEFFICIENT, clusteringCoefficient);
+		}
+		for(SingleValueMetric metric: mLstMetrics){
+			if(metric instanceof IncrementalMetric){
+				mapMetricValues.put(metric.getName(), ((IncrementalMetric) metric).apply(statistics));
+			}
+		}
+		return mapMetricValues;
+	}
+	
+	/**
+	 * Removes the given edge which has been evaluated with
+	 * {@link #evaluateRemovingAnEdge(TripleBaseSingleID)} before.
+	 * 
+	 * @param triple the edge that should be removed
+	 * @param newMetricValues the already calculated metric values of the evaluation
+	 */
+	public void executeRemovingAnEdge(TripleBaseSingleID triple, ObjectDoubleOpenHashMap<String> newMetricValues){
+		updateMapMetricValues(newMetricValues);
+		mEdgeModification.removeEdgeFromGraph(triple.edgeId, (int) newMetricValues.get("#nodetriangles"),
+				(int) newMetricValues.get("#edgetriangles"));
+		mLstRemovedEdges.add(triple);
+	}
+	
+	/**
+	 * Adds the given edge which has been evaluated with
+	 * {@link #evaluateAddingAnEdge(TripleBaseSingleID)} before. The ID of the
+	 * new edge is stored in the given triple.
+	 * 
+	 * @param triple the edge that should be added
+	 * @param newMetricValues the already calculated metric values of the evaluation
+	 */
+	public void executeAddingAnEdge(TripleBaseSingleID triple, ObjectDoubleOpenHashMap<String> newMetricValues){
+		updateMapMetricValues(newMetricValues);
+		triple.edgeId = mEdgeModification.addEdgeToGraph(triple.tailId, triple.headId, triple.edgeColour,
+				(int) newMetricValues.get("#nodetriangles"), (int) newMetricValues.get("#edgetriangles"));
+		mLstAddedEdges.add(triple);
+	}
+	
+	/**
+	 * Applies a batch of edge removals and additions to the graph and computes
+	 * the metric values of the modified graph. The removals are applied before
+	 * the additions. The triangle counts are updated edge by edge on the
+	 * already modified graph. Hence, the combined change is exact even if the
+	 * edges of the batch form triangles with each other. The graph stays
+	 * modified until the batch is either committed with
+	 * {@link #commitBatch(ObjectDoubleOpenHashMap)} or rolled back with
+	 * {@link #rollbackBatch()}. The IDs of the added edges are stored in the
+	 * given triples.
+	 * 
+	 * @param removals the edges that should be removed
+	 * @param additions the edges that should be added
+	 * @return the metric values after applying the batch or null if one of the triples is invalid
+	 */
+	public ObjectDoubleOpenHashMap<String> tryToApplyBatch(List<TripleBaseSingleID> removals, List<TripleBaseSingleID> additions){
+		if(mBatchLog != null){
+			throw new IllegalStateException("The previous batch has neither been committed nor rolled back.");
+		}
+		ColouredGraph graph = mEdgeModification.getGraph();
+		IntOpenHashSet removedEdges = new IntOpenHashSet();
+		for(TripleBaseSingleID triple : removals){
+			if(triple == null || triple.edgeId == -1 || !graph.getEdges().contains(triple.edgeId)
+					|| !removedEdges.add(triple.edgeId)){
+				LOGGER.warn("Invalid triple for removing an edge within a batch!");
+				return null;
+			}
+		}
+		for(TripleBaseSingleID triple : additions){
+			if(triple == null || triple.edgeColour == null || triple.headId == -1 || triple.tailId == -1){
+				LOGGER.warn("Invalid triple for adding an edge within a batch!");
+				return null;
+			}
+		}
+		
+		mBatchLog = new EdgeModificationLog();
+		mEdgeModification.setLog(mBatchLog);
+		mMapMetricValuesBeforeBatch = mMapMetricValues;
+		mTriangleCountersBeforeBatch = mEdgeModification.getTriangleCounters();
+		
+		boolean isCountingTriangles = isCountingNodeTriangles || isCoutingEdgeTriangles;
+		int[] triangles = new int[] { (int) mMapMetricValues.get("#nodetriangles"), 
+				(int) mMapMetricValues.get("#edgetriangles") };
+		Grph grph = graph.getGraph();
+		for(TripleBaseSingleID triple : removals){
+			int tailId = grph.getDirectedSimpleEdgeTail(triple.edgeId);
+			int headId = grph.getDirectedSimpleEdgeHead(triple.edgeId);
+			if(isCountingTriangles){
+				triangles = mEdgeModification.computeTrianglesAfterRemovingEdge(tailId, headId, triangles[0], triangles[1]);
+			}
+			mEdgeModification.removeEdgeFromGraph(triple.edgeId, triangles[0], triangles[1]);
+		}
+		for(TripleBaseSingleID triple : additions){
+			if(isCountingTriangles){
+				triangles = mEdgeModification.computeTrianglesAfterAddingEdge(triple.tailId, triple.headId, 
+						triangles[0], triangles[1]);
+			}
+			triple.edgeId = mEdgeModification.addEdgeToGraph(triple.tailId, triple.headId, triple.edgeColour, 
+					triangles[0], triangles[1]);
+		}
+		
+		ObjectDoubleOpenHashMap<String> mapMetricValues = new ObjectDoubleOpenHashMap<String>();
+		if(isCountingNodeTriangles){
+			mapMetricValues.put("#nodetriangles", triangles[0]);
+		}
+		if(isCoutingEdgeTriangles){
+			mapMetricValues.put("#edgetriangles", triangles[1]);
+		}
+		computeChangedMetricValues(mapMetricValues);
+		return mapMetricValues;
+	}
+	
+	/**
+	 * Keeps the batch applied by {@link #tryToApplyBatch(List, List)}.
+	 * 
+	 * @param newMetricValues the metric values returned for the batch
+	 */
+	public void commitBatch(ObjectDoubleOpenHashMap<String> newMetricValues){
+		if(mBatchLog == null){
+			throw new IllegalStateException("There is no batch to commit.");
+		}
+		mModificationLog.append(mBatchLog);
+		updateMapMetricValues(newMetricValues);
+		clearBatch();
+	}
+	
+	/**
+	 * Reverts all modifications of the batch applied by
+	 * {@link #tryToApplyBatch(List, List)}.
+	 */
+	public void rollbackBatch(){
+		if(mBatchLog == null){
+			throw new IllegalStateException("There is no batch to roll back.");
+		}
+		// neither the batch nor its reversal are added to the journal
+		mEdgeModification.setLog(null);
+		undo(mBatchLog, 0);
+		mEdgeModification.setTriangleCounters(mTriangleCountersBeforeBatch);
+		mLstRemovedEdges.clear();
+		mLstAddedEdges.clear();
+		updateMapMetricValues(mMapMetricValuesBeforeBatch);
+		clearBatch();
+	}
+	
+	private void clearBatch(){
+		mBatchLog = null;
+		mEdgeModification.setLog(mModificationLog);
+		mMapMetricValuesBeforeBatch = null;
+		mTriangleCountersBeforeBatch = null;
+	}
+	
 	private void updateMapMetricValues(ObjectDoubleOpenHashMap<String> newMetricValues){
 		mMapMetricValues = newMetricValues;
 	}
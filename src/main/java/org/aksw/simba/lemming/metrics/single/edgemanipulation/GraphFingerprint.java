@@ -0,0 +1,51 @@
+package org.aksw.simba.lemming.metrics.single.edgemanipulation;
+
+import org.aksw.simba.lemming.ColouredGraph;
+
+import grph.Grph;
+
+/**
+ * A Zobrist-like 64 bit hash of the multiset of edges of a graph. Every edge is
+ * mapped to a pseudo random key derived from its tail, head and colour and the
+ * fingerprint is the sum of the keys of all edges. Hence, the fingerprint does
+ * not depend on the IDs or the order of the edges and can be updated in O(1)
+ * by adding or subtracting the key of an added or removed edge. In contrast
+ * to XOR, the sum distinguishes between one and two edges with the same tail,
+ * head and colour.
+ */
+public final class GraphFingerprint {
+
+    private GraphFingerprint() {
+    }
+
+    /**
+     * @return the fingerprint of all edges of the given graph
+     */
+    public static long of(ColouredGraph graph) {
+        Grph grph = graph.getGraph();
+        long fingerprint = 0;
+        for (int edgeId : grph.getEdges().toIntArray()) {
+            fingerprint += edgeKey(grph.getDirectedSimpleEdgeTail(edgeId), grph.getDirectedSimpleEdgeHead(edgeId),
+                    graph.getEdgeColourId(edgeId));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the key of an edge with the given tail, head and colour ID
+     */
+    public static long edgeKey(int tailId, int headId, int colourId) {
+        long key = mix(tailId + 0x9E3779B97F4A7C15L);
+        key = mix(key ^ (headId + 0xC2B2AE3D27D4EB4FL));
+        return mix(key ^ (colourId + 0x165667B19E3779F9L));
+    }
+
+    /**
+     * The finalizer of the SplitMix64 generator.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
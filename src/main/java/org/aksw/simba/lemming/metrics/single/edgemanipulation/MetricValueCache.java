@@ -0,0 +1,69 @@
+package org.aksw.simba.lemming.metrics.single.edgemanipulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
+/**
+ * A bounded cache of metric values with a least recently used eviction. The
+ * values are identified by the {@link GraphFingerprint} of the graph they have
+ * been computed for. The cache is thread-safe and counts its hits and misses.
+ */
+public class MetricValueCache {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+    private final LinkedHashMap<Long, ObjectDoubleOpenHashMap<String>> values;
+    private long hits = 0;
+    private long misses = 0;
+
+    public MetricValueCache(final int capacity) {
+        this.capacity = capacity;
+        this.values = new LinkedHashMap<Long, ObjectDoubleOpenHashMap<String>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ObjectDoubleOpenHashMap<String>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return a copy of the cached metric values of the graph with the given
+     *         fingerprint or null if they are not cached
+     */
+    public synchronized ObjectDoubleOpenHashMap<String> get(long fingerprint) {
+        ObjectDoubleOpenHashMap<String> cached = values.get(fingerprint);
+        if (cached == null) {
+            ++misses;
+            return null;
+        }
+        ++hits;
+        return cached.clone();
+    }
+
+    public synchronized void put(long fingerprint, ObjectDoubleOpenHashMap<String> metricValues) {
+        if (capacity > 0) {
+            values.put(fingerprint, metricValues.clone());
+        }
+    }
+
+    public synchronized void clear() {
+        values.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
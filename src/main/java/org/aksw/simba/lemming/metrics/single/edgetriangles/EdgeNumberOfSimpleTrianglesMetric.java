@@ -1,15 +1,11 @@
 package org.aksw.simba.lemming.metrics.single.edgetriangles;
 
-import grph.DefaultIntSet;
-import grph.Grph;
 import grph.algo.MultiThreadProcessing;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
 
+import org.aksw.simba.lemming.CSRGraph;
 import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.metrics.AbstractMetric;
 import org.aksw.simba.lemming.metrics.single.TriangleMetric;
-import org.aksw.simba.lemming.util.IntSetUtil;
 
 /**
  * @author DANISH AHMED on 6/13/2018
@@ -41,19 +37,15 @@ public class EdgeNumberOfSimpleTrianglesMetric extends AbstractMetric implements
 
         private ColouredGraph graph;
         private int trianglesSum = 0;
-        private IntSet edges[];
 
         public MultiThreadedTriangleCountingProcess(ColouredGraph graph) {
             this.graph = graph;
-            edges = new IntSet[graph.getGraph().getNumberOfVertices()];
         }
 
         protected double calculate() {
-            Grph grph = graph.getGraph();
-            for (int i = 0; i < edges.length; ++i) {
-                edges[i] = grph.getOutEdges(i);
-                edges[i].addAll(grph.getInEdges(i));
-            }
+            CSRGraph csrGraph = graph.getCSRGraph();
+            int offsets[] = csrGraph.getOffsets();
+            int neighbours[] = csrGraph.getNeighbours();
             /*
              * A triangle is handled by the thread which handles the node with the lowest id in that triangle.
              */
@@ -61,30 +53,31 @@ public class EdgeNumberOfSimpleTrianglesMetric extends AbstractMetric implements
                 @Override
                 protected void run(int threadID, int sourceId) {
                     int count = 0;
-                    int sourceEdges[] = edges[sourceId].toIntArray();
-                    IntSet connectedNodesSet = new IntOpenHashSet(); 
-                    		//new IntHashSet();
+                    int connectedNodes[] = new int[csrGraph.getDegree(sourceId)];
+                    // number of edges between the source and the connected node
+                    int connectingEdges[] = new int[connectedNodes.length];
+                    int numberOfConnectedNodes = 0;
                     int n;
-                    for (int i = 0; i < sourceEdges.length; ++i) {
-                        n = grph.getDirectedSimpleEdgeHead(sourceEdges[i]);
+                    // the neighbours are sorted, i.e., multiple edges to the same node are next to each other
+                    for (int i = offsets[sourceId]; i < offsets[sourceId + 1]; ++i) {
+                        n = neighbours[i];
                         if (n > sourceId) {
-                            connectedNodesSet.add(n);
-                            continue;
-                        }
-                        if (n == sourceId) {
-                            n = grph.getDirectedSimpleEdgeTail(sourceEdges[i]);
-                            if (n > sourceId)
-                                connectedNodesSet.add(n);
+                            if ((numberOfConnectedNodes > 0) && (connectedNodes[numberOfConnectedNodes - 1] == n)) {
+                                ++connectingEdges[numberOfConnectedNodes - 1];
+                            } else {
+                                connectedNodes[numberOfConnectedNodes] = n;
+                                connectingEdges[numberOfConnectedNodes] = 1;
+                                ++numberOfConnectedNodes;
+                            }
                         }
                     }
-                    int connectedNodes[] = connectedNodesSet.toIntArray();
-                    for (int i = 0; i < connectedNodes.length; i++) {
-                        for (int j = i + 1; j < connectedNodes.length; j++) {
-                            int connectedNodesIntersectionSize = IntSetUtil.intersection(edges[connectedNodes[i]], edges[connectedNodes[j]]).size();
+                    for (int i = 0; i < numberOfConnectedNodes; i++) {
+                        for (int j = i + 1; j < numberOfConnectedNodes; j++) {
+                            int connectedNodesIntersectionSize = csrGraph.getNumberOfEdgesBetween(connectedNodes[i],
+                                    connectedNodes[j]);
                             if(connectedNodesIntersectionSize > 0) {
-                                count = count + (connectedNodesIntersectionSize *
-                                		IntSetUtil.intersection(edges[sourceId], edges[connectedNodes[i]]).size() *
-                                		IntSetUtil.intersection(edges[connectedNodes[j]], edges[sourceId]).size());
+                                count = count + (connectedNodesIntersectionSize * connectingEdges[i]
+                                        * connectingEdges[j]);
                             }
                         }
                     }
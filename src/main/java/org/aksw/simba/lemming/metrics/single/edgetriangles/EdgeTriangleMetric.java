@@ -15,7 +15,7 @@ public class EdgeTriangleMetric extends AbstractMetric implements SingleValueMet
 	public double apply(ColouredGraph graph) {
 		
 		EdgeTriangleMetricSelection selector = new EdgeTriangleMetricSelection();
-		SingleValueMetric edgeTriangleMetric = selector.getMinComplexityMetric(graph);
+		SingleValueMetric edgeTriangleMetric = selector.getFastestMetric(graph);
 		
 		//get number of edge triangles
 		return edgeTriangleMetric.apply(graph);
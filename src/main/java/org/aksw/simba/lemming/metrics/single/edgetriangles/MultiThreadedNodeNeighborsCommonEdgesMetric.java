@@ -1,14 +1,12 @@
 package org.aksw.simba.lemming.metrics.single.edgetriangles;
 
-import grph.Grph;
 import grph.algo.MultiThreadProcessing;
-import it.unimi.dsi.fastutil.ints.IntSet;
 
+import org.aksw.simba.lemming.CSRGraph;
 import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.metrics.AbstractMetric;
 
 import org.aksw.simba.lemming.metrics.single.TriangleMetric;
-import org.aksw.simba.lemming.util.IntSetUtil;
 /**
  * This metric is the number of triangles of the graph.
  * 
@@ -36,19 +34,15 @@ public class MultiThreadedNodeNeighborsCommonEdgesMetric extends AbstractMetric
 
         private ColouredGraph graph;
         private int trianglesSum = 0;
-        private IntSet edgesOfVertex[];
 
         public MultiThreadedTriangleCountingProcess(ColouredGraph graph) {
             this.graph = graph;
-            edgesOfVertex = new IntSet[graph.getGraph().getNumberOfVertices()];
         }
 
         protected double calculate() {
-            Grph grph = graph.getGraph();
-            for (int i = 0; i < edgesOfVertex.length; ++i) {
-                edgesOfVertex[i] = grph.getOutEdges(i);
-                edgesOfVertex[i].addAll(grph.getInEdges(i));
-            }
+            CSRGraph csrGraph = graph.getCSRGraph();
+            int offsets[] = csrGraph.getOffsets();
+            int neighbours[] = csrGraph.getNeighbours();
             /*
              * A triangle is handled by the thread which handles the node with the lowest id
              * in that triangle.
@@ -57,24 +51,20 @@ public class MultiThreadedNodeNeighborsCommonEdgesMetric extends AbstractMetric
                 @Override
                 protected void run(int threadID, int sourceId) {
                     int count = 0;
-                    int sourceEdges[] = edgesOfVertex[sourceId].toIntArray();
+                    int end = offsets[sourceId + 1];
                     int n_1, n_2;
-                    for (int i = 0; i < sourceEdges.length; ++i) {
-                        n_1 = grph.getDirectedSimpleEdgeHead(sourceEdges[i]);
-                        if (n_1 == sourceId) {
-                            n_1 = grph.getDirectedSimpleEdgeTail(sourceEdges[i]);
-                        }
+                    // every position of the source's row stands for one of its edges
+                    for (int i = offsets[sourceId]; i < end; ++i) {
+                        n_1 = neighbours[i];
                         // If this edge is not handled by another thread
                         if (n_1 > sourceId) {
-                            for (int j = i + 1; j < sourceEdges.length; ++j) {
-                                n_2 = grph.getDirectedSimpleEdgeHead(sourceEdges[j]);
-                                if (n_2 == sourceId) {
-                                    n_2 = grph.getDirectedSimpleEdgeTail(sourceEdges[j]);
-                                }
+                            for (int j = i + 1; j < end; ++j) {
+                                n_2 = neighbours[j];
                                 // make sure that n_2 is larger than the sourceId (so no other thread is
-                                // handling this triangle). Note that n_2 is allowed to be smaller than n_1
-                                if ((n_2 > sourceId) && (n_2 != n_1)) {
-                                    count += IntSetUtil.intersection(edgesOfVertex[n_1], edgesOfVertex[n_2]).size();
+                                // handling this triangle). Since the neighbours are sorted, n_2 is
+                                // not smaller than n_1
+                                if (n_2 != n_1) {
+                                    count += csrGraph.getNumberOfEdgesBetween(n_1, n_2);
                                 }
                             }
                         }
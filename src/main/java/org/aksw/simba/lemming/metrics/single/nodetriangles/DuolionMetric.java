@@ -6,6 +6,10 @@ import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.metrics.AbstractMetric;
 import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+import grph.Grph;
+
 
 
 /**
@@ -15,6 +19,9 @@ import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
  * certain probability. Once this is done, a standard node triangle counting algorithm is used to
  * compute the amount of triangles on the resulting graph. Finally the amount of triangles computed
  * on the smaller graph is multiplied by a factor based on the edge removal probability.
+ * The graph is not copied, i.e., only the surviving edges are inserted into a new graph.
+ * {@link org.aksw.simba.lemming.metrics.single.triangles.DoulionTriangleEstimator} avoids
+ * creating a graph at all and reports a confidence interval.
  *
  * @see <a href=
  *      "https://www.researchgate.net/publication/221654480_DOULION_Counting_triangles_in_massive_graphs_with_a_coin/">https://www.researchgate.net/publication/221654480_DOULION_Counting_triangles_in_massive_graphs_with_a_coin</a>.
@@ -31,8 +38,6 @@ public class DuolionMetric extends AbstractMetric implements SingleValueMetric {
 
     private Random random;
 
-    private ColouredGraph graphCopy;
-
 
     public DuolionMetric(SingleValueMetric triangleCountingMetric, double edgeSurvivalProbability, long seed) {
         super("#nodetriangles");
@@ -44,14 +49,27 @@ public class DuolionMetric extends AbstractMetric implements SingleValueMetric {
 
     @Override
     public double apply(ColouredGraph graph) {
-        graphCopy = graph.copy();
-        for (int edge:graph.getGraph().getEdges()) {
-            if (random.nextDouble() > edgeSurvivalProbability) {
-                graphCopy.getGraph().removeEdge(edge);
+        // build the sparsified graph from the surviving edges instead of removing edges from a copy
+        Grph grph = graph.getGraph();
+        ColouredGraph sparsifiedGraph = new ColouredGraph();
+        IntIntOpenHashMap vertexIds = new IntIntOpenHashMap();
+        for (int edge : grph.getEdges()) {
+            if (random.nextDouble() <= edgeSurvivalProbability) {
+                sparsifiedGraph.addEdge(getVertexId(grph.getDirectedSimpleEdgeTail(edge), sparsifiedGraph, vertexIds),
+                        getVertexId(grph.getDirectedSimpleEdgeHead(edge), sparsifiedGraph, vertexIds));
             }
         }
 
-        return triangleCountingAlgorithm.apply(graphCopy) * (1 / Math.pow(edgeSurvivalProbability, 3));
+        return triangleCountingAlgorithm.apply(sparsifiedGraph) * (1 / Math.pow(edgeSurvivalProbability, 3));
+    }
+
+    private static int getVertexId(int vertexId, ColouredGraph sparsifiedGraph, IntIntOpenHashMap vertexIds) {
+        if (vertexIds.containsKey(vertexId)) {
+            return vertexIds.lget();
+        }
+        int sparsifiedVertexId = sparsifiedGraph.addVertex();
+        vertexIds.put(vertexId, sparsifiedVertexId);
+        return sparsifiedVertexId;
     }
 
 
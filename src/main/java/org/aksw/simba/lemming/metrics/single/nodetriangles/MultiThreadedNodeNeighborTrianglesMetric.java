@@ -1,15 +1,12 @@
 package org.aksw.simba.lemming.metrics.single.nodetriangles;
 
-import grph.Grph;
 import grph.algo.MultiThreadProcessing;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
 
+import org.aksw.simba.lemming.CSRGraph;
 import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.metrics.AbstractMetric;
 
 import org.aksw.simba.lemming.metrics.single.TriangleMetric;
-import org.aksw.simba.lemming.util.IntSetUtil;
 
 /**
  * This metric is the number of triangles of the graph.
@@ -38,19 +35,15 @@ public class MultiThreadedNodeNeighborTrianglesMetric extends AbstractMetric imp
 
 		private ColouredGraph graph;
 		private int trianglesSum = 0;
-		private IntSet edgesOfVertex[];
 
 		MultiThreadedTriangleCountingProcess(ColouredGraph graph) {
 			this.graph = graph;
-			edgesOfVertex = new IntSet[graph.getGraph().getNumberOfVertices()];
 		}
 
 		protected double calculate() {
-			Grph grph = graph.getGraph();
-			for (int i = 0; i < edgesOfVertex.length; ++i) {
-				edgesOfVertex[i] = grph.getOutEdges(i);
-				edgesOfVertex[i].addAll(grph.getInEdges(i));
-			}
+			CSRGraph csrGraph = graph.getCSRGraph();
+			int offsets[] = csrGraph.getOffsets();
+			int neighbours[] = csrGraph.getNeighbours();
 			/*
 			 * A triangle is handled by the thread which handles the node with the lowest id in that triangle.
 			 */
@@ -58,31 +51,26 @@ public class MultiThreadedNodeNeighborTrianglesMetric extends AbstractMetric imp
 				@Override
 				protected void run(int threadID, int sourceId) {
 					int count = 0;
-					int sourceEdges[] = edgesOfVertex[sourceId].toIntArray();
-					IntSet connectedNodesSet = new IntOpenHashSet();
-                    int n;
-
-					for (int sourceEdge : sourceEdges) {
-						n = grph.getDirectedSimpleEdgeHead(sourceEdge);
-						if (n > sourceId) {
-							connectedNodesSet.add(n);
-							continue;
-						}
-						if (n == sourceId) {
-							n = grph.getDirectedSimpleEdgeTail(sourceEdge);
-							if (n > sourceId)
-								connectedNodesSet.add(n);
+					int connectedNodes[] = new int[csrGraph.getDegree(sourceId)];
+					int numberOfConnectedNodes = 0;
+					int n;
+					// the neighbours are sorted, i.e., multiple edges to the same node are next to each other
+					for (int i = offsets[sourceId]; i < offsets[sourceId + 1]; ++i) {
+						n = neighbours[i];
+						if ((n > sourceId) && ((numberOfConnectedNodes == 0)
+								|| (connectedNodes[numberOfConnectedNodes - 1] != n))) {
+							connectedNodes[numberOfConnectedNodes] = n;
+							++numberOfConnectedNodes;
 						}
 					}
 
-                    int connectedNodes[] = connectedNodesSet.toIntArray();
-                    for (int i = 0; i < connectedNodes.length; i++) {
-                        for (int j = i + 1; j < connectedNodes.length; j++) {
-                            if(IntSetUtil.intersection(edgesOfVertex[connectedNodes[i]], edgesOfVertex[connectedNodes[j]]).size() > 0) {
-                                ++count;
-                            }
-                        }
-                    }
+					for (int i = 0; i < numberOfConnectedNodes; i++) {
+						for (int j = i + 1; j < numberOfConnectedNodes; j++) {
+							if (csrGraph.isConnected(connectedNodes[i], connectedNodes[j])) {
+								++count;
+							}
+						}
+					}
 					addCount(count);
 				}
 			};
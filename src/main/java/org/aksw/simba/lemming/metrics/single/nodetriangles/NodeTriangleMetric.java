@@ -15,7 +15,7 @@ public class NodeTriangleMetric extends AbstractMetric implements SingleValueMet
 	public double apply(ColouredGraph graph) {
 		
 		NodeTriangleMetricSelection selector = new NodeTriangleMetricSelection();
-		SingleValueMetric nodeTriangleMetric = selector.getMinComplexityMetric(graph);
+		SingleValueMetric nodeTriangleMetric = selector.getFastestMetric(graph);
 		
 		//get number of edge triangles
 		return nodeTriangleMetric.apply(graph);
@@ -0,0 +1,99 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.AbstractMetric;
+import org.aksw.simba.lemming.metrics.single.TriangleMetric;
+
+/**
+ * Estimates the number of node triangles or edge triangles of a graph by
+ * sampling. The sampling is repeated with independent seeds and the estimate
+ * is the mean of the unbiased estimates of the single replicates. The
+ * confidence interval is derived from their standard error using the quantile
+ * of Student's t-distribution.
+ */
+public abstract class AbstractTriangleEstimator extends AbstractMetric implements TriangleMetric {
+
+    public static final int DEFAULT_REPLICATES = 8;
+
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+    /**
+     * The 97.5% quantiles of Student's t-distribution with 1 to 10 degrees of
+     * freedom.
+     */
+    private static final double[] T_QUANTILES = { 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262,
+            2.228 };
+    private static final double Z_QUANTILE = 1.96;
+
+    protected final boolean countEdgeTriangles;
+    private final int replicates;
+    private final long seed;
+
+    /**
+     * @param countEdgeTriangles
+     *            true if the number of edge triangles is estimated, false if
+     *            the number of node triangles is estimated
+     * @param replicates
+     *            the number of independent samples (at least 2)
+     * @param seed
+     *            the seed of the first sample
+     */
+    protected AbstractTriangleEstimator(boolean countEdgeTriangles, int replicates, long seed) {
+        super(countEdgeTriangles ? "#edgetriangles" : "#nodetriangles");
+        if (replicates < 2) {
+            throw new IllegalArgumentException("The confidence interval needs at least 2 replicates.");
+        }
+        this.countEdgeTriangles = countEdgeTriangles;
+        this.replicates = replicates;
+        this.seed = seed;
+    }
+
+    @Override
+    public double apply(ColouredGraph graph) {
+        return estimate(graph).getValue();
+    }
+
+    public TriangleEstimate estimate(ColouredGraph graph) {
+        SimpleGraph simpleGraph = new SimpleGraph(graph.getCSRGraph());
+        double sum = 0;
+        double squaredSum = 0;
+        long replicateSeed = seed;
+        for (int i = 0; i < replicates; ++i) {
+            double value = estimateOnce(simpleGraph, replicateSeed);
+            sum += value;
+            squaredSum += value * value;
+            replicateSeed += SEED_INCREMENT;
+        }
+        double mean = sum / replicates;
+        double variance = Math.max(0, (squaredSum - (replicates * mean * mean)) / (replicates - 1));
+        double margin = getQuantile(replicates - 1) * Math.sqrt(variance / replicates);
+        return new TriangleEstimate(mean, Math.max(0, mean - margin), mean + margin);
+    }
+
+    /**
+     * @return an unbiased estimate of the number of triangles of the given
+     *         graph based on a single sample drawn with the given seed
+     */
+    abstract double estimateOnce(SimpleGraph graph, long seed);
+
+    private static double getQuantile(int degreesOfFreedom) {
+        if (degreesOfFreedom <= T_QUANTILES.length) {
+            return T_QUANTILES[degreesOfFreedom - 1];
+        }
+        // Cornish-Fisher expansion of the t quantile
+        return Z_QUANTILE + ((Z_QUANTILE * Z_QUANTILE * Z_QUANTILE) + Z_QUANTILE) / (4.0 * degreesOfFreedom);
+    }
+
+    /**
+     * Maps the given value to a pseudo random number in [0, 1) which only
+     * depends on the seed and the value, i.e., vertices and pairs of vertices
+     * can be sampled without storing the sample.
+     */
+    static double hash(long seed, long value) {
+        // SplitMix64 finalizer
+        long z = seed + (value * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,110 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import java.util.Random;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.AbstractMetric;
+import org.aksw.simba.lemming.metrics.metricselection.EdgeTriangleMetricSelection;
+import org.aksw.simba.lemming.metrics.metricselection.NodeTriangleMetricSelection;
+import org.aksw.simba.lemming.metrics.metricselection.TriangleMetricSelector;
+import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the node triangles or edge triangles of a graph exactly if this is
+ * expected to take less than a given time budget. Otherwise, the number of
+ * triangles is estimated with the {@link DoulionTriangleEstimator}.
+ *
+ * The time of the exact counting is predicted by applying the fastest
+ * algorithm (see {@link NodeTriangleMetricSelection} and
+ * {@link EdgeTriangleMetricSelection}) to a probe of the graph (see
+ * {@link TriangleMetricSelector#createProbe(ColouredGraph, int, Random)}) and
+ * scaling the measured time with m^1.5. The survival probability of the
+ * estimator is chosen such that all replicates together are expected to fit
+ * into the budget.
+ */
+public class BudgetedTriangleMetric extends AbstractMetric implements SingleValueMetric {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BudgetedTriangleMetric.class);
+
+    /**
+     * The system property containing the time budget in seconds.
+     */
+    public static final String TIME_BUDGET_PROPERTY = "lemming.triangles.budget";
+    public static final long DEFAULT_TIME_BUDGET = 600;
+
+    private static final double MIN_SURVIVAL_PROBABILITY = 0.01;
+    private static final double MAX_SURVIVAL_PROBABILITY = 0.5;
+
+    private final boolean countEdgeTriangles;
+    private final long timeBudget;
+    private final long seed;
+    private TriangleEstimate lastEstimate;
+
+    /**
+     * Creates a metric using the time budget of the system property
+     * {@value #TIME_BUDGET_PROPERTY} (or {@value #DEFAULT_TIME_BUDGET} seconds
+     * if it is not set).
+     */
+    public BudgetedTriangleMetric(boolean countEdgeTriangles, long seed) {
+        this(countEdgeTriangles, Long.getLong(TIME_BUDGET_PROPERTY, DEFAULT_TIME_BUDGET), seed);
+    }
+
+    /**
+     * @param countEdgeTriangles
+     *            true if the metric is the number of edge triangles, false if
+     *            it is the number of node triangles
+     * @param timeBudget
+     *            the time budget in seconds
+     * @param seed
+     *            the seed of the probe and the estimator
+     */
+    public BudgetedTriangleMetric(boolean countEdgeTriangles, long timeBudget, long seed) {
+        super(countEdgeTriangles ? "#edgetriangles" : "#nodetriangles");
+        this.countEdgeTriangles = countEdgeTriangles;
+        this.timeBudget = timeBudget;
+        this.seed = seed;
+    }
+
+    @Override
+    public double apply(ColouredGraph graph) {
+        SingleValueMetric exactMetric = countEdgeTriangles
+                ? new EdgeTriangleMetricSelection().getFastestMetric(graph)
+                : new NodeTriangleMetricSelection().getFastestMetric(graph);
+        int edges = graph.getGraph().getNumberOfEdges();
+        ColouredGraph probe = TriangleMetricSelector.createProbe(graph, TriangleMetricSelector.PROBE_EDGES,
+                new Random(seed));
+        int probeEdges = probe.getGraph().getNumberOfEdges();
+        lastEstimate = null;
+        long start = System.nanoTime();
+        double probeTriangles = exactMetric.apply(probe);
+        double probeTime = (System.nanoTime() - start) / 1000000000.0;
+        if (probeEdges == edges) {
+            // the probe contains all edges, i.e., its triangles are the triangles of the graph
+            return probeTriangles;
+        }
+        double predictedTime = probeTime * Math.pow(edges / (double) Math.max(1, probeEdges), 1.5);
+        if (predictedTime <= timeBudget) {
+            return exactMetric.apply(graph);
+        }
+
+        double probability = Math.pow(timeBudget / (AbstractTriangleEstimator.DEFAULT_REPLICATES * predictedTime),
+                2.0 / 3.0);
+        probability = Math.max(MIN_SURVIVAL_PROBABILITY, Math.min(MAX_SURVIVAL_PROBABILITY, probability));
+        LOGGER.info("Counting the " + name + " exactly would take about " + Math.round(predictedTime)
+                + " s which exceeds the budget of " + timeBudget + " s. Estimating them with DOULION (p=" + probability
+                + ").");
+        lastEstimate = new DoulionTriangleEstimator(countEdgeTriangles, probability, seed).estimate(graph);
+        LOGGER.info("Estimated " + name + ": " + lastEstimate);
+        return lastEstimate.getValue();
+    }
+
+    /**
+     * @return the estimate of the last application of this metric or null if
+     *         the triangles have been counted exactly
+     */
+    public TriangleEstimate getLastEstimate() {
+        return lastEstimate;
+    }
+}
@@ -0,0 +1,48 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+/**
+ * Estimates the number of triangles with the colourful sampling of Pagh and
+ * Tsourakakis. Every vertex gets one of N colours uniformly at random and only
+ * the pairs of connected vertices with the same colour are kept. A triangle
+ * survives if its three vertices have the same colour, i.e., with the
+ * probability 1/N^2, and the triangles of the sampled graph are counted exactly
+ * and multiplied by N^2. Compared to {@link DoulionTriangleEstimator}, the
+ * sampled pairs of a vertex are correlated which reduces the variance on
+ * graphs with many triangles sharing an edge.
+ *
+ * @see <a href="https://arxiv.org/abs/1011.0468">Colorful triangle counting and
+ *      a MapReduce implementation</a>
+ */
+public class ColourfulTriangleEstimator extends AbstractTriangleEstimator {
+
+    private final int numberOfColours;
+
+    public ColourfulTriangleEstimator(boolean countEdgeTriangles, int numberOfColours, long seed) {
+        this(countEdgeTriangles, numberOfColours, DEFAULT_REPLICATES, seed);
+    }
+
+    public ColourfulTriangleEstimator(boolean countEdgeTriangles, int numberOfColours, int replicates, long seed) {
+        super(countEdgeTriangles, replicates, seed);
+        if (numberOfColours < 1) {
+            throw new IllegalArgumentException("At least one colour is needed.");
+        }
+        this.numberOfColours = numberOfColours;
+    }
+
+    @Override
+    double estimateOnce(SimpleGraph graph, long seed) {
+        final int[] colours = new int[graph.getNumberOfVertexIds()];
+        for (int v = 0; v < colours.length; ++v) {
+            colours[v] = (int) (hash(seed, v) * numberOfColours);
+        }
+        long[] counts = new OrientedGraph(graph, (v1, v2) -> colours[v1] == colours[v2]).countTriangles();
+        double count = countEdgeTriangles ? counts[1] : counts[0];
+        return count * numberOfColours * numberOfColours;
+    }
+
+    @Override
+    public double calculateComplexity(int edges, int vertices) {
+        double sampledEdges = edges / (double) numberOfColours;
+        return edges + (sampledEdges * Math.sqrt(sampledEdges));
+    }
+}
@@ -0,0 +1,53 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.AbstractMetric;
+import org.aksw.simba.lemming.metrics.single.TriangleMetric;
+
+/**
+ * Counts the node triangles and the edge triangles of a graph in a single
+ * parallel pass. The vertices are relabelled by their number of distinct
+ * neighbours and every pair of connected vertices is oriented from the lower
+ * to the higher label (see {@link OrientedGraph}). The number of edge
+ * triangles of a node triangle is the product of the edge multiplicities of
+ * its three sides.
+ *
+ * The vertices are counted by a fork join task per range of labels. Each task
+ * sums its own counts, i.e., the counting does not need any locks. Loops are
+ * ignored.
+ */
+public class DegreeOrderedTriangleMetric extends AbstractMetric implements TriangleMetric {
+
+    private final boolean countEdgeTriangles;
+
+    /**
+     * @param countEdgeTriangles
+     *            true if the metric is the number of edge triangles, false if
+     *            it is the number of node triangles
+     */
+    public DegreeOrderedTriangleMetric(boolean countEdgeTriangles) {
+        super(countEdgeTriangles ? "#edgetriangles" : "#nodetriangles");
+        this.countEdgeTriangles = countEdgeTriangles;
+    }
+
+    @Override
+    public double apply(ColouredGraph graph) {
+        long[] counts = countTriangles(graph);
+        return countEdgeTriangles ? counts[1] : counts[0];
+    }
+
+    /**
+     * @return the number of node triangles and the number of edge triangles of
+     *         the given graph
+     */
+    public static long[] countTriangles(ColouredGraph graph) {
+        return new OrientedGraph(new SimpleGraph(graph.getCSRGraph())).countTriangles();
+    }
+
+    @Override
+    public double calculateComplexity(int edges, int vertices) {
+        return (edges * Math.sqrt(edges)) / ForkJoinPool.commonPool().getParallelism();
+    }
+}
@@ -0,0 +1,49 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+/**
+ * Estimates the number of triangles with the DOULION algorithm of Tsourakakis
+ * et al. Every pair of connected vertices (together with all edges between
+ * them) is kept with the probability p and the triangles of the sparsified
+ * graph are counted exactly. A triangle survives with the probability p^3,
+ * i.e., the count is divided by p^3. In contrast to
+ * {@link org.aksw.simba.lemming.metrics.single.nodetriangles.DuolionMetric},
+ * the graph is not copied. The coin of a pair is a hash of the pair which is
+ * evaluated while the oriented graph is built.
+ *
+ * @see <a href=
+ *      "https://www.researchgate.net/publication/221654480_DOULION_Counting_triangles_in_massive_graphs_with_a_coin/">DOULION:
+ *      Counting triangles in massive graphs with a coin</a>
+ */
+public class DoulionTriangleEstimator extends AbstractTriangleEstimator {
+
+    private final double pairSurvivalProbability;
+
+    public DoulionTriangleEstimator(boolean countEdgeTriangles, double pairSurvivalProbability, long seed) {
+        this(countEdgeTriangles, pairSurvivalProbability, DEFAULT_REPLICATES, seed);
+    }
+
+    public DoulionTriangleEstimator(boolean countEdgeTriangles, double pairSurvivalProbability, int replicates,
+            long seed) {
+        super(countEdgeTriangles, replicates, seed);
+        if (pairSurvivalProbability <= 0 || pairSurvivalProbability > 1) {
+            throw new IllegalArgumentException("The survival probability has to be in (0, 1].");
+        }
+        this.pairSurvivalProbability = pairSurvivalProbability;
+    }
+
+    @Override
+    double estimateOnce(SimpleGraph graph, final long seed) {
+        final long numberOfVertexIds = graph.getNumberOfVertexIds();
+        long[] counts = new OrientedGraph(graph, (v1, v2) -> hash(seed,
+                (Math.min(v1, v2) * numberOfVertexIds) + Math.max(v1, v2)) < pairSurvivalProbability)
+                        .countTriangles();
+        double count = countEdgeTriangles ? counts[1] : counts[0];
+        return count / (pairSurvivalProbability * pairSurvivalProbability * pairSurvivalProbability);
+    }
+
+    @Override
+    public double calculateComplexity(int edges, int vertices) {
+        double sampledEdges = edges * pairSurvivalProbability;
+        return edges + (sampledEdges * Math.sqrt(sampledEdges));
+    }
+}
@@ -0,0 +1,217 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link SimpleGraph} with vertices relabelled by their number of distinct
+ * neighbours and every pair of connected vertices oriented from the lower to
+ * the higher label. Hence, a vertex has at most sqrt(2m) oriented neighbours
+ * and every triangle is found exactly once as the intersection of the sorted
+ * oriented neighbours of its two lower vertices. The oriented neighbours are
+ * stored in a compressed sparse row array together with the multiplicities of
+ * the pairs.
+ */
+class OrientedGraph {
+
+    /**
+     * The number of vertices below which a range of vertices is counted by a
+     * single task.
+     */
+    private static final int MIN_VERTICES_PER_TASK = 512;
+
+    /**
+     * Decides which pairs of connected vertices are kept, e.g., to sample the
+     * graph without copying it.
+     */
+    interface PairFilter {
+
+        /**
+         * @return true if the pair of the two given vertices (of the simple
+         *         graph) is kept. The result must not depend on the order of
+         *         the two vertices.
+         */
+        boolean keep(int v1, int v2);
+    }
+
+    private final int numberOfVertices;
+    /**
+     * The labels of the vertices of the simple graph.
+     */
+    private final int[] labels;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] multiplicities;
+
+    OrientedGraph(SimpleGraph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * @param filter
+     *            the filter of the pairs or null if all pairs are kept
+     */
+    OrientedGraph(SimpleGraph graph, PairFilter filter) {
+        numberOfVertices = graph.getNumberOfVertexIds();
+        int[] simpleOffsets = graph.getOffsets();
+        int[] simpleNeighbours = graph.getNeighbours();
+        int[] simpleMultiplicities = graph.getMultiplicities();
+
+        // counting sort by degree (ties are broken by the ID)
+        int maxDegree = 0;
+        for (int v = 0; v < numberOfVertices; ++v) {
+            maxDegree = Math.max(maxDegree, graph.getDegree(v));
+        }
+        int[] labelOffsets = new int[maxDegree + 2];
+        for (int v = 0; v < numberOfVertices; ++v) {
+            ++labelOffsets[graph.getDegree(v) + 1];
+        }
+        for (int d = 0; d <= maxDegree; ++d) {
+            labelOffsets[d + 1] += labelOffsets[d];
+        }
+        labels = new int[numberOfVertices];
+        for (int v = 0; v < numberOfVertices; ++v) {
+            labels[v] = labelOffsets[graph.getDegree(v)]++;
+        }
+
+        // count the oriented neighbours of every label
+        offsets = new int[numberOfVertices + 1];
+        for (int v = 0; v < numberOfVertices; ++v) {
+            for (int i = simpleOffsets[v]; i < simpleOffsets[v + 1]; ++i) {
+                int n = simpleNeighbours[i];
+                if (labels[v] < labels[n] && (filter == null || filter.keep(v, n))) {
+                    ++offsets[labels[v] + 1];
+                }
+            }
+        }
+        for (int l = 0; l < numberOfVertices; ++l) {
+            offsets[l + 1] += offsets[l];
+        }
+
+        // fill the neighbours as (label << 32 | multiplicity) and sort them by their labels
+        long[] entries = new long[offsets[numberOfVertices]];
+        int[] positions = Arrays.copyOf(offsets, numberOfVertices);
+        for (int v = 0; v < numberOfVertices; ++v) {
+            for (int i = simpleOffsets[v]; i < simpleOffsets[v + 1]; ++i) {
+                int n = simpleNeighbours[i];
+                if (labels[v] < labels[n] && (filter == null || filter.keep(v, n))) {
+                    entries[positions[labels[v]]++] = ((long) labels[n] << 32) | simpleMultiplicities[i];
+                }
+            }
+        }
+        neighbours = new int[entries.length];
+        multiplicities = new int[entries.length];
+        for (int l = 0; l < numberOfVertices; ++l) {
+            Arrays.sort(entries, offsets[l], offsets[l + 1]);
+        }
+        for (int i = 0; i < entries.length; ++i) {
+            neighbours[i] = (int) (entries[i] >>> 32);
+            multiplicities[i] = (int) entries[i];
+        }
+    }
+
+    /**
+     * Counts the triangles in parallel using the common fork join pool.
+     *
+     * @return the number of node triangles and the number of edge triangles
+     */
+    long[] countTriangles() {
+        return ForkJoinPool.commonPool().invoke(new CountingTask(this, null, 0, numberOfVertices));
+    }
+
+    /**
+     * Counts the triangles in parallel using the common fork join pool. In the
+     * same pass, the number of node triangles every vertex is part of is added
+     * to the given array.
+     *
+     * @param vertexTriangles
+     *            the array the numbers of node triangles are added to. It is
+     *            indexed by the IDs of the vertices of the simple graph.
+     * @return the number of node triangles and the number of edge triangles
+     */
+    long[] countTriangles(long[] vertexTriangles) {
+        AtomicLongArray labelTriangles = new AtomicLongArray(numberOfVertices);
+        long[] counts = ForkJoinPool.commonPool().invoke(new CountingTask(this, labelTriangles, 0, numberOfVertices));
+        for (int v = 0; v < numberOfVertices; ++v) {
+            vertexTriangles[v] += labelTriangles.get(labels[v]);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the triangles whose lowest vertex is in the given range of
+     * labels. Each task sums its own counts, i.e., the counting does not need
+     * any locks. Only the optional numbers of triangles per vertex are shared
+     * and updated atomically.
+     */
+    private static class CountingTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final OrientedGraph graph;
+        private final AtomicLongArray labelTriangles;
+        private final int from;
+        private final int to;
+
+        CountingTask(OrientedGraph graph, AtomicLongArray labelTriangles, int from, int to) {
+            this.graph = graph;
+            this.labelTriangles = labelTriangles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > MIN_VERTICES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                CountingTask left = new CountingTask(graph, labelTriangles, from, middle);
+                left.fork();
+                long[] right = new CountingTask(graph, labelTriangles, middle, to).compute();
+                long[] counts = left.join();
+                counts[0] += right[0];
+                counts[1] += right[1];
+                return counts;
+            }
+            int[] offsets = graph.offsets;
+            int[] neighbours = graph.neighbours;
+            int[] multiplicities = graph.multiplicities;
+            long nodeTriangles = 0;
+            long edgeTriangles = 0;
+            for (int u = from; u < to; ++u) {
+                long uTriangles = 0;
+                int uEnd = offsets[u + 1];
+                for (int i = offsets[u]; i < uEnd; ++i) {
+                    int v = neighbours[i];
+                    long uvEdges = multiplicities[i];
+                    // intersect the sorted oriented neighbours of u (after v) and v
+                    int j = i + 1;
+                    int k = offsets[v];
+                    int vEnd = offsets[v + 1];
+                    while (j < uEnd && k < vEnd) {
+                        if (neighbours[j] < neighbours[k]) {
+                            ++j;
+                        } else if (neighbours[j] > neighbours[k]) {
+                            ++k;
+                        } else {
+                            ++nodeTriangles;
+                            edgeTriangles += uvEdges * multiplicities[j] * multiplicities[k];
+                            if (labelTriangles != null) {
+                                ++uTriangles;
+                                labelTriangles.incrementAndGet(v);
+                                labelTriangles.incrementAndGet(neighbours[j]);
+                            }
+                            ++j;
+                            ++k;
+                        }
+                    }
+                }
+                if (uTriangles > 0) {
+                    labelTriangles.addAndGet(u, uTriangles);
+                }
+            }
+            return new long[] { nodeTriangles, edgeTriangles };
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import java.util.Arrays;
+
+import org.aksw.simba.lemming.CSRGraph;
+
+/**
+ * The undirected simple view of a {@link CSRGraph}. Every vertex lists each of
+ * its neighbours once together with the number of edges connecting the two
+ * vertices in both directions. Loops are left out and the neighbours of a
+ * vertex are sorted.
+ */
+class SimpleGraph {
+
+    private final int numberOfVertexIds;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] multiplicities;
+
+    SimpleGraph(CSRGraph csrGraph) {
+        numberOfVertexIds = csrGraph.getNumberOfVertexIds();
+        int[] csrOffsets = csrGraph.getOffsets();
+        int[] csrNeighbours = csrGraph.getNeighbours();
+
+        // the CSR neighbours are sorted, i.e., parallel edges are next to each other
+        offsets = new int[numberOfVertexIds + 1];
+        for (int v = 0; v < numberOfVertexIds; ++v) {
+            int previous = -1;
+            for (int i = csrOffsets[v]; i < csrOffsets[v + 1]; ++i) {
+                int n = csrNeighbours[i];
+                if (n != v && n != previous) {
+                    ++offsets[v + 1];
+                    previous = n;
+                }
+            }
+            offsets[v + 1] += offsets[v];
+        }
+        neighbours = new int[offsets[numberOfVertexIds]];
+        multiplicities = new int[neighbours.length];
+        int position = 0;
+        for (int v = 0; v < numberOfVertexIds; ++v) {
+            int i = csrOffsets[v];
+            int end = csrOffsets[v + 1];
+            while (i < end) {
+                int n = csrNeighbours[i];
+                int multiplicity = 0;
+                while (i < end && csrNeighbours[i] == n) {
+                    ++multiplicity;
+                    ++i;
+                }
+                if (n != v) {
+                    neighbours[position] = n;
+                    multiplicities[position] = multiplicity;
+                    ++position;
+                }
+            }
+        }
+    }
+
+    int getNumberOfVertexIds() {
+        return numberOfVertexIds;
+    }
+
+    /**
+     * @return the number of distinct neighbours of the given vertex
+     */
+    int getDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * The neighbours of the vertex v are stored from position offsets[v]
+     * (inclusive) to offsets[v+1] (exclusive).
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    int[] getNeighbours() {
+        return neighbours;
+    }
+
+    int[] getMultiplicities() {
+        return multiplicities;
+    }
+
+    /**
+     * @return the number of edges connecting the two given vertices in either
+     *         direction
+     */
+    int getMultiplicity(int v1, int v2) {
+        if (getDegree(v1) > getDegree(v2)) {
+            int temp = v1;
+            v1 = v2;
+            v2 = temp;
+        }
+        int position = Arrays.binarySearch(neighbours, offsets[v1], offsets[v1 + 1], v2);
+        return position >= 0 ? multiplicities[position] : 0;
+    }
+}
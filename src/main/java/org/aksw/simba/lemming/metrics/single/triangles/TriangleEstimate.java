@@ -0,0 +1,43 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+/**
+ * An estimated number of triangles together with an approximate 95%
+ * confidence interval.
+ */
+public class TriangleEstimate {
+
+    private final double value;
+    private final double lowerBound;
+    private final double upperBound;
+
+    public TriangleEstimate(double value, double lowerBound, double upperBound) {
+        this.value = value;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return half of the width of the confidence interval relative to the
+     *         estimated value
+     */
+    public double getRelativeError() {
+        return value > 0 ? (upperBound - lowerBound) / (2 * value) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return value + " [" + lowerBound + ", " + upperBound + "]";
+    }
+}
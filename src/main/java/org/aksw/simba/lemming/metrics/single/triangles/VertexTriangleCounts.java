@@ -0,0 +1,119 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import org.aksw.simba.lemming.CSRGraph;
+import org.aksw.simba.lemming.ColouredGraph;
+
+/**
+ * The number of node triangles every vertex of a graph is part of together
+ * with its number of distinct neighbours. Both are determined in the same
+ * parallel pass as the total numbers of node and edge triangles (see
+ * {@link DegreeOrderedTriangleMetric}). Hence, the local and average
+ * clustering coefficients do not need an additional pass over the graph.
+ *
+ * The clustering coefficients are defined on the undirected simple view of the
+ * graph, i.e., directions, parallel edges and loops are ignored. The local
+ * clustering coefficient of a vertex with t triangles and d distinct
+ * neighbours is 2t / (d(d-1)) and 0 if d is lower than 2.
+ */
+public class VertexTriangleCounts {
+
+    private final int numberOfVertices;
+    private final long[] vertexTriangles;
+    private final int[] degrees;
+    private final long nodeTriangles;
+    private final long edgeTriangles;
+
+    private VertexTriangleCounts(int numberOfVertices, long[] vertexTriangles, int[] degrees, long nodeTriangles,
+            long edgeTriangles) {
+        this.numberOfVertices = numberOfVertices;
+        this.vertexTriangles = vertexTriangles;
+        this.degrees = degrees;
+        this.nodeTriangles = nodeTriangles;
+        this.edgeTriangles = edgeTriangles;
+    }
+
+    public static VertexTriangleCounts count(ColouredGraph graph) {
+        CSRGraph csrGraph = graph.getCSRGraph();
+        SimpleGraph simpleGraph = new SimpleGraph(csrGraph);
+        long[] vertexTriangles = new long[simpleGraph.getNumberOfVertexIds()];
+        long[] counts = new OrientedGraph(simpleGraph).countTriangles(vertexTriangles);
+        int[] degrees = new int[vertexTriangles.length];
+        for (int v = 0; v < degrees.length; ++v) {
+            degrees[v] = simpleGraph.getDegree(v);
+        }
+        return new VertexTriangleCounts(csrGraph.getNumberOfVertices(), vertexTriangles, degrees, counts[0],
+                counts[1]);
+    }
+
+    /**
+     * @return the local clustering coefficient of a vertex which is part of
+     *         the given number of triangles and has the given number of
+     *         distinct neighbours
+     */
+    public static double getLocalClusteringCoefficient(long triangles, int degree) {
+        if (degree < 2) {
+            return 0;
+        }
+        return (2.0 * triangles) / (degree * (degree - 1.0));
+    }
+
+    public int getNumberOfVertexIds() {
+        return vertexTriangles.length;
+    }
+
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    /**
+     * @return the number of node triangles the given vertex is part of
+     */
+    public long getNumberOfTriangles(int vertex) {
+        return vertexTriangles[vertex];
+    }
+
+    /**
+     * @return the number of distinct neighbours of the given vertex
+     */
+    public int getDegree(int vertex) {
+        return degrees[vertex];
+    }
+
+    public long getNumberOfNodeTriangles() {
+        return nodeTriangles;
+    }
+
+    public long getNumberOfEdgeTriangles() {
+        return edgeTriangles;
+    }
+
+    public double getLocalClusteringCoefficient(int vertex) {
+        return getLocalClusteringCoefficient(vertexTriangles[vertex], degrees[vertex]);
+    }
+
+    /**
+     * @return the local clustering coefficients indexed by the IDs of the
+     *         vertices (0 for IDs which are not used)
+     */
+    public double[] getLocalClusteringCoefficients() {
+        double[] coefficients = new double[vertexTriangles.length];
+        for (int v = 0; v < coefficients.length; ++v) {
+            coefficients[v] = getLocalClusteringCoefficient(v);
+        }
+        return coefficients;
+    }
+
+    /**
+     * @return the average of the local clustering coefficients of all vertices
+     */
+    public double getAverageClusteringCoefficient() {
+        if (numberOfVertices == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int v = 0; v < vertexTriangles.length; ++v) {
+            sum += getLocalClusteringCoefficient(v);
+        }
+        return sum / numberOfVertices;
+    }
+}
@@ -0,0 +1,82 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import java.util.Random;
+
+import org.aksw.simba.lemming.util.AliasTable;
+
+/**
+ * Estimates the number of triangles with the wedge sampling of Seshadhri et
+ * al. A wedge is a path of length two, i.e., a vertex with two of its distinct
+ * neighbours. Wedges are drawn uniformly by choosing the centre with a
+ * probability proportional to its number of wedges and two of its neighbours
+ * uniformly. Every triangle closes three wedges. Hence, the number of node
+ * triangles is the number of wedges times the fraction of closed wedges
+ * divided by 3. For edge triangles, a closed wedge is weighted by the product
+ * of the edge multiplicities of its three sides.
+ *
+ * The costs do not depend on the number of triangles, i.e., the estimator is
+ * suited for large, skewed graphs. Its relative error grows if only a small
+ * fraction of the wedges is closed.
+ *
+ * @see <a href="https://arxiv.org/abs/1309.3321">Wedge sampling for computing
+ *      clustering coefficients and triangle counts on large graphs</a>
+ */
+public class WedgeSamplingTriangleEstimator extends AbstractTriangleEstimator {
+
+    public static final int DEFAULT_SAMPLES_PER_REPLICATE = 100000;
+
+    private final int samplesPerReplicate;
+
+    public WedgeSamplingTriangleEstimator(boolean countEdgeTriangles, long seed) {
+        this(countEdgeTriangles, DEFAULT_SAMPLES_PER_REPLICATE, DEFAULT_REPLICATES, seed);
+    }
+
+    public WedgeSamplingTriangleEstimator(boolean countEdgeTriangles, int samplesPerReplicate, int replicates,
+            long seed) {
+        super(countEdgeTriangles, replicates, seed);
+        this.samplesPerReplicate = samplesPerReplicate;
+    }
+
+    @Override
+    double estimateOnce(SimpleGraph graph, long seed) {
+        int numberOfVertexIds = graph.getNumberOfVertexIds();
+        double[] wedges = new double[numberOfVertexIds];
+        double numberOfWedges = 0;
+        for (int v = 0; v < numberOfVertexIds; ++v) {
+            double degree = graph.getDegree(v);
+            wedges[v] = (degree * (degree - 1)) / 2;
+            numberOfWedges += wedges[v];
+        }
+        if (numberOfWedges == 0) {
+            return 0;
+        }
+        AliasTable centres = new AliasTable(wedges);
+        Random random = new Random(seed);
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        int[] multiplicities = graph.getMultiplicities();
+        double closed = 0;
+        for (int s = 0; s < samplesPerReplicate; ++s) {
+            int centre = centres.sample(random);
+            int degree = graph.getDegree(centre);
+            // two distinct neighbours of the centre
+            int i = random.nextInt(degree);
+            int j = random.nextInt(degree - 1);
+            if (j >= i) {
+                ++j;
+            }
+            i += offsets[centre];
+            j += offsets[centre];
+            int closingEdges = graph.getMultiplicity(neighbours[i], neighbours[j]);
+            if (closingEdges > 0) {
+                closed += countEdgeTriangles ? ((double) multiplicities[i] * multiplicities[j] * closingEdges) : 1;
+            }
+        }
+        return (numberOfWedges * closed) / (3.0 * samplesPerReplicate);
+    }
+
+    @Override
+    public double calculateComplexity(int edges, int vertices) {
+        return edges + vertices + ((double) samplesPerReplicate * Math.log(edges + 1));
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.algo.expression.CompiledExpressions;
 import org.aksw.simba.lemming.algo.expression.Expression;
 import org.aksw.simba.lemming.mimicgraph.metricstorage.ConstantValueStorage;
 import org.slf4j.Logger;
@@ -57,6 +58,27 @@ public class ErrorScoreCalculator {
 	
 	private ConstantValueStorage mValueCarrier;
 	private int mINoOfGraphs = 0 ;
+	
+	/*
+	 * the constant expressions compiled into a single program together with
+	 * the mean values and standard deviations in the order of the program
+	 * (null if there are no constant expressions)
+	 */
+	private CompiledExpressions mCompiledExpressions;
+	private double[] mMeanValues;
+	private double[] mStandardDeviations;
+	/*
+	 * buffers of the evaluation which are reused by every thread
+	 */
+	private ThreadLocal<double[][]> mEvaluationBuffers = new ThreadLocal<double[][]>(){
+		@Override
+		protected double[][] initialValue() {
+			return new double[][] { new double[mCompiledExpressions.getNumberOfMetrics()],
+					new double[mCompiledExpressions.getMaxStackSize()],
+					new double[mCompiledExpressions.getNumberOfExpressions()] };
+		}
+	};
+	
 	/**
 	 * Constructor
 	 * @param sampleGraphs the array of sampled graph
@@ -84,6 +106,8 @@ public class ErrorScoreCalculator {
 		 */
 		computeMeanAndStandardDeviation(sampleGraphs);
 		
+		compileConstantExpressions();
+		
 		
 		/*
 		 * compute the max and average error score
@@ -224,6 +248,30 @@ public class ErrorScoreCalculator {
 		}
 	}
 	
+	/**
+	 * Compiles the constant expressions and collects their mean values and
+	 * standard deviations in the order of the compiled program.
+	 */
+	private void compileConstantExpressions(){
+		Map<Expression, Map<String, Double>> mapConstantValues = mValueCarrier == null ? null : 
+			mValueCarrier.getMapConstantValues();
+		if(mapConstantValues == null){
+			return;
+		}
+		mCompiledExpressions = new CompiledExpressions(mapConstantValues.keySet());
+		int numberOfExpressions = mCompiledExpressions.getNumberOfExpressions();
+		mMeanValues = new double[numberOfExpressions];
+		mStandardDeviations = new double[numberOfExpressions];
+		for(int i = 0 ; i < numberOfExpressions ; ++i){
+			String key = mCompiledExpressions.getExpression(i).toString();
+			mMeanValues[i] = mMapOfMeanValues.get(key);
+			mStandardDeviations[i] = mMapOfStandardDeviations.get(key);
+			if(mStandardDeviations[i] == 0){
+				LOGGER.warn("Standard deviation of " + key + " is 0. The error score will be NaN.");
+			}
+		}
+	}
+	
 	/**
 	 * compute the mean 
 	 * @param constVals the array of sample values
@@ -280,35 +328,49 @@ public class ErrorScoreCalculator {
 	public double computeErrorScore(ObjectDoubleOpenHashMap<String> mapMetricValues){
 
 		if(mapMetricValues != null && ( mapMetricValues.size()) > 0){
-			double sumOfErrorScore = 0;
-			
-			Map<Expression, Map<String, Double>> mapConstantValues = mValueCarrier.getMapConstantValues();
-			if(mapConstantValues != null){
-				Set<Expression> setExpressions = mapConstantValues.keySet();
-				for(Expression expr: setExpressions){
-					String key = expr.toString();
-					
-					double meanValue = mMapOfMeanValues.get(key);
-					double standardDeviation = mMapOfStandardDeviations.get(key);
-					
-					double constVal = expr.getValue(mapMetricValues);
-					//System.out.println("Expr: " + expr.toString() + "| Mean=" + meanValue + ", SD=" + standardDeviation + ", constant val=" + constVal);
-					double singleErrorScore = computeSingleErrorScore(meanValue, standardDeviation, constVal);
-					if(singleErrorScore != Double.NaN){
-						sumOfErrorScore += singleErrorScore;
-					}else{
-						sumOfErrorScore = Double.NaN;
-						break;
-					}
-				}
+			if(mCompiledExpressions == null){
+				return 0;
 			}
-			
-			return sumOfErrorScore;
+			double[] metricVector = mEvaluationBuffers.get()[0];
+			mCompiledExpressions.fillMetricVector(mapMetricValues, metricVector);
+			return computeErrorScore(metricVector);
 		}
 		LOGGER.warn("The map metric values is invalid");
 		return Double.NaN;
 	}
 	
+	/**
+	 * Computes the error score for the given metric vector whose slots are
+	 * defined by {@link #getCompiledExpressions()}. The evaluation does not
+	 * allocate any objects.
+	 * 
+	 * @param metricVector the values of the metrics
+	 * @return an error score (NaN if one of the standard deviations is 0)
+	 */
+	public double computeErrorScore(double[] metricVector){
+		if(mCompiledExpressions == null){
+			return 0;
+		}
+		double[][] buffers = mEvaluationBuffers.get();
+		double[] constVals = buffers[2];
+		mCompiledExpressions.evaluate(metricVector, buffers[1], constVals);
+		double sumOfErrorScore = 0;
+		for(int i = 0 ; i < constVals.length ; ++i){
+			double diff = mMeanValues[i] - constVals[i];
+			// a standard deviation of 0 leads to NaN as in computeSingleErrorScore
+			sumOfErrorScore += mStandardDeviations[i] != 0 ? (diff * diff) / mStandardDeviations[i] : Double.NaN;
+		}
+		return sumOfErrorScore;
+	}
+	
+	/**
+	 * @return the compiled constant expressions defining the slots of the
+	 *         metric vectors (null if there are no constant expressions)
+	 */
+	public CompiledExpressions getCompiledExpressions(){
+		return mCompiledExpressions;
+	}
+	
 	/**
 	 * compute a single error score of a constant value to check how far it is
 	 * from the average value
@@ -101,6 +101,25 @@ public class OfferedItemByRandomProb<T> implements IOfferedItem <T>{
 		buildSimulatedArray();
 	}
 	
+	/**
+	 * Creates a copy of the given proposer which draws its items with the
+	 * given random number generator, e.g., to propose items independently of
+	 * other threads. The distribution is shared with the given proposer.
+	 * 
+	 * @param other the copied proposer
+	 * @param inRandom the random number generator of the copy
+	 */
+	public OfferedItemByRandomProb(OfferedItemByRandomProb<T> other, Random inRandom){
+		mArrBaseItems = other.mArrBaseItems;
+		mArrBaseItemProb = other.mArrBaseItemProb;
+		mSimulatedArr = other.mSimulatedArr;
+		mLengthOfArr = other.mLengthOfArr;
+		mLowerBound = other.mLowerBound;
+		mUpperBound = other.mUpperBound;
+		seed = other.seed;
+		mRandom = inRandom;
+	}
+	
 	/**
 	 * build a cumulative distribution array based on the input distribution
 	 */
@@ -3,12 +3,17 @@ package org.aksw.simba.lemming.mimicgraph.constraints;
 import grph.algo.MultiThreadProcessing;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.colour.ColourRegistry;
 
 import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.IntObjectOpenHashMap;
+import com.carrotsearch.hppc.IntOpenHashSet;
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
 import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
 
 /**
@@ -20,6 +25,8 @@ import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
  */
 public class ColourMappingRules implements IColourMappingRules{
 
+	private static final int[] EMPTY_IDS = new int[0];
+
 	/*
 	 * the keys are the head's colours and the values are the set of tail's colours
 	 */
@@ -43,6 +50,18 @@ public class ColourMappingRules implements IColourMappingRules{
 	
 	private ObjectObjectOpenHashMap<BitSet, Set<BitSet>> mMapVColoToDTEColo;
 	
+	/*
+	 * the same rules based on the IDs of the colour registry: the keys are the tail's
+	 * colour IDs and the values are the sorted IDs of the edge colours leaving them
+	 */
+	private IntObjectOpenHashMap<int[]> mMapTailColoIdToOutEdgeColoIds;
+	
+	/*
+	 * key: edge's colour ID (high 32 bits) and tail's colour ID (low 32 bits), value: sorted IDs
+	 * of the head colours
+	 */
+	private LongObjectOpenHashMap<int[]> mMapEdgeAndTailColoIdToHeadColoIds;
+	
 	boolean mIsMultiThreadProcessing = false;
 	
 	/**
@@ -55,10 +74,83 @@ public class ColourMappingRules implements IColourMappingRules{
 		mMapEdgeColoToTailAndHeadColo = new ObjectObjectOpenHashMap<BitSet, ObjectObjectOpenHashMap<BitSet, Set<BitSet>>>();
 		mMapDTEColoToVColo = new ObjectObjectOpenHashMap<BitSet, Set<BitSet>>();
 		mMapVColoToDTEColo = new ObjectObjectOpenHashMap<BitSet, Set<BitSet>>();
+		mMapTailColoIdToOutEdgeColoIds = new IntObjectOpenHashMap<int[]>();
+		mMapEdgeAndTailColoIdToHeadColoIds = new LongObjectOpenHashMap<int[]>();
 	}
 	
 	public void analyzeRules(ColouredGraph[] origGrphs) {
 		analyzeRulesWithSingleThread(origGrphs);
+		createColourIdRules();
+	}
+	
+	/**
+	 * Derives the int based rules from the edge colour to tail and head colour map.
+	 */
+	private void createColourIdRules() {
+		ColourRegistry registry = ColourRegistry.getInstance();
+		IntObjectOpenHashMap<IntOpenHashSet> mapTailToEdges = new IntObjectOpenHashMap<IntOpenHashSet>();
+		Object[] arrEdgeColours = mMapEdgeColoToTailAndHeadColo.keys;
+		for (int i = 0; i < arrEdgeColours.length; i++) {
+			if (!mMapEdgeColoToTailAndHeadColo.allocated[i] || arrEdgeColours[i] == null) {
+				continue;
+			}
+			int edgeColoId = registry.getId((BitSet) arrEdgeColours[i]);
+			ObjectObjectOpenHashMap<BitSet, Set<BitSet>> mapTailToHead = mMapEdgeColoToTailAndHeadColo
+					.get((BitSet) arrEdgeColours[i]);
+			Object[] arrTailColours = mapTailToHead.keys;
+			for (int j = 0; j < arrTailColours.length; j++) {
+				if (!mapTailToHead.allocated[j] || arrTailColours[j] == null) {
+					continue;
+				}
+				int tailColoId = registry.getId((BitSet) arrTailColours[j]);
+				IntOpenHashSet setEdgeColoIds = mapTailToEdges.get(tailColoId);
+				if (setEdgeColoIds == null) {
+					setEdgeColoIds = new IntOpenHashSet();
+					mapTailToEdges.put(tailColoId, setEdgeColoIds);
+				}
+				setEdgeColoIds.add(edgeColoId);
+				
+				IntOpenHashSet setHeadColoIds = new IntOpenHashSet();
+				for (BitSet headColo : mapTailToHead.get((BitSet) arrTailColours[j])) {
+					if (headColo != null) {
+						setHeadColoIds.add(registry.getId(headColo));
+					}
+				}
+				mMapEdgeAndTailColoIdToHeadColoIds.put(toKey(edgeColoId, tailColoId),
+						toSortedArray(setHeadColoIds));
+			}
+		}
+		int[] arrTailColoIds = mapTailToEdges.keys().toArray();
+		for (int tailColoId : arrTailColoIds) {
+			mMapTailColoIdToOutEdgeColoIds.put(tailColoId, toSortedArray(mapTailToEdges.get(tailColoId)));
+		}
+	}
+	
+	private static long toKey(int edgeColoId, int tailColoId) {
+		return (((long) edgeColoId) << 32) | (tailColoId & 0xFFFFFFFFL);
+	}
+	
+	private static int[] toSortedArray(IntOpenHashSet set) {
+		int[] array = set.toArray();
+		Arrays.sort(array);
+		return array;
+	}
+	
+	@Override
+	public int[] getPossibleOutEdgeColourIds(int tailColourId) {
+		int[] arrEdgeColoIds = mMapTailColoIdToOutEdgeColoIds.get(tailColourId);
+		return arrEdgeColoIds != null ? arrEdgeColoIds : EMPTY_IDS;
+	}
+	
+	@Override
+	public int[] getHeadColourIds(int tailColourId, int edgeColourId) {
+		int[] arrHeadColoIds = mMapEdgeAndTailColoIdToHeadColoIds.get(toKey(edgeColourId, tailColourId));
+		return arrHeadColoIds != null ? arrHeadColoIds : EMPTY_IDS;
+	}
+	
+	@Override
+	public boolean canConnect(int tailColourId, int headColourId, int edgeColourId) {
+		return Arrays.binarySearch(getHeadColourIds(tailColourId, edgeColourId), headColourId) >= 0;
 	}
 	
 	private void analyzeRulesWithSingleThread(ColouredGraph[] origGrphs){
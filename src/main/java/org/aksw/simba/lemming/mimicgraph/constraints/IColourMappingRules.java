@@ -22,4 +22,12 @@ public interface IColourMappingRules {
 	boolean isHeadColourOf(BitSet tailColour, BitSet checkedColour);
 	boolean isTailColourOf(BitSet headColour, BitSet checkedColour);
 	public boolean canConnect(BitSet headColour, BitSet tailColour, BitSet edgeColour);
+	
+	/*
+	 * The same rules based on the colour IDs of the ColourRegistry. The returned
+	 * arrays are sorted and must not be changed.
+	 */
+	public int[] getPossibleOutEdgeColourIds(int tailColourId);
+	public int[] getHeadColourIds(int tailColourId, int edgeColourId);
+	public boolean canConnect(int tailColourId, int headColourId, int edgeColourId);
 }
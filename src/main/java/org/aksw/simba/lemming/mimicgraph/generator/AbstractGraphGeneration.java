@@ -1,6 +1,7 @@
 package org.aksw.simba.lemming.mimicgraph.generator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -15,6 +16,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.colour.ColourRegistry;
 import org.aksw.simba.lemming.metrics.dist.ObjectDistribution;
 import org.aksw.simba.lemming.mimicgraph.colourmetrics.AvrgEdgeColoDistMetric;
 import org.aksw.simba.lemming.mimicgraph.colourmetrics.AvrgVertColoDistMetric;
@@ -28,6 +30,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.IntObjectOpenHashMap;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
 
 import grph.DefaultIntSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
@@ -47,6 +51,17 @@ public abstract class AbstractGraphGeneration extends BasicGraphGenerator {
 	 */
 	protected Map<BitSet, IntSet> mMapColourToVertexIDs = new ConcurrentHashMap<BitSet, IntSet>();
 	
+	/*
+	 * the same mapping based on the IDs of the colour registry. It is created after
+	 * the vertices have been painted.
+	 */
+	protected IntObjectOpenHashMap<int[]> mMapColourIdToVertexIDs = new IntObjectOpenHashMap<int[]>();
+	
+	/*
+	 * the colour IDs of all vertex colours (the keys of mMapColourIdToVertexIDs)
+	 */
+	protected int[] mVertexColourIds = new int[0];
+	
 	/*
 	 * the keys are the edge's color and the values are the set of edge's ids
 	 * (note: fake id)
@@ -68,12 +83,21 @@ public abstract class AbstractGraphGeneration extends BasicGraphGenerator {
 	private HashSet<BitSet> mSetOfRestrictedEdgeColours = new HashSet<BitSet>();
 	
 	/*
-	 * 1st key: the edge colour, 2nd key is the tail id and the value is the set of already connected head id
+	 * 1st key: the ID of the edge colour, 2nd key is the tail id and the value is the set of already connected head id
 	 */
-	private Map<BitSet, Map<Integer, IntSet>> mMapEdgeColoursToConnectedVertices;
+	private IntObjectOpenHashMap<IntObjectOpenHashMap<IntSet>> mMapEdgeColoursToConnectedVertices;
+	
+	protected ColourRegistry mColourRegistry = ColourRegistry.getInstance();
 	
 	protected IOfferedItem<BitSet> mEdgeColoProposer;
 	
+	/*
+	 * the number of edges per combination of tail, edge and head colours in the
+	 * input graphs, every proposal state creates its own proposer of these
+	 * combinations with its first proposed triple
+	 */
+	private LongIntOpenHashMap mObservedTripleColours;
+	
 	private Random mRandom ;
 	protected long seed;
 	
@@ -102,8 +126,9 @@ public abstract class AbstractGraphGeneration extends BasicGraphGenerator {
 		
 		mColourMapper = new ColourMappingRules();
 		mColourMapper.analyzeRules(origGrphs);
+		mObservedTripleColours = TripleColourProposer.countTripleColours(origGrphs);
 		mMapEdgeIdsToColour = new HashMap<Integer, BitSet>();
-		mMapEdgeColoursToConnectedVertices = new HashMap<BitSet, Map<Integer, IntSet>>();
+		mMapEdgeColoursToConnectedVertices = new IntObjectOpenHashMap<IntObjectOpenHashMap<IntSet>>();
 		
 		//compute average distribution of vertex's and edge's colors
 		mVertColoDist = AvrgVertColoDistMetric.apply(origGrphs);
@@ -194,86 +219,73 @@ public abstract class AbstractGraphGeneration extends BasicGraphGenerator {
 		return null;
 	}
 	
+	public TripleProposalState createProposalState(long seed){
+		return new TripleProposalState(seed);
+	}
+	
 	/**
-	 * get a proposed triple of tail, head and their connection via edge
+	 * get a proposed triple of tail, head and their connection via edge. The
+	 * colours are drawn by the {@link TripleColourProposer} of the given state
+	 * which prefers the combinations of colours of the input graphs that led to
+	 * added edges.
 	 */
-	public TripleBaseSingleID getProposedTriple(boolean isRandom){
+	public TripleBaseSingleID getProposedTriple(boolean isRandom, TripleProposalState state){
 		
-		Set<BitSet> setVertexColours = mMapColourToVertexIDs.keySet();
-		BitSet[] arrVertexColours = setVertexColours.toArray(new BitSet[]{});
+		TripleColourProposer colourProposer = state.getColourProposer();
+		if(colourProposer == null){
+			colourProposer = new TripleColourProposer(mVertexColourIds, mColourMapper, 
+					mColourRegistry.getId(mRdfTypePropertyColour), mObservedTripleColours);
+			state.setColourProposer(colourProposer);
+		}
+		if(colourProposer.isEmpty()){
+			LOGGER.warn("There is no combination of colours that could be used to add an edge!");
+			return null;
+		}
+		Random random = state.getRandom();
 		
 		while(true){
-			// get a random tail colour
-			BitSet tailColo = arrVertexColours[mRandom.nextInt(arrVertexColours.length)];
-			
-			// get associated edge colour based on the tail colour
-			Set<BitSet> possOutEdgeColours = mColourMapper.getPossibleOutEdgeColours(tailColo);
-			
-			//remove rdf:type edges
-			if(possOutEdgeColours == null){
-				continue;
-			}
-			
-			if(possOutEdgeColours.contains(mRdfTypePropertyColour)){
-				possOutEdgeColours.remove(mRdfTypePropertyColour);
-			}
-			
-			if(possOutEdgeColours.size() ==0){
-				continue;
-			}
-			
-			/*
-			 * it is supposed that there always exist at least one edge colour used to connect
-			 * the vertices in the tail colour to other vertices
-			 */
-			//if(possOutEdgeColours != null && possOutEdgeColours.size() > 0){
-			BitSet[] arrEdgeColours = possOutEdgeColours.toArray(new BitSet[]{});
-			
-			// chose a random edge colour
-			BitSet edgeColo = arrEdgeColours[mRandom.nextInt(arrEdgeColours.length)];
-			
-			// get a set of head colours associated with the edgeColo and the tailColo
-			Set<BitSet> possHeadColours = mColourMapper.getHeadColours(tailColo, edgeColo);
-			
-			if(possHeadColours.size() == 0){
-				continue;
-			}
-			
-			/*
-			 * it is supposed that there always exist at least one head colour that can be
-			 * connected with the tail colour via the edge colour
-			 */
-			//if(possHeadColours != null && possHeadColours.size() > 0){
-			BitSet[] arrHeadColours = possHeadColours.toArray(new BitSet[]{});
-			BitSet headColo = arrHeadColours[mRandom.nextInt(arrHeadColours.length)];
+			// get the colours of tail, edge and head
+			int combination = colourProposer.sample(random);
+			int tailColoId = colourProposer.getTailColourId(combination);
+			int edgeColoId = colourProposer.getEdgeColourId(combination);
+			int headColoId = colourProposer.getHeadColourId(combination);
 			
 			// get vertex's ids according to the vertex's colours
-			if(mMapColourToVertexIDs.get(headColo) != null){
-				int[] arrTailIDs = mMapColourToVertexIDs.get(tailColo).toIntArray();
-				int[] arrHeadIDs = mMapColourToVertexIDs.get(headColo).toIntArray();
+			int[] arrTailIDs = mMapColourIdToVertexIDs.get(tailColoId);
+			int[] arrHeadIDs = mMapColourIdToVertexIDs.get(headColoId);
+			
+			int tailId = arrTailIDs[random.nextInt(arrTailIDs.length)];
+			int headId = arrHeadIDs[random.nextInt(arrHeadIDs.length)];
+			colourProposer.recordAttempt(combination);
+			if(connectableVertices(tailId, headId, edgeColoId, state)){
+				// if the vertices can be connected via the edge colour => connect them
+				TripleBaseSingleID triple = new TripleBaseSingleID();
+				triple.tailId = tailId;
+				triple.tailColour = mColourRegistry.getColour(tailColoId);
+				triple.headId = headId;
+				triple.headColour = mColourRegistry.getColour(headColoId);
+				triple.edgeColour = mColourRegistry.getColour(edgeColoId);
 				
-				int tailId = arrTailIDs[mRandom.nextInt(arrTailIDs.length)];
-				int headId = arrHeadIDs[mRandom.nextInt(arrHeadIDs.length)];
-				if(connectableVertices(tailId, headId, edgeColo)){
-					// if the vertices can be connected via the edge colour => connect them
-					TripleBaseSingleID triple = new TripleBaseSingleID();
-					triple.tailId = tailId;
-					triple.tailColour = tailColo;
-					triple.headId = headId;
-					triple.headColour = headColo;
-					triple.edgeColour = edgeColo;
-					
-					//LOGGER.info("Proposed added triple: ("+triple.tailId +","+triple.headId +","+ edgeColo +")");
-					
-					return triple;	
-				}
-//				else{
-//					System.err.println("There existing an edge in "+edgeColo+" connect the vertices");
-//				}
+				//LOGGER.info("Proposed added triple: ("+triple.tailId +","+triple.headId +","+ edgeColo +")");
+				
+				return triple;	
 			}
 		}
 	}
 	
+	/**
+	 * Lets the proposal of triples of the given state learn from a proposed
+	 * triple which has been added to the mimic graph.
+	 */
+	public void notifyAcceptedTriple(TripleBaseSingleID triple, TripleProposalState state){
+		TripleColourProposer colourProposer = state.getColourProposer();
+		if(colourProposer != null && triple.tailColour != null && triple.edgeColour != null 
+				&& triple.headColour != null){
+			colourProposer.recordAcceptance(mColourRegistry.getId(triple.tailColour), 
+					mColourRegistry.getId(triple.edgeColour), mColourRegistry.getId(triple.headColour));
+		}
+	}
+	
 	public ColouredGraph getMimicGraph(){
 		return mMimicGraph;
 	}
@@ -307,6 +319,14 @@ public abstract class AbstractGraphGeneration extends BasicGraphGenerator {
 			setVertIDs.add(vertId);
 		}
 		
+		for(BitSet vertColo: mMapColourToVertexIDs.keySet()){
+			mMapColourIdToVertexIDs.put(mColourRegistry.getId(vertColo), 
+					mMapColourToVertexIDs.get(vertColo).toIntArray());
+		}
+		mVertexColourIds = mMapColourIdToVertexIDs.keys().toArray();
+		// the order of the hash map must not influence the random choices
+		Arrays.sort(mVertexColourIds);
+		
 		/*
 		 *  get restricted edge's colours can exist along with these created vertex's colours
 		 */
@@ -719,16 +739,20 @@ public abstract class AbstractGraphGeneration extends BasicGraphGenerator {
 	}
 	
 	public boolean connectableVertices(int tailId, int headId, BitSet eColo){
+		return connectableVertices(tailId, headId, mColourRegistry.getId(eColo));
+	}
+	
+	public boolean connectableVertices(int tailId, int headId, int eColoId){
 		
 		if(mReversedMapClassVertices.containsKey(headId)){
 			return false;
 		}
 		boolean canConnect = false;
 		
-		Map<Integer, IntSet> mapTailToHeads = mMapEdgeColoursToConnectedVertices.get(eColo);
+		IntObjectOpenHashMap<IntSet> mapTailToHeads = mMapEdgeColoursToConnectedVertices.get(eColoId);
 		if(mapTailToHeads == null){
-			mapTailToHeads = new HashMap<Integer, IntSet>();
-			mMapEdgeColoursToConnectedVertices.put(eColo, mapTailToHeads);
+			mapTailToHeads = new IntObjectOpenHashMap<IntSet>();
+			mMapEdgeColoursToConnectedVertices.put(eColoId, mapTailToHeads);
 		}
 		
 		IntSet setOfHeads = mapTailToHeads.get(tailId);
@@ -745,10 +769,51 @@ public abstract class AbstractGraphGeneration extends BasicGraphGenerator {
 		return canConnect;
 	}
 	
+	/**
+	 * Checks whether the given vertices can be connected via the given edge
+	 * colour while proposing triples with the given state. In contrast to
+	 * {@link #connectableVertices(int, int, int)}, the bookkeeping of the
+	 * connected vertices of the generator is only read and the proposed pair
+	 * is remembered in the state.
+	 */
+	protected boolean connectableVertices(int tailId, int headId, BitSet eColo, TripleProposalState state){
+		return connectableVertices(tailId, headId, mColourRegistry.getId(eColo), state);
+	}
+	
+	protected boolean connectableVertices(int tailId, int headId, int eColoId, TripleProposalState state){
+		if(mReversedMapClassVertices.containsKey(headId)){
+			return false;
+		}
+		IntObjectOpenHashMap<IntSet> mapTailToHeads = mMapEdgeColoursToConnectedVertices.get(eColoId);
+		if(mapTailToHeads != null){
+			IntSet setOfHeads = mapTailToHeads.get(tailId);
+			if(setOfHeads != null && setOfHeads.contains(headId)){
+				return false;
+			}
+		}
+		return state.addProposedHead(tailId, headId, eColoId);
+	}
+	
+	/**
+	 * @return the heads connected to the given tail via the given edge colour
+	 *         by the generator or proposed with the given state
+	 */
+	protected IntSet getConnectedHeads(int tailId, BitSet eColo, TripleProposalState state){
+		IntSet setOfHeads = getConnectedHeads(tailId, eColo);
+		IntSet setOfProposedHeads = state.getProposedHeads(tailId, mColourRegistry.getId(eColo));
+		if(setOfProposedHeads == null){
+			return setOfHeads;
+		}
+		IntSet union = new DefaultIntSet(setOfHeads.size() + setOfProposedHeads.size());
+		union.addAll(setOfHeads);
+		union.addAll(setOfProposedHeads);
+		return union;
+	}
+	
 	public IntSet getConnectedHeads(int tailId, BitSet eColo){
 		
 		IntSet setOfHeads = new DefaultIntSet(Constants.DEFAULT_SIZE);
-		Map<Integer, IntSet> mapTailToHeads = mMapEdgeColoursToConnectedVertices.get(eColo);
+		IntObjectOpenHashMap<IntSet> mapTailToHeads = mMapEdgeColoursToConnectedVertices.get(mColourRegistry.getId(eColo));
 		if(mapTailToHeads != null && mapTailToHeads.containsKey(tailId)){
 			setOfHeads = mapTailToHeads.get(tailId);
 		}
@@ -702,7 +702,7 @@ public class GraphGenerationClusteringBased extends AbstractGraphGeneration
 	}
 	
 	@Override
-	public TripleBaseSingleID getProposedTriple(boolean isRandom){
+	public TripleBaseSingleID getProposedTriple(boolean isRandom, TripleProposalState state){
 
 		if(!isRandom){
 			//LOGGER.info("Using the override function getProposedTriple");
@@ -743,8 +743,7 @@ public class GraphGenerationClusteringBased extends AbstractGraphGeneration
 				double[] arrEdgeRatePerTriple = Doubles.toArray(lstGapRequiredEdges);
 				
 				ObjectDistribution<TripleBaseSetOfIDs> objDist = new ObjectDistribution<TripleBaseSetOfIDs>(arrGrpTriples, arrEdgeRatePerTriple);
-				OfferedItemByRandomProb<TripleBaseSetOfIDs> grpTripleProposer = new OfferedItemByRandomProb<TripleBaseSetOfIDs>(objDist, seed);
-				seed = grpTripleProposer.getSeed() + 1;
+				OfferedItemByRandomProb<TripleBaseSetOfIDs> grpTripleProposer = new OfferedItemByRandomProb<TripleBaseSetOfIDs>(objDist, state.getRandom());
 				TripleBaseSetOfIDs offeredGrpTriple = grpTripleProposer.getPotentialItem();
 				
 				//get random a head and a tail to connect
@@ -756,7 +755,7 @@ public class GraphGenerationClusteringBased extends AbstractGraphGeneration
 					for(int i = 0 ; i < arrTailIds.length ; i++){
 						int tId = arrTailIds[i];
 						
-						IntSet setConnectedHeads = getConnectedHeads(tId, offeredGrpTriple.edgeColour);
+						IntSet setConnectedHeads = getConnectedHeads(tId, offeredGrpTriple.edgeColour, state);
 						
 						for(int j = 0 ; j< arrHeadIds.length ; j++){
 							int hId = arrHeadIds[j];
@@ -780,6 +779,6 @@ public class GraphGenerationClusteringBased extends AbstractGraphGeneration
 		}
 		
 		LOGGER.info("Using the base function getProposedTriple of abstract class");
-		return super.getProposedTriple(true);
+		return super.getProposedTriple(true, state);
 	}
 }
@@ -919,7 +919,7 @@ public class GraphGenerationClusteringBased2 extends AbstractGraphGeneration imp
 	}	
 	
 	@Override
-	public TripleBaseSingleID getProposedTriple(boolean isRandom){
+	public TripleBaseSingleID getProposedTriple(boolean isRandom, TripleProposalState state){
 		int maxIterationFor1EdgeColo = Constants.MAX_ITERATION_FOR_1_COLOUR;
 		
 		if(!isRandom){
@@ -959,8 +959,7 @@ public class GraphGenerationClusteringBased2 extends AbstractGraphGeneration imp
 				double[] arrEdgeRatePerTriple = Doubles.toArray(lstGapRequiredEdges);
 				
 				ObjectDistribution<TripleBaseSetOfIDs> objDist = new ObjectDistribution<TripleBaseSetOfIDs>(arrGrpTriples, arrEdgeRatePerTriple);
-				OfferedItemByRandomProb<TripleBaseSetOfIDs> grpTripleProposer = new OfferedItemByRandomProb<TripleBaseSetOfIDs>(objDist, seed);
-				seed = grpTripleProposer.getSeed() + 1;
+				OfferedItemByRandomProb<TripleBaseSetOfIDs> grpTripleProposer = new OfferedItemByRandomProb<TripleBaseSetOfIDs>(objDist, state.getRandom());
 				while(maxIterationFor1EdgeColo > 0 ){
 					TripleBaseSetOfIDs offeredGrpTriple = grpTripleProposer.getPotentialItem();
 					
@@ -979,8 +978,8 @@ public class GraphGenerationClusteringBased2 extends AbstractGraphGeneration imp
 						}
 						
 						
-						IOfferedItem<Integer> tailIdsProposer = mapTailIdProposers.get(offeredGrpTriple.tailColour);
-						IOfferedItem<Integer> headIdsProposer = mapHeadIdProposers.get(offeredGrpTriple.headColour);
+						IOfferedItem<Integer> tailIdsProposer = state.getOfferedItem(mapTailIdProposers.get(offeredGrpTriple.tailColour));
+						IOfferedItem<Integer> headIdsProposer = state.getOfferedItem(mapHeadIdProposers.get(offeredGrpTriple.headColour));
 						
 						if(tailIdsProposer == null || headIdsProposer == null){
 							continue;
@@ -989,7 +988,7 @@ public class GraphGenerationClusteringBased2 extends AbstractGraphGeneration imp
 						Set<Integer> setTmpTails = new HashSet<Integer>(offeredGrpTriple.tailIDs);
 						int tId = tailIdsProposer.getPotentialItem(setTmpTails);
 						
-						int[] arrConnectedHeads = getConnectedHeads(tId, offeredGrpTriple.edgeColour).toIntArray();
+						int[] arrConnectedHeads = getConnectedHeads(tId, offeredGrpTriple.edgeColour, state).toIntArray();
 						
 						IntSet setAvailableHeads = new DefaultIntSet(offeredGrpTriple.headIDs.size());
 						setAvailableHeads.addAll(offeredGrpTriple.headIDs);
@@ -1028,7 +1027,7 @@ public class GraphGenerationClusteringBased2 extends AbstractGraphGeneration imp
 		
 		maxIterationFor1EdgeColo = Constants.MAX_ITERATION_FOR_1_COLOUR;
 		LOGGER.info("Using the base function getProposedTriple of abstract class");
-		return super.getProposedTriple(true);
+		return super.getProposedTriple(true, state);
 	}
 	
 }
@@ -390,21 +390,24 @@ public class GraphGenerationRandomly2 extends AbstractGraphGeneration implements
 		}
 	}
 	
-	public TripleBaseSingleID getProposedTriple(boolean isRandom){
+	public TripleBaseSingleID getProposedTriple(boolean isRandom, TripleProposalState state){
 		if(!isRandom){
 			//System.out.println("using override function getProposedTriple(");
+			Random random = state.getRandom();
 			
 			Set<BitSet> setVertexColours = mMapColourToVertexIDs.keySet();
 			BitSet[] arrVertexColours = setVertexColours.toArray(new BitSet[]{});
 			
 			while(true){
 				// tail colour
-				BitSet tailColo = arrVertexColours[mRandom.nextInt(arrVertexColours.length)];
+				BitSet tailColo = arrVertexColours[random.nextInt(arrVertexColours.length)];
 				Set<BitSet> possOutEdgeColours = mColourMapper.getPossibleOutEdgeColours(tailColo);
 				
 				if(possOutEdgeColours != null && possOutEdgeColours.size() > 0){
 					
 					if(possOutEdgeColours.contains(mRdfTypePropertyColour)){
+						// the colour mapper is shared by all proposal states
+						possOutEdgeColours = new HashSet<BitSet>(possOutEdgeColours);
 						possOutEdgeColours.remove(mRdfTypePropertyColour);
 					}
 					
@@ -414,7 +417,7 @@ public class GraphGenerationRandomly2 extends AbstractGraphGeneration implements
 					
 					BitSet[] arrEdgeColours = possOutEdgeColours.toArray(new BitSet[]{});
 					
-					BitSet edgeColo = arrEdgeColours[mRandom.nextInt(arrEdgeColours.length)];
+					BitSet edgeColo = arrEdgeColours[random.nextInt(arrEdgeColours.length)];
 					Set<BitSet> possHeadColours = mColourMapper.getHeadColours(tailColo, edgeColo);
 					ObjectObjectOpenHashMap<BitSet, IOfferedItem<Integer>>  mapTailColoToTailIDs = mapPossibleODegreePerOEColo.get(edgeColo);
 					ObjectObjectOpenHashMap<BitSet, IOfferedItem<Integer>>  mapHeadColoToHeadIDs = mapPossibleIDegreePerIEColo.get(edgeColo);
@@ -422,10 +425,10 @@ public class GraphGenerationRandomly2 extends AbstractGraphGeneration implements
 					
 					if(possHeadColours != null && possHeadColours.size() > 0 && mapTailColoToTailIDs!= null && mapHeadColoToHeadIDs!=null){
 						BitSet[] arrHeadColours = possHeadColours.toArray(new BitSet[]{});
-						BitSet headColo = arrHeadColours[mRandom.nextInt(arrHeadColours.length)];
+						BitSet headColo = arrHeadColours[random.nextInt(arrHeadColours.length)];
 						
-						IOfferedItem<Integer> tailIDsProposer = mapTailColoToTailIDs.get(tailColo);
-						IOfferedItem<Integer> headIDsProposer = mapHeadColoToHeadIDs.get(headColo);
+						IOfferedItem<Integer> tailIDsProposer = state.getOfferedItem(mapTailColoToTailIDs.get(tailColo));
+						IOfferedItem<Integer> headIDsProposer = state.getOfferedItem(mapHeadColoToHeadIDs.get(headColo));
 						
 						
 						// get vertex's ids according to the vertex's colours
@@ -433,7 +436,7 @@ public class GraphGenerationRandomly2 extends AbstractGraphGeneration implements
 							
 							int tailId = tailIDsProposer.getPotentialItem();
 							int headId = headIDsProposer.getPotentialItem();
-							if(connectableVertices(tailId, headId, edgeColo)){
+							if(connectableVertices(tailId, headId, edgeColo, state)){
 								
 								// if the vertices can be connected via the edge colour => connect them 
 								TripleBaseSingleID triple = new TripleBaseSingleID();
@@ -452,7 +455,7 @@ public class GraphGenerationRandomly2 extends AbstractGraphGeneration implements
 			
 		}else{
 			//System.out.println("using base function getProposedTriple(");
-			return super.getProposedTriple(true);
+			return super.getProposedTriple(true, state);
 		}
 	}
 	
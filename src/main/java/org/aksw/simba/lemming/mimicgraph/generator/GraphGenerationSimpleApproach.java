@@ -412,16 +412,17 @@ public class GraphGenerationSimpleApproach extends AbstractGraphGeneration imple
 		}
 	}
 	
-	public TripleBaseSingleID getProposedTriple(boolean isRandom){
+	public TripleBaseSingleID getProposedTriple(boolean isRandom, TripleProposalState state){
 		
 		if(!isRandom){
+			Random random = state.getRandom();
 			
 			while(true){
-				BitSet edgeColo = mEdgeColoProposer.getPotentialItem();
+				BitSet edgeColo = state.getOfferedItem(mEdgeColoProposer).getPotentialItem();
 				if(edgeColo != null && !edgeColo.equals(mRdfTypePropertyColour)){
 					
-					IOfferedItem<BitSet> tailColourProposer = mMapOEColoToTailColoProposer.get(edgeColo);
-					IOfferedItem<BitSet> headColourProposer = mMapIEColoToHeadColoProposer.get(edgeColo);
+					IOfferedItem<BitSet> tailColourProposer = state.getOfferedItem(mMapOEColoToTailColoProposer.get(edgeColo));
+					IOfferedItem<BitSet> headColourProposer = state.getOfferedItem(mMapIEColoToHeadColoProposer.get(edgeColo));
 					
 					if(tailColourProposer!=null && headColourProposer !=null){
 						
@@ -442,11 +443,11 @@ public class GraphGenerationSimpleApproach extends AbstractGraphGeneration imple
 							int[] arrTailIDs = mMapColourToVertexIDs.get(tailColo).toIntArray();
 							int[] arrHeadIDs = mMapColourToVertexIDs.get(headColo).toIntArray();
 							
-							int tailId = arrTailIDs[mRandom.nextInt(arrTailIDs.length)];
-							int headId = arrHeadIDs[mRandom.nextInt(arrHeadIDs.length)];
+							int tailId = arrTailIDs[random.nextInt(arrTailIDs.length)];
+							int headId = arrHeadIDs[random.nextInt(arrHeadIDs.length)];
 							
 							
-							if(connectableVertices(tailId, headId, edgeColo)){
+							if(connectableVertices(tailId, headId, edgeColo, state)){
 								TripleBaseSingleID triple = new TripleBaseSingleID();
 								triple.tailId = tailId;
 								triple.tailColour = tailColo;
@@ -463,7 +464,7 @@ public class GraphGenerationSimpleApproach extends AbstractGraphGeneration imple
 		}else{
 			//System.out.println("using base function getProposedTriple(");
 			LOGGER.info("Using the base function getProposedTriple of abstract class");
-			return super.getProposedTriple(true);
+			return super.getProposedTriple(true, state);
 		}
 	}
 	
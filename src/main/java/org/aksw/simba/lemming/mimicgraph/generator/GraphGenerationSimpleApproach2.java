@@ -330,8 +330,8 @@ private static final Logger LOGGER = LoggerFactory.getLogger(GraphGenerationSimp
 						 *  since it apply poisson distribution to compute potential degree 
 						 *  for each vertex
 						 */
-						IOfferedItem<Integer> tailIDsProposer = mapTailColoToTailIDs.get(tailColo);
-						IOfferedItem<Integer> headIDsProposer = mapHeadColoToHeadIDs.get(headColo);
+						IOfferedItem<Integer> tailIDsProposer = state.getOfferedItem(mapTailColoToTailIDs.get(tailColo));
+						IOfferedItem<Integer> headIDsProposer = state.getOfferedItem(mapHeadColoToHeadIDs.get(headColo));
 						
 						if(tailIDsProposer !=null && headIDsProposer != null ){
 							Integer tailId = tailIDsProposer.getPotentialItem();
@@ -546,15 +546,15 @@ private static final Logger LOGGER = LoggerFactory.getLogger(GraphGenerationSimp
 	
 	
 	
-	public TripleBaseSingleID getProposedTriple(boolean isRandom){
+	public TripleBaseSingleID getProposedTriple(boolean isRandom, TripleProposalState state){
 		
 		if(!isRandom){
 			//LOGGER.info("Using the override function getProposedTriple");
 			while(true){
-				BitSet edgeColo = mEdgeColoProposer.getPotentialItem();
+				BitSet edgeColo = state.getOfferedItem(mEdgeColoProposer).getPotentialItem();
 				if(edgeColo != null && !edgeColo.equals(mRdfTypePropertyColour)){
-					IOfferedItem<BitSet> tailColourProposer = mMapOEColoToTailColoProposer.get(edgeColo);
-					IOfferedItem<BitSet> headColourProposer = mMapIEColoToHeadColoProposer.get(edgeColo);
+					IOfferedItem<BitSet> tailColourProposer = state.getOfferedItem(mMapOEColoToTailColoProposer.get(edgeColo));
+					IOfferedItem<BitSet> headColourProposer = state.getOfferedItem(mMapIEColoToHeadColoProposer.get(edgeColo));
 					
 					ObjectObjectOpenHashMap<BitSet, IOfferedItem<Integer>>  mapTailColoToTailIDs = mapPossibleODegreePerOEColo.get(edgeColo);
 					ObjectObjectOpenHashMap<BitSet, IOfferedItem<Integer>>  mapHeadColoToHeadIDs = mapPossibleIDegreePerIEColo.get(edgeColo);
@@ -570,14 +570,14 @@ private static final Logger LOGGER = LoggerFactory.getLogger(GraphGenerationSimp
 						
 						BitSet headColo = headColourProposer.getPotentialItem(setPossHeadColours);
 						
-						IOfferedItem<Integer> tailIDsProposer = mapTailColoToTailIDs.get(tailColo);
-						IOfferedItem<Integer> headIDsProposer = mapHeadColoToHeadIDs.get(headColo);
+						IOfferedItem<Integer> tailIDsProposer = state.getOfferedItem(mapTailColoToTailIDs.get(tailColo));
+						IOfferedItem<Integer> headIDsProposer = state.getOfferedItem(mapHeadColoToHeadIDs.get(headColo));
 						
 						if(tailIDsProposer !=null && headIDsProposer != null ){
 							Integer tailId = tailIDsProposer.getPotentialItem();
 							Integer headId = headIDsProposer.getPotentialItem();
 							if(tailId != null && headId != null && 
-									connectableVertices(tailId, headId, edgeColo)){
+									connectableVertices(tailId, headId, edgeColo, state)){
 								TripleBaseSingleID triple = new TripleBaseSingleID();
 								triple.tailId = tailId;
 								triple.tailColour = tailColo;
@@ -593,7 +593,7 @@ private static final Logger LOGGER = LoggerFactory.getLogger(GraphGenerationSimp
 			}
 		}else{
 			LOGGER.info("Using the base function getProposedTriple of abstract class");
-			return super.getProposedTriple(true);
+			return super.getProposedTriple(true, state);
 		}
 	}
 }
@@ -1,7 +1,9 @@
 package org.aksw.simba.lemming.mimicgraph.generator;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -9,22 +11,39 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.algo.expression.Expression;
+import org.aksw.simba.lemming.colour.ColourRegistry;
 import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
+import org.aksw.simba.lemming.metrics.single.edgemanipulation.EdgeModificationLog;
 import org.aksw.simba.lemming.metrics.single.edgemanipulation.EdgeModifier;
+import org.aksw.simba.lemming.metrics.single.edgemanipulation.MetricValueCache;
 import org.aksw.simba.lemming.mimicgraph.colourmetrics.utils.ErrorScoreCalculator;
 import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
 import org.aksw.simba.lemming.mimicgraph.metricstorage.ConstantValueStorage;
+import org.aksw.simba.lemming.mimicgraph.optimization.AbstractOptimizationStrategy;
+import org.aksw.simba.lemming.mimicgraph.optimization.ErrorScoreCurve;
+import org.aksw.simba.lemming.mimicgraph.optimization.GreedyStrategy;
+import org.aksw.simba.lemming.mimicgraph.optimization.OptimizationCheckpoint;
+import org.aksw.simba.lemming.mimicgraph.optimization.OptimizationStrategy;
+import org.aksw.simba.lemming.util.SamplingIntSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
 import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
 
-import it.unimi.dsi.fastutil.ints.IntSet;
-
 public class GraphOptimization {
 	private static final Logger LOGGER = LoggerFactory.getLogger(GraphOptimization.class);
 	
@@ -32,14 +51,79 @@ public class GraphOptimization {
 	private int mTrueNoOfIteration = 0;
 	private int mMaxRepeatedSelection = 5000;
 	private boolean mProcessRandomly = false;
+	/*
+	 * number of edges which are proposed for removing and adding in every
+	 * iteration and the number of threads used to evaluate them
+	 */
+	private int mNumberOfCandidates = 1;
+	private int mNumberOfThreads = 1;
+	
+	/*
+	 * the strategy deciding which modifications are applied and the number of
+	 * times the optimization goes back to the best graph found so far if it
+	 * cannot find a better graph within mMaxRepeatedSelection iterations
+	 */
+	private OptimizationStrategy mStrategy = new GreedyStrategy();
+	private int mMaxRestarts = 0;
+	private int mNumberOfRestarts = 0;
 	
 	private IGraphGeneration mGraphGenerator;
 	private EdgeModifier mEdgeModifier;
 	private ErrorScoreCalculator mErrScoreCalculator;
-	private List<Double> mLstErrorScore; 
+	private DoubleArrayList mLstErrorScore; 
 	private double mOptimizedTime =0;
 	
+	private double mBestErrScore = Double.NaN;
+	private double mFinalErrScore = Double.NaN;
+	/*
+	 * the size of the modification journal, the metric values and the triangle
+	 * counters of the best graph found so far, which are needed to roll the
+	 * mimic graph back to it
+	 */
+	private int mBestJournalPosition = 0;
+	private ObjectDoubleOpenHashMap<String> mBestMetricValues;
+	private int[] mBestTriangleCounters;
+	private AtomicLong mNumberOfEvaluations = new AtomicLong();
+	private ErrorScoreCurve mErrScoreCurve = new ErrorScoreCurve();
+	
+	/*
+	 * checkpoints are written by a single thread every mCheckpointInterval
+	 * iterations to mCheckpointFolder (null = no checkpoints)
+	 */
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+	private File mCheckpointFolder = null;
+	private int mCheckpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+	private ExecutorService mCheckpointWriter;
+	private Future<?> mPendingCheckpoint;
+	private OptimizationCheckpoint mResumedCheckpoint;
+	/*
+	 * number of triples proposed by the graph generator
+	 */
+	private long mNumberOfProposals = 0;
+	/*
+	 * the number of proposals before every accepted addition and the tail, head
+	 * and edge colour ID of the addition, which are needed to let a resumed
+	 * optimization learn from the accepted triples at the same time
+	 */
+	private LongArrayList mAcceptedProposals = new LongArrayList();
+	private IntArrayList mAcceptedTriples = new IntArrayList();
+	
+	/*
+	 * the exchange of the best graphs between the chains of a multi-chain
+	 * optimization (null = single chain) and whether the optimized graph is
+	 * the mimic graph of the graph generator
+	 */
+	private MultiChainOptimization.Migration mMigration;
+	private int mChainIndex;
+	private boolean mIsGeneratorGraph;
+	
 	private long seed;
+	private Random mRandom;
+	/*
+	 * the state of the triples proposed by the generator for this
+	 * optimization, its random number generator is seeded with seed + 1
+	 */
+	private TripleProposalState mProposalState;
 	
 	
 	/*-----------------------------------------------
@@ -49,128 +133,617 @@ public class GraphOptimization {
 	
 	public GraphOptimization(ColouredGraph[] origGrphs,
 			IGraphGeneration graphGenerator, List<SingleValueMetric> metrics,  ConstantValueStorage valueCarriers, long seed) {
-		this.seed = seed;
-		mLstErrorScore = new ArrayList<Double>();
 		/*
 		 *  mErrScoreCalculator is used to compute the error score compared to original
 		 *  constant values of the original graphs
 		 */
-		mErrScoreCalculator = new ErrorScoreCalculator(origGrphs, valueCarriers);
+		this(new ErrorScoreCalculator(origGrphs, valueCarriers), graphGenerator, graphGenerator.getMimicGraph(), metrics, seed);
+	}
+	
+	/**
+	 * Creates an optimization of the given mimic graph, e.g., a copy of the
+	 * mimic graph of the generator optimized by one of several chains. The
+	 * error score calculator and the generator can be shared with other
+	 * optimizations. The triples are proposed with a
+	 * {@link TripleProposalState} of this optimization, i.e., the proposals
+	 * only depend on the seed and the accepted triples of this optimization.
+	 * 
+	 * @param errScoreCalculator the error score calculator of the input graphs
+	 * @param graphGenerator the graph generator proposing the added edges
+	 * @param mimicGraph the mimic graph which is modified in place
+	 * @param metrics the metrics of the constant expressions
+	 * @param seed the seed of this optimization
+	 */
+	public GraphOptimization(ErrorScoreCalculator errScoreCalculator, IGraphGeneration graphGenerator,
+			ColouredGraph mimicGraph, List<SingleValueMetric> metrics, long seed) {
+		// the mimic graph is modified in place, every modification is journaled
+		this(errScoreCalculator, graphGenerator, new EdgeModifier(mimicGraph, metrics), seed);
+	}
+	
+	GraphOptimization(ErrorScoreCalculator errScoreCalculator, IGraphGeneration graphGenerator,
+			EdgeModifier edgeModifier, long seed) {
+		this.seed = seed;
+		mRandom = new Random(seed);
+		mProposalState = graphGenerator.createProposalState(seed + 1);
+		mLstErrorScore = new DoubleArrayList();
+		mErrScoreCalculator = errScoreCalculator;
 		
 		// the graph generator
 		mGraphGenerator = graphGenerator;
-		
-		ColouredGraph clonedGrph = mGraphGenerator.getMimicGraph().clone();
-		mEdgeModifier = new EdgeModifier(clonedGrph, metrics);
+		mIsGeneratorGraph = edgeModifier.getGraph() == graphGenerator.getMimicGraph();
+		mEdgeModifier = edgeModifier;
 	}
 	
 	
+	/**
+	 * Lets this optimization take part in the exchange of the best graphs
+	 * between the chains of a multi-chain optimization as the chain with the
+	 * given index.
+	 */
+	void setMigration(MultiChainOptimization.Migration migration, int chainIndex){
+		mMigration = migration;
+		mChainIndex = chainIndex;
+	}
+	
 	public void setRefineGraphRandomly(boolean isRandom){
 		mProcessRandomly = isRandom;
 	}
 	
-	public void refineGraph(){
+	/**
+	 * Lets the optimization propose several edges for removing and adding in
+	 * every iteration. The candidates are evaluated concurrently and only the
+	 * best of them is applied to the graph. Note that this is only possible if
+	 * all metrics can be updated incrementally.
+	 * 
+	 * @param iNumberOfCandidates the number of proposed removals and additions per iteration
+	 * @param iNumberOfThreads the number of threads evaluating the candidates
+	 */
+	public void setNumberOfCandidates(int iNumberOfCandidates, int iNumberOfThreads){
+		if(iNumberOfCandidates > 0)
+			mNumberOfCandidates = iNumberOfCandidates;
+		if(iNumberOfThreads > 0)
+			mNumberOfThreads = iNumberOfThreads;
+	}
+	
+	/**
+	 * Sets the strategy which decides whether a modification of the graph is
+	 * applied. By default, only modifications which do not increase the error
+	 * score are applied.
+	 */
+	public void setOptimizationStrategy(OptimizationStrategy strategy){
+		if(strategy != null)
+			mStrategy = strategy;
+	}
+	
+	/**
+	 * Sets the number of times the optimization goes back to the best graph
+	 * found so far and restarts the strategy instead of stopping if no better
+	 * graph has been found within the last iterations.
+	 */
+	public void setMaxRestarts(int iMaxRestarts){
+		if(iMaxRestarts >= 0)
+			mMaxRestarts = iMaxRestarts;
+	}
+	
+	/**
+	 * Lets the optimization write a checkpoint every few iterations. A
+	 * checkpoint is written by a separate thread while the optimization
+	 * continues. If the previous checkpoint is still being written, the
+	 * checkpoint is skipped.
+	 * 
+	 * @param checkpointFolder the folder the checkpoints and the initial mimic graph are written to
+	 * @param iCheckpointInterval the number of iterations between two checkpoints
+	 */
+	public void setCheckpointing(String checkpointFolder, int iCheckpointInterval){
+		mCheckpointFolder = checkpointFolder == null ? null : new File(checkpointFolder);
+		if(iCheckpointInterval > 0)
+			mCheckpointInterval = iCheckpointInterval;
+	}
+	
+	/**
+	 * Restores the state of the optimization from the checkpoint in the given
+	 * folder. The following call of {@link #refineGraph()} continues with the
+	 * iteration after the checkpoint and further checkpoints are written to the
+	 * same folder.
+	 * 
+	 * The optimization has to be created with the initial mimic graph of the
+	 * checkpoint (see {@link OptimizationCheckpoint#readInitialGraph(File)})
+	 * and a graph generator in the same state as the one of the interrupted
+	 * run, e.g., created with the same seed. The strategy of the checkpoint
+	 * replaces the strategy of this optimization. The triples proposed so far
+	 * are proposed again and the accepted triples are reported again (see
+	 * {@link IGraphGeneration#notifyAcceptedTriple(TripleBaseSingleID, TripleProposalState)})
+	 * in the same order, so that the {@link TripleProposalState} of this
+	 * optimization proposes the same triples as in the interrupted run
+	 * afterwards. Hence, this method has to be called after
+	 * {@link #setRefineGraphRandomly(boolean)}.
+	 * 
+	 * @param checkpointFolder the folder containing the checkpoint
+	 * @return true if the checkpoint has been restored
+	 */
+	public boolean resume(String checkpointFolder){
+		File folder = new File(checkpointFolder);
+		OptimizationCheckpoint checkpoint;
+		try{
+			checkpoint = OptimizationCheckpoint.read(folder);
+			if(checkpoint == null){
+				LOGGER.warn("There is no checkpoint in " + checkpointFolder + ".");
+				return false;
+			}
+			mRandom = OptimizationCheckpoint.deserialize(checkpoint.randomState);
+			OptimizationStrategy strategy = OptimizationCheckpoint.deserialize(checkpoint.strategyState);
+			if(!strategy.getName().equals(mStrategy.getName())){
+				LOGGER.warn("The checkpoint has been written with " + strategy.getName() + " instead of " 
+						+ mStrategy.getName() + ". Continuing with " + strategy.getName() + ".");
+			}
+			mStrategy = strategy;
+		}catch(IOException e){
+			LOGGER.error("Couldn't read the checkpoint from " + checkpointFolder + ".", e);
+			return false;
+		}
 		
-		LOGGER.info("Start optimize the mimic graph!");
+		LOGGER.info("Replay " + checkpoint.log.size() + " modifications of the mimic graph.");
+		mEdgeModifier.restore(checkpoint.log, checkpoint.metricValues, checkpoint.triangleCounters);
+		mLstErrorScore = checkpoint.errScores;
+		mErrScoreCurve = checkpoint.curve;
+		mNumberOfEvaluations.set(checkpoint.numberOfEvaluations);
+		mBestErrScore = checkpoint.bestErrScore;
+		mBestJournalPosition = checkpoint.bestJournalPosition;
+		mBestMetricValues = checkpoint.bestMetricValues;
+		mBestTriangleCounters = checkpoint.bestTriangleCounters;
 		
-		int noOfRepeatedParent = 0;
-
-		double lErrScore = Double.NaN; 
-		double rErrScore = Double.NaN;
+		LOGGER.info("Let the generator propose " + checkpoint.numberOfProposals + " triples and learn from " 
+				+ checkpoint.acceptedProposals.size() + " accepted triples again.");
+		int acceptance = 0;
+		for(long i = 0 ; i <= checkpoint.numberOfProposals ; ++i){
+			// an acceptance is reported after the proposals preceding it
+			while(acceptance < checkpoint.acceptedProposals.size() && checkpoint.acceptedProposals.get(acceptance) == i){
+				mGraphGenerator.notifyAcceptedTriple(getAcceptedTriple(checkpoint.acceptedTriples, acceptance), 
+						mProposalState);
+				++acceptance;
+			}
+			if(i < checkpoint.numberOfProposals){
+				mGraphGenerator.getProposedTriple(mProcessRandomly, mProposalState);
+			}
+		}
+		mNumberOfProposals = checkpoint.numberOfProposals;
+		mAcceptedProposals = checkpoint.acceptedProposals;
+		mAcceptedTriples = checkpoint.acceptedTriples;
 		
-		ObjectDoubleOpenHashMap<String> baseMetricValues = mEdgeModifier.getOriginalMetricValues();
+		mCheckpointFolder = folder;
+		mResumedCheckpoint = checkpoint;
+		LOGGER.info("Resume the optimization at iteration " + checkpoint.iteration + " with the error score " 
+				+ checkpoint.errScore + ".");
+		return true;
+	}
+	
+	public void refineGraph(){
 		
-		double pErrScore = mErrScoreCalculator.computeErrorScore(baseMetricValues); 
-		for(int i = 0 ; i < mMaxIteration ; ++i){
-			
-			// add errorScore to tracking list result
-			mLstErrorScore.add(pErrScore);
-			
-			// go left by removing an edge
-			TripleBaseSingleID lTriple = getOfferedEdgeforRemoving(mEdgeModifier.getGraph());
-			ObjectDoubleOpenHashMap<String> metricValuesOfLeft = mEdgeModifier.tryToRemoveAnEdge(lTriple);
-			//System.out.println("[L]Aft -Number of edges: "+ mEdgeModifier.getGraph().getEdges().size());
-			
-			//if the removal cannot happen, the error is set to max as not to be chosen
-			if(metricValuesOfLeft == null) {
-				lErrScore = Double.MAX_VALUE;
-				LOGGER.warn("Edge Removal Prevented. Setting lErrScore: "+lErrScore);
-			} else {
-				lErrScore = mErrScoreCalculator.computeErrorScore(metricValuesOfLeft);
-			}
-
-			 // go right by adding a new edge
-			TripleBaseSingleID rTriple = getOfferedEdgeForAdding(mEdgeModifier.getGraph());
-			ObjectDoubleOpenHashMap<String> metricValuesOfRight =  mEdgeModifier.tryToAddAnEdge(rTriple);
-			//System.out.println("[R]Aft -Number of edges: "+ mEdgeModifier.getGraph().getEdges().size());
-			if (metricValuesOfRight == null) {
-				rErrScore = Double.MAX_VALUE;
-			} else {
-				rErrScore = mErrScoreCalculator.computeErrorScore(metricValuesOfRight);
+		LOGGER.info("Start optimize the mimic graph with " + mStrategy.getName() + "!");
+		
+		boolean evaluateCandidates = false;
+		if(mNumberOfCandidates > 1){
+			if(mEdgeModifier.isEvaluableWithoutModification()){
+				evaluateCandidates = true;
+				LOGGER.info("Evaluate " + mNumberOfCandidates + " candidates for removing and adding edges per iteration with "
+						+ mNumberOfThreads + " threads.");
+			}else{
+				LOGGER.warn("Some of the metrics cannot be evaluated without modifying the graph. The candidates are evaluated one after the other.");
 			}
-			
-			// find min error score
-			double minErrScore = minValues(pErrScore, lErrScore, rErrScore);
-			
-			System.out.println("("+i+"/ "+mMaxIteration+") Mid: "+ pErrScore 
-					+ " - Left: "+ lErrScore +" - Right: " + rErrScore);
-			
-			if(minErrScore == lErrScore){
+		}
+		ExecutorService service = evaluateCandidates ? Executors.newFixedThreadPool(mNumberOfThreads) : null;
+		
+		int startIteration = 0;
+		int noOfRepeatedParent = 0;
+		int noOfRestarts = 0;
+		double pErrScore;
+		
+		if(mResumedCheckpoint != null){
+			startIteration = mResumedCheckpoint.iteration;
+			noOfRepeatedParent = mResumedCheckpoint.noOfRepeatedSelections;
+			noOfRestarts = mResumedCheckpoint.noOfRestarts;
+			pErrScore = mResumedCheckpoint.errScore;
+			mResumedCheckpoint = null;
+			mErrScoreCurve.start();
+		}else{
+			pErrScore = mErrScoreCalculator.computeErrorScore(mEdgeModifier.getOriginalMetricValues());
+			mBestErrScore = pErrScore;
+			markBestGraph();
+			mStrategy.init(pErrScore, mMaxIteration);
+			mErrScoreCurve.start();
+			mErrScoreCurve.record(0, mNumberOfEvaluations.get(), pErrScore, mBestErrScore);
+			startCheckpointing();
+		}
+		if(mCheckpointFolder != null){
+			mCheckpointWriter = Executors.newSingleThreadExecutor();
+		}
+		try{
+			for(int i = startIteration ; i < mMaxIteration ; ++i){
 				
-				pErrScore = lErrScore;
+				if(mCheckpointWriter != null && i > startIteration && (i % mCheckpointInterval) == 0){
+					writeCheckpoint(i, pErrScore, noOfRepeatedParent, noOfRestarts);
+				}
 				
-				noOfRepeatedParent = 0;
-				//mEdgeModifier.updateMapMetricValues(metricValuesOfLeft);
-				mEdgeModifier.executeRemovingAnEdge(metricValuesOfLeft);
-				continue;
-			}
-			if(minErrScore == rErrScore){
+				if(mMigration != null && i > startIteration && (i % mMigration.getInterval()) == 0 
+						&& mMigration.exchange(mChainIndex, pErrScore)){
+					// continue with the best graph of another chain
+					pErrScore = mBestErrScore;
+					mStrategy.restart();
+					noOfRepeatedParent = 0;
+					mErrScoreCurve.record(i, mNumberOfEvaluations.get(), pErrScore, mBestErrScore);
+				}
 				
-				pErrScore = rErrScore;
+				// add errorScore to tracking list result
+				mLstErrorScore.add(pErrScore);
+				
+				EvaluatedCandidate bestCandidate = evaluateCandidates ? selectFromCandidates(service) : selectFromLeftAndRight();
+				
+				boolean moved = false;
+				if(bestCandidate != null && mStrategy.accept(pErrScore, bestCandidate.errScore, mRandom)){
+					applyCandidate(bestCandidate, evaluateCandidates);
+					pErrScore = bestCandidate.errScore;
+					moved = true;
+				}
+				mStrategy.nextIteration();
+				
+				System.out.println("("+i+"/ "+mMaxIteration+") Mid: "+ pErrScore + " - Best: " + mBestErrScore
+						+ (bestCandidate == null ? " - No allowed candidate" : " - Candidate: "+ bestCandidate.errScore 
+						+ (bestCandidate.isRemoval ? " (removal)" : " (addition)") + (moved ? " applied" : " rejected")));
+				
+				if(moved){
+					if(Double.isNaN(mBestErrScore) || pErrScore <= mBestErrScore){
+						// the current graph is the best graph found so far
+						mBestErrScore = pErrScore;
+						markBestGraph();
+						noOfRepeatedParent = 0;
+					}else{
+						noOfRepeatedParent ++;
+					}
+					mErrScoreCurve.record(i+1, mNumberOfEvaluations.get(), pErrScore, mBestErrScore);
+				}else{
+					noOfRepeatedParent ++;
+				}
 				
-				noOfRepeatedParent = 0;
-				//mEdgeModifier.updateMapMetricValues(metricValuesOfRight);
-				mEdgeModifier.executeAddingAnEdge(metricValuesOfRight);
-				continue;
+				if(noOfRepeatedParent == mMaxRepeatedSelection){
+					if(noOfRestarts < mMaxRestarts){
+						noOfRestarts ++;
+						pErrScore = rollbackToBestGraph();
+						mStrategy.restart();
+						noOfRepeatedParent = 0;
+						mErrScoreCurve.record(i+1, mNumberOfEvaluations.get(), pErrScore, mBestErrScore);
+						LOGGER.info("Cannot find better refined graph! Restart (" + noOfRestarts + "/" + mMaxRestarts 
+								+ ") from the best graph with the error score " + pErrScore + ".");
+						continue;
+					}
+					mTrueNoOfIteration = i+1;
+					LOGGER.info("Cannot find better refined graph! Break the loop!");
+					break;
+				}
 			}
-			
-			noOfRepeatedParent ++;
-			
-			if(noOfRepeatedParent == mMaxRepeatedSelection){
-				mTrueNoOfIteration = i+1;
-				LOGGER.info("Cannot find better refined graph! Break the loop!");
-				break;
+		} catch (InterruptedException | ExecutionException e) {
+			LOGGER.error("The evaluation of the candidates has been aborted.", e);
+			mTrueNoOfIteration = mLstErrorScore.size();
+		} finally {
+			if(service != null){
+				service.shutdown();
+			}
+			if(mCheckpointWriter != null){
+				// wait for the last checkpoint
+				mCheckpointWriter.shutdown();
+				try {
+					mCheckpointWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					LOGGER.warn("Interrupted while waiting for the last checkpoint.");
+				}
+				mCheckpointWriter = null;
 			}
 		}
+		mNumberOfRestarts = noOfRestarts;
 		
+		// the strategy might have left the best graph
+		if(mEdgeModifier.getModificationLog().size() != mBestJournalPosition){
+			pErrScore = rollbackToBestGraph();
+			mErrScoreCurve.record(mLstErrorScore.size(), mNumberOfEvaluations.get(), pErrScore, mBestErrScore);
+		}
+		mFinalErrScore = pErrScore;
+		
+		finishRefinement();
+	}
+	
+	/**
+	 * Writes the initial mimic graph to the checkpoint folder. The checkpoints
+	 * contain the journal of the modifications of this graph.
+	 */
+	private void startCheckpointing(){
+		if(mCheckpointFolder == null){
+			return;
+		}
+		try{
+			mCheckpointFolder.mkdirs();
+			// a checkpoint of a previous run does not belong to the new initial graph
+			new File(mCheckpointFolder, OptimizationCheckpoint.CHECKPOINT_FILE).delete();
+			OptimizationCheckpoint.writeInitialGraph(mEdgeModifier.getGraph(), mCheckpointFolder);
+		}catch(IOException e){
+			LOGGER.error("Couldn't write the initial mimic graph. No checkpoints will be written.", e);
+			mCheckpointFolder = null;
+		}
+	}
+	
+	/**
+	 * Takes a snapshot of the state at the beginning of the given iteration and
+	 * lets the checkpoint thread write it. The append-only parts of the state
+	 * are shared with the snapshot instead of being copied.
+	 */
+	private void writeCheckpoint(int iteration, double errScore, int noOfRepeatedParent, int noOfRestarts){
+		if(mPendingCheckpoint != null && !mPendingCheckpoint.isDone()){
+			LOGGER.info("The previous checkpoint is still being written. Skipping the checkpoint of iteration " + iteration + ".");
+			return;
+		}
+		final OptimizationCheckpoint checkpoint = new OptimizationCheckpoint();
+		checkpoint.iteration = iteration;
+		checkpoint.noOfRepeatedSelections = noOfRepeatedParent;
+		checkpoint.noOfRestarts = noOfRestarts;
+		checkpoint.numberOfEvaluations = mNumberOfEvaluations.get();
+		checkpoint.numberOfProposals = mNumberOfProposals;
+		checkpoint.errScore = errScore;
+		checkpoint.bestErrScore = mBestErrScore;
+		checkpoint.randomState = OptimizationCheckpoint.serialize(mRandom);
+		checkpoint.strategyState = OptimizationCheckpoint.serialize(mStrategy);
+		checkpoint.bestJournalPosition = mBestJournalPosition;
+		// the maps are replaced but never changed by the edge modifier
+		checkpoint.bestMetricValues = mBestMetricValues;
+		checkpoint.bestTriangleCounters = mBestTriangleCounters;
+		checkpoint.metricValues = mEdgeModifier.getOptimizedMetricValues();
+		checkpoint.triangleCounters = mEdgeModifier.getTriangleCounters();
+		checkpoint.errScores = new DoubleArrayList(0);
+		checkpoint.errScores.buffer = mLstErrorScore.buffer;
+		checkpoint.errScores.elementsCount = mLstErrorScore.elementsCount;
+		checkpoint.acceptedProposals = new LongArrayList(0);
+		checkpoint.acceptedProposals.buffer = mAcceptedProposals.buffer;
+		checkpoint.acceptedProposals.elementsCount = mAcceptedProposals.elementsCount;
+		checkpoint.acceptedTriples = new IntArrayList(0);
+		checkpoint.acceptedTriples.buffer = mAcceptedTriples.buffer;
+		checkpoint.acceptedTriples.elementsCount = mAcceptedTriples.elementsCount;
+		checkpoint.curve = mErrScoreCurve.snapshot();
+		checkpoint.log = mEdgeModifier.getModificationLog().snapshot();
+		
+		mPendingCheckpoint = mCheckpointWriter.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					long start = System.currentTimeMillis();
+					checkpoint.write(mCheckpointFolder);
+					LOGGER.info("Wrote the checkpoint of iteration " + checkpoint.iteration + " in " 
+							+ (System.currentTimeMillis() - start) + " ms.");
+				} catch (IOException e) {
+					LOGGER.error("Couldn't write the checkpoint of iteration " + checkpoint.iteration + ".", e);
+				}
+			}
+		});
+	}
+	
+	private void finishRefinement(){
 		if(mTrueNoOfIteration == 0 ){
 			mTrueNoOfIteration = mMaxIteration;
 		}
 		
-		mGraphGenerator.setMimicGraph(mEdgeModifier.getGraph());
+		if(mIsGeneratorGraph){
+			mGraphGenerator.setMimicGraph(mEdgeModifier.getGraph());
+		}
 		mOptimizedTime =  System.currentTimeMillis();
+		MetricValueCache cache = mEdgeModifier.getMetricCache();
+		LOGGER.info("Metric value cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses.");
+	}
+	
+	/**
+	 * Proposes a single edge for removing and a single edge for adding and
+	 * evaluates them one after the other by modifying the graph.
+	 * 
+	 * @return the better one of both candidates that is allowed by the strategy
+	 *         (the removal in case of equal error scores) or null if none of them
+	 *         is allowed
+	 */
+	private EvaluatedCandidate selectFromLeftAndRight(){
+		// go left by removing an edge
+		EvaluatedCandidate left = new EvaluatedCandidate(getOfferedEdgeforRemoving(mEdgeModifier.getGraph()), true);
+		left.metricValues = mEdgeModifier.tryToRemoveAnEdge(left.triple);
+		//if the removal cannot happen, the error is kept at max as not to be chosen
+		if(left.metricValues == null) {
+			LOGGER.warn("Edge Removal Prevented. Setting lErrScore: "+left.errScore);
+		} else {
+			left.computeErrorScore();
+		}
+		
+		// go right by adding a new edge
+		EvaluatedCandidate right = new EvaluatedCandidate(getOfferedEdgeForAdding(mEdgeModifier.getGraph()), false);
+		right.metricValues = mEdgeModifier.tryToAddAnEdge(right.triple);
+		if(right.metricValues != null) {
+			right.computeErrorScore();
+		}
+		
+		EvaluatedCandidate bestCandidate = null;
+		for(EvaluatedCandidate candidate : new EvaluatedCandidate[]{left, right}){
+			if(isAllowed(candidate) && (bestCandidate == null || candidate.errScore < bestCandidate.errScore)){
+				bestCandidate = candidate;
+			}
+		}
+		return bestCandidate;
 	}
 	
 	/**
-	 * Compute the smallest error score among the three inputs
+	 * Proposes {@link #mNumberOfCandidates} edges for removing and adding. The
+	 * candidates are proposed by a single thread to keep the process
+	 * deterministic for a given seed. After that, they are evaluated
+	 * concurrently against the unchanged graph.
 	 * 
-	 * @param pErrScore the error score at the parent node
-	 * @param lErrScore the error score if go left
-	 * @param rErrScore the error score if go right
-	 * @return the smalles error score among them
+	 * @return the best candidate that is allowed by the strategy (the one which
+	 *         has been proposed first in case of equal error scores) or null if
+	 *         none of them is allowed
 	 */
-	private double minValues(double pErrScore, double lErrScore, double rErrScore){
-		double minErrScore = Double.MAX_VALUE;
-		if(pErrScore != Double.NaN && pErrScore < minErrScore){
-			minErrScore = pErrScore;
+	private EvaluatedCandidate selectFromCandidates(ExecutorService service) throws InterruptedException, ExecutionException{
+		List<Callable<EvaluatedCandidate>> tasks = new ArrayList<Callable<EvaluatedCandidate>>();
+		for(int j = 0 ; j < mNumberOfCandidates ; ++j){
+			tasks.add(new EvaluatedCandidate(getOfferedEdgeforRemoving(mEdgeModifier.getGraph()), true));
 		}
-		if(lErrScore!= Double.NaN && lErrScore < minErrScore){
-			minErrScore = lErrScore;
+		for(int j = 0 ; j < mNumberOfCandidates ; ++j){
+			tasks.add(new EvaluatedCandidate(getOfferedEdgeForAdding(mEdgeModifier.getGraph()), false));
 		}
-		if(rErrScore != Double.NaN && rErrScore < minErrScore){
-			minErrScore = rErrScore;
+		
+		EvaluatedCandidate bestCandidate = null;
+		for(Future<EvaluatedCandidate> future : service.invokeAll(tasks)){
+			EvaluatedCandidate candidate = future.get();
+			if(isAllowed(candidate) && (bestCandidate == null || candidate.errScore < bestCandidate.errScore)){
+				bestCandidate = candidate;
+			}
+		}
+		return bestCandidate;
+	}
+	
+	private boolean isAllowed(EvaluatedCandidate candidate){
+		return candidate.triple != null && candidate.metricValues != null
+				&& AbstractOptimizationStrategy.isValid(candidate.errScore)
+				&& mStrategy.isAllowed(candidate.triple, candidate.isRemoval, candidate.errScore, mBestErrScore);
+	}
+	
+	private void applyCandidate(EvaluatedCandidate candidate, boolean evaluatedWithoutModification){
+		if(candidate.isRemoval){
+			if(evaluatedWithoutModification){
+				mEdgeModifier.executeRemovingAnEdge(candidate.triple, candidate.metricValues);
+			}else{
+				mEdgeModifier.executeRemovingAnEdge(candidate.metricValues);
+			}
+		}else{
+			if(evaluatedWithoutModification){
+				mEdgeModifier.executeAddingAnEdge(candidate.triple, candidate.metricValues);
+			}else{
+				mEdgeModifier.executeAddingAnEdge(candidate.metricValues);
+			}
+			// the proposals learn which triples lead to better graphs
+			mGraphGenerator.notifyAcceptedTriple(candidate.triple, mProposalState);
+			mAcceptedProposals.add(mNumberOfProposals);
+			mAcceptedTriples.add(candidate.triple.tailId, candidate.triple.headId);
+			mAcceptedTriples.add(candidate.triple.edgeColour == null ? -1
+					: ColourRegistry.getInstance().getId(candidate.triple.edgeColour));
+		}
+		mStrategy.moveApplied(candidate.triple, candidate.isRemoval);
+	}
+	
+	/**
+	 * @param acceptedTriples the tail, head and edge colour ID of every
+	 *            accepted addition
+	 * @param acceptance the index of the accepted addition
+	 * @return the accepted triple including the colours of its vertices
+	 */
+	private TripleBaseSingleID getAcceptedTriple(IntArrayList acceptedTriples, int acceptance){
+		ColouredGraph graph = mEdgeModifier.getGraph();
+		ColourRegistry registry = ColourRegistry.getInstance();
+		TripleBaseSingleID triple = new TripleBaseSingleID();
+		triple.tailId = acceptedTriples.get(3 * acceptance);
+		triple.tailColour = registry.getColour(graph.getVertexColourId(triple.tailId));
+		triple.headId = acceptedTriples.get(3 * acceptance + 1);
+		triple.headColour = registry.getColour(graph.getVertexColourId(triple.headId));
+		int edgeColourId = acceptedTriples.get(3 * acceptance + 2);
+		// -1 = the generator did not know the colour of the edge
+		triple.edgeColour = edgeColourId < 0 ? null : registry.getColour(edgeColourId);
+		return triple;
+	}
+	
+	/**
+	 * Remembers the current graph as the best graph found so far.
+	 */
+	private void markBestGraph(){
+		mBestJournalPosition = mEdgeModifier.getModificationLog().size();
+		mBestMetricValues = mEdgeModifier.getOptimizedMetricValues();
+		mBestTriangleCounters = mEdgeModifier.getTriangleCounters();
+	}
+	
+	/**
+	 * Reverts all modifications which have been applied since the best graph
+	 * has been found by undoing the journaled modifications in reverse order.
+	 * The metric values of the best graph are known. Hence, no metric has to
+	 * be evaluated again.
+	 * 
+	 * @return the error score of the graph after the rollback
+	 */
+	private double rollbackToBestGraph(){
+		LOGGER.info("Revert " + (mEdgeModifier.getModificationLog().size() - mBestJournalPosition) 
+				+ " journaled modifications to go back to the best graph.");
+		mEdgeModifier.rollback(mBestJournalPosition, mBestMetricValues, mBestTriangleCounters);
+		// the rollback has been journaled as well
+		markBestGraph();
+		return mBestErrScore;
+	}
+	
+	/**
+	 * Creates a copy of the best graph found so far without changing the
+	 * current graph. The copy of the current graph is brought back to the
+	 * best graph by reverting the journaled modifications.
+	 * 
+	 * @return an edge modifier working on the copy
+	 */
+	EdgeModifier copyBestGraph(){
+		ColouredGraph graph = mEdgeModifier.getGraph().clone();
+		EdgeModificationLog log = mEdgeModifier.getModificationLog();
+		log.revert(graph, log.size(), mBestJournalPosition);
+		return new EdgeModifier(mEdgeModifier, graph, mBestMetricValues, mBestTriangleCounters);
+	}
+	
+	/**
+	 * Replaces the graph of this optimization by the given graph, e.g., by the
+	 * best graph of another chain (see {@link #copyBestGraph()}), and
+	 * remembers it as the best graph found so far.
+	 * 
+	 * @param edgeModifier the edge modifier working on the new graph
+	 * @param errScore the error score of the new graph
+	 */
+	void adoptGraph(EdgeModifier edgeModifier, double errScore){
+		mEdgeModifier = edgeModifier;
+		mBestErrScore = errScore;
+		markBestGraph();
+	}
+	
+	double getBestErrorScore(){
+		return mBestErrScore;
+	}
+	
+	ColouredGraph getGraph(){
+		return mEdgeModifier.getGraph();
+	}
+	
+	/**
+	 * A proposed removal or addition of an edge together with the metric values
+	 * and error score the graph would have afterwards. When used as
+	 * {@link Callable}, the candidate is evaluated without changing the graph.
+	 */
+	private class EvaluatedCandidate implements Callable<EvaluatedCandidate> {
+		private TripleBaseSingleID triple;
+		private boolean isRemoval;
+		private ObjectDoubleOpenHashMap<String> metricValues;
+		private double errScore = Double.MAX_VALUE;
+		
+		public EvaluatedCandidate(TripleBaseSingleID triple, boolean isRemoval) {
+			this.triple = triple;
+			this.isRemoval = isRemoval;
+		}
+		
+		@Override
+		public EvaluatedCandidate call() throws Exception {
+			metricValues = isRemoval ? mEdgeModifier.evaluateRemovingAnEdge(triple)
+					: mEdgeModifier.evaluateAddingAnEdge(triple);
+			// if the candidate cannot be evaluated, the error is kept at max as not to be chosen
+			if(metricValues != null){
+				computeErrorScore();
+			}
+			return this;
+		}
+		
+		private void computeErrorScore(){
+			mNumberOfEvaluations.incrementAndGet();
+			double score = mErrScoreCalculator.computeErrorScore(metricValues);
+			if(!Double.isNaN(score)){
+				errScore = score;
+			}
 		}
-		return minErrScore;
 	}
 	
 	
@@ -180,26 +753,19 @@ public class GraphOptimization {
 	 * @a
 	 */
 	private TripleBaseSingleID getOfferedEdgeforRemoving(ColouredGraph clonedGrph){
-		int edgeId = -1;
-		BitSet edgeColour = null;
-		Random rand = new Random(seed);
-		seed++;
-		while(true){
-			//LOGGER.info("Try to get an edge for removing!");
-			IntSet setOfEdges =	clonedGrph.getEdges();
-			int[] arrEdges = setOfEdges.toIntArray();
-			// randomly choose edge id to remove
-			edgeId = arrEdges[rand.nextInt(arrEdges.length)];
-			edgeColour = clonedGrph.getEdgeColour(edgeId);
-			if(!edgeColour.equals(clonedGrph.getRDFTypePropertyColour())){
-				break;
-			}
+		// randomly choose an edge which is not an rdf:type edge
+		SamplingIntSet removableEdges = clonedGrph.getRemovableEdges();
+		if(removableEdges.isEmpty()){
+			LOGGER.warn("There is no edge that could be removed!");
+			return null;
 		}
+		int edgeId = removableEdges.sample(mRandom);
+		BitSet edgeColour = clonedGrph.getEdgeColour(edgeId);
 		
 		//track the head and tail of the removed edge
 		TripleBaseSingleID triple = new TripleBaseSingleID();
-		triple.tailId = clonedGrph.getTailOfTheEdge(edgeId);
-		triple.headId = clonedGrph.getHeadOfTheEdge(edgeId);
+		triple.tailId = clonedGrph.getGraph().getDirectedSimpleEdgeTail(edgeId);
+		triple.headId = clonedGrph.getGraph().getDirectedSimpleEdgeHead(edgeId);
 		triple.edgeId = edgeId;
 		triple.edgeColour = edgeColour;
 		
@@ -213,7 +779,9 @@ public class GraphOptimization {
 	 * @param mimicGrph the target graph
 	 */
 	private TripleBaseSingleID getOfferedEdgeForAdding(ColouredGraph mimicGrph){
-		return mGraphGenerator.getProposedTriple(mProcessRandomly);
+		++mNumberOfProposals;
+		// the generator may be shared by several chains, the state of the proposals belongs to this optimization
+		return mGraphGenerator.getProposedTriple(mProcessRandomly, mProposalState);
 	}
 
 	
@@ -236,6 +804,7 @@ public class GraphOptimization {
 			
 			
 			fErrorScoreWriter = new BufferedWriter( new FileWriter(errorScoreFile, true));
+			String errorScoreCurveFile = "results/"+ savedFile.replace(".ttl", ".curve");
 			
 			// number of input graphs
 			fWriter.write("#----------------------------------------------------------------------#\n");
@@ -244,8 +813,11 @@ public class GraphOptimization {
 			fWriter.write("# Generate a mimic graph of "+ mEdgeModifier.getGraph().getVertices().size()+" vertices and "+ mEdgeModifier.getGraph().getEdges().size()+" edges.\n");
 			fWriter.write("# Saved file: "+ savedFile +".\n");
 			fWriter.write("# Saved error score file: "+ errorScoreFile +".\n");
+			fWriter.write("# Saved error score curve file: "+ errorScoreCurveFile +".\n");
 			fWriter.write("# Duration: "+ ((int)(mOptimizedTime - startingTime)/1000)+" (s).\n");
 			fWriter.write("# Optimization: "+ mTrueNoOfIteration + "/" + mMaxIteration + " iterations\n");
+			fWriter.write("# Optimization strategy: "+ mStrategy.getName() + ", " + mNumberOfRestarts + "/" + mMaxRestarts + " restarts, "
+					+ mNumberOfEvaluations.get() + " metric evaluations\n");
 			fWriter.write("# Seed: "+ seed +"\n");
 			if(args!=null && args.size()>0){
 				//dataset 
@@ -333,7 +905,7 @@ public class GraphOptimization {
 
 			}
 			fWriter.write("\t The first mimic graph: "+ mLstErrorScore.get(0) + "\n");
-			fWriter.write("\t The opimized mimic graph: "+ mLstErrorScore.get(mLstErrorScore.size()-1) + "\n");			
+			fWriter.write("\t The opimized mimic graph: "+ (Double.isNaN(mFinalErrScore) ? mLstErrorScore.get(mLstErrorScore.size()-1) : mFinalErrScore) + "\n");			
 			
 			fWriter.write("\n\n\n");
 			fWriter.close();
@@ -352,6 +924,9 @@ public class GraphOptimization {
 			fErrorScoreWriter.write("\n\n\n");
 			fErrorScoreWriter.close();
 			
+			// error score over time and metric evaluations
+			mErrScoreCurve.write(errorScoreCurveFile);
+			
 		}catch(Exception ex){
 			LOGGER.warn("Cannot output results to file! Please check: " + ex.getMessage());
 		}
@@ -20,7 +20,29 @@ public interface IGraphGeneration {
 	//public BitSet getProposedEdgeColour(BitSet headColour, BitSet tailColour);
 	//public BitSet getProposedHeadColour(BitSet edgeColour, BitSet tailColour);
 	//public BitSet getProposedTailColour(BitSet headColour, BitSet edgeColour);
-	public TripleBaseSingleID getProposedTriple(boolean isRamdom);
+	/**
+	 * Creates the state of a new stream of proposed triples. Everything a
+	 * proposal changes, e.g., the random number generator or the pairs of
+	 * vertices which have already been proposed, belongs to the state while
+	 * the generator is only read. Hence, several streams can be used
+	 * concurrently after the mimic graph has been generated.
+	 */
+	public TripleProposalState createProposalState(long seed);
+	/**
+	 * Proposes a triple that could be added to the mimic graph.
+	 * 
+	 * @param isRamdom true if the colours are drawn from the combinations of
+	 * colours of the input graphs instead of the strategy of the generator
+	 * @param state the state of the stream of proposals
+	 */
+	public TripleBaseSingleID getProposedTriple(boolean isRamdom, TripleProposalState state);
+	/**
+	 * Informs the generator that the given proposed triple has been added to
+	 * the mimic graph.
+	 * 
+	 * @param state the state of the stream which proposed the triple
+	 */
+	public void notifyAcceptedTriple(TripleBaseSingleID triple, TripleProposalState state);
 	
 	public ColouredGraph getMimicGraph();
 	public String getLiteralType(BitSet dteColo);
@@ -0,0 +1,286 @@
+package org.aksw.simba.lemming.mimicgraph.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
+import org.aksw.simba.lemming.metrics.single.edgemanipulation.EdgeModifier;
+import org.aksw.simba.lemming.mimicgraph.colourmetrics.utils.ErrorScoreCalculator;
+import org.aksw.simba.lemming.mimicgraph.metricstorage.ConstantValueStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optimizes the mimic graph of a graph generator with several independent
+ * {@link GraphOptimization} chains which run on separate threads. Every chain
+ * works on its own copy of the mimic graph and has its own seed, which drives
+ * both its decisions and its own {@link TripleProposalState}. The graph
+ * generator (including its colour mapping rules and colour palettes) and the
+ * error score calculator are shared but only read by the chains. The metrics
+ * are computed only once for the initial mimic graph.
+ *
+ * Every few iterations, the chains wait for each other and the best graph
+ * found so far by any chain is copied to the worse half of the chains, which
+ * continue with this graph. At the end, the best graph of all chains becomes
+ * the mimic graph of the generator.
+ */
+public class MultiChainOptimization {
+	private static final Logger LOGGER = LoggerFactory.getLogger(MultiChainOptimization.class);
+
+	public static final int DEFAULT_MIGRATION_INTERVAL = 1000;
+	/*
+	 * the seeds of the chains are derived from the given seed by adding
+	 * multiples of the golden ratio, the first chain uses the given seed
+	 */
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+	private GraphOptimization[] mChains;
+	private IGraphGeneration mGraphGenerator;
+	/*
+	 * number of iterations between two migrations (0 = no migrations)
+	 */
+	private int mMigrationInterval = DEFAULT_MIGRATION_INTERVAL;
+	private GraphOptimization mBestChain;
+
+	/**
+	 * @param origGrphs the input graphs
+	 * @param graphGenerator the graph generator whose mimic graph is optimized
+	 * @param metrics the metrics of the constant expressions
+	 * @param valueCarriers the constant expressions and the metric values of the input graphs
+	 * @param seed the seed of the first chain
+	 * @param iNumberOfChains the number of chains
+	 */
+	public MultiChainOptimization(ColouredGraph[] origGrphs, IGraphGeneration graphGenerator,
+			List<SingleValueMetric> metrics, ConstantValueStorage valueCarriers, long seed, int iNumberOfChains) {
+		this(new ErrorScoreCalculator(origGrphs, valueCarriers), graphGenerator, metrics, seed, iNumberOfChains);
+	}
+
+	/**
+	 * @param errScoreCalculator the error score calculator shared by the chains
+	 * @param graphGenerator the graph generator whose mimic graph is optimized
+	 * @param metrics the metrics of the constant expressions
+	 * @param seed the seed of the first chain
+	 * @param iNumberOfChains the number of chains
+	 */
+	public MultiChainOptimization(ErrorScoreCalculator errScoreCalculator, IGraphGeneration graphGenerator,
+			List<SingleValueMetric> metrics, long seed, int iNumberOfChains) {
+		mGraphGenerator = graphGenerator;
+
+		mChains = new GraphOptimization[Math.max(1, iNumberOfChains)];
+		ColouredGraph draft = graphGenerator.getMimicGraph();
+		// the copies are created before the first chain starts to modify the draft
+		ColouredGraph[] graphs = new ColouredGraph[mChains.length];
+		graphs[0] = draft;
+		for(int i = 1 ; i < graphs.length ; ++i){
+			graphs[i] = draft.clone();
+		}
+		EdgeModifier firstModifier = new EdgeModifier(draft, metrics);
+		for(int i = 0 ; i < mChains.length ; ++i){
+			EdgeModifier edgeModifier = i == 0 ? firstModifier : new EdgeModifier(firstModifier, graphs[i],
+					firstModifier.getOriginalMetricValues(), firstModifier.getTriangleCounters());
+			mChains[i] = new GraphOptimization(errScoreCalculator, graphGenerator, edgeModifier, seed + (i * SEED_INCREMENT));
+		}
+	}
+
+	/**
+	 * @return the chains, e.g., to configure them before {@link #refineGraph()}
+	 */
+	public GraphOptimization[] getChains(){
+		return mChains;
+	}
+
+	/**
+	 * Sets the number of iterations between two migrations of the best graph.
+	 * A value of 0 lets the chains run independently.
+	 */
+	public void setMigrationInterval(int iMigrationInterval){
+		if(iMigrationInterval >= 0)
+			mMigrationInterval = iMigrationInterval;
+	}
+
+	/**
+	 * Runs all chains until they are finished and sets the best graph as mimic
+	 * graph of the generator.
+	 */
+	public void refineGraph(){
+		LOGGER.info("Start optimize the mimic graph with " + mChains.length + " chains.");
+		Migration migration = null;
+		if(mChains.length > 1 && mMigrationInterval > 0){
+			migration = new Migration(mMigrationInterval, mChains);
+			LOGGER.info("The best graph is migrated every " + mMigrationInterval + " iterations.");
+		}
+
+		ExecutorService service = Executors.newFixedThreadPool(mChains.length);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for(int i = 0 ; i < mChains.length ; ++i){
+			final GraphOptimization chain = mChains[i];
+			chain.setMigration(migration, i);
+			final Migration chainMigration = migration;
+			futures.add(service.submit(new Runnable() {
+				@Override
+				public void run() {
+					try{
+						chain.refineGraph();
+					}finally{
+						if(chainMigration != null){
+							// the other chains must not wait for this chain anymore
+							chainMigration.leave();
+						}
+					}
+				}
+			}));
+		}
+		for(int i = 0 ; i < futures.size() ; ++i){
+			try{
+				futures.get(i).get();
+			}catch(InterruptedException | ExecutionException e){
+				LOGGER.error("Chain " + i + " has been aborted.", e);
+			}
+		}
+		service.shutdown();
+
+		int bestIndex = 0;
+		for(int i = 1 ; i < mChains.length ; ++i){
+			if(Double.isNaN(mChains[bestIndex].getBestErrorScore())
+					|| mChains[i].getBestErrorScore() < mChains[bestIndex].getBestErrorScore()){
+				bestIndex = i;
+			}
+		}
+		mBestChain = mChains[bestIndex];
+		mGraphGenerator.setMimicGraph(mBestChain.getGraph());
+		LOGGER.info("Chain " + bestIndex + " found the best graph with the error score " + mBestChain.getBestErrorScore() + ".");
+	}
+
+	/**
+	 * @return the chain which found the best graph or null if the chains have
+	 *         not been run
+	 */
+	public GraphOptimization getBestChain(){
+		return mBestChain;
+	}
+
+	/**
+	 * The exchange of the best graph between the chains. The chains wait for
+	 * each other at a {@link Phaser}. The last arriving chain copies the best
+	 * graph of the waiting chains for the worse half of them before all chains
+	 * continue. Chains which are finished leave the phaser. The chains are
+	 * identified by their index, i.e., the ranking of the chains (including
+	 * ties) does not depend on the order in which they arrive.
+	 */
+	static class Migration {
+
+		private final int mInterval;
+		private final Phaser mPhaser;
+		private final GraphOptimization[] mChains;
+		/*
+		 * current error scores of the chains waiting in the current phase and
+		 * the copies of the best graph for the chains which have to adopt it
+		 * (indexed by chain)
+		 */
+		private final boolean[] mIsWaiting;
+		private final double[] mErrScores;
+		private final EdgeModifier[] mMigratedGraphs;
+		private double mMigratedErrScore;
+
+		Migration(int interval, GraphOptimization[] chains){
+			mInterval = interval;
+			mChains = chains;
+			mIsWaiting = new boolean[chains.length];
+			mErrScores = new double[chains.length];
+			mMigratedGraphs = new EdgeModifier[chains.length];
+			mPhaser = new Phaser(chains.length){
+				@Override
+				protected boolean onAdvance(int phase, int registeredParties) {
+					migrate();
+					return registeredParties == 0;
+				}
+			};
+		}
+
+		int getInterval(){
+			return mInterval;
+		}
+
+		/**
+		 * Waits for the other chains and lets the given chain adopt the best
+		 * graph if it belongs to the worse half of the chains.
+		 *
+		 * @param chainIndex the index of the waiting chain
+		 * @param errScore the error score of the current graph of the chain
+		 * @return true if the chain continues with the graph of another chain
+		 */
+		boolean exchange(int chainIndex, double errScore){
+			synchronized(this){
+				mIsWaiting[chainIndex] = true;
+				mErrScores[chainIndex] = errScore;
+			}
+			mPhaser.arriveAndAwaitAdvance();
+			EdgeModifier migratedGraph;
+			double migratedErrScore;
+			synchronized(this){
+				migratedGraph = mMigratedGraphs[chainIndex];
+				mMigratedGraphs[chainIndex] = null;
+				migratedErrScore = mMigratedErrScore;
+			}
+			if(migratedGraph == null){
+				return false;
+			}
+			mChains[chainIndex].adoptGraph(migratedGraph, migratedErrScore);
+			return true;
+		}
+
+		void leave(){
+			mPhaser.arriveAndDeregister();
+		}
+
+		private synchronized void migrate(){
+			// the waiting chains in the order of their indexes
+			List<Integer> chains = new ArrayList<Integer>();
+			for(int i = 0 ; i < mIsWaiting.length ; ++i){
+				if(mIsWaiting[i]){
+					chains.add(i);
+					mIsWaiting[i] = false;
+				}
+			}
+			if(chains.size() < 2){
+				return;
+			}
+			// the chain with the lowest index wins a tie
+			int source = chains.get(0);
+			for(int chain : chains){
+				if(mChains[chain].getBestErrorScore() < mChains[source].getBestErrorScore()){
+					source = chain;
+				}
+			}
+			final double bestErrScore = mChains[source].getBestErrorScore();
+			if(Double.isNaN(bestErrScore)){
+				return;
+			}
+			// the worse half of the chains adopts the best graph, the sorting is stable
+			Collections.sort(chains, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer c1, Integer c2) {
+					return Double.compare(mErrScores[c2], mErrScores[c1]);
+				}
+			});
+			mMigratedErrScore = bestErrScore;
+			int numberOfMigrations = 0;
+			for(int chain : chains.subList(0, chains.size() / 2)){
+				if(chain != source && !(mErrScores[chain] <= bestErrScore)){
+					mMigratedGraphs[chain] = mChains[source].copyBestGraph();
+					++numberOfMigrations;
+				}
+			}
+			LOGGER.info("Migrated the best graph with the error score " + bestErrScore + " to "
+					+ numberOfMigrations + " of " + chains.size() + " chains.");
+		}
+	}
+}
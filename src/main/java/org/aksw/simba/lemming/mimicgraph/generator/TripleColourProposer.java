@@ -0,0 +1,211 @@
+package org.aksw.simba.lemming.mimicgraph.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.mimicgraph.constraints.IColourMappingRules;
+import org.aksw.simba.lemming.util.AliasTable;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
+import grph.Grph;
+
+/**
+ * Proposes combinations of tail, edge and head colours for new edges in
+ * constant time. All combinations allowed by the colour mapping rules are
+ * enumerated once and drawn from an {@link AliasTable}. The weight of a
+ * combination is the number of edges with these colours in the input graphs
+ * times the rate at which proposals of this combination led to an edge that
+ * has been added to the mimic graph. The rates are learned online and the
+ * alias table is rebuilt after a number of updates which is at least the
+ * number of combinations, i.e., the rebuilding costs amortized O(1) per
+ * proposal.
+ *
+ * NOTE: this class is not thread safe.
+ */
+public class TripleColourProposer {
+
+	/*
+	 * number of bits of a colour ID in the keys of the triple colours
+	 */
+	private static final int COLOUR_ID_BITS = 21;
+	private static final long COLOUR_ID_MASK = (1L << COLOUR_ID_BITS) - 1;
+	/*
+	 * minimal number of attempts and acceptances between two rebuilds of the alias table
+	 */
+	private static final int MIN_REBUILD_INTERVAL = 1000;
+	/*
+	 * lower bound of the learned rates which keeps all combinations proposable
+	 */
+	private static final double MIN_ACCEPTANCE_RATE = 0.05;
+
+	private int[] mTailColourIds;
+	private int[] mEdgeColourIds;
+	private int[] mHeadColourIds;
+	private double[] mObservedWeights;
+	private int[] mNumberOfAttempts;
+	private int[] mNumberOfAcceptances;
+	private LongIntOpenHashMap mCombinationIndexes;
+
+	private AliasTable mAliasTable;
+	private int mRebuildInterval;
+	private int mUpdatesSinceRebuild = 0;
+
+	/**
+	 * @param vertexColourIds the sorted IDs of the colours of the vertices of the mimic graph
+	 * @param colourMapper the colour mapping rules
+	 * @param excludedEdgeColourId the ID of an edge colour which is not proposed, e.g., rdf:type
+	 * @param observedTripleColours the number of edges per combination of colours in the input
+	 * graphs (see {@link #countTripleColours(ColouredGraph[])})
+	 */
+	public TripleColourProposer(int[] vertexColourIds, IColourMappingRules colourMapper, int excludedEdgeColourId,
+			LongIntOpenHashMap observedTripleColours){
+		IntArrayList tailColourIds = new IntArrayList();
+		IntArrayList edgeColourIds = new IntArrayList();
+		IntArrayList headColourIds = new IntArrayList();
+		DoubleArrayList observedWeights = new DoubleArrayList();
+		mCombinationIndexes = new LongIntOpenHashMap();
+		for(int tailColourId : vertexColourIds){
+			for(int edgeColourId : colourMapper.getPossibleOutEdgeColourIds(tailColourId)){
+				if(edgeColourId == excludedEdgeColourId){
+					continue;
+				}
+				for(int headColourId : colourMapper.getHeadColourIds(tailColourId, edgeColourId)){
+					// the mimic graph has to contain vertices of the head colour
+					if(Arrays.binarySearch(vertexColourIds, headColourId) < 0){
+						continue;
+					}
+					long key = toKey(tailColourId, edgeColourId, headColourId);
+					mCombinationIndexes.put(key, tailColourIds.size());
+					tailColourIds.add(tailColourId);
+					edgeColourIds.add(edgeColourId);
+					headColourIds.add(headColourId);
+					// combinations which have not been counted keep a small weight
+					observedWeights.add(observedTripleColours.get(key) + 1);
+				}
+			}
+		}
+		mTailColourIds = tailColourIds.toArray();
+		mEdgeColourIds = edgeColourIds.toArray();
+		mHeadColourIds = headColourIds.toArray();
+		mObservedWeights = observedWeights.toArray();
+		mNumberOfAttempts = new int[mTailColourIds.length];
+		mNumberOfAcceptances = new int[mTailColourIds.length];
+		mRebuildInterval = Math.max(MIN_REBUILD_INTERVAL, mTailColourIds.length);
+		if(mTailColourIds.length > 0){
+			rebuild();
+		}
+	}
+
+	/**
+	 * Counts the edges of the given graphs per combination of tail, edge and
+	 * head colour.
+	 *
+	 * @return a map from the keys of the combinations to their numbers of edges
+	 */
+	public static LongIntOpenHashMap countTripleColours(ColouredGraph[] graphs){
+		LongIntOpenHashMap counts = new LongIntOpenHashMap();
+		for(ColouredGraph graph : graphs){
+			if(graph == null){
+				continue;
+			}
+			Grph grph = graph.getGraph();
+			for(int edgeId : graph.getEdges().toIntArray()){
+				int tailId = grph.getDirectedSimpleEdgeTail(edgeId);
+				int headId = grph.getDirectedSimpleEdgeHead(edgeId);
+				counts.putOrAdd(toKey(graph.getVertexColourId(tailId), graph.getEdgeColourId(edgeId),
+						graph.getVertexColourId(headId)), 1, 1);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a colour ID does not fit into
+	 *             {@value #COLOUR_ID_BITS} bits, i.e., if it would alias the
+	 *             key of another combination
+	 */
+	private static long toKey(int tailColourId, int edgeColourId, int headColourId){
+		if(((tailColourId | edgeColourId | headColourId) & ~COLOUR_ID_MASK) != 0){
+			throw new IllegalArgumentException("The colour IDs " + tailColourId + ", " + edgeColourId + " and "
+					+ headColourId + " do not fit into " + COLOUR_ID_BITS + " bits.");
+		}
+		return ((tailColourId & COLOUR_ID_MASK) << (2 * COLOUR_ID_BITS)) | ((edgeColourId & COLOUR_ID_MASK) << COLOUR_ID_BITS)
+				| (headColourId & COLOUR_ID_MASK);
+	}
+
+	/**
+	 * @return true if there is no combination of colours that can be proposed
+	 */
+	public boolean isEmpty(){
+		return mAliasTable == null;
+	}
+
+	/**
+	 * @return the index of a proposed combination of colours
+	 */
+	public int sample(Random random){
+		return mAliasTable.sample(random);
+	}
+
+	public int getTailColourId(int combination){
+		return mTailColourIds[combination];
+	}
+
+	public int getEdgeColourId(int combination){
+		return mEdgeColourIds[combination];
+	}
+
+	public int getHeadColourId(int combination){
+		return mHeadColourIds[combination];
+	}
+
+	/**
+	 * Counts an attempt to create an edge with the colours of the given
+	 * combination, regardless of whether a triple has been proposed.
+	 */
+	public void recordAttempt(int combination){
+		++mNumberOfAttempts[combination];
+		update();
+	}
+
+	/**
+	 * Counts an edge with the given colours which has been added to the mimic
+	 * graph.
+	 */
+	public void recordAcceptance(int tailColourId, int edgeColourId, int headColourId){
+		long key = toKey(tailColourId, edgeColourId, headColourId);
+		if(mCombinationIndexes.containsKey(key)){
+			++mNumberOfAcceptances[mCombinationIndexes.lget()];
+			update();
+		}
+	}
+
+	/**
+	 * @return the learned rate of attempts of the given combination which led
+	 *         to an added edge
+	 */
+	public double getAcceptanceRate(int combination){
+		// the estimate starts at 0.5 for combinations which have not been tried
+		double rate = (mNumberOfAcceptances[combination] + 1.0) / (mNumberOfAttempts[combination] + 2.0);
+		return Math.max(MIN_ACCEPTANCE_RATE, Math.min(1, rate));
+	}
+
+	private void update(){
+		if(++mUpdatesSinceRebuild >= mRebuildInterval){
+			rebuild();
+		}
+	}
+
+	private void rebuild(){
+		double[] weights = new double[mObservedWeights.length];
+		for(int i = 0 ; i < weights.length ; ++i){
+			weights[i] = mObservedWeights[i] * getAcceptanceRate(i);
+		}
+		mAliasTable = new AliasTable(weights);
+		mUpdatesSinceRebuild = 0;
+	}
+}
@@ -0,0 +1,133 @@
+package org.aksw.simba.lemming.mimicgraph.generator;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.aksw.simba.lemming.mimicgraph.colourmetrics.utils.IOfferedItem;
+import org.aksw.simba.lemming.mimicgraph.colourmetrics.utils.OfferedItemByRandomProb;
+import org.aksw.simba.lemming.util.Constants;
+
+import com.carrotsearch.hppc.IntObjectOpenHashMap;
+
+import grph.DefaultIntSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+/**
+ * The mutable state of a stream of triples proposed by a graph generator (see
+ * {@link IGraphGeneration#getProposedTriple(boolean, TripleProposalState)}),
+ * i.e., its random number generator, its {@link TripleColourProposer}, its
+ * copies of the item proposers of the generator and the pairs of vertices it
+ * has proposed to connect. The generator only reads its own bookkeeping of
+ * connected vertices while proposing. Hence, several optimizations, e.g., the
+ * chains of a {@link MultiChainOptimization}, can share a generator without
+ * any lock while each of them owns its own state, and the proposals of one
+ * state do not rule out pairs of vertices for the others. The proposed
+ * triples only depend on the seed of the state and on the triples accepted so
+ * far.
+ *
+ * NOTE: this class is not thread safe.
+ */
+public class TripleProposalState {
+
+	private final Random mRandom;
+	private TripleColourProposer mColourProposer;
+	/*
+	 * the copies of the item proposers of the generator which draw with
+	 * mRandom (null = the proposers of the generator are used directly)
+	 */
+	private final Map<IOfferedItem<?>, IOfferedItem<?>> mOfferedItems;
+	/*
+	 * edge colour ID -> tail ID -> heads proposed with this state
+	 */
+	private final IntObjectOpenHashMap<IntObjectOpenHashMap<IntSet>> mProposedHeads = new IntObjectOpenHashMap<IntObjectOpenHashMap<IntSet>>();
+
+	/**
+	 * Creates a state which uses its own copies of the item proposers of the
+	 * generator.
+	 */
+	public TripleProposalState(long seed){
+		this(new Random(seed), true);
+	}
+
+	/**
+	 * @param random the random number generator of the proposals
+	 * @param copyOfferedItems false if the item proposers of the generator
+	 * should be used directly, e.g., for the state of the generator itself
+	 */
+	TripleProposalState(Random random, boolean copyOfferedItems){
+		mRandom = random;
+		mOfferedItems = copyOfferedItems ? new IdentityHashMap<IOfferedItem<?>, IOfferedItem<?>>() : null;
+	}
+
+	public Random getRandom(){
+		return mRandom;
+	}
+
+	/**
+	 * @return the proposer of the colours of the triples or null if it has not
+	 *         been created yet
+	 */
+	TripleColourProposer getColourProposer(){
+		return mColourProposer;
+	}
+
+	void setColourProposer(TripleColourProposer colourProposer){
+		mColourProposer = colourProposer;
+	}
+
+	/**
+	 * @return the heads which have been proposed with this state to be
+	 *         connected to the given tail via the given edge colour or null
+	 */
+	IntSet getProposedHeads(int tailId, int edgeColourId){
+		IntObjectOpenHashMap<IntSet> mapTailToHeads = mProposedHeads.get(edgeColourId);
+		return mapTailToHeads == null ? null : mapTailToHeads.get(tailId);
+	}
+
+	/**
+	 * Remembers that the given vertices have been proposed to be connected via
+	 * the given edge colour.
+	 *
+	 * @return false if they have already been proposed before
+	 */
+	boolean addProposedHead(int tailId, int headId, int edgeColourId){
+		IntObjectOpenHashMap<IntSet> mapTailToHeads = mProposedHeads.get(edgeColourId);
+		if(mapTailToHeads == null){
+			mapTailToHeads = new IntObjectOpenHashMap<IntSet>();
+			mProposedHeads.put(edgeColourId, mapTailToHeads);
+		}
+		IntSet setOfHeads = mapTailToHeads.get(tailId);
+		if(setOfHeads == null){
+			setOfHeads = new DefaultIntSet(Constants.DEFAULT_SIZE);
+			mapTailToHeads.put(tailId, setOfHeads);
+		}
+		if(setOfHeads.contains(headId)){
+			return false;
+		}
+		setOfHeads.add(headId);
+		return true;
+	}
+
+	/**
+	 * Returns the copy of the given item proposer of the generator which
+	 * belongs to this state. Proposers drawing with a random probability are
+	 * copied once and draw with the random number generator of this state.
+	 * Other proposers are returned as they are.
+	 *
+	 * @param offeredItem an item proposer of the generator or null
+	 * @return the item proposer which has to be used with this state
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> IOfferedItem<T> getOfferedItem(IOfferedItem<T> offeredItem){
+		if(mOfferedItems == null || !(offeredItem instanceof OfferedItemByRandomProb)){
+			return offeredItem;
+		}
+		IOfferedItem<T> copy = (IOfferedItem<T>) mOfferedItems.get(offeredItem);
+		if(copy == null){
+			copy = new OfferedItemByRandomProb<T>((OfferedItemByRandomProb<T>) offeredItem, mRandom);
+			mOfferedItems.put(offeredItem, copy);
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,66 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.util.Random;
+
+import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
+
+/**
+ * Basic implementation of an {@link OptimizationStrategy} which allows all
+ * candidates and ignores all events.
+ */
+public abstract class AbstractOptimizationStrategy implements OptimizationStrategy {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public void init(double initialErrScore, int maxIterations) {
+	}
+
+	@Override
+	public boolean isAllowed(TripleBaseSingleID triple, boolean isRemoval, double candidateErrScore,
+			double bestErrScore) {
+		return true;
+	}
+
+	@Override
+	public boolean accept(double currentErrScore, double candidateErrScore, Random random) {
+		if (!isValid(candidateErrScore)) {
+			return false;
+		}
+		if (Double.isNaN(currentErrScore)) {
+			return true;
+		}
+		return acceptValidScore(currentErrScore, candidateErrScore, random);
+	}
+
+	/**
+	 * Decides whether a candidate is applied. Both error scores are valid
+	 * numbers.
+	 */
+	protected abstract boolean acceptValidScore(double currentErrScore, double candidateErrScore, Random random);
+
+	@Override
+	public void moveApplied(TripleBaseSingleID triple, boolean isRemoval) {
+	}
+
+	@Override
+	public void nextIteration() {
+	}
+
+	@Override
+	public void restart() {
+	}
+
+	/**
+	 * @return false if the error score is NaN or {@link Double#MAX_VALUE}, i.e.,
+	 *         the candidate could not be evaluated
+	 */
+	public static boolean isValid(double errScore) {
+		return !Double.isNaN(errScore) && (errScore < Double.MAX_VALUE);
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+}
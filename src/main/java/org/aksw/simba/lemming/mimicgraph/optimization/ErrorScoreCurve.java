@@ -0,0 +1,107 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+
+/**
+ * Records the error score of the optimized graph over time, i.e., the
+ * iteration, the elapsed time and the number of metric evaluations at which
+ * the current and the best error score changed.
+ */
+public class ErrorScoreCurve {
+
+	private long mStartTime;
+	private IntArrayList mIterations = new IntArrayList();
+	private LongArrayList mTimes = new LongArrayList();
+	private LongArrayList mEvaluations = new LongArrayList();
+	private DoubleArrayList mErrScores = new DoubleArrayList();
+	private DoubleArrayList mBestErrScores = new DoubleArrayList();
+
+	/**
+	 * Starts the clock. If the curve already contains points, e.g., after
+	 * resuming an optimization, the time continues from the last point.
+	 */
+	public void start() {
+		int size = size();
+		mStartTime = System.currentTimeMillis() - (size > 0 ? mTimes.get(size - 1) : 0);
+	}
+
+	public void record(int iteration, long numberOfEvaluations, double errScore, double bestErrScore) {
+		mIterations.add(iteration);
+		mTimes.add(System.currentTimeMillis() - mStartTime);
+		mEvaluations.add(numberOfEvaluations);
+		mErrScores.add(errScore);
+		mBestErrScores.add(bestErrScore);
+	}
+
+	public int size() {
+		return mIterations.size();
+	}
+
+	/**
+	 * Returns a view of the points recorded so far. Since points are only
+	 * appended, the view shares the arrays of this curve. It must not be
+	 * changed.
+	 */
+	public ErrorScoreCurve snapshot() {
+		ErrorScoreCurve snapshot = new ErrorScoreCurve();
+		snapshot.mStartTime = mStartTime;
+		snapshot.mIterations.buffer = mIterations.buffer;
+		snapshot.mIterations.elementsCount = mIterations.elementsCount;
+		snapshot.mTimes.buffer = mTimes.buffer;
+		snapshot.mTimes.elementsCount = mTimes.elementsCount;
+		snapshot.mEvaluations.buffer = mEvaluations.buffer;
+		snapshot.mEvaluations.elementsCount = mEvaluations.elementsCount;
+		snapshot.mErrScores.buffer = mErrScores.buffer;
+		snapshot.mErrScores.elementsCount = mErrScores.elementsCount;
+		snapshot.mBestErrScores.buffer = mBestErrScores.buffer;
+		snapshot.mBestErrScores.elementsCount = mBestErrScores.elementsCount;
+		return snapshot;
+	}
+
+	/**
+	 * Writes the curve as CSV file with the columns iteration, time_ms,
+	 * evaluations, error_score and best_error_score.
+	 */
+	public void write(String file) throws IOException {
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+			writer.write("iteration,time_ms,evaluations,error_score,best_error_score\n");
+			for (int i = 0; i < mIterations.size(); ++i) {
+				writer.write(mIterations.get(i) + "," + mTimes.get(i) + "," + mEvaluations.get(i) + ","
+						+ mErrScores.get(i) + "," + mBestErrScores.get(i) + "\n");
+			}
+		}
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		int size = size();
+		out.writeInt(size);
+		for (int i = 0; i < size; ++i) {
+			out.writeInt(mIterations.get(i));
+			out.writeLong(mTimes.get(i));
+			out.writeLong(mEvaluations.get(i));
+			out.writeDouble(mErrScores.get(i));
+			out.writeDouble(mBestErrScores.get(i));
+		}
+	}
+
+	public static ErrorScoreCurve read(ByteBuffer buffer) {
+		ErrorScoreCurve curve = new ErrorScoreCurve();
+		int size = buffer.getInt();
+		for (int i = 0; i < size; ++i) {
+			curve.mIterations.add(buffer.getInt());
+			curve.mTimes.add(buffer.getLong());
+			curve.mEvaluations.add(buffer.getLong());
+			curve.mErrScores.add(buffer.getDouble());
+			curve.mBestErrScores.add(buffer.getDouble());
+		}
+		return curve;
+	}
+}
@@ -0,0 +1,22 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.util.Random;
+
+/**
+ * Hill climbing which only applies candidates that do not increase the error
+ * score.
+ */
+public class GreedyStrategy extends AbstractOptimizationStrategy {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected boolean acceptValidScore(double currentErrScore, double candidateErrScore, Random random) {
+		return candidateErrScore <= currentErrScore;
+	}
+
+	@Override
+	public String getName() {
+		return "greedy";
+	}
+}
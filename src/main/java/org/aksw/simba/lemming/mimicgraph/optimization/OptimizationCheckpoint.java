@@ -0,0 +1,272 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.ColouredGraphBinaryFormat;
+import org.aksw.simba.lemming.metrics.single.edgemanipulation.EdgeModificationLog;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
+/**
+ * The state of a graph optimization after a certain number of iterations. The
+ * graph itself is not part of the checkpoint. Instead, it contains the journal
+ * of all modifications applied to the initial mimic graph, which is stored
+ * next to the checkpoint in the {@link #INITIAL_GRAPH_FILE}.
+ *
+ * The log, the error scores, the accepted additions and the curve are
+ * append-only and are shared with
+ * the running optimization, i.e., a checkpoint can be written by another
+ * thread while the optimization continues. All other fields are copies.
+ */
+public class OptimizationCheckpoint {
+
+	/**
+	 * "LMCK" - the first bytes of every checkpoint file.
+	 */
+	public static final int MAGIC = 0x4C4D434B;
+	/**
+	 * Has to be increased whenever the layout changes.
+	 */
+	public static final int VERSION = 3;
+
+	public static final String CHECKPOINT_FILE = "optimization.checkpoint";
+	public static final String INITIAL_GRAPH_FILE = "initial.graph";
+
+	/**
+	 * the iteration the optimization continues with
+	 */
+	public int iteration;
+	public int noOfRepeatedSelections;
+	public int noOfRestarts;
+	public long numberOfEvaluations;
+	/**
+	 * the number of triples proposed by the graph generator so far
+	 */
+	public long numberOfProposals;
+	public double errScore;
+	public double bestErrScore;
+	/**
+	 * the serialized random number generator of the optimization
+	 */
+	public byte[] randomState;
+	/**
+	 * the serialized {@link OptimizationStrategy}
+	 */
+	public byte[] strategyState;
+	/**
+	 * the size of the journal, the metric values and the triangle counters of
+	 * the best graph found so far
+	 */
+	public int bestJournalPosition;
+	public ObjectDoubleOpenHashMap<String> bestMetricValues;
+	public int[] bestTriangleCounters;
+	public ObjectDoubleOpenHashMap<String> metricValues;
+	public int[] triangleCounters;
+	public DoubleArrayList errScores;
+	/**
+	 * the number of triples proposed before every accepted addition and the
+	 * tail ID, head ID and edge colour ID of every accepted addition (three
+	 * values per addition)
+	 */
+	public LongArrayList acceptedProposals;
+	public IntArrayList acceptedTriples;
+	public ErrorScoreCurve curve;
+	public EdgeModificationLog log;
+
+	/**
+	 * Reads the initial mimic graph the checkpoints in the given folder refer
+	 * to.
+	 */
+	public static ColouredGraph readInitialGraph(File folder) throws IOException {
+		return ColouredGraphBinaryFormat.read(new File(folder, INITIAL_GRAPH_FILE))[0];
+	}
+
+	/**
+	 * Writes the initial mimic graph the following checkpoints will refer to.
+	 */
+	public static void writeInitialGraph(ColouredGraph graph, File folder) throws IOException {
+		ColouredGraphBinaryFormat.write(new ColouredGraph[] { graph }, new File(folder, INITIAL_GRAPH_FILE));
+	}
+
+	/**
+	 * Writes the checkpoint to the {@link #CHECKPOINT_FILE} in the given
+	 * folder. The checkpoint is written to a temporary file first which
+	 * replaces the previous checkpoint afterwards.
+	 */
+	public void write(File folder) throws IOException {
+		File file = new File(folder, CHECKPOINT_FILE);
+		File tempFile = new File(folder, CHECKPOINT_FILE + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16))) {
+			write(out);
+		}
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(iteration);
+		out.writeInt(noOfRepeatedSelections);
+		out.writeInt(noOfRestarts);
+		out.writeLong(numberOfEvaluations);
+		out.writeLong(numberOfProposals);
+		out.writeDouble(errScore);
+		out.writeDouble(bestErrScore);
+		writeBytes(randomState, out);
+		writeBytes(strategyState, out);
+
+		out.writeInt(bestJournalPosition);
+		writeMetricValues(bestMetricValues, out);
+		ColouredGraphBinaryFormat.writeInts(bestTriangleCounters, out);
+		writeMetricValues(metricValues, out);
+		ColouredGraphBinaryFormat.writeInts(triangleCounters, out);
+
+		out.writeInt(errScores.size());
+		for (int i = 0; i < errScores.size(); ++i) {
+			out.writeDouble(errScores.get(i));
+		}
+		out.writeInt(acceptedProposals.size());
+		for (int i = 0; i < acceptedProposals.size(); ++i) {
+			out.writeLong(acceptedProposals.get(i));
+			for (int j = 3 * i; j < 3 * i + 3; ++j) {
+				out.writeInt(acceptedTriples.get(j));
+			}
+		}
+		curve.write(out);
+		log.write(out);
+	}
+
+	/**
+	 * Reads the checkpoint from the given folder.
+	 *
+	 * @return the checkpoint or null if the folder does not contain a checkpoint
+	 * @throws IOException
+	 *             if the checkpoint can not be read or has not been written in
+	 *             the current version
+	 */
+	public static OptimizationCheckpoint read(File folder) throws IOException {
+		File file = new File(folder, CHECKPOINT_FILE);
+		if (!file.isFile()) {
+			return null;
+		}
+		return read(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+	}
+
+	public static OptimizationCheckpoint read(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new IOException("The given data is not an optimization checkpoint.");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version " + version + " of the optimization checkpoint (expected "
+					+ VERSION + ").");
+		}
+		OptimizationCheckpoint checkpoint = new OptimizationCheckpoint();
+		checkpoint.iteration = buffer.getInt();
+		checkpoint.noOfRepeatedSelections = buffer.getInt();
+		checkpoint.noOfRestarts = buffer.getInt();
+		checkpoint.numberOfEvaluations = buffer.getLong();
+		checkpoint.numberOfProposals = buffer.getLong();
+		checkpoint.errScore = buffer.getDouble();
+		checkpoint.bestErrScore = buffer.getDouble();
+		checkpoint.randomState = readBytes(buffer);
+		checkpoint.strategyState = readBytes(buffer);
+
+		checkpoint.bestJournalPosition = buffer.getInt();
+		checkpoint.bestMetricValues = readMetricValues(buffer);
+		checkpoint.bestTriangleCounters = ColouredGraphBinaryFormat.readInts(buffer);
+		checkpoint.metricValues = readMetricValues(buffer);
+		checkpoint.triangleCounters = ColouredGraphBinaryFormat.readInts(buffer);
+
+		int numberOfScores = buffer.getInt();
+		checkpoint.errScores = new DoubleArrayList(numberOfScores);
+		for (int i = 0; i < numberOfScores; ++i) {
+			checkpoint.errScores.add(buffer.getDouble());
+		}
+		int numberOfAcceptances = buffer.getInt();
+		checkpoint.acceptedProposals = new LongArrayList(numberOfAcceptances);
+		checkpoint.acceptedTriples = new IntArrayList(3 * numberOfAcceptances);
+		for (int i = 0; i < numberOfAcceptances; ++i) {
+			checkpoint.acceptedProposals.add(buffer.getLong());
+			for (int j = 0; j < 3; ++j) {
+				checkpoint.acceptedTriples.add(buffer.getInt());
+			}
+		}
+		checkpoint.curve = ErrorScoreCurve.read(buffer);
+		checkpoint.log = EdgeModificationLog.read(buffer);
+		return checkpoint;
+	}
+
+	private static void writeMetricValues(ObjectDoubleOpenHashMap<String> metricValues, DataOutputStream out)
+			throws IOException {
+		out.writeInt(metricValues.size());
+		for (int i = 0; i < metricValues.allocated.length; ++i) {
+			if (metricValues.allocated[i]) {
+				ColouredGraphBinaryFormat.writeString((String) metricValues.keys[i], out);
+				out.writeDouble(metricValues.values[i]);
+			}
+		}
+	}
+
+	private static ObjectDoubleOpenHashMap<String> readMetricValues(ByteBuffer buffer) {
+		int numberOfMetrics = buffer.getInt();
+		ObjectDoubleOpenHashMap<String> metricValues = new ObjectDoubleOpenHashMap<String>(2 * numberOfMetrics);
+		for (int i = 0; i < numberOfMetrics; ++i) {
+			String name = ColouredGraphBinaryFormat.readString(buffer);
+			metricValues.put(name, buffer.getDouble());
+		}
+		return metricValues;
+	}
+
+	private static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] readBytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Serializes the given object, e.g., a random number generator or a
+	 * strategy, to keep its current state.
+	 */
+	public static byte[] serialize(Serializable object) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		} catch (IOException e) {
+			throw new IllegalStateException("Couldn't serialize " + object + ".", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> T deserialize(byte[] bytes) throws IOException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (T) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Couldn't deserialize the state of the optimization.", e);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.io.Serializable;
+import java.util.Random;
+
+import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
+
+/**
+ * Decides which of the evaluated edge modifications are applied to the mimic
+ * graph during the optimization. In every iteration, the optimization proposes
+ * edges for removing and adding, evaluates them and picks the best candidate
+ * that is {@link #isAllowed(TripleBaseSingleID, boolean, double, double)
+ * allowed}. The strategy decides whether the optimization moves to this
+ * candidate.
+ * 
+ * The state of a strategy is serialized together with the state of the
+ * optimization when a checkpoint is written.
+ */
+public interface OptimizationStrategy extends Serializable {
+
+	/**
+	 * Is called before the first iteration.
+	 * 
+	 * @param initialErrScore the error score of the initial mimic graph
+	 * @param maxIterations the maximum number of iterations of the optimization
+	 */
+	public void init(double initialErrScore, int maxIterations);
+
+	/**
+	 * Checks whether the given edge modification may be chosen in the current
+	 * iteration.
+	 * 
+	 * @param triple the proposed edge
+	 * @param isRemoval true if the edge would be removed, false if it would be added
+	 * @param candidateErrScore the error score after the modification
+	 * @param bestErrScore the lowest error score that has been reached so far
+	 * @return true if the candidate may be chosen
+	 */
+	public boolean isAllowed(TripleBaseSingleID triple, boolean isRemoval, double candidateErrScore,
+			double bestErrScore);
+
+	/**
+	 * Decides whether the optimization moves from the current graph to the best
+	 * allowed candidate.
+	 * 
+	 * @param currentErrScore the error score of the current graph
+	 * @param candidateErrScore the error score of the candidate
+	 * @param random the random number generator of the optimization
+	 * @return true if the candidate should be applied
+	 */
+	public boolean accept(double currentErrScore, double candidateErrScore, Random random);
+
+	/**
+	 * Is called after the given edge modification has been applied.
+	 */
+	public void moveApplied(TripleBaseSingleID triple, boolean isRemoval);
+
+	/**
+	 * Is called at the end of every iteration.
+	 */
+	public void nextIteration();
+
+	/**
+	 * Is called after the optimization has been reset to the best graph found
+	 * so far.
+	 */
+	public void restart();
+
+	public String getName();
+}
@@ -0,0 +1,120 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.util.Random;
+
+/**
+ * Simulated annealing. A candidate which does not increase the error score is
+ * always applied while a worse candidate is applied with the probability
+ * exp(-(candidate - current) / T). The temperature T decreases with every
+ * iteration according to the {@link CoolingSchedule} and is reset to its
+ * initial value when the optimization restarts.
+ */
+public class SimulatedAnnealingStrategy extends AbstractOptimizationStrategy {
+
+	private static final long serialVersionUID = 1L;
+
+	public static enum CoolingSchedule {
+		/**
+		 * T_k = T_0 * alpha^k
+		 */
+		GEOMETRIC,
+		/**
+		 * T_k = T_0 * (1 - k / maxIterations)
+		 */
+		LINEAR,
+		/**
+		 * T_k = T_0 / (1 + ln(1 + k))
+		 */
+		LOGARITHMIC;
+
+		public double getTemperature(double initialTemperature, double coolingRate, int iteration,
+				int maxIterations) {
+			switch (this) {
+			case GEOMETRIC:
+				return initialTemperature * Math.pow(coolingRate, iteration);
+			case LINEAR:
+				return initialTemperature * Math.max(0, 1 - (iteration / (double) maxIterations));
+			case LOGARITHMIC:
+				return initialTemperature / (1 + Math.log(1 + iteration));
+			default:
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * The default initial temperature relative to the initial error score.
+	 */
+	public static final double DEFAULT_RELATIVE_TEMPERATURE = 0.01;
+	public static final double DEFAULT_COOLING_RATE = 0.999;
+
+	private CoolingSchedule mSchedule;
+	private double mCoolingRate;
+	private double mInitialTemperature;
+	private double mTemperature;
+	private int mMaxIterations;
+	/**
+	 * iterations since the last (re)start
+	 */
+	private int mIteration;
+
+	public SimulatedAnnealingStrategy() {
+		this(CoolingSchedule.GEOMETRIC, DEFAULT_COOLING_RATE, 0);
+	}
+
+	/**
+	 * @param schedule the cooling schedule
+	 * @param coolingRate the factor alpha of the {@link CoolingSchedule#GEOMETRIC} schedule
+	 * @param initialTemperature the initial temperature. If it is not positive,
+	 *            {@link #DEFAULT_RELATIVE_TEMPERATURE} times the initial error
+	 *            score is used.
+	 */
+	public SimulatedAnnealingStrategy(CoolingSchedule schedule, double coolingRate, double initialTemperature) {
+		mSchedule = schedule;
+		mCoolingRate = coolingRate;
+		mInitialTemperature = initialTemperature;
+	}
+
+	@Override
+	public void init(double initialErrScore, int maxIterations) {
+		mMaxIterations = maxIterations;
+		if (mInitialTemperature <= 0) {
+			mInitialTemperature = isValid(initialErrScore) ? DEFAULT_RELATIVE_TEMPERATURE * Math.abs(initialErrScore)
+					: 0;
+		}
+		restart();
+	}
+
+	@Override
+	protected boolean acceptValidScore(double currentErrScore, double candidateErrScore, Random random) {
+		if (candidateErrScore <= currentErrScore) {
+			return true;
+		}
+		if (mTemperature <= 0) {
+			return false;
+		}
+		return random.nextDouble() < Math.exp((currentErrScore - candidateErrScore) / mTemperature);
+	}
+
+	@Override
+	public void nextIteration() {
+		++mIteration;
+		mTemperature = mSchedule.getTemperature(mInitialTemperature, mCoolingRate, mIteration, mMaxIterations);
+	}
+
+	@Override
+	public void restart() {
+		mIteration = 0;
+		mTemperature = mInitialTemperature;
+	}
+
+	public double getTemperature() {
+		return mTemperature;
+	}
+
+	@Override
+	public String getName() {
+		return "simulated annealing (" + mSchedule.name().toLowerCase() + ", T0=" + mInitialTemperature
+				+ (mSchedule == CoolingSchedule.GEOMETRIC ? ", alpha=" + mCoolingRate : "") + ")";
+	}
+}
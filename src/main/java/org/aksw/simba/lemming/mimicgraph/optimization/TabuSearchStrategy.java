@@ -0,0 +1,112 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Random;
+
+import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
+
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
+/**
+ * Tabu search. The optimization always moves to the best allowed candidate,
+ * even if it increases the error score. The vertex pairs of the last
+ * modifications are tabu, i.e., edges between them can neither be removed nor
+ * added, unless the modification would lead to a graph with a lower error
+ * score than the best graph found so far (aspiration). Since only the best of
+ * the proposed candidates is applied, this strategy works best together with
+ * several candidates per iteration.
+ */
+public class TabuSearchStrategy extends AbstractOptimizationStrategy {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final int DEFAULT_TENURE = 100;
+
+	/**
+	 * ring buffer of the vertex pairs of the last modifications
+	 */
+	private long mTabuPairs[];
+	private int mNextPosition = 0;
+	private int mSize = 0;
+	/**
+	 * number of occurrences of the vertex pairs in the ring buffer
+	 */
+	private transient LongIntOpenHashMap mTabuCounts = new LongIntOpenHashMap();
+
+	public TabuSearchStrategy() {
+		this(DEFAULT_TENURE);
+	}
+
+	/**
+	 * @param tenure the number of modifications a vertex pair stays tabu
+	 */
+	public TabuSearchStrategy(int tenure) {
+		mTabuPairs = new long[Math.max(1, tenure)];
+	}
+
+	@Override
+	public boolean isAllowed(TripleBaseSingleID triple, boolean isRemoval, double candidateErrScore,
+			double bestErrScore) {
+		if (!isTabu(triple)) {
+			return true;
+		}
+		return isValid(candidateErrScore) && (Double.isNaN(bestErrScore) || candidateErrScore < bestErrScore);
+	}
+
+	@Override
+	protected boolean acceptValidScore(double currentErrScore, double candidateErrScore, Random random) {
+		return true;
+	}
+
+	@Override
+	public void moveApplied(TripleBaseSingleID triple, boolean isRemoval) {
+		long pair = getPair(triple);
+		if (mSize == mTabuPairs.length) {
+			long oldPair = mTabuPairs[mNextPosition];
+			int count = mTabuCounts.get(oldPair) - 1;
+			if (count > 0) {
+				mTabuCounts.put(oldPair, count);
+			} else {
+				mTabuCounts.remove(oldPair);
+			}
+		} else {
+			++mSize;
+		}
+		mTabuPairs[mNextPosition] = pair;
+		mTabuCounts.putOrAdd(pair, 1, 1);
+		mNextPosition = (mNextPosition + 1) % mTabuPairs.length;
+	}
+
+	@Override
+	public void restart() {
+		mTabuCounts.clear();
+		mNextPosition = 0;
+		mSize = 0;
+	}
+
+	/**
+	 * The counts are not serialized since they can be derived from the ring
+	 * buffer.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		mTabuCounts = new LongIntOpenHashMap();
+		for (int i = 0; i < mSize; ++i) {
+			mTabuCounts.putOrAdd(mTabuPairs[i], 1, 1);
+		}
+	}
+
+	public boolean isTabu(TripleBaseSingleID triple) {
+		return mTabuCounts.containsKey(getPair(triple));
+	}
+
+	private static long getPair(TripleBaseSingleID triple) {
+		return (((long) triple.tailId) << 32) | (triple.headId & 0xFFFFFFFFL);
+	}
+
+	@Override
+	public String getName() {
+		return "tabu search (tenure=" + mTabuPairs.length + ")";
+	}
+}
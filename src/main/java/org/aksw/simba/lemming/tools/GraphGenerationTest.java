@@ -3,7 +3,9 @@ package org.aksw.simba.lemming.tools;
 import grph.Grph.DIRECTION;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -33,8 +35,15 @@ import org.aksw.simba.lemming.mimicgraph.generator.GraphGenerationSimpleApproach
 import org.aksw.simba.lemming.mimicgraph.generator.GraphGenerationSimpleApproach2;
 import org.aksw.simba.lemming.mimicgraph.generator.GraphLexicalization;
 import org.aksw.simba.lemming.mimicgraph.generator.GraphOptimization;
+import org.aksw.simba.lemming.mimicgraph.generator.MultiChainOptimization;
 import org.aksw.simba.lemming.mimicgraph.generator.IGraphGeneration;
 import org.aksw.simba.lemming.mimicgraph.metricstorage.ConstantValueStorage;
+import org.aksw.simba.lemming.mimicgraph.optimization.GreedyStrategy;
+import org.aksw.simba.lemming.mimicgraph.optimization.OptimizationCheckpoint;
+import org.aksw.simba.lemming.mimicgraph.optimization.OptimizationStrategy;
+import org.aksw.simba.lemming.mimicgraph.optimization.SimulatedAnnealingStrategy;
+import org.aksw.simba.lemming.mimicgraph.optimization.SimulatedAnnealingStrategy.CoolingSchedule;
+import org.aksw.simba.lemming.mimicgraph.optimization.TabuSearchStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,6 +90,20 @@ public class GraphGenerationTest {
 		 * 
 		 * -r: random optimization 
 		 * -op: (optional) number of optimization steps 
+		 * -c:  (optional) number of candidates for removing and adding 
+		 * 		edges that are evaluated in parallel per optimization step
+		 * -opt: (optional) optimization strategy
+		 * 		value: greedy (default), sa (simulated annealing), tabu (tabu search)
+		 * -cool: (optional) cooling schedule of the simulated annealing
+		 * 		value: geometric (default), linear, logarithmic
+		 * -restarts: (optional) number of restarts from the best graph found so far
+		 * -checkpoint: (optional) folder the optimization writes checkpoints to
+		 * -resume: (optional) folder with a checkpoint the optimization continues from,
+		 * this skips the mimic graph generation and loads the initial mimic graph of the checkpoint
+		 * -chains: (optional) number of optimization chains running in parallel on copies 
+		 * of the mimic graph, the best graph of all chains is kept
+		 * -migrate: (optional) number of iterations between two migrations of the best 
+		 * graph to the worse chains (0 = independent chains)
 		 * -s:  (optional) seed
 		 * -l:  (optional) path to the mimic graph to be loaded,
 		 * this skips the mimic graph generation process and loads it directly from file
@@ -200,8 +223,19 @@ public class GraphGenerationTest {
         double startTime = System.currentTimeMillis();
 		String loadMimicGraph = mapArgs.get("-l");
 		boolean isLoaded = false;
+		String resumeFolder = mapArgs.get("-resume");
+		if (resumeFolder != null) {
+			LOGGER.info("Loading the initial mimic graph of the checkpoint in " + resumeFolder + ".");
+			try {
+				mGrphGenerator.setMimicGraph(OptimizationCheckpoint.readInitialGraph(new File(resumeFolder)));
+				isLoaded = true;
+			} catch (IOException e) {
+				LOGGER.error("Couldn't read the initial mimic graph of the checkpoint. The optimization starts from scratch.", e);
+				resumeFolder = null;
+			}
+		}
 		//if the file path exists, it will read from it otherwise, it will write on it
-		if (loadMimicGraph != null) {
+		if (!isLoaded && loadMimicGraph != null) {
 			LOGGER.info("Loading previously determined Mimic Graph from file.");
 			ColouredGraph colouredGraph = mDatasetManager.readIntResults(loadMimicGraph);
 			if (colouredGraph != null) {
@@ -230,21 +264,51 @@ public class GraphGenerationTest {
         Optimization with constant expressions
         ----------------------------------------------------*/
 		long secSeed = mGrphGenerator.getSeed()+1;
-        GraphOptimization grphOptimizer = new GraphOptimization(graphs, mGrphGenerator, metrics, valuesCarrier, secSeed);
-        LOGGER.info("Optimizing the mimic graph ...");
-        // TODO check if it is necessary to randomly refine graph 
-        grphOptimizer.setRefineGraphRandomly(false);
-        //number of optimizations
-        String strNoOfOptimizations = mapArgs.get("-op");
-        if(strNoOfOptimizations!= null){
+        //number of optimization chains
+        int iNumberOfChains = 1;
+        String strNoOfChains = mapArgs.get("-chains");
+        if(strNoOfChains!= null){
         	try{
-        		int iNumberOfOptimizationSteps = Integer.parseInt(strNoOfOptimizations);
-        		grphOptimizer.setNumberOfOptimizations(iNumberOfOptimizationSteps);
+        		iNumberOfChains = Integer.parseInt(strNoOfChains);
         	}catch(Exception e){}
         }
         
-        //optimize graph
-        grphOptimizer.refineGraph();
+        GraphOptimization grphOptimizer;
+        if(iNumberOfChains > 1){
+        	LOGGER.info("Optimizing the mimic graph with " + iNumberOfChains + " chains ...");
+        	if(resumeFolder != null || mapArgs.containsKey("-checkpoint")){
+        		LOGGER.warn("Checkpoints are not supported by the optimization with several chains and are ignored.");
+        	}
+        	MultiChainOptimization multiChainOptimizer = new MultiChainOptimization(graphs, mGrphGenerator, metrics, 
+        			valuesCarrier, secSeed, iNumberOfChains);
+        	for(GraphOptimization chain : multiChainOptimizer.getChains()){
+        		configureOptimization(chain, mapArgs, iNumberOfThreads);
+        	}
+        	String strMigrationInterval = mapArgs.get("-migrate");
+        	if(strMigrationInterval!= null){
+        		try{
+        			multiChainOptimizer.setMigrationInterval(Integer.parseInt(strMigrationInterval));
+        		}catch(Exception e){}
+        	}
+        	//optimize graph
+        	multiChainOptimizer.refineGraph();
+        	grphOptimizer = multiChainOptimizer.getBestChain();
+        }else{
+        	grphOptimizer = new GraphOptimization(graphs, mGrphGenerator, metrics, valuesCarrier, secSeed);
+        	LOGGER.info("Optimizing the mimic graph ...");
+        	configureOptimization(grphOptimizer, mapArgs, iNumberOfThreads);
+        	
+        	//checkpoints of the optimization
+        	if(resumeFolder != null){
+        		grphOptimizer.setCheckpointing(resumeFolder, GraphOptimization.DEFAULT_CHECKPOINT_INTERVAL);
+        		grphOptimizer.resume(resumeFolder);
+        	}else if(mapArgs.containsKey("-checkpoint")){
+        		grphOptimizer.setCheckpointing(mapArgs.get("-checkpoint"), GraphOptimization.DEFAULT_CHECKPOINT_INTERVAL);
+        	}
+        	
+        	//optimize graph
+        	grphOptimizer.refineGraph();
+        }
         
         /*---------------------------------------------------
         Lexicalization with word2vec
@@ -259,6 +323,67 @@ public class GraphGenerationTest {
         LOGGER.info("Application exits!!!");
 	}
 	
+	/**
+	 * Applies the optimization settings of the given arguments to the given
+	 * optimization.
+	 */
+	private static void configureOptimization(GraphOptimization grphOptimizer, Map<String, String> mapArgs, int iNumberOfThreads){
+        // TODO check if it is necessary to randomly refine graph 
+        grphOptimizer.setRefineGraphRandomly(false);
+        //number of optimizations
+        String strNoOfOptimizations = mapArgs.get("-op");
+        if(strNoOfOptimizations!= null){
+        	try{
+        		int iNumberOfOptimizationSteps = Integer.parseInt(strNoOfOptimizations);
+        		grphOptimizer.setNumberOfOptimizations(iNumberOfOptimizationSteps);
+        	}catch(Exception e){}
+        }
+        //number of candidates evaluated in parallel
+        String strNoOfCandidates = mapArgs.get("-c");
+        if(strNoOfCandidates!= null){
+        	try{
+        		int iNumberOfCandidates = Integer.parseInt(strNoOfCandidates);
+        		grphOptimizer.setNumberOfCandidates(iNumberOfCandidates, 
+        				iNumberOfThreads > 0 ? iNumberOfThreads : Runtime.getRuntime().availableProcessors());
+        	}catch(Exception e){}
+        }
+        
+        //optimization strategy and restarts
+        grphOptimizer.setOptimizationStrategy(createOptimizationStrategy(mapArgs.get("-opt"), mapArgs.get("-cool")));
+        String strNoOfRestarts = mapArgs.get("-restarts");
+        if(strNoOfRestarts!= null){
+        	try{
+        		grphOptimizer.setMaxRestarts(Integer.parseInt(strNoOfRestarts));
+        	}catch(Exception e){}
+        }
+	}
+	
+	/**
+	 * @param strategy the name of the strategy (greedy, sa or tabu)
+	 * @param coolingSchedule the cooling schedule of the simulated annealing
+	 * @return the optimization strategy or a greedy strategy if the name is unknown
+	 */
+	private static OptimizationStrategy createOptimizationStrategy(String strategy, String coolingSchedule){
+		if("sa".equalsIgnoreCase(strategy)){
+			CoolingSchedule schedule = CoolingSchedule.GEOMETRIC;
+			if(coolingSchedule != null){
+				try{
+					schedule = CoolingSchedule.valueOf(coolingSchedule.toUpperCase());
+				}catch(IllegalArgumentException e){
+					LOGGER.warn("Unknown cooling schedule \"" + coolingSchedule + "\". Using " + schedule + ".");
+				}
+			}
+			return new SimulatedAnnealingStrategy(schedule, SimulatedAnnealingStrategy.DEFAULT_COOLING_RATE, 0);
+		}
+		if("tabu".equalsIgnoreCase(strategy)){
+			return new TabuSearchStrategy();
+		}
+		if(strategy != null && !"greedy".equalsIgnoreCase(strategy)){
+			LOGGER.warn("Unknown optimization strategy \"" + strategy + "\". Using greedy.");
+		}
+		return new GreedyStrategy();
+	}
+	
 	/**
 	 * 
 	 * @param args list of input arguments
@@ -281,6 +406,14 @@ public class GraphGenerationTest {
 		 * 			by default, the application runs with a single thread
 		 * 
 		 * -op: (optional) number of optimization steps 
+		 * -c: (optional) number of candidates evaluated per optimization step
+		 * -opt: (optional) optimization strategy: greedy, sa or tabu
+		 * -cool: (optional) cooling schedule: geometric, linear or logarithmic
+		 * -restarts: (optional) number of restarts of the optimization
+		 * -checkpoint: (optional) folder for checkpoints of the optimization
+		 * -resume: (optional) folder with the checkpoint to resume from
+		 * -chains: (optional) number of optimization chains
+		 * -migrate: (optional) number of iterations between two migrations
 		 */
 		Map<String, String> mapArgs = new HashMap<String, String>();
 		
@@ -310,6 +443,30 @@ public class GraphGenerationTest {
 					else if(param.equalsIgnoreCase("-op")){
 						mapArgs.put("-op", value);
 					}
+					else if(param.equalsIgnoreCase("-c")){
+						mapArgs.put("-c", value);
+					}
+					else if(param.equalsIgnoreCase("-opt")){
+						mapArgs.put("-opt", value);
+					}
+					else if(param.equalsIgnoreCase("-cool")){
+						mapArgs.put("-cool", value);
+					}
+					else if(param.equalsIgnoreCase("-restarts")){
+						mapArgs.put("-restarts", value);
+					}
+					else if(param.equalsIgnoreCase("-checkpoint")){
+						mapArgs.put("-checkpoint", value);
+					}
+					else if(param.equalsIgnoreCase("-resume")){
+						mapArgs.put("-resume", value);
+					}
+					else if(param.equalsIgnoreCase("-chains")){
+						mapArgs.put("-chains", value);
+					}
+					else if(param.equalsIgnoreCase("-migrate")){
+						mapArgs.put("-migrate", value);
+					}
 					else if (param.equalsIgnoreCase("-l")) {
 						mapArgs.put("-l", value);
 					}
@@ -27,14 +27,14 @@ import org.aksw.simba.lemming.creation.LinkedGeoDataset;
 import org.aksw.simba.lemming.creation.PersonGraphDataset;
 import org.aksw.simba.lemming.creation.SemanticWebDogFoodDataset;
 import org.aksw.simba.lemming.metrics.MetricUtils;
+import org.aksw.simba.lemming.metrics.single.AvgUndirectedClusteringCoefficientMetric;
 import org.aksw.simba.lemming.metrics.single.AvgVertexDegreeMetric;
 import org.aksw.simba.lemming.metrics.single.MaxVertexDegreeMetric;
 import org.aksw.simba.lemming.metrics.single.NumberOfEdgesMetric;
 import org.aksw.simba.lemming.metrics.single.NumberOfVerticesMetric;
 import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
 import org.aksw.simba.lemming.metrics.single.StdDevVertexDegree;
-import org.aksw.simba.lemming.metrics.single.edgetriangles.EdgeTriangleMetric;
-import org.aksw.simba.lemming.metrics.single.nodetriangles.NodeTriangleMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.BudgetedTriangleMetric;
 import org.aksw.simba.lemming.mimicgraph.metricstorage.ConstantValueStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +47,7 @@ public class PrecomputingValues {
 
     private static final double MIN_FITNESS = 100000.0;
     private static final int MAX_ITERATIONS = 50;
+    private static final long TRIANGLE_ESTIMATION_SEED = 42;
     private static boolean USE_SEMANTIC_DOG_FOOD = false;
     private static boolean USE_PERSON_GRAPH = true;
     private static boolean USE_LINKED_GEO = false;
@@ -90,8 +91,11 @@ public class PrecomputingValues {
         }
 
         List<SingleValueMetric> metrics = new ArrayList<>();
-        metrics.add(new NodeTriangleMetric());
-        metrics.add(new EdgeTriangleMetric());
+        // triangles are estimated if counting them exactly would exceed the time budget
+        long triangleTimeBudget = args.length > 1 ? Long.parseLong(args[1])
+                : Long.getLong(BudgetedTriangleMetric.TIME_BUDGET_PROPERTY, BudgetedTriangleMetric.DEFAULT_TIME_BUDGET);
+        metrics.add(new BudgetedTriangleMetric(false, triangleTimeBudget, TRIANGLE_ESTIMATION_SEED));
+        metrics.add(new BudgetedTriangleMetric(true, triangleTimeBudget, TRIANGLE_ESTIMATION_SEED));
         metrics.add(new AvgVertexDegreeMetric());
         metrics.add(new StdDevVertexDegree(DIRECTION.in));
         metrics.add(new StdDevVertexDegree(DIRECTION.out));
@@ -201,7 +205,8 @@ public class PrecomputingValues {
         for (SingleValueMetric metric : metrics) {
             if (metric.getName().equalsIgnoreCase("#edgetriangles")
                     || metric.getName().equalsIgnoreCase("#nodetriangles")
-                    || metric.getName().equalsIgnoreCase("avgClusterCoefficient")) {
+                    || metric.getName().equalsIgnoreCase("avgClusterCoefficient")
+                    || metric.getName().equalsIgnoreCase(AvgUndirectedClusteringCoefficientMetric.NAME)) {
                 costlyMetrics.add(metric);
                 LOGGER.info("Costly metric: " + metric.getName());
             } else {
@@ -228,7 +233,8 @@ public class PrecomputingValues {
             for (SingleValueMetric metric : costlyMetrics) {
                 if (metric.getName().equalsIgnoreCase("#edgetriangles")
                         || metric.getName().equalsIgnoreCase("#nodetriangles")
-                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")) {
+                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")
+                        || metric.getName().equalsIgnoreCase(AvgUndirectedClusteringCoefficientMetric.NAME)) {
                     starGraphMetrics.putOrAdd(metric.getName(), 0, 0);
                 } else {
                     double val = metric.apply(startColouredGraph);
@@ -249,7 +255,8 @@ public class PrecomputingValues {
             for (SingleValueMetric metric : costlyMetrics) {
                 if (metric.getName().equalsIgnoreCase("#edgetriangles")
                         || metric.getName().equalsIgnoreCase("#nodetriangles")
-                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")) {
+                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")
+                        || metric.getName().equalsIgnoreCase(AvgUndirectedClusteringCoefficientMetric.NAME)) {
                     gridGraphMetrics.putOrAdd(metric.getName(), 0, 0);
                 } else {
                     double val = metric.apply(gridColouredGraph);
@@ -269,7 +276,8 @@ public class PrecomputingValues {
             for (SingleValueMetric metric : costlyMetrics) {
                 if (metric.getName().equalsIgnoreCase("#edgetriangles")
                         || metric.getName().equalsIgnoreCase("#nodetriangles")
-                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")) {
+                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")
+                        || metric.getName().equalsIgnoreCase(AvgUndirectedClusteringCoefficientMetric.NAME)) {
                     if (numberOfNodes == 3) {
                         ringGraphMetrics.putOrAdd(metric.getName(), 1, 1);
                     } else {
@@ -293,7 +301,8 @@ public class PrecomputingValues {
             for (SingleValueMetric metric : costlyMetrics) {
                 if (metric.getName().equalsIgnoreCase("#edgetriangles")
                         || metric.getName().equalsIgnoreCase("#nodetriangles")
-                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")) {
+                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")
+                        || metric.getName().equalsIgnoreCase(AvgUndirectedClusteringCoefficientMetric.NAME)) {
 
                     if (partSize < 3) {
                         cliqueGraphMetrics.putOrAdd(metric.getName(), 0, 0);
@@ -323,7 +332,8 @@ public class PrecomputingValues {
             for (SingleValueMetric metric : costlyMetrics) {
                 if (metric.getName().equalsIgnoreCase("#edgetriangles")
                         || metric.getName().equalsIgnoreCase("#nodetriangles")
-                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")) {
+                        || metric.getName().equalsIgnoreCase("avgClusterCoefficient")
+                        || metric.getName().equalsIgnoreCase(AvgUndirectedClusteringCoefficientMetric.NAME)) {
                     bipartiteGraphMetrics.putOrAdd(metric.getName(), 0, 0);
                 } else {
                     double val = metric.apply(gridColouredGraph);
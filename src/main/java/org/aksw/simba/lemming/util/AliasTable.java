@@ -0,0 +1,92 @@
+package org.aksw.simba.lemming.util;
+
+import java.util.Random;
+
+/**
+ * Draws indexes 0..n-1 with probabilities proportional to the given weights in
+ * constant time using Vose's alias method. Creating the table takes linear
+ * time.
+ *
+ * Instances are immutable and can be shared by several threads as long as
+ * every thread uses its own {@link Random}.
+ */
+public class AliasTable {
+
+    /**
+     * probabilities[i] is the probability to keep the index i if the i-th
+     * column has been drawn. Otherwise, aliases[i] is returned.
+     */
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * @param weights
+     *            non-negative weights. If all weights are 0, the indexes are
+     *            drawn uniformly.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("The alias table needs at least one weight.");
+        }
+        probabilities = new double[n];
+        aliases = new int[n];
+        double sum = 0;
+        for (int i = 0; i < n; ++i) {
+            if (weights[i] < 0 || Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("Invalid weight " + weights[i] + " at index " + i + ".");
+            }
+            sum += weights[i];
+        }
+        // scale the weights to an average of 1 and sort them into the columns which are too small or too large
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; ++i) {
+            scaled[i] = sum > 0 ? (weights[i] * n) / sum : 1;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        // fill every small column with the surplus of a large column
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probabilities[s] = scaled[s];
+            aliases[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1;
+            if (scaled[l] < 1) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // the remaining columns are full (apart from rounding errors)
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            probabilities[l] = 1;
+            aliases[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            probabilities[s] = 1;
+            aliases[s] = s;
+        }
+    }
+
+    public int size() {
+        return probabilities.length;
+    }
+
+    /**
+     * @return an index drawn with a probability proportional to its weight
+     */
+    public int sample(Random random) {
+        int column = random.nextInt(probabilities.length);
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+}
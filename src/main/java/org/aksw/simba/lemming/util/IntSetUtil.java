@@ -1,5 +1,7 @@
 package org.aksw.simba.lemming.util;
 
+import java.util.Arrays;
+
 import org.apache.jena.ext.com.google.common.collect.Sets;
 import org.apache.jena.ext.com.google.common.collect.Sets.SetView;
 
@@ -8,6 +10,13 @@ import it.unimi.dsi.fastutil.ints.IntSet;
 
 public class IntSetUtil {
 	
+	/**
+	 * If one of two sorted arrays is this many times larger than the other one,
+	 * their intersection is determined with a galloping search instead of
+	 * merging them.
+	 */
+	private static final int GALLOPING_RATIO = 32;
+	
 	public static IntSet intersection(IntSet a, IntSet b) {
 		SetView<Integer> set = Sets.intersection(a, b);
 		IntSet resultSet = new DefaultIntSet(set.size());
@@ -28,4 +37,179 @@ public class IntSetUtil {
 		resultSet.addAll(set);
 		return resultSet; 
 	}
+	
+	/**
+	 * Returns the elements of the given set as sorted array.
+	 */
+	public static int[] toSortedArray(IntSet set) {
+		int[] array = set.toIntArray();
+		Arrays.sort(array);
+		return array;
+	}
+	
+	/**
+	 * Counts the elements two sorted arrays without duplicates have in common
+	 * without creating their intersection.
+	 */
+	public static int intersectionSize(int[] a, int[] b) {
+		return intersectionSize(a, 0, a.length, b, 0, b.length);
+	}
+	
+	/**
+	 * Counts the elements two sorted ranges of arrays without duplicates have in
+	 * common without creating their intersection. If one of the ranges is much
+	 * larger than the other one, a galloping search is used. Otherwise, the
+	 * ranges are merged.
+	 * 
+	 * @param a the first array
+	 * @param aFrom the first position of the range in a (inclusive)
+	 * @param aTo the last position of the range in a (exclusive)
+	 * @param b the second array
+	 * @param bFrom the first position of the range in b (inclusive)
+	 * @param bTo the last position of the range in b (exclusive)
+	 * @return the number of elements both ranges contain
+	 */
+	public static int intersectionSize(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+		int aSize = aTo - aFrom;
+		int bSize = bTo - bFrom;
+		if ((aSize == 0) || (bSize == 0)) {
+			return 0;
+		}
+		if (aSize > GALLOPING_RATIO * bSize) {
+			return gallopingIntersectionSize(b, bFrom, bTo, a, aFrom, aTo);
+		}
+		if (bSize > GALLOPING_RATIO * aSize) {
+			return gallopingIntersectionSize(a, aFrom, aTo, b, bFrom, bTo);
+		}
+		return mergeIntersectionSize(a, aFrom, aTo, b, bFrom, bTo);
+	}
+	
+	/**
+	 * Counts the common elements of two sorted ranges by merging them.
+	 */
+	public static int mergeIntersectionSize(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+		int count = 0;
+		int i = aFrom;
+		int j = bFrom;
+		while ((i < aTo) && (j < bTo)) {
+			if (a[i] < b[j]) {
+				++i;
+			} else if (a[i] > b[j]) {
+				++j;
+			} else {
+				++count;
+				++i;
+				++j;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Counts the common elements of a small and a large sorted range by searching
+	 * every element of the small range in the large range. The search starts at
+	 * the position of the last found element and doubles its step size until the
+	 * element is overtaken before a binary search is used.
+	 */
+	public static int gallopingIntersectionSize(int[] small, int smallFrom, int smallTo, int[] large, int largeFrom,
+			int largeTo) {
+		int count = 0;
+		int position = largeFrom;
+		for (int i = smallFrom; (i < smallTo) && (position < largeTo); ++i) {
+			position = gallop(large, position, largeTo, small[i]);
+			if ((position < largeTo) && (large[position] == small[i])) {
+				++count;
+				++position;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * @return the position of the first element in the given sorted range that
+	 *         is larger or equal to the given value
+	 */
+	private static int gallop(int[] array, int from, int to, int value) {
+		int step = 1;
+		int low = from;
+		int high = from;
+		while ((high < to) && (array[high] < value)) {
+			low = high + 1;
+			high += step;
+			step <<= 1;
+		}
+		if (high > to) {
+			high = to;
+		}
+		// binary search in [low, high)
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (array[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Counts the distinct elements two sorted arrays have in common. In contrast
+	 * to {@link #intersectionSize(int[], int[])}, the arrays may contain
+	 * duplicates, e.g., the same neighbour once for every edge connecting it.
+	 */
+	public static int distinctIntersectionSize(int[] a, int[] b) {
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < a.length) && (j < b.length)) {
+			if (a[i] < b[j]) {
+				++i;
+			} else if (a[i] > b[j]) {
+				++j;
+			} else {
+				int element = a[i];
+				++count;
+				while ((i < a.length) && (a[i] == element)) {
+					++i;
+				}
+				while ((j < b.length) && (b[j] == element)) {
+					++j;
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Sums up the products of the multiplicities of all elements two sorted
+	 * arrays with duplicates have in common, i.e., if an element occurs twice
+	 * in a and three times in b, it adds 6 to the sum.
+	 */
+	public static long multiplicityProductSum(int[] a, int[] b) {
+		long sum = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < a.length) && (j < b.length)) {
+			if (a[i] < b[j]) {
+				++i;
+			} else if (a[i] > b[j]) {
+				++j;
+			} else {
+				int element = a[i];
+				int aCount = 0;
+				int bCount = 0;
+				while ((i < a.length) && (a[i] == element)) {
+					++i;
+					++aCount;
+				}
+				while ((j < b.length) && (b[j] == element)) {
+					++j;
+					++bCount;
+				}
+				sum += aCount * (long) bCount;
+			}
+		}
+		return sum;
+	}
 }
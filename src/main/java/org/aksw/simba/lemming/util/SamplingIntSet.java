@@ -0,0 +1,108 @@
+package org.aksw.simba.lemming.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A set of non-negative integers which supports adding, removing and drawing a
+ * random element in constant time. The elements are kept in a dense array and
+ * a removed element is replaced by the last element of this array. Note that
+ * the memory needed for the position lookup grows with the largest element.
+ *
+ * NOTE: this class is not thread safe.
+ */
+public class SamplingIntSet {
+
+    private int[] elements;
+    /**
+     * positions[e] is the position of the element e in {@link #elements} + 1,
+     * i.e., 0 means that e is not part of the set.
+     */
+    private int[] positions;
+    private int size = 0;
+
+    public SamplingIntSet() {
+        this(16);
+    }
+
+    public SamplingIntSet(int expectedSize) {
+        elements = new int[Math.max(expectedSize, 1)];
+        positions = new int[Math.max(expectedSize, 1)];
+    }
+
+    /**
+     * @return true if the element has not been part of the set before
+     */
+    public boolean add(int element) {
+        if (contains(element)) {
+            return false;
+        }
+        if (element >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(element + 1, positions.length << 1));
+        }
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length << 1);
+        }
+        elements[size] = element;
+        ++size;
+        positions[element] = size;
+        return true;
+    }
+
+    /**
+     * @return true if the element has been part of the set
+     */
+    public boolean remove(int element) {
+        if (!contains(element)) {
+            return false;
+        }
+        int position = positions[element] - 1;
+        --size;
+        // move the last element into the gap
+        int last = elements[size];
+        elements[position] = last;
+        positions[last] = position + 1;
+        positions[element] = 0;
+        return true;
+    }
+
+    public boolean contains(int element) {
+        return (element >= 0) && (element < positions.length) && (positions[element] > 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the element at the given position of the dense array
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " >= size " + size);
+        }
+        return elements[index];
+    }
+
+    /**
+     * Draws a uniformly distributed element of the set.
+     *
+     * @param random
+     *            the random number generator used for the selection
+     * @return a random element or -1 if the set is empty
+     */
+    public int sample(Random random) {
+        if (size == 0) {
+            return -1;
+        }
+        return elements[random.nextInt(size)];
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
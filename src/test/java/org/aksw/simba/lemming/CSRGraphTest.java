@@ -0,0 +1,69 @@
+package org.aksw.simba.lemming;
+
+import java.util.Arrays;
+
+import org.aksw.simba.lemming.colour.ColourRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.BitSet;
+
+public class CSRGraphTest {
+
+    @Test
+    public void test() {
+        ColouredGraph graph = new ColouredGraph();
+        BitSet red = new BitSet();
+        red.set(0);
+        BitSet blue = new BitSet();
+        blue.set(1);
+        for (int i = 0; i < 4; ++i) {
+            graph.addVertex(i % 2 == 0 ? red : blue);
+        }
+        int e0 = graph.addEdge(0, 1, red);
+        int e1 = graph.addEdge(1, 0, blue);
+        int e2 = graph.addEdge(2, 0, red);
+        int e3 = graph.addEdge(1, 2, red);
+        int e4 = graph.addEdge(3, 3, blue);
+
+        CSRGraph csrGraph = graph.getCSRGraph();
+        Assert.assertSame(csrGraph, graph.getCSRGraph());
+        Assert.assertEquals(4, csrGraph.getNumberOfVertices());
+        Assert.assertEquals(5, csrGraph.getNumberOfEdges());
+
+        Assert.assertEquals(2, csrGraph.getNumberOfEdgesBetween(0, 1));
+        Assert.assertEquals(2, csrGraph.getNumberOfEdgesBetween(1, 0));
+        Assert.assertEquals(1, csrGraph.getNumberOfEdgesBetween(0, 2));
+        Assert.assertEquals(0, csrGraph.getNumberOfEdgesBetween(0, 3));
+        Assert.assertTrue(csrGraph.isConnected(2, 1));
+        Assert.assertFalse(csrGraph.isConnected(3, 1));
+
+        // the undirected row of vertex 0 is sorted by neighbour and edge ID
+        int[] offsets = csrGraph.getOffsets();
+        Assert.assertEquals(3, csrGraph.getDegree(0));
+        Assert.assertArrayEquals(new int[] { 1, 1, 2 },
+                Arrays.copyOfRange(csrGraph.getNeighbours(), offsets[0], offsets[1]));
+        Assert.assertArrayEquals(new int[] { e0, e1, e2 },
+                Arrays.copyOfRange(csrGraph.getEdges(), offsets[0], offsets[1]));
+        // a loop is listed once
+        Assert.assertEquals(1, csrGraph.getDegree(3));
+        Assert.assertEquals(1, csrGraph.getOutDegree(3));
+        Assert.assertEquals(1, csrGraph.getInDegree(3));
+
+        Assert.assertEquals(2, csrGraph.getOutDegree(1));
+        Assert.assertEquals(1, csrGraph.getInDegree(1));
+        Assert.assertEquals(1, csrGraph.getTail(e3));
+        Assert.assertEquals(2, csrGraph.getHead(e3));
+
+        Assert.assertEquals(red, ColourRegistry.getInstance().getColour(csrGraph.getEdgeColourId(e2)));
+        Assert.assertEquals(blue, ColourRegistry.getInstance().getColour(csrGraph.getEdgeColourId(e4)));
+        Assert.assertEquals(csrGraph.getVertexColourId(0), csrGraph.getVertexColourId(2));
+
+        // a modification discards the snapshot
+        graph.removeEdge(e1);
+        CSRGraph newCsrGraph = graph.getCSRGraph();
+        Assert.assertNotSame(csrGraph, newCsrGraph);
+        Assert.assertEquals(1, newCsrGraph.getNumberOfEdgesBetween(0, 1));
+        Assert.assertFalse(newCsrGraph.isEdge(e1));
+    }
+}
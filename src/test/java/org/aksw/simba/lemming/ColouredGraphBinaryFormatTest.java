@@ -0,0 +1,73 @@
+package org.aksw.simba.lemming;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.aksw.simba.lemming.util.IOHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.BitSet;
+
+public class ColouredGraphBinaryFormatTest {
+
+    @Test
+    public void test() throws IOException {
+        ColouredGraph graph = IOHelper.readGraphFromResource(this.getClass().getClassLoader(), "graph1.n3", "N3");
+        BitSet literalColour = new BitSet();
+        literalColour.set(0);
+        graph.addLiterals("\"Entity 1\"", 0, literalColour, "http://www.w3.org/2001/XMLSchema#string");
+        ColouredGraph clone = graph.clone();
+        // the clone has a gap in its edge IDs
+        clone.removeEdge(1);
+
+        File file = File.createTempFile("graphs", ".graphs");
+        file.deleteOnExit();
+        ColouredGraphBinaryFormat.write(new ColouredGraph[] { graph, clone }, file);
+        Assert.assertTrue(ColouredGraphBinaryFormat.isBinaryGraphFile(file));
+
+        ColouredGraph[] graphs = ColouredGraphBinaryFormat.read(file);
+        Assert.assertEquals(2, graphs.length);
+        compare(graph, graphs[0]);
+        compare(clone, graphs[1]);
+        // the palettes are still shared
+        Assert.assertSame(graphs[0].getVertexPalette(), graphs[1].getVertexPalette());
+        Assert.assertSame(graphs[0].getEdgePalette(), graphs[1].getEdgePalette());
+        Assert.assertEquals(graph.getVertexPalette().getMapOfURIAndColour(),
+                graphs[0].getVertexPalette().getMapOfURIAndColour());
+        Assert.assertEquals(graph.getMapDTEdgeColoursToLiterals(0), graphs[0].getMapDTEdgeColoursToLiterals(0));
+        Assert.assertEquals(graph.getLiteralType(literalColour), graphs[0].getLiteralType(literalColour));
+
+        // files larger than 2 GB are streamed, a small buffer splits the values at its boundaries
+        for (int bufferSize : new int[] { 8, 13, 64 }) {
+            ColouredGraph[] streamed = ColouredGraphBinaryFormat.readStreamed(file, bufferSize);
+            Assert.assertEquals(2, streamed.length);
+            compare(graph, streamed[0]);
+            compare(clone, streamed[1]);
+            Assert.assertSame(streamed[0].getVertexPalette(), streamed[1].getVertexPalette());
+            Assert.assertEquals(graph.getVertexPalette().getMapOfURIAndColour(),
+                    streamed[0].getVertexPalette().getMapOfURIAndColour());
+            Assert.assertEquals(graph.getMapDTEdgeColoursToLiterals(0), streamed[0].getMapDTEdgeColoursToLiterals(0));
+            Assert.assertEquals(graph.getLiteralType(literalColour), streamed[0].getLiteralType(literalColour));
+        }
+    }
+
+    private void compare(ColouredGraph expected, ColouredGraph actual) {
+        Assert.assertArrayEquals(sorted(expected.getVertices().toIntArray()), sorted(actual.getVertices().toIntArray()));
+        Assert.assertArrayEquals(sorted(expected.getEdges().toIntArray()), sorted(actual.getEdges().toIntArray()));
+        for (int e : expected.getEdges().toIntArray()) {
+            Assert.assertEquals(expected.getGraph().getDirectedSimpleEdgeTail(e),
+                    actual.getGraph().getDirectedSimpleEdgeTail(e));
+            Assert.assertEquals(expected.getGraph().getDirectedSimpleEdgeHead(e),
+                    actual.getGraph().getDirectedSimpleEdgeHead(e));
+        }
+        Assert.assertEquals(expected.getVertexColours(), actual.getVertexColours());
+        Assert.assertEquals(expected.getEdgeColours(), actual.getEdgeColours());
+    }
+
+    private int[] sorted(int[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
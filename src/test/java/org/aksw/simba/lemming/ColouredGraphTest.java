@@ -0,0 +1,45 @@
+package org.aksw.simba.lemming;
+
+import java.util.Arrays;
+
+import org.aksw.simba.lemming.util.IOHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.BitSet;
+
+public class ColouredGraphTest {
+
+    @Test
+    public void testClone() {
+        ColouredGraph graph = IOHelper.readGraphFromResource(this.getClass().getClassLoader(), "graph1.n3", "N3");
+        BitSet literalColour = new BitSet();
+        literalColour.set(0);
+        graph.addLiterals("\"Entity 1\"", 0, literalColour, "http://www.w3.org/2001/XMLSchema#string");
+        graph.removeEdge(1);
+
+        ColouredGraph clone = graph.clone();
+        Assert.assertArrayEquals(sorted(graph.getEdges().toIntArray()), sorted(clone.getEdges().toIntArray()));
+        for (int e : graph.getEdges().toIntArray()) {
+            Assert.assertEquals(graph.getGraph().getDirectedSimpleEdgeTail(e),
+                    clone.getGraph().getDirectedSimpleEdgeTail(e));
+            Assert.assertEquals(graph.getGraph().getDirectedSimpleEdgeHead(e),
+                    clone.getGraph().getDirectedSimpleEdgeHead(e));
+        }
+        Assert.assertEquals(graph.getVertexColours(), clone.getVertexColours());
+        Assert.assertEquals(graph.getEdgeColours(), clone.getEdgeColours());
+        Assert.assertSame(graph.getVertexPalette(), clone.getVertexPalette());
+        Assert.assertSame(graph.getEdgePalette(), clone.getEdgePalette());
+        Assert.assertEquals(graph.getMapDTEdgeColoursToLiterals(0), clone.getMapDTEdgeColoursToLiterals(0));
+        Assert.assertEquals(graph.getLiteralType(literalColour), clone.getLiteralType(literalColour));
+
+        // the literals of the clone are independent of the original graph
+        clone.addLiterals("\"Entity 2\"", 0, literalColour, "http://www.w3.org/2001/XMLSchema#string");
+        Assert.assertEquals(1, graph.getMapDTEdgeColoursToLiterals(0).get(literalColour).size());
+    }
+
+    private int[] sorted(int[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
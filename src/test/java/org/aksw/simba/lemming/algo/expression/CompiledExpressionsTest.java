@@ -0,0 +1,54 @@
+package org.aksw.simba.lemming.algo.expression;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.simba.lemming.metrics.single.NumberOfEdgesMetric;
+import org.aksw.simba.lemming.metrics.single.NumberOfVerticesMetric;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
+public class CompiledExpressionsTest {
+
+    @Test
+    public void test() {
+        Expression edges = new AtomicVariable(new NumberOfEdgesMetric());
+        Expression vertices = new AtomicVariable(new NumberOfVerticesMetric());
+        // (|E| / |V|) - ((2 * |E|) + 3), |V|, |V| - (|E| - (|V| * 0.5))
+        List<Expression> expressions = Arrays.<Expression> asList(
+                new Operation(new Operation(edges, vertices, Operator.DIV),
+                        new Operation(new Operation(new Constant(2), edges, Operator.TIMES), new Constant(3),
+                                Operator.PLUS),
+                        Operator.MINUS),
+                vertices,
+                new Operation(vertices,
+                        new Operation(edges, new Operation(vertices, new Constant(0.5), Operator.TIMES),
+                                Operator.MINUS),
+                        Operator.MINUS));
+        CompiledExpressions compiled = new CompiledExpressions(expressions);
+        Assert.assertEquals(3, compiled.getNumberOfExpressions());
+        Assert.assertEquals(2, compiled.getNumberOfMetrics());
+        Assert.assertEquals(4, compiled.getMaxStackSize());
+
+        ObjectDoubleOpenHashMap<String> metricValues = new ObjectDoubleOpenHashMap<String>();
+        metricValues.put(edges.toString(), 12);
+        metricValues.put(vertices.toString(), 5);
+        double[] metricVector = new double[compiled.getNumberOfMetrics()];
+        double[] stack = new double[compiled.getMaxStackSize()];
+        double[] results = new double[compiled.getNumberOfExpressions()];
+        compiled.fillMetricVector(metricValues, metricVector);
+        compiled.evaluate(metricVector, stack, results);
+        for (int i = 0; i < results.length; ++i) {
+            Assert.assertEquals(expressions.get(i).getValue(metricValues), results[i], 0);
+        }
+
+        // a missing metric leads to NaN as in AtomicVariable
+        metricValues.remove(edges.toString());
+        compiled.fillMetricVector(metricValues, metricVector);
+        compiled.evaluate(metricVector, stack, results);
+        Assert.assertTrue(Double.isNaN(results[0]));
+        Assert.assertEquals(5, results[1], 0);
+    }
+}
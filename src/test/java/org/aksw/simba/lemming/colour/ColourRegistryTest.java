@@ -0,0 +1,36 @@
+package org.aksw.simba.lemming.colour;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.BitSet;
+
+public class ColourRegistryTest {
+
+    @Test
+    public void test() {
+        ColourRegistry registry = new ColourRegistry();
+        BitSet colour = new BitSet();
+        colour.set(3);
+        int id = registry.getId(colour);
+        Assert.assertEquals(0, id);
+        Assert.assertEquals(id, registry.getId((BitSet) colour.clone()));
+        Assert.assertEquals(ColourRegistry.NO_COLOUR, registry.getId(null));
+        Assert.assertNull(registry.getColour(ColourRegistry.NO_COLOUR));
+
+        // the registry keeps its own copy of the colour
+        colour.set(5);
+        Assert.assertFalse(colour.equals(registry.getColour(id)));
+        Assert.assertEquals(ColourRegistry.NO_COLOUR, registry.lookupId(colour));
+
+        for (int i = 0; i < 100; ++i) {
+            BitSet other = new BitSet();
+            other.set(i + 10);
+            Assert.assertEquals(i + 1, registry.getId(other));
+        }
+        Assert.assertEquals(101, registry.size());
+        BitSet expected = new BitSet();
+        expected.set(3);
+        Assert.assertEquals(expected, registry.getColour(id));
+    }
+}
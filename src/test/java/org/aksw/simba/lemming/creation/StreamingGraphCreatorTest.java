@@ -0,0 +1,82 @@
+package org.aksw.simba.lemming.creation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.util.IOHelper;
+import org.apache.jena.riot.Lang;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.carrotsearch.hppc.BitSet;
+
+@RunWith(Parameterized.class)
+public class StreamingGraphCreatorTest {
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> testConfigs = new ArrayList<Object[]>();
+        testConfigs.add(new Object[] { "graph1.n3" });
+        testConfigs.add(new Object[] { "graph_loop.n3" });
+        testConfigs.add(new Object[] { "test_literal.ttl" });
+
+        return testConfigs;
+    }
+
+    private String graphFile;
+
+    public StreamingGraphCreatorTest(String graphFile) {
+        super();
+        this.graphFile = graphFile;
+    }
+
+    @Test
+    public void test() {
+        ColouredGraph expected = IOHelper.readGraphFromResource(this.getClass().getClassLoader(), graphFile, "N3");
+        String path = this.getClass().getClassLoader().getResource(graphFile).getFile();
+        ColouredGraph graph = new StreamingGraphCreator().processFiles(Lang.N3, path);
+        Assert.assertNotNull(graph);
+        Assert.assertEquals(expected.getVertices().size(), graph.getVertices().size());
+        Assert.assertEquals(expected.getEdges().size(), graph.getEdges().size());
+        Assert.assertEquals(expected.getVertexColours().size(), graph.getVertexColours().size());
+        Assert.assertEquals(expected.getEdgeColours().size(), graph.getEdgeColours().size());
+        Assert.assertEquals(expected.getVertexPalette().getMapOfURIAndColour().size(),
+                graph.getVertexPalette().getMapOfURIAndColour().size());
+        Assert.assertEquals(countLiterals(expected), countLiterals(graph));
+    }
+
+    /**
+     * Reading the same file twice has to lead to the same graph since, like in
+     * a Model, duplicate triples are removed.
+     */
+    @Test
+    public void duplicates() {
+        String path = this.getClass().getClassLoader().getResource(graphFile).getFile();
+        ColouredGraph expected = new StreamingGraphCreator().processFiles(Lang.N3, path);
+        ColouredGraph graph = new StreamingGraphCreator().processFiles(Lang.N3, path, path);
+        Assert.assertNotNull(graph);
+        Assert.assertEquals(expected.getVertices().size(), graph.getVertices().size());
+        Assert.assertEquals(expected.getEdges().size(), graph.getEdges().size());
+        Assert.assertEquals(countLiterals(expected), countLiterals(graph));
+    }
+
+    private static int countLiterals(ColouredGraph graph) {
+        int count = 0;
+        for (int vertexId : graph.getVertices().toIntArray()) {
+            Map<BitSet, List<String>> literals = graph.getMapDTEdgeColoursToLiterals(vertexId);
+            if (literals != null) {
+                for (List<String> values : literals.values()) {
+                    count += values.size();
+                }
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.aksw.simba.lemming.metrics.metricselection;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.NumberOfTrianglesMetricTest;
+import org.aksw.simba.lemming.metrics.single.TriangleMetric;
+import org.aksw.simba.lemming.metrics.single.nodetriangles.EdgeIteratorMetric;
+import org.aksw.simba.lemming.metrics.single.nodetriangles.forward.ForwardNodeTriangleMetric;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TriangleMetricSelectorTest {
+
+    @Test
+    public void test() throws Exception {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph("email-Eu-core.n3");
+        GraphShape shape = GraphShape.of(graph);
+        Assert.assertEquals(shape, GraphShape.parse(shape.toString()));
+
+        File calibrationFile = File.createTempFile("triangles", ".calibration");
+        calibrationFile.delete();
+        calibrationFile.deleteOnExit();
+        List<Supplier<TriangleMetric>> candidates = Arrays.<Supplier<TriangleMetric>> asList(
+                ForwardNodeTriangleMetric::new, EdgeIteratorMetric::new);
+        TriangleMetricSelector selector = new TriangleMetricSelector("node", candidates, calibrationFile);
+        TriangleMetric metric = selector.select(graph);
+        Assert.assertEquals(105461, metric.apply(graph), 0.000001);
+
+        // the choice has been added to the calibration table and is read by a new selector
+        Properties table = new Properties();
+        try (InputStream in = new FileInputStream(calibrationFile)) {
+            table.load(in);
+        }
+        Assert.assertEquals(metric.getClass().getName(), table.getProperty("node." + shape));
+        selector = new TriangleMetricSelector("node", candidates, calibrationFile);
+        Assert.assertEquals(metric.getClass(), selector.select(graph).getClass());
+    }
+
+    @Test
+    public void slowCandidates() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph("email-Eu-core.n3");
+        AtomicInteger slowRuns = new AtomicInteger();
+        AtomicInteger hangingRuns = new AtomicInteger();
+        List<Supplier<TriangleMetric>> candidates = Arrays.<Supplier<TriangleMetric>> asList(
+                () -> new DelayedMetric(hangingRuns, 60000), ForwardNodeTriangleMetric::new,
+                () -> new DelayedMetric(slowRuns, 200));
+        TriangleMetricSelector selector = new TriangleMetricSelector("node", candidates, null);
+        selector.setProbeTimeLimit(5000);
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(ForwardNodeTriangleMetric.class, selector.select(graph).getClass());
+        // the hanging candidate is abandoned after the time limit
+        Assert.assertTrue(System.currentTimeMillis() - start < 30000);
+        Assert.assertEquals(1, hangingRuns.get());
+        // the first run of the slow candidate is slower than the fastest candidate
+        Assert.assertEquals(1, slowRuns.get());
+    }
+
+    @Test
+    public void concurrentShapes() throws Exception {
+        ColouredGraph largeGraph = NumberOfTrianglesMetricTest.getColouredGraph("email-Eu-core.n3");
+        ColouredGraph smallGraph = NumberOfTrianglesMetricTest.getColouredGraph("graph1.n3");
+        Assert.assertNotEquals(GraphShape.of(largeGraph), GraphShape.of(smallGraph));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        // the candidate blocks the measurement of the large graph until the small graph has been handled
+        List<Supplier<TriangleMetric>> candidates = Arrays.<Supplier<TriangleMetric>> asList(
+                ForwardNodeTriangleMetric::new, () -> new ForwardNodeTriangleMetric() {
+                    @Override
+                    public double apply(ColouredGraph graph) {
+                        if (graph.getVertices().size() > 100) {
+                            started.countDown();
+                            try {
+                                latch.await(30, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        return super.apply(graph);
+                    }
+                });
+        TriangleMetricSelector selector = new TriangleMetricSelector("node", candidates, null);
+        Thread thread = new Thread(() -> selector.select(largeGraph));
+        thread.start();
+        Assert.assertTrue(started.await(30, TimeUnit.SECONDS));
+        long start = System.currentTimeMillis();
+        Assert.assertNotNull(selector.select(smallGraph));
+        Assert.assertTrue(System.currentTimeMillis() - start < 20000);
+        latch.countDown();
+        thread.join();
+        Assert.assertNotNull(selector.select(largeGraph));
+    }
+
+    /**
+     * Counts its runs and sleeps before counting the triangles.
+     */
+    private static class DelayedMetric extends EdgeIteratorMetric {
+
+        private AtomicInteger runs;
+        private long delay;
+
+        public DelayedMetric(AtomicInteger runs, long delay) {
+            this.runs = runs;
+            this.delay = delay;
+        }
+
+        @Override
+        public double apply(ColouredGraph graph) {
+            runs.incrementAndGet();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.apply(graph);
+        }
+    }
+
+    @Test
+    public void probe() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph("email-Eu-core.n3");
+        int edges = graph.getGraph().getNumberOfEdges();
+        ColouredGraph probe = TriangleMetricSelector.createProbe(graph, edges / 4, new Random(42));
+        // the vertices are sampled, i.e., the number of edges varies more than the one of an edge sample
+        Assert.assertEquals(edges / 4.0, probe.getGraph().getNumberOfEdges(), edges * 0.05);
+        Assert.assertEquals(graph.getGraph().getNumberOfEdges(),
+                TriangleMetricSelector.createProbe(graph, edges, new Random(42)).getGraph().getNumberOfEdges());
+    }
+
+    @Test
+    public void probeKeepsHubs() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph("email-Eu-core.n3");
+        int edges = graph.getGraph().getNumberOfEdges();
+        GraphShape shape = GraphShape.of(graph);
+        for (int maxEdges : new int[] { edges / 2, edges / 4 }) {
+            GraphShape probeShape = GraphShape.of(TriangleMetricSelector.createProbe(graph, maxEdges, new Random(42)));
+            // the ratio of the maximum and the average degree and the number of hubs stay in the same or the next bucket
+            Assert.assertEquals(shape.getSkewBucket(), probeShape.getSkewBucket(), 1);
+            Assert.assertEquals(shape.getHubBucket(), probeShape.getHubBucket(), 1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.aksw.simba.lemming.metrics.single;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import grph.Grph;
+import grph.in_memory.InMemoryGrph;
+
+/**
+ * The {@link AvgClusteringCoefficientMetric} keeps the directed definition of
+ * Grph while the {@link AvgUndirectedClusteringCoefficientMetric} uses the
+ * undirected simple view of the graph. For graphs whose edges are all
+ * reciprocal, both definitions match.
+ */
+public class AvgClusteringCoefficientMetricTest {
+
+    public static final double DELTA = 0.00001;
+
+    @Test
+    public void reciprocalAndParallelEdges() {
+        Grph graph = new InMemoryGrph();
+        int v0 = graph.addVertex();
+        int v1 = graph.addVertex();
+        int v2 = graph.addVertex();
+        int v3 = graph.addVertex();
+        // the triangles (v0, v1, v2) and (v0, v1, v3) with reciprocal edges
+        addReciprocalEdges(graph, v0, v1);
+        addReciprocalEdges(graph, v0, v2);
+        addReciprocalEdges(graph, v1, v2);
+        addReciprocalEdges(graph, v0, v3);
+        addReciprocalEdges(graph, v1, v3);
+        // parallel edges
+        graph.addDirectedSimpleEdge(v0, v1);
+        graph.addDirectedSimpleEdge(v2, v1);
+
+        // v0 and v1: 2 triangles and 3 neighbours, v2 and v3: 1 triangle and 2 neighbours
+        double expected = ((2.0 / 3.0) + (2.0 / 3.0) + 1 + 1) / 4;
+        ColouredGraph colouredGraph = new ColouredGraph(graph, null, null);
+        Assert.assertEquals(expected, new AvgUndirectedClusteringCoefficientMetric().apply(colouredGraph), DELTA);
+        Assert.assertEquals(graph.getAverageClusteringCoefficient(),
+                new AvgUndirectedClusteringCoefficientMetric().apply(colouredGraph), DELTA);
+        Assert.assertEquals(graph.getAverageClusteringCoefficient(),
+                new AvgClusteringCoefficientMetric().apply(colouredGraph), DELTA);
+    }
+
+    @Test
+    public void directedEdges() {
+        Grph graph = new InMemoryGrph();
+        int v0 = graph.addVertex();
+        int v1 = graph.addVertex();
+        int v2 = graph.addVertex();
+        int v3 = graph.addVertex();
+        // a triangle without reciprocal edges, the direction is ignored
+        graph.addDirectedSimpleEdge(v0, v1);
+        graph.addDirectedSimpleEdge(v1, v2);
+        graph.addDirectedSimpleEdge(v0, v2);
+        graph.addDirectedSimpleEdge(v0, v2);
+        // a loop is ignored as well
+        graph.addDirectedSimpleEdge(v2, v2);
+        // v3 has a single neighbour
+        graph.addDirectedSimpleEdge(v3, v0);
+
+        // v0: 1 triangle and 3 neighbours, v1 and v2: 1 triangle and 2 neighbours, v3: 0
+        double expected = ((1.0 / 3.0) + 1 + 1 + 0) / 4;
+        ColouredGraph colouredGraph = new ColouredGraph(graph, null, null);
+        Assert.assertEquals(expected, new AvgUndirectedClusteringCoefficientMetric().apply(colouredGraph), DELTA);
+        // the directed metric keeps the values of Grph
+        Assert.assertEquals(graph.getAverageClusteringCoefficient(),
+                new AvgClusteringCoefficientMetric().apply(colouredGraph), DELTA);
+    }
+
+    private static void addReciprocalEdges(Grph graph, int v1, int v2) {
+        graph.addDirectedSimpleEdge(v1, v2);
+        graph.addDirectedSimpleEdge(v2, v1);
+    }
+}
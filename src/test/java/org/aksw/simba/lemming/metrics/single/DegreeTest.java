@@ -78,4 +78,59 @@ public class DegreeTest {
         Assert.assertEquals(expectedAvgDegree, value, DELTA);
     }
 
+    @Test
+    public void runIncremental() {
+        VertexDegreeStatistics statistics = new VertexDegreeStatistics(graph);
+        Assert.assertEquals(expectedMaxInDegree, new MaxVertexDegreeMetric(DIRECTION.in).apply(statistics), DELTA);
+        Assert.assertEquals(expectedMaxOutDegree, new MaxVertexDegreeMetric(DIRECTION.out).apply(statistics), DELTA);
+        Assert.assertEquals(expectedAvgDegree, new AvgVertexDegreeMetric().apply(statistics), DELTA);
+
+        // remove an edge and add it again while updating the statistics
+        Grph grph = graph.getGraph();
+        int edge = grph.getEdges().toIntArray()[0];
+        int tail = grph.getDirectedSimpleEdgeTail(edge);
+        int head = grph.getDirectedSimpleEdgeHead(edge);
+        statistics.removeEdge(tail, head);
+        grph.removeEdge(edge);
+        compareWithMetrics(statistics);
+        statistics.addEdge(tail, head);
+        grph.addDirectedSimpleEdge(tail, head);
+        compareWithMetrics(statistics);
+    }
+
+    @Test
+    public void runTrackedByGraph() {
+        // the parameters are shared by all tests, so that the graph has to be cloned
+        ColouredGraph trackingGraph = graph.clone();
+        VertexDegreeStatistics statistics = trackingGraph.getDegreeStatistics();
+        Assert.assertTrue(trackingGraph.hasDegreeStatistics());
+
+        int edge = trackingGraph.getEdges().toIntArray()[0];
+        int tail = trackingGraph.getGraph().getDirectedSimpleEdgeTail(edge);
+        int head = trackingGraph.getGraph().getDirectedSimpleEdgeHead(edge);
+        int addedEdge = trackingGraph.addEdge(tail, head);
+        trackingGraph.addEdge(head, tail);
+        compareWithMetrics(trackingGraph.clone(), statistics);
+        trackingGraph.removeEdge(addedEdge);
+        trackingGraph.addVertex();
+        compareWithMetrics(trackingGraph.clone(), statistics);
+        // the metrics read the statistics of the graph
+        Assert.assertEquals(statistics.getMaxDegree(DIRECTION.in),
+                new MaxVertexDegreeMetric(DIRECTION.in).apply(trackingGraph), DELTA);
+    }
+
+    private void compareWithMetrics(VertexDegreeStatistics statistics) {
+        compareWithMetrics(graph, statistics);
+    }
+
+    private void compareWithMetrics(ColouredGraph graph, VertexDegreeStatistics statistics) {
+        IncrementalMetric metrics[] = new IncrementalMetric[] { new MaxVertexDegreeMetric(DIRECTION.in),
+                new MaxVertexDegreeMetric(DIRECTION.out), new AvgVertexDegreeMetric(),
+                new StdDevVertexDegree(DIRECTION.in), new StdDevVertexDegree(DIRECTION.out),
+                new NumberOfEdgesMetric(), new NumberOfVerticesMetric() };
+        for (IncrementalMetric metric : metrics) {
+            Assert.assertEquals(metric.getName(), metric.apply(graph), metric.apply(statistics), DELTA);
+        }
+    }
+
 }
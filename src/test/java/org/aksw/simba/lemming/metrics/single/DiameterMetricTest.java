@@ -63,6 +63,23 @@ public class DiameterMetricTest {
 		//testConfigs.add(new Object[] { new ColouredGraph(graph, null, null), 500 });
         testConfigs.add(new Object[] { new ColouredGraph(graph, null, null, null), 500 });
 
+		// a directed cycle, the paths follow the directions of the edges
+		graph = new InMemoryGrph();
+		graph.addNVertices(5);
+		for (int i = 0; i < 5; ++i) {
+			graph.addDirectedSimpleEdge(i, (i + 1) % 5);
+		}
+		testConfigs.add(new Object[] { new ColouredGraph(graph, null, null, null), 4 });
+
+		// a directed path with a cycle which is not strongly connected
+		graph = new InMemoryGrph();
+		graph.addNVertices(7);
+		for (int i = 0; i < 6; ++i) {
+			graph.addDirectedSimpleEdge(i, i + 1);
+		}
+		graph.addDirectedSimpleEdge(5, 1);
+		testConfigs.add(new Object[] { new ColouredGraph(graph, null, null, null), 6 });
+
 		return testConfigs;
 	}
 
@@ -80,4 +97,13 @@ public class DiameterMetricTest {
 		double diameter = metric.apply(graph);
 		Assert.assertEquals(expectedDiameter, diameter, DELTA);
 	}
+
+	@Test
+	public void notConnected() {
+		Grph graph = new InMemoryGrph();
+		graph.addNVertices(4);
+		graph.addDirectedSimpleEdge(0, 1);
+		graph.addDirectedSimpleEdge(2, 3);
+		Assert.assertTrue(Double.isNaN(new DiameterMetric().apply(new ColouredGraph(graph, null, null, null))));
+	}
 }
@@ -0,0 +1,86 @@
+package org.aksw.simba.lemming.metrics.single;
+
+import grph.Grph;
+import grph.algo.topology.GridTopologyGenerator;
+import grph.algo.topology.RingTopologyGenerator;
+import grph.in_memory.InMemoryGrph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class UndirectedDiameterMetricTest {
+
+	public static final double DELTA = 0.00001;
+
+	@Parameters
+	public static Collection<Object[]> data() {
+		List<Object[]> testConfigs = new ArrayList<Object[]>();
+		Grph graph;
+
+		GridTopologyGenerator gridGenerator = new GridTopologyGenerator();
+		graph = new InMemoryGrph();
+		gridGenerator.setWidth(20);
+		gridGenerator.setHeight(20);
+		gridGenerator.compute(graph);
+		testConfigs.add(new Object[] { new ColouredGraph(graph, null, null, null), 38 });
+
+		RingTopologyGenerator ringGenerator = new RingTopologyGenerator();
+		graph = new InMemoryGrph();
+		graph.addNVertices(1000);
+		ringGenerator.compute(graph);
+		testConfigs.add(new Object[] { new ColouredGraph(graph, null, null, null), 500 });
+
+		// a directed cycle, the directions are ignored
+		graph = new InMemoryGrph();
+		graph.addNVertices(5);
+		for (int i = 0; i < 5; ++i) {
+			graph.addDirectedSimpleEdge(i, (i + 1) % 5);
+		}
+		testConfigs.add(new Object[] { new ColouredGraph(graph, null, null, null), 2 });
+
+		// a directed path of 7 vertices and a separate triangle
+		graph = new InMemoryGrph();
+		graph.addNVertices(10);
+		for (int i = 0; i < 6; ++i) {
+			graph.addDirectedSimpleEdge(i, i + 1);
+		}
+		graph.addDirectedSimpleEdge(7, 8);
+		graph.addDirectedSimpleEdge(8, 9);
+		graph.addDirectedSimpleEdge(9, 7);
+		testConfigs.add(new Object[] { new ColouredGraph(graph, null, null, null), 6 });
+
+		return testConfigs;
+	}
+
+	private ColouredGraph graph;
+	private int expectedDiameter;
+
+	public UndirectedDiameterMetricTest(ColouredGraph graph, Integer expectedDiameter) {
+		this.graph = graph;
+		this.expectedDiameter = expectedDiameter;
+	}
+
+	@Test
+	public void run() {
+		UndirectedDiameterMetric metric = new UndirectedDiameterMetric();
+		double diameter = metric.apply(graph);
+		Assert.assertEquals(expectedDiameter, diameter, DELTA);
+	}
+
+	@Test
+	public void approximate() {
+		UndirectedDiameterMetric metric = new UndirectedDiameterMetric(true);
+		double diameter = metric.apply(graph);
+		Assert.assertTrue(diameter <= expectedDiameter);
+		Assert.assertTrue(2 * diameter >= expectedDiameter);
+	}
+}
@@ -0,0 +1,70 @@
+package org.aksw.simba.lemming.metrics.single.benchmark;
+
+import static org.aksw.simba.lemming.metrics.single.benchmark.BenchmarkConfig.iterations;
+import static org.aksw.simba.lemming.metrics.single.benchmark.BenchmarkConfig.numberOfForks;
+import static org.aksw.simba.lemming.metrics.single.benchmark.BenchmarkConfig.warmUpIterations;
+
+import java.util.Random;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.colour.ColourRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.carrotsearch.hppc.BitSet;
+
+/**
+ * Measures {@link ColouredGraph#clone()} on random graphs with an average
+ * degree of 10.
+ */
+public class BenchmarkClone {
+
+    @State(Scope.Benchmark)
+    public static class RandomGraph {
+
+        @Param({ "100000", "1000000", "10000000" })
+        public int numberOfEdges;
+
+        public ColouredGraph graph;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            BitSet vertexColour = new BitSet();
+            vertexColour.set(0);
+            int[] edgeColourIds = new int[10];
+            for (int i = 0; i < edgeColourIds.length; ++i) {
+                BitSet edgeColour = new BitSet();
+                edgeColour.set(i);
+                edgeColourIds[i] = ColourRegistry.getInstance().getId(edgeColour);
+            }
+            graph = new ColouredGraph();
+            int numberOfVertices = numberOfEdges / 10;
+            for (int i = 0; i < numberOfVertices; ++i) {
+                graph.addVertex(vertexColour);
+            }
+            for (int i = 0; i < numberOfEdges; ++i) {
+                graph.addEdge(random.nextInt(numberOfVertices), random.nextInt(numberOfVertices),
+                        edgeColourIds[random.nextInt(edgeColourIds.length)]);
+            }
+        }
+    }
+
+    @Fork(value = numberOfForks, warmups = warmUpIterations)
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = warmUpIterations)
+    @Measurement(iterations = iterations)
+    public ColouredGraph cloneGraph(RandomGraph graph) {
+        return graph.graph.clone();
+    }
+}
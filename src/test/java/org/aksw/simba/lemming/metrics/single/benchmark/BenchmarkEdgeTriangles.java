@@ -10,6 +10,7 @@ import org.aksw.simba.lemming.metrics.single.edgetriangles.EdgeNumberOfSimpleTri
 import org.aksw.simba.lemming.metrics.single.edgetriangles.MultiThreadedNodeNeighborsCommonEdgesMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.NodeIteratorMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.forward.ForwardEdgeTriangleMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.DegreeOrderedTriangleMetric;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -82,4 +83,16 @@ public class BenchmarkEdgeTriangles {
         ForwardEdgeTriangleMetric metric = new ForwardEdgeTriangleMetric();
         metric.apply(graphs.graph);
     }
+
+    @Fork(value = numberOfForks, warmups = warmUpIterations)
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = warmUpIterations)
+    @Measurement(iterations = iterations)
+    public void degreeOrderedMetric(BenchmarkGraphs.Graphs graphs) {
+        graphs.graph = NumberOfTrianglesMetricTest.getColouredGraph(graphs.fileName);
+
+        DegreeOrderedTriangleMetric metric = new DegreeOrderedTriangleMetric(true);
+        metric.apply(graphs.graph);
+    }
 }
\ No newline at end of file
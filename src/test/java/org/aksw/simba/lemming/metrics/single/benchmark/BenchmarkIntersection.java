@@ -0,0 +1,72 @@
+package org.aksw.simba.lemming.metrics.single.benchmark;
+
+import static org.aksw.simba.lemming.metrics.single.benchmark.BenchmarkConfig.iterations;
+import static org.aksw.simba.lemming.metrics.single.benchmark.BenchmarkConfig.numberOfForks;
+import static org.aksw.simba.lemming.metrics.single.benchmark.BenchmarkConfig.warmUpIterations;
+
+import java.util.Random;
+
+import org.aksw.simba.lemming.util.IntSetUtil;
+import org.openjdk.jmh.annotations.*;
+
+import grph.DefaultIntSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+/**
+ * Compares the set based intersection of {@link IntSetUtil} with counting the
+ * common elements of sorted arrays.
+ */
+public class BenchmarkIntersection {
+
+    @State(Scope.Benchmark)
+    public static class Sets {
+
+        /**
+         * The sizes of the two sets, e.g., the degrees of two vertices.
+         */
+        @Param({ "100:100", "10:10000", "10000:10000" })
+        public String sizes;
+
+        public IntSet setA;
+        public IntSet setB;
+        public int[] sortedA;
+        public int[] sortedB;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String[] split = sizes.split(":");
+            int universe = 100000;
+            Random random = new Random(42);
+            setA = createRandomSet(random, Integer.parseInt(split[0]), universe);
+            setB = createRandomSet(random, Integer.parseInt(split[1]), universe);
+            sortedA = IntSetUtil.toSortedArray(setA);
+            sortedB = IntSetUtil.toSortedArray(setB);
+        }
+
+        private static IntSet createRandomSet(Random random, int size, int universe) {
+            IntSet set = new DefaultIntSet(size);
+            while (set.size() < size) {
+                set.add(random.nextInt(universe));
+            }
+            return set;
+        }
+    }
+
+    @Fork(value = numberOfForks, warmups = warmUpIterations)
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = warmUpIterations)
+    @Measurement(iterations = iterations)
+    public int setIntersection(Sets sets) {
+        return IntSetUtil.intersection(sets.setA, sets.setB).size();
+    }
+
+    @Fork(value = numberOfForks, warmups = warmUpIterations)
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = warmUpIterations)
+    @Measurement(iterations = iterations)
+    public int sortedArrayIntersection(Sets sets) {
+        return IntSetUtil.intersectionSize(sets.sortedA, sets.sortedB);
+    }
+}
@@ -7,6 +7,7 @@ import org.aksw.simba.lemming.metrics.single.nodetriangles.NodeIteratorMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.MultiThreadedNodeNeighborTrianglesMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.ayz.ListingAyzMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.forward.ForwardNodeTriangleMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.DegreeOrderedTriangleMetric;
 import org.openjdk.jmh.annotations.*;
 
 import static org.aksw.simba.lemming.metrics.single.benchmark.BenchmarkConfig.numberOfForks;
@@ -90,4 +91,16 @@ public class BenchmarkNodeTriangles {
         MultiThreadedNodeNeighborTrianglesMetric metric = new MultiThreadedNodeNeighborTrianglesMetric();
         metric.apply(graphs.graph);
     }
+
+    @Fork(value = numberOfForks, warmups = warmUpIterations)
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = warmUpIterations)
+    @Measurement(iterations = iterations)
+    public void degreeOrderedMetric(BenchmarkGraphs.Graphs graphs) {
+        graphs.graph = NumberOfTrianglesMetricTest.getColouredGraph(graphs.fileName);
+
+        DegreeOrderedTriangleMetric metric = new DegreeOrderedTriangleMetric(false);
+        metric.apply(graphs.graph);
+    }
 }
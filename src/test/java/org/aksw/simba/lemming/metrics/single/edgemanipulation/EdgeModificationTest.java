@@ -1,8 +1,10 @@
 package org.aksw.simba.lemming.metrics.single.edgemanipulation;
 
+import org.aksw.simba.lemming.ColouredGraph;
 import org.aksw.simba.lemming.metrics.single.NumberOfTrianglesMetricTest;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.MultiThreadedNodeNeighborsCommonEdgesMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.MultiThreadedNodeNeighborTrianglesMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.VertexTriangleCounts;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -14,6 +16,8 @@ import it.unimi.dsi.fastutil.ints.IntSet;
  */
 public class EdgeModificationTest extends NumberOfTrianglesMetricTest {
     
+    private static final double CLUSTERING_DELTA = 0.000001;
+
     public EdgeModificationTest() {
         super("graph_loop_2.n3", 0);
     }
@@ -50,6 +54,96 @@ public class EdgeModificationTest extends NumberOfTrianglesMetricTest {
         Assert.assertEquals(7, addEdgeEdgeTri);
     }
 
+    @Test
+    public void edgeRemovalWithoutModification() {
+        Assert.assertNotNull(graph);
+
+        EdgeModification edgeModification = new EdgeModification(graph,
+                new MultiThreadedNodeNeighborTrianglesMetric(),
+                new MultiThreadedNodeNeighborsCommonEdgesMetric());
+        int numberOfEdges = graph.getGraph().getNumberOfEdges();
+
+        Grph grph = graph.getGraph();
+        int[] triangles = edgeModification.computeTrianglesAfterRemovingEdge(grph.getDirectedSimpleEdgeTail(1),
+                grph.getDirectedSimpleEdgeHead(1), edgeModification.getOldNodeTriangles(),
+                edgeModification.getOldEdgeTriangles());
+
+        Assert.assertEquals(2, triangles[0]);
+        Assert.assertEquals(3, triangles[1]);
+        Assert.assertEquals(numberOfEdges, graph.getGraph().getNumberOfEdges());
+    }
+
+    @Test
+    public void edgeAdditionWithoutModification() {
+        Assert.assertNotNull(graph);
+
+        EdgeModification edgeModification = new EdgeModification(graph,
+                new MultiThreadedNodeNeighborTrianglesMetric(),
+                new MultiThreadedNodeNeighborsCommonEdgesMetric());
+        int numberOfEdges = graph.getGraph().getNumberOfEdges();
+
+        int[] triangles = edgeModification.computeTrianglesAfterAddingEdge(0, 2,
+                edgeModification.getOldNodeTriangles(), edgeModification.getOldEdgeTriangles());
+
+        Assert.assertEquals(3, triangles[0]);
+        Assert.assertEquals(7, triangles[1]);
+        Assert.assertEquals(numberOfEdges, graph.getGraph().getNumberOfEdges());
+    }
+
+    @Test
+    public void clusteringCoefficient() {
+        Assert.assertNotNull(graph);
+
+        EdgeModification edgeModification = new EdgeModification(graph, 0, 0);
+        edgeModification.trackClusteringCoefficient();
+        Assert.assertEquals(VertexTriangleCounts.count(graph).getAverageClusteringCoefficient(),
+                edgeModification.getAvgClusteringCoefficient(), CLUSTERING_DELTA);
+
+        double expected = edgeModification.computeAvgClusteringCoefficientAfterAddingEdge(0, 2);
+        int edgeId = edgeModification.addEdgeToGraph(0, 2, graph.getEdgeColour(1));
+        Assert.assertEquals(expected, edgeModification.getAvgClusteringCoefficient(), CLUSTERING_DELTA);
+        Assert.assertEquals(VertexTriangleCounts.count(graph).getAverageClusteringCoefficient(), expected,
+                CLUSTERING_DELTA);
+
+        expected = edgeModification.computeAvgClusteringCoefficientAfterRemovingEdge(0, 2);
+        edgeModification.removeEdge(edgeId);
+        Assert.assertEquals(expected, edgeModification.getAvgClusteringCoefficient(), CLUSTERING_DELTA);
+        Assert.assertEquals(VertexTriangleCounts.count(graph).getAverageClusteringCoefficient(), expected,
+                CLUSTERING_DELTA);
+    }
+
+    @Test
+    public void clusteringCoefficientOfNewPair() {
+        // a triangle 0-1-2 with a parallel edge and vertex 3 connected to 0
+        ColouredGraph graph = new ColouredGraph();
+        for (int i = 0; i < 4; ++i) {
+            graph.addVertex();
+        }
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 1);
+        graph.addEdge(2, 0);
+        graph.addEdge(3, 0);
+
+        EdgeModification edgeModification = new EdgeModification(graph, 0, 0);
+        edgeModification.trackClusteringCoefficient();
+        Assert.assertEquals(7.0 / 12.0, edgeModification.getAvgClusteringCoefficient(), CLUSTERING_DELTA);
+
+        // connecting 3 and 1 closes the triangle 0-1-3
+        Assert.assertEquals(5.0 / 6.0, edgeModification.computeAvgClusteringCoefficientAfterAddingEdge(3, 1),
+                CLUSTERING_DELTA);
+        int edgeId = edgeModification.addEdgeToGraph(3, 1, new com.carrotsearch.hppc.BitSet());
+        Assert.assertEquals(5.0 / 6.0, edgeModification.getAvgClusteringCoefficient(), CLUSTERING_DELTA);
+        Assert.assertEquals(5.0 / 6.0, VertexTriangleCounts.count(graph).getAverageClusteringCoefficient(),
+                CLUSTERING_DELTA);
+
+        // removing one of the parallel edges does not change the coefficient
+        Assert.assertEquals(5.0 / 6.0, edgeModification.computeAvgClusteringCoefficientAfterRemovingEdge(2, 1),
+                CLUSTERING_DELTA);
+
+        edgeModification.removeEdge(edgeId);
+        Assert.assertEquals(7.0 / 12.0, edgeModification.getAvgClusteringCoefficient(), CLUSTERING_DELTA);
+    }
 
     @Test
     public void demo() {
@@ -0,0 +1,134 @@
+package org.aksw.simba.lemming.metrics.single.edgemanipulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.NumberOfTrianglesMetricTest;
+import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
+import org.aksw.simba.lemming.metrics.single.edgetriangles.MultiThreadedNodeNeighborsCommonEdgesMetric;
+import org.aksw.simba.lemming.metrics.single.nodetriangles.MultiThreadedNodeNeighborTrianglesMetric;
+import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
+public class EdgeModifierTest {
+
+    @Test
+    public void batch() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph("graph_loop_2.n3");
+        SingleValueMetric nodeTriangles = new MultiThreadedNodeNeighborTrianglesMetric();
+        SingleValueMetric edgeTriangles = new MultiThreadedNodeNeighborsCommonEdgesMetric();
+        List<SingleValueMetric> metrics = Arrays.asList(nodeTriangles, edgeTriangles);
+        EdgeModifier modifier = new EdgeModifier(graph, metrics);
+        int numberOfEdges = graph.getGraph().getNumberOfEdges();
+        double initialNodeTriangles = nodeTriangles.apply(graph);
+        double initialEdgeTriangles = edgeTriangles.apply(graph);
+
+        // the added edges form triangles with each other
+        List<TripleBaseSingleID> removals = new ArrayList<TripleBaseSingleID>();
+        removals.add(new TripleBaseSingleID(graph.getGraph().getDirectedSimpleEdgeTail(1), null,
+                graph.getGraph().getDirectedSimpleEdgeHead(1), null, 1, graph.getEdgeColour(1)));
+        List<TripleBaseSingleID> additions = new ArrayList<TripleBaseSingleID>();
+        additions.add(new TripleBaseSingleID(0, null, 2, null, -1, graph.getEdgeColour(0)));
+        additions.add(new TripleBaseSingleID(2, null, 1, null, -1, graph.getEdgeColour(0)));
+        additions.add(new TripleBaseSingleID(1, null, 0, null, -1, graph.getEdgeColour(0)));
+
+        ObjectDoubleOpenHashMap<String> values = modifier.tryToApplyBatch(removals, additions);
+        Assert.assertNotNull(values);
+        Assert.assertEquals(numberOfEdges + 2, graph.getGraph().getNumberOfEdges());
+        Assert.assertEquals(nodeTriangles.apply(graph), values.get("#nodetriangles"), 0);
+        Assert.assertEquals(edgeTriangles.apply(graph), values.get("#edgetriangles"), 0);
+
+        modifier.rollbackBatch();
+        Assert.assertEquals(numberOfEdges, graph.getGraph().getNumberOfEdges());
+        Assert.assertTrue(graph.getEdges().contains(1));
+        Assert.assertEquals(initialNodeTriangles, modifier.getOptimizedMetricValues().get("#nodetriangles"), 0);
+        Assert.assertEquals(initialEdgeTriangles, modifier.getOptimizedMetricValues().get("#edgetriangles"), 0);
+
+        values = modifier.tryToApplyBatch(removals, additions);
+        modifier.commitBatch(values);
+        Assert.assertEquals(nodeTriangles.apply(graph), modifier.getOptimizedMetricValues().get("#nodetriangles"), 0);
+        Assert.assertEquals(edgeTriangles.apply(graph), modifier.getOptimizedMetricValues().get("#edgetriangles"), 0);
+
+        // the removed edge does not exist anymore
+        Assert.assertNull(modifier.tryToApplyBatch(removals, additions));
+    }
+
+    @Test
+    public void metricCache() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph("graph_loop_2.n3");
+        List<SingleValueMetric> metrics = Arrays.<SingleValueMetric> asList(
+                new MultiThreadedNodeNeighborTrianglesMetric(), new MultiThreadedNodeNeighborsCommonEdgesMetric());
+        EdgeModifier modifier = new EdgeModifier(graph, metrics);
+        long fingerprint = GraphFingerprint.of(graph);
+
+        TripleBaseSingleID triple = new TripleBaseSingleID(0, null, 2, null, -1, graph.getEdgeColour(1));
+        ObjectDoubleOpenHashMap<String> values = modifier.tryToAddAnEdge(triple);
+        Assert.assertEquals(0, modifier.getMetricCache().getHits());
+        Assert.assertEquals(1, modifier.getMetricCache().getMisses());
+        // trying the same edge again is answered by the cache
+        TripleBaseSingleID sameTriple = new TripleBaseSingleID(0, null, 2, null, -1, graph.getEdgeColour(1));
+        Assert.assertEquals(values, modifier.tryToAddAnEdge(sameTriple));
+        Assert.assertEquals(1, modifier.getMetricCache().getHits());
+        Assert.assertEquals(fingerprint, GraphFingerprint.of(graph));
+
+        // the fingerprint is updated with every modification and does not depend on edge IDs
+        modifier.executeAddingAnEdge(values);
+        Assert.assertNotEquals(fingerprint, GraphFingerprint.of(graph));
+        TripleBaseSingleID added = new TripleBaseSingleID(0, null, 2, null, sameTriple.edgeId, graph.getEdgeColour(1));
+        modifier.executeRemovingAnEdge(added, modifier.evaluateRemovingAnEdge(added));
+        Assert.assertEquals(fingerprint, GraphFingerprint.of(graph));
+    }
+
+    /**
+     * Only executed modifications are journaled. Replaying the journal on the
+     * initial graph leads to the modified graph with the same edge IDs.
+     */
+    @Test
+    public void journal() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph("graph_loop_2.n3");
+        ColouredGraph initialGraph = graph.clone();
+        List<SingleValueMetric> metrics = Arrays.<SingleValueMetric> asList(
+                new MultiThreadedNodeNeighborTrianglesMetric(), new MultiThreadedNodeNeighborsCommonEdgesMetric());
+        EdgeModifier modifier = new EdgeModifier(graph, metrics);
+        EdgeModificationLog log = modifier.getModificationLog();
+
+        // rejected trials
+        TripleBaseSingleID removal = new TripleBaseSingleID(graph.getGraph().getDirectedSimpleEdgeTail(1), null,
+                graph.getGraph().getDirectedSimpleEdgeHead(1), null, 1, graph.getEdgeColour(1));
+        modifier.tryToRemoveAnEdge(removal);
+        Assert.assertTrue(graph.getEdges().contains(1));
+        modifier.tryToAddAnEdge(new TripleBaseSingleID(0, null, 2, null, -1, graph.getEdgeColour(0)));
+        List<TripleBaseSingleID> additions = new ArrayList<TripleBaseSingleID>();
+        additions.add(new TripleBaseSingleID(2, null, 1, null, -1, graph.getEdgeColour(0)));
+        modifier.tryToApplyBatch(new ArrayList<TripleBaseSingleID>(), additions);
+        modifier.rollbackBatch();
+        Assert.assertEquals(0, log.size());
+
+        // accepted modifications
+        modifier.executeRemovingAnEdge(modifier.tryToRemoveAnEdge(removal));
+        Assert.assertFalse(graph.getEdges().contains(1));
+        modifier.executeAddingAnEdge(
+                modifier.tryToAddAnEdge(new TripleBaseSingleID(0, null, 2, null, -1, graph.getEdgeColour(0))));
+        modifier.commitBatch(modifier.tryToApplyBatch(new ArrayList<TripleBaseSingleID>(), additions));
+        Assert.assertEquals(3, log.size());
+
+        log.replay(initialGraph);
+        int[] edges = graph.getEdges().toIntArray();
+        Arrays.sort(edges);
+        int[] replayedEdges = initialGraph.getEdges().toIntArray();
+        Arrays.sort(replayedEdges);
+        Assert.assertArrayEquals(edges, replayedEdges);
+        for (int edgeId : edges) {
+            Assert.assertEquals(graph.getGraph().getDirectedSimpleEdgeTail(edgeId),
+                    initialGraph.getGraph().getDirectedSimpleEdgeTail(edgeId));
+            Assert.assertEquals(graph.getGraph().getDirectedSimpleEdgeHead(edgeId),
+                    initialGraph.getGraph().getDirectedSimpleEdgeHead(edgeId));
+            Assert.assertEquals(graph.getEdgeColourId(edgeId), initialGraph.getEdgeColourId(edgeId));
+        }
+    }
+}
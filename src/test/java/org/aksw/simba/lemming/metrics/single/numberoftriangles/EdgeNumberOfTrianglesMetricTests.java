@@ -7,9 +7,11 @@ import java.util.List;
 import org.aksw.simba.lemming.metrics.single.NumberOfTrianglesMetricTest;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.EdgeIteratorMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.EdgeNumberOfSimpleTrianglesMetric;
+import org.aksw.simba.lemming.metrics.single.edgetriangles.EdgeTriangleMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.MultiThreadedNodeNeighborsCommonEdgesMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.NodeIteratorMetric;
 import org.aksw.simba.lemming.metrics.single.edgetriangles.forward.ForwardEdgeTriangleMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.DegreeOrderedTriangleMetric;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -62,4 +64,16 @@ public class EdgeNumberOfTrianglesMetricTests extends NumberOfTrianglesMetricTes
         this.metric = new EdgeIteratorMetric();
         test();
     }
+
+    @Test
+    public void degreeOrderedMetric() {
+        this.metric = new DegreeOrderedTriangleMetric(true);
+        test();
+    }
+
+    @Test
+    public void selectedMetric() {
+        this.metric = new EdgeTriangleMetric();
+        test();
+    }
 }
@@ -11,8 +11,10 @@ import org.aksw.simba.lemming.metrics.single.nodetriangles.EdgeIteratorMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.MultiThreadedNodeNeighborTrianglesMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.NodeIteratorCoreMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.NodeIteratorMetric;
+import org.aksw.simba.lemming.metrics.single.nodetriangles.NodeTriangleMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.ayz.ListingAyzMetric;
 import org.aksw.simba.lemming.metrics.single.nodetriangles.forward.ForwardNodeTriangleMetric;
+import org.aksw.simba.lemming.metrics.single.triangles.DegreeOrderedTriangleMetric;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -72,6 +74,18 @@ public class NodeNumberOfTrianglesMetricTests extends NumberOfTrianglesMetricTes
         test();
     }
 
+    @Test
+    public void degreeOrderedMetric() {
+        this.metric = new DegreeOrderedTriangleMetric(false);
+        test();
+    }
+
+    @Test
+    public void selectedMetric() {
+        this.metric = new NodeTriangleMetric();
+        test();
+    }
+
     @Test
     public void duolionMetric() {
         Assert.assertNotNull(graph);
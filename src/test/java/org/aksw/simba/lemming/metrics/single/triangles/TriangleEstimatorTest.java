@@ -0,0 +1,56 @@
+package org.aksw.simba.lemming.metrics.single.triangles;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.NumberOfTrianglesMetricTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TriangleEstimatorTest {
+
+    private static final String GRAPH_FILE = "email-Eu-core.n3";
+    private static final double NODE_TRIANGLES = 105461;
+    private static final double EDGE_TRIANGLES = 489286;
+    private static final long SEED = 42;
+
+    @Test
+    public void doulion() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph(GRAPH_FILE);
+        test(new DoulionTriangleEstimator(false, 0.5, SEED), graph, NODE_TRIANGLES);
+        test(new DoulionTriangleEstimator(true, 0.5, SEED), graph, EDGE_TRIANGLES);
+    }
+
+    @Test
+    public void colourful() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph(GRAPH_FILE);
+        test(new ColourfulTriangleEstimator(false, 2, SEED), graph, NODE_TRIANGLES);
+        test(new ColourfulTriangleEstimator(true, 2, SEED), graph, EDGE_TRIANGLES);
+    }
+
+    @Test
+    public void wedgeSampling() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph(GRAPH_FILE);
+        test(new WedgeSamplingTriangleEstimator(false, SEED), graph, NODE_TRIANGLES);
+        test(new WedgeSamplingTriangleEstimator(true, SEED), graph, EDGE_TRIANGLES);
+    }
+
+    @Test
+    public void budget() {
+        ColouredGraph graph = NumberOfTrianglesMetricTest.getColouredGraph(GRAPH_FILE);
+        BudgetedTriangleMetric metric = new BudgetedTriangleMetric(false, Long.MAX_VALUE, SEED);
+        Assert.assertEquals(NODE_TRIANGLES, metric.apply(graph), 0.000001);
+        Assert.assertNull(metric.getLastEstimate());
+
+        // the graph is smaller than a probe, i.e., it is counted exactly regardless of the budget
+        metric = new BudgetedTriangleMetric(true, 0, SEED);
+        Assert.assertEquals(EDGE_TRIANGLES, metric.apply(graph), 0.000001);
+        Assert.assertNull(metric.getLastEstimate());
+    }
+
+    private void test(AbstractTriangleEstimator estimator, ColouredGraph graph, double expectedTriangles) {
+        TriangleEstimate estimate = estimator.estimate(graph);
+        Assert.assertEquals(expectedTriangles, estimate.getValue(), expectedTriangles * 0.25);
+        Assert.assertTrue(estimate.getLowerBound() <= estimate.getValue());
+        Assert.assertTrue(estimate.getUpperBound() >= estimate.getValue());
+        Assert.assertEquals(estimate.getValue(), estimator.apply(graph), 0.000001);
+    }
+}
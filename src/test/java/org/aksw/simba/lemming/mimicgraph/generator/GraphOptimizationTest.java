@@ -0,0 +1,101 @@
+package org.aksw.simba.lemming.mimicgraph.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.NumberOfEdgesMetric;
+import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
+import org.aksw.simba.lemming.mimicgraph.colourmetrics.utils.ErrorScoreCalculator;
+import org.aksw.simba.lemming.mimicgraph.optimization.OptimizationCheckpoint;
+import org.aksw.simba.lemming.util.IOHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
+public class GraphOptimizationTest {
+
+    private static final int NUMBER_OF_VERTICES = 200;
+    private static final int NUMBER_OF_ITERATIONS = 120;
+    private static final int CHECKPOINT_INTERVAL = 50;
+    private static final long SEED = 42;
+
+    /**
+     * A resumed optimization has to learn from the accepted triples of the
+     * interrupted run. Otherwise, its proposals and, hence, its graph differ
+     * from the graph of an uninterrupted run.
+     */
+    @Test
+    public void testResumeWithLearnedProposals() throws IOException {
+        ColouredGraph[] inputGraphs = new ColouredGraph[] {
+                IOHelper.readGraphFromResource(this.getClass().getClassLoader(), "graph1_1.n3", "N3") };
+        File folder = Files.createTempDirectory("optimization").toFile();
+        try {
+            // uninterrupted run which writes a checkpoint every 50 iterations
+            IGraphGeneration generator = createGenerator(inputGraphs);
+            GraphOptimization optimization = createOptimization(inputGraphs, generator);
+            optimization.setCheckpointing(folder.getAbsolutePath(), CHECKPOINT_INTERVAL);
+            optimization.refineGraph();
+            ColouredGraph expected = generator.getMimicGraph();
+
+            OptimizationCheckpoint checkpoint = OptimizationCheckpoint.read(folder);
+            Assert.assertNotNull(checkpoint);
+            Assert.assertTrue(checkpoint.iteration > 0 && checkpoint.iteration < NUMBER_OF_ITERATIONS);
+            // every iteration adds an edge the proposals learn from
+            Assert.assertEquals(checkpoint.iteration, checkpoint.acceptedProposals.size());
+
+            // the same run resumed from the checkpoint
+            IGraphGeneration resumedGenerator = createGenerator(inputGraphs);
+            GraphOptimization resumed = createOptimization(inputGraphs, resumedGenerator);
+            Assert.assertTrue(resumed.resume(folder.getAbsolutePath()));
+            resumed.refineGraph();
+            ColouredGraph actual = resumedGenerator.getMimicGraph();
+
+            int[] expectedEdges = sorted(expected.getEdges().toIntArray());
+            Assert.assertArrayEquals(expectedEdges, sorted(actual.getEdges().toIntArray()));
+            for (int edgeId : expectedEdges) {
+                Assert.assertEquals(expected.getGraph().getDirectedSimpleEdgeTail(edgeId),
+                        actual.getGraph().getDirectedSimpleEdgeTail(edgeId));
+                Assert.assertEquals(expected.getGraph().getDirectedSimpleEdgeHead(edgeId),
+                        actual.getGraph().getDirectedSimpleEdgeHead(edgeId));
+                Assert.assertEquals(expected.getEdgeColourId(edgeId), actual.getEdgeColourId(edgeId));
+            }
+        } finally {
+            new File(folder, OptimizationCheckpoint.CHECKPOINT_FILE).delete();
+            new File(folder, OptimizationCheckpoint.INITIAL_GRAPH_FILE).delete();
+            folder.delete();
+        }
+    }
+
+    private IGraphGeneration createGenerator(ColouredGraph[] inputGraphs) {
+        IGraphGeneration generator = new GraphGenerationRandomly(NUMBER_OF_VERTICES, inputGraphs, 1, SEED);
+        generator.generateGraph();
+        return generator;
+    }
+
+    private GraphOptimization createOptimization(ColouredGraph[] inputGraphs, IGraphGeneration generator) {
+        final double targetNumberOfEdges = generator.getMimicGraph().getEdges().size() + 1000;
+        // the error score decreases with every added edge, i.e., every addition is accepted
+        ErrorScoreCalculator errScoreCalculator = new ErrorScoreCalculator(inputGraphs, null) {
+            @Override
+            public double computeErrorScore(ObjectDoubleOpenHashMap<String> mapMetricValues) {
+                return Math.abs(targetNumberOfEdges - mapMetricValues.get("#edges"));
+            }
+        };
+        List<SingleValueMetric> metrics = Arrays.<SingleValueMetric> asList(new NumberOfEdgesMetric());
+        GraphOptimization optimization = new GraphOptimization(errScoreCalculator, generator,
+                generator.getMimicGraph(), metrics, SEED);
+        optimization.setRefineGraphRandomly(true);
+        optimization.setNumberOfOptimizations(NUMBER_OF_ITERATIONS);
+        return optimization;
+    }
+
+    private int[] sorted(int[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
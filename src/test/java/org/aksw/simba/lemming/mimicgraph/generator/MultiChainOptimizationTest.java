@@ -0,0 +1,155 @@
+package org.aksw.simba.lemming.mimicgraph.generator;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.NumberOfEdgesMetric;
+import org.aksw.simba.lemming.metrics.single.SingleValueMetric;
+import org.aksw.simba.lemming.mimicgraph.colourmetrics.utils.ErrorScoreCalculator;
+import org.aksw.simba.lemming.mimicgraph.optimization.GreedyStrategy;
+import org.aksw.simba.lemming.util.IOHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
+public class MultiChainOptimizationTest {
+
+    private static final int NUMBER_OF_VERTICES = 200;
+    private static final int NUMBER_OF_ITERATIONS = 100;
+    private static final long SEED = 42;
+
+    /**
+     * The chains propose triples concurrently. Every chain has to add an edge
+     * in every iteration without proposing a pair of vertices twice, and its
+     * graph must only depend on its seed, not on the other chains.
+     */
+    @Test
+    public void concurrentChains() {
+        ColouredGraph[] inputGraphs = readInputGraphs();
+        String[][] firstRun = runChains(inputGraphs, 4);
+        String[][] secondRun = runChains(inputGraphs, 4);
+        for (int i = 0; i < firstRun.length; ++i) {
+            Assert.assertArrayEquals(firstRun[i], secondRun[i]);
+        }
+    }
+
+    private String[][] runChains(ColouredGraph[] inputGraphs, int numberOfChains) {
+        IGraphGeneration generator = createGenerator(inputGraphs);
+        Set<String> initialEdges = new HashSet<String>(Arrays.asList(getEdges(generator.getMimicGraph())));
+        MultiChainOptimization optimization = createOptimization(inputGraphs, generator, numberOfChains);
+        optimization.setMigrationInterval(0);
+        optimization.refineGraph();
+
+        GraphOptimization[] chains = optimization.getChains();
+        String[][] edges = new String[chains.length][];
+        for (int i = 0; i < chains.length; ++i) {
+            edges[i] = getEdges(chains[i].getGraph());
+            Assert.assertEquals(initialEdges.size() + NUMBER_OF_ITERATIONS, edges[i].length);
+            // the added edges connect pairs of vertices that have not been connected via their colour before
+            Set<String> pairs = new HashSet<String>();
+            for (String edge : initialEdges) {
+                pairs.add(getPair(edge));
+            }
+            for (String edge : edges[i]) {
+                if (!initialEdges.contains(edge)) {
+                    Assert.assertTrue(pairs.add(getPair(edge)));
+                }
+            }
+        }
+        // the chains work on separate graphs
+        for (int i = 1; i < chains.length; ++i) {
+            Assert.assertNotSame(chains[0].getGraph(), chains[i].getGraph());
+        }
+        return edges;
+    }
+
+    /**
+     * A chain that does not improve its graph adopts the best graph of the
+     * other chain at every migration.
+     */
+    @Test
+    public void migration() {
+        ColouredGraph[] inputGraphs = readInputGraphs();
+        IGraphGeneration generator = createGenerator(inputGraphs);
+        int initialEdges = generator.getMimicGraph().getEdges().size();
+        MultiChainOptimization optimization = createOptimization(inputGraphs, generator, 2);
+        optimization.setMigrationInterval(20);
+        GraphOptimization[] chains = optimization.getChains();
+        chains[1].setOptimizationStrategy(new GreedyStrategy() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean accept(double currentErrScore, double candidateErrScore, Random random) {
+                return false;
+            }
+        });
+        optimization.refineGraph();
+
+        Assert.assertSame(chains[0], optimization.getBestChain());
+        Assert.assertSame(chains[0].getGraph(), generator.getMimicGraph());
+        String[] bestEdges = getEdges(chains[0].getGraph());
+        String[] migratedEdges = getEdges(chains[1].getGraph());
+        Assert.assertEquals(initialEdges + NUMBER_OF_ITERATIONS, bestEdges.length);
+        // the last migration took place after 80 iterations
+        Assert.assertEquals(initialEdges + 80, migratedEdges.length);
+        Assert.assertTrue(new HashSet<String>(Arrays.asList(bestEdges)).containsAll(Arrays.asList(migratedEdges)));
+    }
+
+    private ColouredGraph[] readInputGraphs() {
+        return new ColouredGraph[] {
+                IOHelper.readGraphFromResource(this.getClass().getClassLoader(), "graph1_1.n3", "N3") };
+    }
+
+    private IGraphGeneration createGenerator(ColouredGraph[] inputGraphs) {
+        IGraphGeneration generator = new GraphGenerationRandomly(NUMBER_OF_VERTICES, inputGraphs, 1, SEED);
+        generator.generateGraph();
+        return generator;
+    }
+
+    private MultiChainOptimization createOptimization(ColouredGraph[] inputGraphs, IGraphGeneration generator,
+            int numberOfChains) {
+        final double targetNumberOfEdges = generator.getMimicGraph().getEdges().size() + 1000;
+        // the error score decreases with every added edge, i.e., every addition is accepted
+        ErrorScoreCalculator errScoreCalculator = new ErrorScoreCalculator(inputGraphs, null) {
+            @Override
+            public double computeErrorScore(ObjectDoubleOpenHashMap<String> mapMetricValues) {
+                return Math.abs(targetNumberOfEdges - mapMetricValues.get("#edges"));
+            }
+        };
+        List<SingleValueMetric> metrics = Arrays.<SingleValueMetric> asList(new NumberOfEdgesMetric());
+        MultiChainOptimization optimization = new MultiChainOptimization(errScoreCalculator, generator, metrics,
+                SEED, numberOfChains);
+        for (GraphOptimization chain : optimization.getChains()) {
+            chain.setRefineGraphRandomly(true);
+            chain.setNumberOfOptimizations(NUMBER_OF_ITERATIONS);
+        }
+        return optimization;
+    }
+
+    /**
+     * @return the tail, head and colour of the given edge
+     */
+    private String getPair(String edge) {
+        return edge.substring(edge.indexOf(' ') + 1);
+    }
+
+    /**
+     * @return the edges of the given graph as "id tail head colour" sorted by
+     *         their IDs
+     */
+    private String[] getEdges(ColouredGraph graph) {
+        int[] edgeIds = graph.getEdges().toIntArray();
+        Arrays.sort(edgeIds);
+        String[] edges = new String[edgeIds.length];
+        for (int i = 0; i < edgeIds.length; ++i) {
+            edges[i] = edgeIds[i] + " " + graph.getGraph().getDirectedSimpleEdgeTail(edgeIds[i]) + " "
+                    + graph.getGraph().getDirectedSimpleEdgeHead(edgeIds[i]) + " " + graph.getEdgeColourId(edgeIds[i]);
+        }
+        return edges;
+    }
+}
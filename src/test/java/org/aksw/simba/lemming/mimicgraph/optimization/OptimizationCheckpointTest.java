@@ -0,0 +1,140 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.aksw.simba.lemming.ColouredGraph;
+import org.aksw.simba.lemming.metrics.single.edgemanipulation.EdgeModification;
+import org.aksw.simba.lemming.metrics.single.edgemanipulation.EdgeModificationLog;
+import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
+import org.aksw.simba.lemming.util.IOHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.ObjectDoubleOpenHashMap;
+
+public class OptimizationCheckpointTest {
+
+    @Test
+    public void test() throws IOException {
+        ColouredGraph initialGraph = IOHelper.readGraphFromResource(this.getClass().getClassLoader(), "graph1.n3",
+                "N3");
+        ColouredGraph graph = initialGraph.clone();
+        int edgeId = graph.getEdges().toIntArray()[0];
+        TripleBaseSingleID triple = new TripleBaseSingleID();
+        triple.tailId = graph.getGraph().getDirectedSimpleEdgeTail(edgeId);
+        triple.headId = graph.getGraph().getDirectedSimpleEdgeHead(edgeId);
+        triple.edgeColour = graph.getEdgeColour(edgeId);
+
+        EdgeModification modification = new EdgeModification(graph, 0, 0);
+        EdgeModificationLog log = new EdgeModificationLog();
+        modification.setLog(log);
+        modification.removeEdgeFromGraph(edgeId, 0, 0);
+        modification.addEdgeToGraph(triple.headId, triple.tailId, triple.edgeColour, 0, 0);
+        modification.addEdgeToGraph(triple.tailId, triple.headId, triple.edgeColour, 0, 0);
+        Assert.assertEquals(3, log.size());
+
+        Random random = new Random(42);
+        random.nextInt();
+        TabuSearchStrategy strategy = new TabuSearchStrategy(10);
+        strategy.moveApplied(triple, true);
+
+        OptimizationCheckpoint checkpoint = new OptimizationCheckpoint();
+        checkpoint.iteration = 12;
+        checkpoint.noOfRepeatedSelections = 3;
+        checkpoint.noOfRestarts = 1;
+        checkpoint.numberOfEvaluations = 30;
+        checkpoint.numberOfProposals = 15;
+        checkpoint.errScore = 0.5;
+        checkpoint.bestErrScore = 0.25;
+        checkpoint.randomState = OptimizationCheckpoint.serialize(random);
+        checkpoint.strategyState = OptimizationCheckpoint.serialize(strategy);
+        checkpoint.bestJournalPosition = 1;
+        checkpoint.bestMetricValues = new ObjectDoubleOpenHashMap<String>();
+        checkpoint.bestMetricValues.put("#edgetriangles", 1);
+        checkpoint.bestTriangleCounters = new int[] { 5, 6, 7, 8 };
+        checkpoint.metricValues = new ObjectDoubleOpenHashMap<String>();
+        checkpoint.metricValues.put("#edgetriangles", 2);
+        checkpoint.triangleCounters = new int[] { 1, 2, 3, 4 };
+        checkpoint.errScores = new DoubleArrayList();
+        checkpoint.errScores.add(1, 0.5);
+        checkpoint.acceptedProposals = new LongArrayList();
+        checkpoint.acceptedProposals.add(4, 9);
+        checkpoint.acceptedTriples = new IntArrayList();
+        checkpoint.acceptedTriples.add(new int[] { 1, 2, 3, 4, 5, 6 }, 0, 6);
+        checkpoint.curve = new ErrorScoreCurve();
+        checkpoint.curve.start();
+        checkpoint.curve.record(0, 0, 1, 1);
+        checkpoint.log = log.snapshot();
+        int[] expectedEdges = sorted(graph.getEdges().toIntArray());
+        int[] expectedTails = new int[expectedEdges.length];
+        int[] expectedHeads = new int[expectedEdges.length];
+        int[] expectedColours = new int[expectedEdges.length];
+        for (int i = 0; i < expectedEdges.length; ++i) {
+            expectedTails[i] = graph.getGraph().getDirectedSimpleEdgeTail(expectedEdges[i]);
+            expectedHeads[i] = graph.getGraph().getDirectedSimpleEdgeHead(expectedEdges[i]);
+            expectedColours[i] = graph.getEdgeColourId(expectedEdges[i]);
+        }
+        // entries added after the snapshot are not part of the checkpoint
+        modification.removeEdgeFromGraph(graph.getEdges().toIntArray()[0], 0, 0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        checkpoint.write(new DataOutputStream(bytes));
+        OptimizationCheckpoint read = OptimizationCheckpoint.read(ByteBuffer.wrap(bytes.toByteArray()));
+
+        Assert.assertEquals(12, read.iteration);
+        Assert.assertEquals(3, read.noOfRepeatedSelections);
+        Assert.assertEquals(1, read.noOfRestarts);
+        Assert.assertEquals(30, read.numberOfEvaluations);
+        Assert.assertEquals(15, read.numberOfProposals);
+        Assert.assertEquals(0.5, read.errScore, 0);
+        Assert.assertEquals(0.25, read.bestErrScore, 0);
+        Random readRandom = OptimizationCheckpoint.deserialize(read.randomState);
+        Assert.assertEquals(random.nextLong(), readRandom.nextLong());
+        TabuSearchStrategy readStrategy = OptimizationCheckpoint.deserialize(read.strategyState);
+        Assert.assertTrue(readStrategy.isTabu(triple));
+        Assert.assertEquals(1, read.bestJournalPosition);
+        Assert.assertEquals(1, read.bestMetricValues.get("#edgetriangles"), 0);
+        Assert.assertArrayEquals(new int[] { 5, 6, 7, 8 }, read.bestTriangleCounters);
+        Assert.assertEquals(2, read.metricValues.get("#edgetriangles"), 0);
+        Assert.assertArrayEquals(new int[] { 1, 2, 3, 4 }, read.triangleCounters);
+        Assert.assertEquals(2, read.errScores.size());
+        Assert.assertArrayEquals(new long[] { 4, 9 }, read.acceptedProposals.toArray());
+        Assert.assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 6 }, read.acceptedTriples.toArray());
+        Assert.assertEquals(1, read.curve.size());
+
+        // replaying the log leads to the graph at the time of the snapshot
+        Assert.assertEquals(3, read.log.size());
+        ColouredGraph replayed = initialGraph.clone();
+        read.log.replay(replayed);
+        Assert.assertArrayEquals(expectedEdges, sorted(replayed.getEdges().toIntArray()));
+        for (int i = 0; i < expectedEdges.length; ++i) {
+            Assert.assertEquals(expectedTails[i], replayed.getGraph().getDirectedSimpleEdgeTail(expectedEdges[i]));
+            Assert.assertEquals(expectedHeads[i], replayed.getGraph().getDirectedSimpleEdgeHead(expectedEdges[i]));
+            Assert.assertEquals(expectedColours[i], replayed.getEdgeColourId(expectedEdges[i]));
+        }
+
+        // reverting the journal leads back to the initial graph with the same edge IDs
+        read.log.revert(replayed, read.log.size(), 0);
+        int[] initialEdges = sorted(initialGraph.getEdges().toIntArray());
+        Assert.assertArrayEquals(initialEdges, sorted(replayed.getEdges().toIntArray()));
+        for (int i = 0; i < initialEdges.length; ++i) {
+            Assert.assertEquals(initialGraph.getGraph().getDirectedSimpleEdgeTail(initialEdges[i]),
+                    replayed.getGraph().getDirectedSimpleEdgeTail(initialEdges[i]));
+            Assert.assertEquals(initialGraph.getEdgeColourId(initialEdges[i]),
+                    replayed.getEdgeColourId(initialEdges[i]));
+        }
+    }
+
+    private int[] sorted(int[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,89 @@
+package org.aksw.simba.lemming.mimicgraph.optimization;
+
+import java.util.Random;
+
+import org.aksw.simba.lemming.mimicgraph.constraints.TripleBaseSingleID;
+import org.aksw.simba.lemming.mimicgraph.optimization.SimulatedAnnealingStrategy.CoolingSchedule;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OptimizationStrategyTest {
+
+    @Test
+    public void testGreedy() {
+        OptimizationStrategy strategy = new GreedyStrategy();
+        Random random = new Random(1);
+        strategy.init(10, 100);
+        Assert.assertTrue(strategy.accept(10, 9, random));
+        Assert.assertTrue(strategy.accept(10, 10, random));
+        Assert.assertFalse(strategy.accept(10, 11, random));
+        Assert.assertFalse(strategy.accept(10, Double.MAX_VALUE, random));
+        Assert.assertFalse(strategy.accept(10, Double.NaN, random));
+        Assert.assertTrue(strategy.accept(Double.NaN, 11, random));
+    }
+
+    @Test
+    public void testSimulatedAnnealing() {
+        SimulatedAnnealingStrategy strategy = new SimulatedAnnealingStrategy(CoolingSchedule.LINEAR, 0, 1);
+        Random random = new Random(1);
+        strategy.init(10, 10);
+        Assert.assertEquals(1, strategy.getTemperature(), 0.0000001);
+        Assert.assertTrue(strategy.accept(10, 9, random));
+        // a slightly worse candidate is accepted most of the time
+        int accepted = 0;
+        for (int i = 0; i < 1000; ++i) {
+            if (strategy.accept(10, 10.01, random)) {
+                ++accepted;
+            }
+        }
+        Assert.assertTrue(accepted > 900);
+
+        for (int i = 0; i < 10; ++i) {
+            strategy.nextIteration();
+        }
+        Assert.assertEquals(0, strategy.getTemperature(), 0.0000001);
+        Assert.assertFalse(strategy.accept(10, 10.01, random));
+
+        // a restart reheats the system
+        strategy.restart();
+        Assert.assertEquals(1, strategy.getTemperature(), 0.0000001);
+
+        Assert.assertEquals(0.5, CoolingSchedule.GEOMETRIC.getTemperature(1, 0.5, 1, 10), 0.0000001);
+        Assert.assertEquals(1, CoolingSchedule.LOGARITHMIC.getTemperature(1, 0, 0, 10), 0.0000001);
+    }
+
+    @Test
+    public void testTabuSearch() {
+        TabuSearchStrategy strategy = new TabuSearchStrategy(2);
+        strategy.init(10, 100);
+        TripleBaseSingleID a = createTriple(1, 2);
+        TripleBaseSingleID b = createTriple(2, 3);
+        TripleBaseSingleID c = createTriple(3, 4);
+
+        Assert.assertTrue(strategy.isAllowed(a, true, 11, 10));
+        strategy.moveApplied(a, true);
+        Assert.assertFalse(strategy.isAllowed(a, false, 11, 10));
+        // aspiration
+        Assert.assertTrue(strategy.isAllowed(a, false, 9, 10));
+        // the tabu search always moves
+        Assert.assertTrue(strategy.accept(10, 11, new Random(1)));
+
+        strategy.moveApplied(b, false);
+        Assert.assertTrue(strategy.isTabu(a));
+        strategy.moveApplied(c, false);
+        // a is not tabu anymore since the tenure is 2
+        Assert.assertFalse(strategy.isTabu(a));
+        Assert.assertTrue(strategy.isTabu(b));
+        Assert.assertTrue(strategy.isTabu(c));
+
+        strategy.restart();
+        Assert.assertFalse(strategy.isTabu(c));
+    }
+
+    private static TripleBaseSingleID createTriple(int tail, int head) {
+        TripleBaseSingleID triple = new TripleBaseSingleID();
+        triple.tailId = tail;
+        triple.headId = head;
+        return triple;
+    }
+}
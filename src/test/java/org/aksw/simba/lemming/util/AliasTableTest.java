@@ -0,0 +1,38 @@
+package org.aksw.simba.lemming.util;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AliasTableTest {
+
+    @Test
+    public void test() {
+        double[] weights = new double[] { 1, 0, 3, 6, 0.5, 9.5 };
+        AliasTable table = new AliasTable(weights);
+        Assert.assertEquals(weights.length, table.size());
+
+        Random random = new Random(42);
+        int samples = 200000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < samples; ++i) {
+            ++counts[table.sample(random)];
+        }
+        for (int i = 0; i < weights.length; ++i) {
+            Assert.assertEquals(weights[i] / 20.0, counts[i] / (double) samples, 0.01);
+        }
+        Assert.assertEquals(0, counts[1]);
+    }
+
+    @Test
+    public void testZeroWeights() {
+        AliasTable table = new AliasTable(new double[] { 0, 0 });
+        Random random = new Random(42);
+        int[] counts = new int[2];
+        for (int i = 0; i < 10000; ++i) {
+            ++counts[table.sample(random)];
+        }
+        Assert.assertEquals(0.5, counts[0] / 10000.0, 0.05);
+    }
+}
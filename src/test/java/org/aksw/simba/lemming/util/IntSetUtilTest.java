@@ -0,0 +1,48 @@
+package org.aksw.simba.lemming.util;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import grph.DefaultIntSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+public class IntSetUtilTest {
+
+    @Test
+    public void testIntersectionSize() {
+        Random random = new Random(42);
+        // the different sizes lead to merging as well as galloping
+        int[][] sizes = new int[][] { { 0, 10 }, { 20, 30 }, { 5, 1000 }, { 1000, 3 }, { 500, 500 } };
+        for (int[] size : sizes) {
+            IntSet a = createRandomSet(random, size[0], 2000);
+            IntSet b = createRandomSet(random, size[1], 2000);
+            int expected = IntSetUtil.intersection(a, b).size();
+            int[] sortedA = IntSetUtil.toSortedArray(a);
+            int[] sortedB = IntSetUtil.toSortedArray(b);
+            Assert.assertEquals(expected, IntSetUtil.intersectionSize(sortedA, sortedB));
+            Assert.assertEquals(expected,
+                    IntSetUtil.mergeIntersectionSize(sortedA, 0, sortedA.length, sortedB, 0, sortedB.length));
+            Assert.assertEquals(expected,
+                    IntSetUtil.gallopingIntersectionSize(sortedA, 0, sortedA.length, sortedB, 0, sortedB.length));
+        }
+    }
+
+    @Test
+    public void testMultisets() {
+        int[] a = new int[] { 1, 1, 2, 4, 4, 4, 7 };
+        int[] b = new int[] { 0, 1, 4, 4, 5, 7, 7 };
+        Assert.assertEquals(3, IntSetUtil.distinctIntersectionSize(a, b));
+        // 1: 2*1, 4: 3*2, 7: 1*2
+        Assert.assertEquals(10, IntSetUtil.multiplicityProductSum(a, b));
+    }
+
+    private static IntSet createRandomSet(Random random, int size, int universe) {
+        IntSet set = new DefaultIntSet(size);
+        while (set.size() < size) {
+            set.add(random.nextInt(universe));
+        }
+        return set;
+    }
+}
@@ -0,0 +1,46 @@
+package org.aksw.simba.lemming.util;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SamplingIntSetTest {
+
+    @Test
+    public void test() {
+        Random random = new Random(42);
+        SamplingIntSet set = new SamplingIntSet(2);
+        Set<Integer> expected = new HashSet<Integer>();
+        for (int i = 0; i < 10000; ++i) {
+            int element = random.nextInt(200);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(element), set.add(element));
+            } else {
+                Assert.assertEquals(expected.remove(element), set.remove(element));
+            }
+            Assert.assertEquals(expected.size(), set.size());
+        }
+        Set<Integer> elements = new HashSet<Integer>();
+        for (int element : set.toIntArray()) {
+            elements.add(element);
+        }
+        Assert.assertEquals(expected, elements);
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertTrue(expected.contains(set.sample(random)));
+        }
+    }
+
+    @Test
+    public void testEmptySet() {
+        SamplingIntSet set = new SamplingIntSet();
+        Assert.assertEquals(-1, set.sample(new Random()));
+        set.add(3);
+        set.remove(3);
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(3));
+        Assert.assertEquals(-1, set.sample(new Random()));
+    }
+}